@@ -16,19 +16,39 @@ import java.util.Objects;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.ls.core.internal.managers.ProjectDiscovery;
+import org.eclipse.jdt.ls.core.internal.managers.ProjectManifest;
 
 public abstract class AbstractProjectImporter implements IProjectImporter {
 
 	protected File rootFolder;
+	private ProjectManifest manifest;
 
 	@Override
 	public void initialize(File rootFolder) {
 		if (!Objects.equals(this.rootFolder, rootFolder)) {
 			reset();
+			manifest = null;
 		}
 		this.rootFolder = rootFolder;
 	}
 
+	@Override
+	public void initialize(File rootFolder, ProjectManifest manifest) {
+		initialize(rootFolder);
+		this.manifest = manifest;
+	}
+
+	/**
+	 * @return the build descriptors found under the root folder
+	 */
+	protected ProjectManifest getManifest(IProgressMonitor monitor) throws OperationCanceledException {
+		if (manifest == null) {
+			manifest = ProjectDiscovery.getDefault().discover(rootFolder, monitor);
+		}
+		return manifest;
+	}
+
 	@Override
 	public abstract boolean applies(IProgressMonitor monitor) throws OperationCanceledException, CoreException;
 
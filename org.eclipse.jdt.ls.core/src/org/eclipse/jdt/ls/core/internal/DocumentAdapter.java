@@ -276,7 +276,8 @@ public class DocumentAdapter implements IBuffer, IDocumentListener {
 				((ISynchronizable)fDocument).setLockObject(lock);
 			}
 		}
-		if (!contents.equals(fDocument.get())) {
+		// avoid copying the whole document when the length already tells the contents differ
+		if (fDocument.getLength() != contents.length() || !contents.equals(fDocument.get())) {
 			fDocument.set(contents);
 		}
 	}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.lsp4j.MarkedString;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+
+/**
+ * Memoizes the last hovers, per hovered element and content of the hovered
+ * document, so that hovering the same symbol again doesn't compute it again.
+ *
+ * The hovers are discarded on any change of the Java model, since they may
+ * depend on any compilation unit or on the classpath.
+ */
+public class HoverCache implements IElementChangedListener {
+
+	private static final int MAX_SIZE = 64;
+
+	private final Map<String, List<Either<String, MarkedString>>> hovers = new LinkedHashMap<String, List<Either<String, MarkedString>>>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, List<Either<String, MarkedString>>> eldest) {
+			return size() > MAX_SIZE;
+		}
+	};
+	private long generation;
+	private long hitCount;
+	private long missCount;
+
+	/**
+	 * @return the key of the hover of the given element, or <code>null</code>
+	 *         if the content of the hovered document can't be identified
+	 */
+	public static String getKey(ITypeRoot unit, IJavaElement element, boolean supportsClassFileContent) {
+		long stamp = 0;
+		try {
+			IBuffer buffer = unit.getBuffer();
+			if (buffer instanceof DocumentAdapter) {
+				IDocument document = ((DocumentAdapter) buffer).getDocument();
+				if (!(document instanceof IDocumentExtension4)) {
+					return null;
+				}
+				stamp = ((IDocumentExtension4) document).getModificationStamp();
+			} else if (buffer != null && buffer.hasUnsavedChanges()) {
+				return null;
+			}
+		} catch (JavaModelException e) {
+			return null;
+		}
+		return unit.getHandleIdentifier() + '#' + stamp + '#' + supportsClassFileContent + '#' + element.getHandleIdentifier();
+	}
+
+	/**
+	 * @return the hover with the given key, or <code>null</code> if it isn't
+	 *         cached
+	 */
+	public synchronized List<Either<String, MarkedString>> get(String key) {
+		List<Either<String, MarkedString>> hover = hovers.get(key);
+		if (hover == null) {
+			missCount++;
+		} else {
+			hitCount++;
+		}
+		return hover;
+	}
+
+	/**
+	 * @return the current generation of the cache, incremented each time the
+	 *         cache is cleared
+	 */
+	public synchronized long getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Caches the given hover, unless the cache was cleared since
+	 * <code>generation</code>, when the hover computation started.
+	 */
+	public synchronized void put(String key, List<Either<String, MarkedString>> hover, long generation) {
+		if (generation == this.generation) {
+			hovers.put(key, Collections.unmodifiableList(hover));
+		}
+	}
+
+	public synchronized void clear() {
+		hovers.clear();
+		generation++;
+	}
+
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		clear();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "HoverCache [size=" + hovers.size() + ", hits=" + hitCount + ", misses=" + missCount + "]";
+	}
+}
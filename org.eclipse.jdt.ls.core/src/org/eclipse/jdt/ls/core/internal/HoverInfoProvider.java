@@ -12,6 +12,7 @@ package org.eclipse.jdt.ls.core.internal;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.stream.Stream;
@@ -28,6 +29,13 @@ import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.ITypeParameter;
 import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.NodeFinder;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.manipulation.CoreASTProvider;
 import org.eclipse.jdt.core.search.IJavaSearchConstants;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
 import org.eclipse.jdt.core.search.SearchEngine;
@@ -35,7 +43,9 @@ import org.eclipse.jdt.core.search.SearchMatch;
 import org.eclipse.jdt.core.search.SearchParticipant;
 import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.core.search.SearchRequestor;
+import org.eclipse.jdt.ls.core.internal.handlers.JsonRpcHelpers;
 import org.eclipse.jdt.ls.core.internal.hover.JavaElementLabels;
+import org.eclipse.jdt.ls.core.internal.javadoc.JavadocCache;
 import org.eclipse.jdt.ls.core.internal.javadoc.JavadocContentAccess2;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.lsp4j.MarkedString;
@@ -101,7 +111,18 @@ public class HoverInfoProvider {
 			} else {
 				curr = elements[0];
 			}
-			boolean resolved = isResolved(curr, monitor);
+			HoverCache cache = JavaLanguageServerPlugin.getHoverCache();
+			String key = cache == null ? null : HoverCache.getKey(unit, curr, preferenceManager.isClientSupportsClassFileContent());
+			long generation = 0;
+			if (key != null) {
+				List<Either<String, MarkedString>> hover = cache.get(key);
+				if (hover != null) {
+					res.addAll(hover);
+					return res;
+				}
+				generation = cache.getGeneration();
+			}
+			boolean resolved = isResolved(curr, line, column, monitor);
 			if (resolved) {
 				MarkedString signature = this.computeSignature(curr);
 				if (signature != null) {
@@ -112,13 +133,16 @@ public class HoverInfoProvider {
 					res.add(Either.forLeft(javadoc));
 				}
 			}
+			if (key != null && !monitor.isCanceled()) {
+				cache.put(key, new ArrayList<>(res), generation);
+			}
 		} catch (Exception e) {
 			JavaLanguageServerPlugin.logException("Error computing hover", e);
 		}
 		return res;
 	}
 
-	private boolean isResolved(IJavaElement element, IProgressMonitor monitor) throws CoreException {
+	private boolean isResolved(IJavaElement element, int line, int column, IProgressMonitor monitor) throws CoreException {
 		if (!(unit instanceof ICompilationUnit)) {
 			return true;
 		}
@@ -128,6 +152,10 @@ public class HoverInfoProvider {
 		if (element.getElementType() != IJavaElement.TYPE) {
 			return true;
 		}
+		Boolean resolved = isResolvedInAST(element, line, column, monitor);
+		if (resolved != null) {
+			return resolved;
+		}
 		SearchPattern pattern = SearchPattern.createPattern(element, IJavaSearchConstants.ALL_OCCURRENCES);
 		final boolean[] res = new boolean[1];
 		res[0] = false;
@@ -163,6 +191,30 @@ public class HoverInfoProvider {
 		return res[0];
 	}
 
+	/**
+	 * Checks the binding of the hovered name in the shared AST of the unit.
+	 *
+	 * @return whether the hovered name is resolved, or <code>null</code> if the
+	 *         shared AST isn't available or doesn't match the hovered element
+	 */
+	private Boolean isResolvedInAST(IJavaElement element, int line, int column, IProgressMonitor monitor) throws JavaModelException {
+		CompilationUnit ast = CoreASTProvider.getInstance().getAST(unit, CoreASTProvider.WAIT_NO, monitor);
+		if (ast == null) {
+			return null;
+		}
+		int offset = JsonRpcHelpers.toOffset(unit.getBuffer(), line, column);
+		ASTNode node = NodeFinder.perform(ast, offset, 0);
+		if (!(node instanceof SimpleName) || !element.getElementName().equals(((SimpleName) node).getIdentifier())) {
+			// the AST may be older than the content of the unit
+			return null;
+		}
+		IBinding binding = ((SimpleName) node).resolveBinding();
+		if (binding == null) {
+			return null;
+		}
+		return !binding.isRecovered();
+	}
+
 	private MarkedString computeSignature(IJavaElement element)  {
 		if (element == null) {
 			return null;
@@ -194,6 +246,10 @@ public class HoverInfoProvider {
 			return null;
 		}
 
+		JavadocCache cache = JavaLanguageServerPlugin.getJavadocCache();
+		if (cache != null) {
+			return cache.getJavadoc(member, JavadocCache.HOVER_MARKDOWN);
+		}
 		Reader r = JavadocContentAccess2.getMarkdownContentReader(member);
 		if(r == null ) {
 			return null;
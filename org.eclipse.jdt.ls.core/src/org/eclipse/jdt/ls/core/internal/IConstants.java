@@ -36,4 +36,14 @@ public interface IConstants {
 	 * Update workspace folders job family id
 	 */
 	public static final String UPDATE_WORKSPACE_FOLDERS_FAMILY = JOBS_FAMILY + ".updateWorkspaceFolders";
+
+	/**
+	 * File events job family id
+	 */
+	public static final String FILE_EVENTS_FAMILY = JOBS_FAMILY + ".fileEvents";
+
+	/**
+	 * Diagnostics publishing job family id
+	 */
+	public static final String DIAGNOSTICS_FAMILY = JOBS_FAMILY + ".diagnostics";
 }
@@ -15,11 +15,20 @@ import java.io.File;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.ls.core.internal.managers.ProjectManifest;
 
 public interface IProjectImporter {
 
 	void initialize(File rootFolder);
 
+	/**
+	 * Initializes the importer with the build descriptors already found under
+	 * the root folder, so that it doesn't look for them again.
+	 */
+	default void initialize(File rootFolder, ProjectManifest manifest) {
+		initialize(rootFolder);
+	}
+
 	boolean applies(IProgressMonitor monitor) throws OperationCanceledException, CoreException;
 
 	void importToWorkspace(IProgressMonitor monitor) throws OperationCanceledException, CoreException;
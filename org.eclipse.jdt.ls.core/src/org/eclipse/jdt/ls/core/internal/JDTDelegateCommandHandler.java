@@ -15,7 +15,6 @@ import java.util.List;
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.ls.core.internal.commands.OrganizeImportsCommand;
-import org.eclipse.lsp4j.WorkspaceEdit;
 
 public class JDTDelegateCommandHandler implements IDelegateCommandHandler {
 
@@ -28,17 +27,18 @@ public class JDTDelegateCommandHandler implements IDelegateCommandHandler {
 			switch (commandId) {
 				case "java.edit.organizeImports":
 					final OrganizeImportsCommand c = new OrganizeImportsCommand();
-					final Object result = c.organizeImports(arguments);
 					final boolean applyNow = JavaLanguageServerPlugin.getPreferencesManager().getClientPreferences().isWorkspaceApplyEditSupported();
 					if (applyNow) {
-						JavaLanguageServerPlugin.getInstance().getClientConnection().applyWorkspaceEdit((WorkspaceEdit) result);
+						// the edits of a folder or project are applied chunk by chunk, as they are computed
+						JavaClientConnection connection = JavaLanguageServerPlugin.getInstance().getClientConnection();
+						c.organizeImports(arguments, edit -> connection.applyWorkspaceEdit(edit), monitor);
 						// return an empty object to avoid errors on client
 						return new Object();
 					} else {
 						// we are returning a workspace edit here in order to accomodate the clients that
 						// did not implement workspace/applyEdit from LSP. This still allows them to implement applying
 						// workspaceEdit on the custom command.
-						return result;
+						return c.organizeImports(arguments, monitor);
 					}
 				default:
 					break;
@@ -70,12 +70,12 @@ import org.eclipse.jdt.launching.JavaRuntime;
 import org.eclipse.jdt.launching.environments.IExecutionEnvironment;
 import org.eclipse.jdt.launching.environments.IExecutionEnvironmentsManager;
 import org.eclipse.jdt.ls.core.internal.handlers.JsonRpcHelpers;
+import org.eclipse.jdt.ls.core.internal.managers.ClassFileContent;
 import org.eclipse.jdt.ls.core.internal.managers.ContentProviderManager;
 import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
-import org.eclipse.jface.text.BadLocationException;
-import org.eclipse.jface.text.Document;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.Range;
@@ -348,7 +348,16 @@ public final class JDTUtils {
 		return null;
 	}
 
-	private static ISourceRange getNameRange(IJavaElement element) throws JavaModelException {
+	/**
+	 * Returns the range of the name of the given element, or its source range
+	 * when it has no name range, or the range of its parent when it has no
+	 * source range.
+	 *
+	 * @param element
+	 * @return the range of the name of the element
+	 * @throws JavaModelException
+	 */
+	public static ISourceRange getNameRange(IJavaElement element) throws JavaModelException {
 		ISourceRange nameRange = null;
 		if (element instanceof IMember) {
 			IMember member = (IMember) element;
@@ -446,6 +455,38 @@ public final class JDTUtils {
 		return null;
 	}
 
+	/**
+	 * @return the stamp of the content of the given document, or
+	 *         {@link IResource#NULL_STAMP} if it can't be identified or if the
+	 *         Java model of the document isn't reconciled with its content
+	 */
+	public static long getContentStamp(ITypeRoot unit) {
+		if (unit instanceof IClassFile) {
+			// class files only change with the classpath
+			return 0;
+		}
+		try {
+			if (!unit.isConsistent()) {
+				return IResource.NULL_STAMP;
+			}
+			IBuffer buffer = unit.getBuffer();
+			if (buffer instanceof DocumentAdapter) {
+				IDocument document = ((DocumentAdapter) buffer).getDocument();
+				if (document instanceof IDocumentExtension4) {
+					return ((IDocumentExtension4) document).getModificationStamp();
+				}
+				return IResource.NULL_STAMP;
+			}
+			IResource resource = unit.getResource();
+			if (resource == null || (buffer != null && buffer.hasUnsavedChanges())) {
+				return IResource.NULL_STAMP;
+			}
+			return resource.getModificationStamp();
+		} catch (JavaModelException e) {
+			return IResource.NULL_STAMP;
+		}
+	}
+
 	/**
 	 * Creates a range for the given offset and length for an {@link IOpenable}
 	 *
@@ -540,11 +581,11 @@ public final class JDTUtils {
 		if (unit instanceof IClassFile) {
 			IClassFile classFile = (IClassFile) unit;
 			ContentProviderManager contentProvider = JavaLanguageServerPlugin.getContentProviderManager();
-			String contents = contentProvider.getSource(classFile, monitor);
-			if (contents != null) {
-				IDocument document = new Document(contents);
+			ClassFileContent content = contentProvider.getSourceContent(classFile, monitor);
+			if (content != null) {
+				String contents = content.getText();
 				try {
-					offset = document.getLineOffset(line) + column;
+					offset = content.getOffset(line, column);
 					if (offset > -1) {
 						String name = parse(contents, offset);
 						if (name == null) {
@@ -570,7 +611,7 @@ public final class JDTUtils {
 								requestor, null);
 						return elements.toArray(new IJavaElement[0]);
 					}
-				} catch (BadLocationException | CoreException e) {
+				} catch (CoreException e) {
 					JavaLanguageServerPlugin.logException(e.getMessage(), e);
 				}
 			}
@@ -17,6 +17,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import org.eclipse.jdt.ls.core.internal.handlers.DiagnosticsPublisher;
 import org.eclipse.jdt.ls.core.internal.handlers.LogHandler;
 import org.eclipse.jdt.ls.core.internal.lsp.ExecuteCommandProposedClient;
 import org.eclipse.lsp4j.ApplyWorkspaceEditParams;
@@ -62,6 +63,14 @@ public class JavaClientConnection {
 		@JsonNotification("language/progressReport")
 		void sendProgressReport(ProgressReport report);
 
+		/**
+		 * The references partial result notification is sent from a server to a
+		 * client with a batch of the locations found by a streamed references
+		 * request.
+		 */
+		@JsonNotification("language/referencesPartialResult")
+		void sendReferencesPartialResult(ReferencesPartialResult result);
+
 	}
 
 	private final LogHandler logHandler;
@@ -142,6 +151,13 @@ public class JavaClientConnection {
 		client.sendProgressReport(progressReport);
 	}
 
+	/**
+	 * Sends a batch of the locations found by a streamed references request
+	 */
+	public void sendReferencesPartialResult(ReferencesPartialResult result) {
+		client.sendReferencesPartialResult(result);
+	}
+
 	/**
 	 * Sends a message to the client to be presented to users, with possible
 	 * commands to execute
@@ -195,6 +211,7 @@ public class JavaClientConnection {
 		if (logHandler != null) {
 			logHandler.uninstall();
 		}
+		DiagnosticsPublisher.removePublisher(this);
 	}
 
 }
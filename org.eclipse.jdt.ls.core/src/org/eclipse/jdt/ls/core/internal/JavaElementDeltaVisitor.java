@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+
+/**
+ * Walks a Java element delta down to the compilation units it reports as
+ * changed, for the caches and indexes derived from the Java model.
+ *
+ * A project, a package fragment root or a package fragment added, removed,
+ * opened, closed or whose classpath changed is reported as a structural
+ * change, since the compilation units it affects may not be reported. The
+ * changes of the non-primary working copies are ignored.
+ */
+public abstract class JavaElementDeltaVisitor {
+
+	/**
+	 * The flags of a project or a package fragment root delta reported as a
+	 * structural change by default.
+	 */
+	public static final int STRUCTURAL_FLAGS = IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_CLASSPATH_CHANGED
+			| IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH;
+
+	private final int structuralFlags;
+
+	protected JavaElementDeltaVisitor() {
+		this(STRUCTURAL_FLAGS);
+	}
+
+	/**
+	 * @param structuralFlags
+	 *            the flags of a project or a package fragment root delta to
+	 *            report as a structural change
+	 */
+	protected JavaElementDeltaVisitor(int structuralFlags) {
+		this.structuralFlags = structuralFlags;
+	}
+
+	public void visit(IJavaElementDelta delta) {
+		IJavaElement element = delta.getElement();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+				visitChildren(delta);
+				break;
+			case IJavaElement.JAVA_PROJECT:
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & structuralFlags) != 0) {
+					structureChanged(delta);
+				} else {
+					visitChildren(delta);
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT:
+				if (delta.getKind() == IJavaElementDelta.CHANGED) {
+					visitChildren(delta);
+				} else {
+					structureChanged(delta);
+				}
+				break;
+			case IJavaElement.COMPILATION_UNIT:
+				ICompilationUnit unit = (ICompilationUnit) element;
+				if (!unit.isWorkingCopy() || unit.getPrimary().equals(unit)) {
+					unitChanged(unit, delta);
+				}
+				break;
+			default:
+				break;
+		}
+	}
+
+	private void visitChildren(IJavaElementDelta delta) {
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			visit(child);
+		}
+	}
+
+	/**
+	 * Called for a structural change, the children of the delta not being
+	 * visited.
+	 */
+	protected abstract void structureChanged(IJavaElementDelta delta);
+
+	/**
+	 * Called for a primary compilation unit added, removed or changed.
+	 */
+	protected abstract void unitChanged(ICompilationUnit unit, IJavaElementDelta delta);
+}
@@ -36,14 +36,23 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Plugin;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ElementChangedEvent;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.WorkingCopyOwner;
 import org.eclipse.jdt.core.manipulation.JavaManipulation;
 import org.eclipse.jdt.ls.core.internal.JavaClientConnection.JavaLanguageClient;
+import org.eclipse.jdt.ls.core.internal.handlers.CodeLensCache;
+import org.eclipse.jdt.ls.core.internal.handlers.DocumentSymbolCache;
 import org.eclipse.jdt.ls.core.internal.handlers.JDTLanguageServer;
+import org.eclipse.jdt.ls.core.internal.handlers.SearchScopeCache;
+import org.eclipse.jdt.ls.core.internal.handlers.ServerMetrics;
+import org.eclipse.jdt.ls.core.internal.javadoc.JavadocCache;
 import org.eclipse.jdt.ls.core.internal.managers.ContentProviderManager;
 import org.eclipse.jdt.ls.core.internal.managers.DigestStore;
+import org.eclipse.jdt.ls.core.internal.managers.ProjectDiscovery;
 import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager;
+import org.eclipse.jdt.ls.core.internal.managers.WorkspaceSymbolIndex;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.lsp4j.jsonrpc.Launcher;
 import org.osgi.framework.Bundle;
@@ -86,6 +95,14 @@ public class JavaLanguageServerPlugin extends Plugin {
 	private LanguageServer languageServer;
 	private ProjectsManager projectsManager;
 	private DigestStore digestStore;
+	private ProjectDiscovery projectDiscovery;
+	private WorkspaceSymbolIndex workspaceSymbolIndex;
+	private CodeLensCache codeLensCache;
+	private JavadocCache javadocCache;
+	private HoverCache hoverCache;
+	private SearchScopeCache searchScopeCache;
+	private DocumentSymbolCache documentSymbolCache;
+	private ServerMetrics serverMetrics;
 	private ContentProviderManager contentProviderManager;
 
 	private JDTLanguageServer protocol;
@@ -124,13 +141,29 @@ public class JavaLanguageServerPlugin extends Plugin {
 		preferenceManager = new PreferenceManager();
 		initializeJDTOptions();
 		digestStore = new DigestStore(getStateLocation().toFile());
+		projectDiscovery = new ProjectDiscovery(getStateLocation().toFile());
+		workspaceSymbolIndex = new WorkspaceSymbolIndex(getStateLocation().toFile());
+		JavaCore.addElementChangedListener(workspaceSymbolIndex, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		codeLensCache = new CodeLensCache();
+		JavaCore.addElementChangedListener(codeLensCache, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		javadocCache = new JavadocCache();
+		JavaCore.addElementChangedListener(javadocCache, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		hoverCache = new HoverCache();
+		JavaCore.addElementChangedListener(hoverCache, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		searchScopeCache = new SearchScopeCache();
+		JavaCore.addElementChangedListener(searchScopeCache, ElementChangedEvent.POST_CHANGE);
+		documentSymbolCache = new DocumentSymbolCache();
+		JavaCore.addElementChangedListener(documentSymbolCache, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		serverMetrics = new ServerMetrics(getStateLocation().toFile());
+		Job.getJobManager().addJobChangeListener(serverMetrics);
+		preferenceManager.addPreferencesChangeListener(serverMetrics);
 		projectsManager = new ProjectsManager(preferenceManager);
 		try {
 			ResourcesPlugin.getWorkspace().addSaveParticipant(PLUGIN_ID, projectsManager);
 		} catch (CoreException e) {
 			logException(e.getMessage(), e);
 		}
-		contentProviderManager = new ContentProviderManager(preferenceManager);
+		contentProviderManager = new ContentProviderManager(preferenceManager, getStateLocation().toFile());
 		logInfo(getClass() + " is started");
 		configureProxy();
 	}
@@ -258,6 +291,39 @@ public class JavaLanguageServerPlugin extends Plugin {
 		JavaLanguageServerPlugin.pluginInstance = null;
 		JavaLanguageServerPlugin.context = null;
 		ResourcesPlugin.getWorkspace().removeSaveParticipant(PLUGIN_ID);
+		if (workspaceSymbolIndex != null) {
+			JavaCore.removeElementChangedListener(workspaceSymbolIndex);
+			workspaceSymbolIndex.save();
+			workspaceSymbolIndex = null;
+		}
+		if (codeLensCache != null) {
+			JavaCore.removeElementChangedListener(codeLensCache);
+			codeLensCache = null;
+		}
+		if (javadocCache != null) {
+			JavaCore.removeElementChangedListener(javadocCache);
+			javadocCache = null;
+		}
+		if (hoverCache != null) {
+			JavaCore.removeElementChangedListener(hoverCache);
+			hoverCache = null;
+		}
+		if (searchScopeCache != null) {
+			JavaCore.removeElementChangedListener(searchScopeCache);
+			searchScopeCache = null;
+		}
+		if (documentSymbolCache != null) {
+			JavaCore.removeElementChangedListener(documentSymbolCache);
+			documentSymbolCache = null;
+		}
+		if (serverMetrics != null) {
+			Job.getJobManager().removeJobChangeListener(serverMetrics);
+			if (preferenceManager != null) {
+				preferenceManager.removePreferencesChangeListener(serverMetrics);
+			}
+			serverMetrics.setDumpInterval(0);
+			serverMetrics = null;
+		}
 		projectsManager = null;
 		contentProviderManager = null;
 		languageServer = null;
@@ -334,6 +400,38 @@ public class JavaLanguageServerPlugin extends Plugin {
 		return pluginInstance.digestStore;
 	}
 
+	public static ProjectDiscovery getProjectDiscovery() {
+		return pluginInstance == null ? null : pluginInstance.projectDiscovery;
+	}
+
+	public static WorkspaceSymbolIndex getWorkspaceSymbolIndex() {
+		return pluginInstance == null ? null : pluginInstance.workspaceSymbolIndex;
+	}
+
+	public static CodeLensCache getCodeLensCache() {
+		return pluginInstance == null ? null : pluginInstance.codeLensCache;
+	}
+
+	public static JavadocCache getJavadocCache() {
+		return pluginInstance == null ? null : pluginInstance.javadocCache;
+	}
+
+	public static HoverCache getHoverCache() {
+		return pluginInstance == null ? null : pluginInstance.hoverCache;
+	}
+
+	public static SearchScopeCache getSearchScopeCache() {
+		return pluginInstance == null ? null : pluginInstance.searchScopeCache;
+	}
+
+	public static DocumentSymbolCache getDocumentSymbolCache() {
+		return pluginInstance == null ? null : pluginInstance.documentSymbolCache;
+	}
+
+	public static ServerMetrics getServerMetrics() {
+		return pluginInstance == null ? null : pluginInstance.serverMetrics;
+	}
+
 	/**
 	 * @return
 	 */
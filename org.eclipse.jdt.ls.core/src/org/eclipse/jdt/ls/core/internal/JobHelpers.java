@@ -67,6 +67,8 @@ public final class JobHelpers {
 		 */
 		IWorkspace workspace = ResourcesPlugin.getWorkspace();
 		IJobManager jobManager = Job.getJobManager();
+		// the batched file changes are handled after a delay, so they don't run once the job manager is suspended
+		jobManager.join(IConstants.FILE_EVENTS_FAMILY, monitor);
 		jobManager.suspend();
 		try {
 			Job[] jobs = jobManager.find(null);
@@ -98,6 +100,8 @@ public final class JobHelpers {
 		}
 
 		waitForBuildJobs();
+		// the diagnostics of the markers are published after a delay
+		jobManager.join(IConstants.DIAGNOSTICS_FAMILY, monitor);
 	}
 
 	private static boolean flushProcessingQueues(IJobManager jobManager, IProgressMonitor monitor)
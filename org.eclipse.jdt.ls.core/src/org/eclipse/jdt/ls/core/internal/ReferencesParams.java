@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import org.eclipse.lsp4j.ReferenceParams;
+
+import com.google.gson.annotations.Expose;
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * The parameters of a streamed references request: the locations are sent to
+ * the client in batches, as {@link ReferencesPartialResult} notifications
+ * carrying the given token, before the request completes.
+ */
+public class ReferencesParams extends ReferenceParams {
+
+	/**
+	 * The token identifying the partial results of the request
+	 */
+	@SerializedName("partialResultToken")
+	@Expose
+	private String partialResultToken;
+
+	public String getPartialResultToken() {
+		return partialResultToken;
+	}
+
+	public void setPartialResultToken(String partialResultToken) {
+		this.partialResultToken = partialResultToken;
+	}
+}
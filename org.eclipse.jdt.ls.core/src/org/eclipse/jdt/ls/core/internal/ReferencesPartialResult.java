@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import java.util.List;
+
+import org.eclipse.lsp4j.Location;
+
+import com.google.gson.annotations.Expose;
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * A batch of the locations found by a streamed references request, sent to
+ * the client before the request completes.
+ */
+public class ReferencesPartialResult {
+
+	/**
+	 * The token of the request, see
+	 * {@link ReferencesParams#getPartialResultToken()}
+	 */
+	@SerializedName("token")
+	@Expose
+	private String token;
+
+	/**
+	 * The locations found since the previous batch
+	 */
+	@SerializedName("locations")
+	@Expose
+	private List<Location> locations;
+
+	public ReferencesPartialResult(String token, List<Location> locations) {
+		this.token = token;
+		this.locations = locations;
+	}
+
+	public String getToken() {
+		return token;
+	}
+
+	public List<Location> getLocations() {
+		return locations;
+	}
+}
@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.commands;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTRequestor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.manipulation.OrganizeImportsOperation;
+import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
+import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.TextEditConverter;
+import org.eclipse.lsp4j.TextEdit;
+import org.eclipse.lsp4j.WorkspaceEdit;
+
+/**
+ * Organizes the imports of many compilation units at once.
+ *
+ * The units are parsed in batches with
+ * {@link ASTParser#createASTs(ICompilationUnit[], String[], ASTRequestor, IProgressMonitor)},
+ * the units of a batch sharing their binding environment, and the batches are
+ * processed concurrently. A binding environment is only used by the thread
+ * that created it. The edits of each batch are handed over to the calling
+ * thread as soon as the batch is done, so that they can be sent to the client
+ * while the next batches are processed.
+ */
+public class BulkOrganizeImports {
+
+	static final int BATCH_SIZE = 100;
+
+	private final Consumer<WorkspaceEdit> edits;
+
+	/**
+	 * @param edits
+	 *            the consumer of the edits, called in the thread organizing
+	 *            the imports once per batch of units with changes
+	 */
+	public BulkOrganizeImports(Consumer<WorkspaceEdit> edits) {
+		this.edits = edits;
+	}
+
+	/**
+	 * Organizes the imports of the given units.
+	 *
+	 * @throws OperationCanceledException
+	 *             if the monitor is cancelled, the edits of the batches
+	 *             already done having been handed over
+	 */
+	public void organizeImports(Collection<ICompilationUnit> units, IProgressMonitor monitor) {
+		List<ICompilationUnit[]> batches = createBatches(units);
+		monitor.beginTask("Organize imports", units.size());
+		if (batches.isEmpty()) {
+			monitor.done();
+			return;
+		}
+		int threads = Math.min(batches.size(), Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+		AtomicInteger count = new AtomicInteger();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+			Thread thread = new Thread(runnable, "Organize Imports " + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			CompletionService<WorkspaceEdit> completionService = new ExecutorCompletionService<>(executor);
+			Map<Future<WorkspaceEdit>, ICompilationUnit[]> futures = new HashMap<>();
+			for (ICompilationUnit[] batch : batches) {
+				futures.put(completionService.submit(() -> organizeImports(batch, monitor)), batch);
+			}
+			for (int i = 0; i < batches.size(); i++) {
+				try {
+					// the batches are taken as they complete, not in the order of submission
+					Future<WorkspaceEdit> future = completionService.take();
+					WorkspaceEdit edit = future.get();
+					if (edit != null) {
+						edits.accept(edit);
+					}
+					monitor.worked(futures.get(future).length);
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof OperationCanceledException) {
+						throw (OperationCanceledException) e.getCause();
+					}
+					JavaLanguageServerPlugin.logException("Problem organizing imports", e.getCause());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new OperationCanceledException();
+				}
+			}
+		} finally {
+			// the queued batches stop right away once cancelled
+			executor.shutdown();
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Groups the units by project, as the units parsed together must belong
+	 * to the same project, and splits the groups in batches.
+	 */
+	private static List<ICompilationUnit[]> createBatches(Collection<ICompilationUnit> units) {
+		Map<IJavaProject, List<ICompilationUnit>> unitsByProject = new LinkedHashMap<>();
+		for (ICompilationUnit unit : units) {
+			unitsByProject.computeIfAbsent(unit.getJavaProject(), p -> new ArrayList<>()).add(unit);
+		}
+		List<ICompilationUnit[]> batches = new ArrayList<>();
+		for (List<ICompilationUnit> projectUnits : unitsByProject.values()) {
+			for (int i = 0; i < projectUnits.size(); i += BATCH_SIZE) {
+				List<ICompilationUnit> batch = projectUnits.subList(i, Math.min(i + BATCH_SIZE, projectUnits.size()));
+				batches.add(batch.toArray(new ICompilationUnit[batch.size()]));
+			}
+		}
+		return batches;
+	}
+
+	/**
+	 * @return the edits of the batch, or <code>null</code> if there is none
+	 */
+	private static WorkspaceEdit organizeImports(ICompilationUnit[] batch, IProgressMonitor monitor) {
+		if (monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+		Map<String, List<TextEdit>> changes = new LinkedHashMap<>();
+		ASTParser parser = ASTParser.newParser(IASTSharedValues.SHARED_AST_LEVEL);
+		parser.setProject(batch[0].getJavaProject());
+		parser.setResolveBindings(true);
+		parser.setStatementsRecovery(IASTSharedValues.SHARED_AST_STATEMENT_RECOVERY);
+		parser.setBindingsRecovery(IASTSharedValues.SHARED_BINDING_RECOVERY);
+		parser.createASTs(batch, new String[0], new ASTRequestor() {
+			@Override
+			public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
+				if (monitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				try {
+					OrganizeImportsOperation op = new OrganizeImportsOperation(source, ast, true, false, true, null);
+					org.eclipse.text.edits.TextEdit edit = op.createTextEdit(null);
+					List<TextEdit> textEdits = edit == null ? null : new TextEditConverter(source, edit).convert();
+					if (textEdits != null && !textEdits.isEmpty()) {
+						changes.put(JDTUtils.toURI(source), textEdits);
+					}
+				} catch (CoreException e) {
+					JavaLanguageServerPlugin.logException("Problem organizing imports of " + source.getElementName(), e);
+				}
+			}
+		}, null);
+		if (changes.isEmpty()) {
+			return null;
+		}
+		WorkspaceEdit edit = new WorkspaceEdit();
+		edit.getChanges().putAll(changes);
+		return edit;
+	}
+}
@@ -10,10 +10,12 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.commands;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.core.resources.IProject;
@@ -22,8 +24,12 @@ import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.ProgressMonitorWrapper;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
@@ -48,7 +54,29 @@ import org.eclipse.text.edits.TextEdit;
 public class OrganizeImportsCommand {
 
 	public Object organizeImports(List<Object> arguments) throws CoreException {
+		return organizeImports(arguments, new NullProgressMonitor());
+	}
+
+	/**
+	 * Organizes the imports of the file, folder or project of the given uri.
+	 *
+	 * @return the edit of all the organized files
+	 */
+	public WorkspaceEdit organizeImports(List<Object> arguments, IProgressMonitor monitor) throws CoreException {
 		WorkspaceEdit edit = new WorkspaceEdit();
+		organizeImports(arguments, mergeInto(edit), monitor);
+		return edit;
+	}
+
+	/**
+	 * Organizes the imports of the file, folder or project of the given uri.
+	 * The imports of the files of a folder or project are organized in bulk,
+	 * their edits being handed over in chunks as they are computed.
+	 *
+	 * @param edits
+	 *            the consumer of the edits, called one chunk at a time
+	 */
+	public void organizeImports(List<Object> arguments, Consumer<WorkspaceEdit> edits, IProgressMonitor monitor) throws CoreException {
 		if (arguments != null && !arguments.isEmpty() && arguments.get(0) instanceof String) {
 			final String fileUri = (String) arguments.get(0);
 			final IPath rootPath = ResourceUtils.filePathFromURI(fileUri);
@@ -61,17 +89,16 @@ public class OrganizeImportsCommand {
 				resource = wsroot.getContainerForLocation(rootPath);
 			}
 			if (resource != null) {
-				final OrganizeImportsCommand command = new OrganizeImportsCommand();
 				int type = resource.getType();
 				switch (type) {
 					case IResource.PROJECT:
-						edit = command.organizeImportsInProject(resource.getAdapter(IProject.class));
+						organizeImportsInCompilationUnits(collectProjectUnits(resource.getAdapter(IProject.class)), edits, monitor);
 						break;
 					case IResource.FOLDER:
-						edit = command.organizeImportsInDirectory(fileUri, resource.getProject());
+						organizeImportsInCompilationUnits(collectDirectoryUnits(fileUri, resource.getProject()), edits, monitor);
 						break;
 					case IResource.FILE:
-						edit = command.organizeImportsInFile(fileUri);
+						edits.accept(organizeImportsInFile(fileUri));
 						break;
 					default://This can only be IResource.ROOT. Which is not relevant to jdt.ls
 						// do nothing allow to return the empty WorkspaceEdit.
@@ -79,7 +106,25 @@ public class OrganizeImportsCommand {
 				}
 			}
 		}
-		return edit;
+	}
+
+	/**
+	 * Organizes the imports of the given compilation units in bulk, reporting
+	 * the progress to the client.
+	 *
+	 * @param edits
+	 *            the consumer of the edits, called one chunk at a time
+	 * @throws org.eclipse.core.runtime.OperationCanceledException
+	 *             if the monitor is cancelled
+	 */
+	public void organizeImportsInCompilationUnits(Collection<ICompilationUnit> units, Consumer<WorkspaceEdit> edits, IProgressMonitor monitor) {
+		IProgressMonitor progress = new ProgressMonitorWrapper(Job.getJobManager().createProgressGroup()) {
+			@Override
+			public boolean isCanceled() {
+				return super.isCanceled() || monitor.isCanceled();
+			}
+		};
+		new BulkOrganizeImports(edits).organizeImports(units, progress);
 	}
 
 	/**
@@ -91,15 +136,14 @@ public class OrganizeImportsCommand {
 	 */
 	public WorkspaceEdit organizeImportsInProject(IProject proj) {
 		WorkspaceEdit rootEdit = new WorkspaceEdit();
-		HashSet<IJavaElement> result = new HashSet<>();
+		organizeImportsInCompilationUnits(collectProjectUnits(proj), mergeInto(rootEdit), new NullProgressMonitor());
+		return rootEdit;
+	}
 
+	private Collection<ICompilationUnit> collectProjectUnits(IProject proj) {
+		HashSet<IJavaElement> result = new HashSet<>();
 		collectCompilationUnits(JavaCore.create(proj), result, null);
-		for (IJavaElement elem : result) {
-			if (elem.getElementType() == IJavaElement.COMPILATION_UNIT) {
-				organizeImportsInCompilationUnit((ICompilationUnit) elem, rootEdit);
-			}
-		}
-		return rootEdit;
+		return toCompilationUnits(result);
 	}
 
 	/**
@@ -114,19 +158,24 @@ public class OrganizeImportsCommand {
 	 */
 	public WorkspaceEdit organizeImportsInDirectory(String folderUri, IProject proj) throws CoreException {
 		WorkspaceEdit rootEdit = new WorkspaceEdit();
+		organizeImportsInCompilationUnits(collectDirectoryUnits(folderUri, proj), mergeInto(rootEdit), new NullProgressMonitor());
+		return rootEdit;
+	}
+
+	private Collection<ICompilationUnit> collectDirectoryUnits(String folderUri, IProject proj) throws CoreException {
+		HashSet<IJavaElement> result = new HashSet<>();
 		IPackageFragment fragment = null;
 		if (JDTUtils.toURI(folderUri) != null) {
 			fragment = JDTUtils.resolvePackage(folderUri);
 		}
 		// Select an individual package
 		if (fragment != null) {
-			organizeImportsInPackageFragment(fragment, rootEdit);
+			collectCompilationUnits(fragment.getParent(), result, fragment.getElementName());
 		} else if (proj != null) {
 			// Search the packages under the selected folder:
 			IJavaProject javaProject = JavaCore.create(proj);
 			IPath rootPath = ResourceUtils.filePathFromURI(folderUri);
 			IPackageFragmentRoot[] roots = javaProject.getPackageFragmentRoots();
-			HashSet<IJavaElement> result = new HashSet<>();
 			for (IPackageFragmentRoot root : roots) {
 				if (root.getKind() == IPackageFragmentRoot.K_SOURCE) {
 					String packageRoot = root.getResource().getLocation().toString();
@@ -135,13 +184,22 @@ public class OrganizeImportsCommand {
 					}
 				}
 			}
-			for (IJavaElement elem : result) {
-				if (elem.getElementType() == IJavaElement.COMPILATION_UNIT) {
-					organizeImportsInCompilationUnit((ICompilationUnit) elem, rootEdit);
-				}
+		}
+		return toCompilationUnits(result);
+	}
+
+	private static Consumer<WorkspaceEdit> mergeInto(WorkspaceEdit rootEdit) {
+		return chunk -> rootEdit.getChanges().putAll(chunk.getChanges());
+	}
+
+	private static Collection<ICompilationUnit> toCompilationUnits(Collection<IJavaElement> elements) {
+		List<ICompilationUnit> units = new ArrayList<>(elements.size());
+		for (IJavaElement elem : elements) {
+			if (elem.getElementType() == IJavaElement.COMPILATION_UNIT) {
+				units.add((ICompilationUnit) elem);
 			}
 		}
-		return rootEdit;
+		return units;
 	}
 
 	public WorkspaceEdit organizeImportsInFile(String fileUri) {
@@ -160,11 +218,7 @@ public class OrganizeImportsCommand {
 	public void organizeImportsInPackageFragment(IPackageFragment fragment, WorkspaceEdit rootEdit) throws CoreException {
 		HashSet<IJavaElement> result = new HashSet<>();
 		collectCompilationUnits(fragment.getParent(), result, fragment.getElementName());
-		for (IJavaElement elem : result) {
-			if (elem.getElementType() == IJavaElement.COMPILATION_UNIT) {
-				organizeImportsInCompilationUnit((ICompilationUnit) elem, rootEdit);
-			}
-		}
+		organizeImportsInCompilationUnits(toCompilationUnits(result), mergeInto(rootEdit), new NullProgressMonitor());
 	}
 
 	public void organizeImportsInCompilationUnit(ICompilationUnit unit, WorkspaceEdit rootEdit) {
@@ -11,6 +11,7 @@
 package org.eclipse.jdt.ls.core.internal.contentassist;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +45,9 @@ public final class CompletionProposalRequestor extends CompletionRequestor {
 	private CompletionProposalDescriptionProvider descriptionProvider;
 	private CompletionResponse response;
 	private boolean fIsTestCodeExcluded;
+	private final String uri;
+	private int maxResults;
+	private boolean isIncomplete;
 
 	// Update SUPPORTED_KINDS when mapKind changes
 	// @formatter:off
@@ -60,8 +64,10 @@ public final class CompletionProposalRequestor extends CompletionRequestor {
 
 	public CompletionProposalRequestor(ICompilationUnit aUnit, int offset) {
 		this.unit = aUnit;
+		this.uri = JDTUtils.toURI(unit);
 		response = new CompletionResponse();
 		response.setOffset(offset);
+		response.setUri(uri);
 		fIsTestCodeExcluded = !isTestSource(unit.getJavaProject(), unit);
 		setRequireExtendedContext(true);
 	}
@@ -106,23 +112,118 @@ public final class CompletionProposalRequestor extends CompletionRequestor {
 	public List<CompletionItem> getCompletionItems() {
 		response.setProposals(proposals);
 		CompletionResponses.store(response);
-		List<CompletionItem> completionItems = new ArrayList<>(proposals.size());
-		for (int i = 0; i < proposals.size(); i++) {
-			completionItems.add(toCompletionItem(proposals.get(i), i));
+		int[] window = getWindow(proposals, maxResults);
+		isIncomplete = window.length < proposals.size();
+		List<CompletionItem> completionItems = new ArrayList<>(window.length);
+		for (int index : window) {
+			completionItems.add(toCompletionItem(proposals.get(index), index));
 		}
 		return completionItems;
 	}
 
+	/**
+	 * Returns the indexes of the most relevant proposals, the most relevant
+	 * first, or of all the proposals if there are no more than
+	 * <code>maxResults</code>.
+	 *
+	 * @param maxResults
+	 *            the maximum number of proposals, <code>0</code> for no limit
+	 */
+	public static int[] getWindow(List<CompletionProposal> proposals, int maxResults) {
+		int[] relevances = new int[proposals.size()];
+		if (maxResults > 0 && relevances.length > maxResults) {
+			for (int i = 0; i < relevances.length; i++) {
+				relevances[i] = SortTextHelper.computeRelevance(proposals.get(i));
+			}
+		}
+		return getWindow(relevances, maxResults);
+	}
+
+	/**
+	 * Returns the indexes of the most relevant proposals, the most relevant
+	 * first, or of all the proposals if there are no more than
+	 * <code>maxResults</code>.
+	 *
+	 * @param relevances
+	 *            the relevances of the proposals, as computed by
+	 *            {@link SortTextHelper#computeRelevance(CompletionProposal)}
+	 * @param maxResults
+	 *            the maximum number of proposals, <code>0</code> for no limit
+	 */
+	public static int[] getWindow(int[] relevances, int maxResults) {
+		int size = relevances.length;
+		if (maxResults <= 0 || size <= maxResults) {
+			int[] window = new int[size];
+			for (int i = 0; i < size; i++) {
+				window[i] = i;
+			}
+			return window;
+		}
+		Integer[] indexes = new Integer[size];
+		for (int i = 0; i < size; i++) {
+			indexes[i] = i;
+		}
+		// stable, proposals of equal relevance keep the order of the completion engine
+		Arrays.sort(indexes, (i1, i2) -> Integer.compare(relevances[i2], relevances[i1]));
+		int[] window = new int[maxResults];
+		for (int i = 0; i < maxResults; i++) {
+			window[i] = indexes[i];
+		}
+		return window;
+	}
+
+	/**
+	 * Limits the number of completion items returned by
+	 * {@link #getCompletionItems()} to the most relevant ones. When limited,
+	 * the items only hold the ids of their proposal in their data, the rest is
+	 * computed when the item is resolved.
+	 *
+	 * @param maxResults
+	 *            the maximum number of completion items, <code>0</code> for no
+	 *            limit
+	 */
+	public void setMaxResults(int maxResults) {
+		this.maxResults = maxResults;
+	}
+
+	/**
+	 * @return whether the last call to {@link #getCompletionItems()} didn't
+	 *         return all the proposals
+	 */
+	public boolean isIncomplete() {
+		return isIncomplete;
+	}
+
+	/**
+	 * @return the response holding the proposals of the last call to
+	 *         {@link #getCompletionItems()}
+	 */
+	public CompletionResponse getResponse() {
+		return response;
+	}
+
 	public CompletionItem toCompletionItem(CompletionProposal proposal, int index) {
+		return toCompletionItem(proposal, response.getId(), index);
+	}
+
+	public CompletionItem toCompletionItem(CompletionProposal proposal, long responseId, int index) {
 		final CompletionItem $ = new CompletionItem();
 		$.setKind(mapKind(proposal.getKind()));
 		Map<String, String> data = new HashMap<>();
 		// append data field so that resolve request can use it.
-		data.put(CompletionResolveHandler.DATA_FIELD_URI, JDTUtils.toURI(unit));
-		data.put(CompletionResolveHandler.DATA_FIELD_REQUEST_ID,String.valueOf(response.getId()));
-		data.put(CompletionResolveHandler.DATA_FIELD_PROPOSAL_ID,String.valueOf(index));
+		if (maxResults <= 0) {
+			data.put(CompletionResolveHandler.DATA_FIELD_URI, uri);
+		}
+		data.put(CompletionResolveHandler.DATA_FIELD_REQUEST_ID, String.valueOf(responseId));
+		data.put(CompletionResolveHandler.DATA_FIELD_PROPOSAL_ID, String.valueOf(index));
 		$.setData(data);
 		this.descriptionProvider.updateDescription(proposal, $);
+		if (maxResults > 0) {
+			// keep the compact ids only, the resolve request gets the rest from the stored response
+			data.remove(CompletionResolveHandler.DATA_FIELD_DECLARATION_SIGNATURE);
+			data.remove(CompletionResolveHandler.DATA_FIELD_SIGNATURE);
+			data.remove(CompletionResolveHandler.DATA_FIELD_NAME);
+		}
 		$.setSortText(SortTextHelper.computeSortText(proposal));
 		return $;
 	}
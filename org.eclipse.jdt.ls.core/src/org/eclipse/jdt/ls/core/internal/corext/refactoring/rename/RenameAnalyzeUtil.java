@@ -18,16 +18,28 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubProgressMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.ISourceReference;
 import org.eclipse.jdt.core.JavaModelException;
@@ -149,6 +161,12 @@ class RenameAnalyzeUtil {
 		}
 	}
 
+	/**
+	 * The number of units whose new working copies are reconciled by the same
+	 * worker in a row.
+	 */
+	private static final int BATCH_SIZE= 20;
+
 	private RenameAnalyzeUtil() {
 		//no instance
 	}
@@ -182,24 +200,148 @@ class RenameAnalyzeUtil {
 		return null;
 	}
 
+	/**
+	 * Creates working copies of the given compilation units, with the content
+	 * they have once the changes of the manager are applied.
+	 *
+	 * The working copies and their new content are created one at a time, but
+	 * they are then updated and reconciled concurrently, in batches of units of
+	 * the same project.
+	 * The working copies already created are discarded if the operation fails
+	 * or is cancelled.
+	 */
 	static ICompilationUnit[] createNewWorkingCopies(ICompilationUnit[] compilationUnitsToModify, TextChangeManager manager, WorkingCopyOwner owner, SubProgressMonitor pm) throws CoreException {
 		pm.beginTask("", compilationUnitsToModify.length); //$NON-NLS-1$
 		ICompilationUnit[] newWorkingCopies= new ICompilationUnit[compilationUnitsToModify.length];
-		for (int i= 0; i < compilationUnitsToModify.length; i++) {
-			ICompilationUnit cu= compilationUnitsToModify[i];
-			newWorkingCopies[i]= createNewWorkingCopy(cu, manager, owner, new SubProgressMonitor(pm, 1));
+		String[] contents= new String[compilationUnitsToModify.length];
+		boolean created= false;
+		try {
+			for (int i= 0; i < compilationUnitsToModify.length; i++) {
+				ICompilationUnit cu= compilationUnitsToModify[i];
+				newWorkingCopies[i]= cu.getWorkingCopy(owner, null);
+				// neither the manager nor the changes are thread safe
+				contents[i]= manager.get(cu).getPreviewContent(new NullProgressMonitor());
+			}
+			List<int[]> batches= createBatches(compilationUnitsToModify);
+			if (batches.size() <= 1) {
+				for (int i= 0; i < newWorkingCopies.length; i++) {
+					updateNewWorkingCopy(newWorkingCopies[i], contents[i], owner, new SubProgressMonitor(pm, 1));
+				}
+			} else {
+				updateNewWorkingCopies(batches, newWorkingCopies, contents, owner, pm);
+			}
+			created= true;
+			return newWorkingCopies;
+		} finally {
+			pm.done();
+			if (!created) {
+				for (int i= 0; i < newWorkingCopies.length; i++) {
+					if (newWorkingCopies[i] != null) {
+						newWorkingCopies[i].discardWorkingCopy();
+					}
+				}
+			}
 		}
-		pm.done();
-		return newWorkingCopies;
 	}
 
 	static ICompilationUnit createNewWorkingCopy(ICompilationUnit cu, TextChangeManager manager,
 			WorkingCopyOwner owner, SubProgressMonitor pm) throws CoreException {
 		ICompilationUnit newWc= cu.getWorkingCopy(owner, null);
-		String previewContent= manager.get(cu).getPreviewContent(new NullProgressMonitor());
+		updateNewWorkingCopy(newWc, manager.get(cu).getPreviewContent(new NullProgressMonitor()), owner, pm);
+		return newWc;
+	}
+
+	private static void updateNewWorkingCopy(ICompilationUnit newWc, String previewContent, WorkingCopyOwner owner, IProgressMonitor pm) throws CoreException {
 		newWc.getBuffer().setContents(previewContent);
 		newWc.reconcile(ICompilationUnit.NO_AST, false, owner, pm);
-		return newWc;
+	}
+
+	/**
+	 * Groups the indices of the given units by project, and splits the groups
+	 * in batches of at most {@link #BATCH_SIZE} units.
+	 */
+	private static List<int[]> createBatches(ICompilationUnit[] units) {
+		Map<IJavaProject, List<Integer>> unitsByProject= new LinkedHashMap<>();
+		for (int i= 0; i < units.length; i++) {
+			unitsByProject.computeIfAbsent(units[i].getJavaProject(), p -> new ArrayList<>()).add(Integer.valueOf(i));
+		}
+		List<int[]> batches= new ArrayList<>();
+		for (List<Integer> projectUnits : unitsByProject.values()) {
+			for (int i= 0; i < projectUnits.size(); i+= BATCH_SIZE) {
+				List<Integer> batch= projectUnits.subList(i, Math.min(i + BATCH_SIZE, projectUnits.size()));
+				batches.add(batch.stream().mapToInt(Integer::intValue).toArray());
+			}
+		}
+		return batches;
+	}
+
+	private static void updateNewWorkingCopies(List<int[]> batches, ICompilationUnit[] newWorkingCopies, String[] contents, WorkingCopyOwner owner, IProgressMonitor pm) throws CoreException {
+		int threads= Math.min(batches.size(), Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+		AtomicInteger count= new AtomicInteger();
+		ThreadPoolExecutor executor= new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+			Thread thread= new Thread(runnable, "Rename Analyzer " + count.incrementAndGet()); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		// stops the other batches as soon as one of them fails
+		AtomicBoolean failed= new AtomicBoolean();
+		try {
+			List<Future<?>> futures= new ArrayList<>(batches.size());
+			for (int[] batch : batches) {
+				futures.add(executor.submit(() -> {
+					for (int index : batch) {
+						if (failed.get() || pm.isCanceled()) {
+							throw new OperationCanceledException();
+						}
+						try {
+							updateNewWorkingCopy(newWorkingCopies[index], contents[index], owner, null);
+						} catch (CoreException | RuntimeException e) {
+							failed.set(true);
+							throw e;
+						}
+						synchronized (pm) {
+							pm.worked(1);
+						}
+					}
+					return null;
+				}));
+			}
+			// all the batches are waited for, even once interrupted, so that no
+			// working copy is in use once discarded
+			Throwable failure= null;
+			boolean interrupted= false;
+			for (Future<?> future : futures) {
+				while (true) {
+					try {
+						future.get();
+					} catch (ExecutionException e) {
+						if (failure == null || failure instanceof OperationCanceledException) {
+							failure= e.getCause();
+						}
+					} catch (InterruptedException e) {
+						interrupted= true;
+						failed.set(true);
+						continue;
+					}
+					break;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+				if (failure == null) {
+					failure= new OperationCanceledException();
+				}
+			}
+			if (failure instanceof CoreException) {
+				throw (CoreException) failure;
+			} else if (failure instanceof RuntimeException) {
+				throw (RuntimeException) failure;
+			} else if (failure instanceof Error) {
+				throw (Error) failure;
+			}
+		} finally {
+			executor.shutdown();
+		}
 	}
 
 	private static boolean existsInNewOccurrences(SearchMatch searchResult, SearchResultGroup[] newOccurrences, TextChangeManager manager) {
@@ -0,0 +1,315 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.corrections;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.internal.core.manipulation.dom.ASTResolving;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.corrections.proposals.CUCorrectionProposal;
+import org.eclipse.jdt.ls.core.internal.handlers.ServerMetrics;
+import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
+
+/**
+ * Runs the sub-processors of a quick fix or quick assist request and merges
+ * their proposals.
+ *
+ * Without a time budget, the sub-processors run one after the other in the
+ * calling thread, on the AST of the given context. With a time budget, they
+ * run concurrently: since the sub-processors create nodes on the AST they
+ * process, each worker thread parses its own AST once, and runs the
+ * sub-processors it takes from the queue on it. The proposals of the
+ * sub-processors not done once the deadline is passed are dropped, and
+ * counted as late in the {@link ServerMetrics}: the sub-processors not
+ * started yet are skipped, and the parsing of the ASTs is cancelled.
+ */
+public class ProposalCollector {
+
+	/**
+	 * A sub-processor, adding the proposals of the given invocation context to
+	 * the given collection.
+	 */
+	@FunctionalInterface
+	public interface SubProcessor {
+		void process(IInvocationContext context, Collection<CUCorrectionProposal> proposals) throws CoreException;
+	}
+
+	/**
+	 * The time budget of the proposals of a request, shared by the collectors
+	 * of the request.
+	 */
+	public static class TimeBudget {
+
+		private final long deadline;
+		private volatile boolean exceeded;
+
+		/**
+		 * @param deadline
+		 *            the time, in milliseconds, at which the proposals of the
+		 *            sub-processors still running are dropped, or
+		 *            {@link Long#MAX_VALUE} for no limit
+		 * @see ProposalCollector#getDeadline()
+		 */
+		public TimeBudget(long deadline) {
+			this.deadline = deadline;
+		}
+
+		public long getDeadline() {
+			return deadline;
+		}
+
+		/**
+		 * @return whether the proposals of a sub-processor were dropped, the
+		 *         proposals of the request being incomplete
+		 */
+		public boolean isExceeded() {
+			return exceeded;
+		}
+	}
+
+	private static final long POLL_INTERVAL = 20;
+
+	private static ExecutorService executor;
+
+	private final IInvocationContext context;
+	private final TimeBudget budget;
+	private final List<String> names = new ArrayList<>();
+	private final List<SubProcessor> processors = new ArrayList<>();
+
+	/**
+	 * @param context
+	 *            the invocation context of the request
+	 * @param deadline
+	 *            the time, in milliseconds, at which the proposals of the
+	 *            sub-processors still running are dropped, or
+	 *            {@link Long#MAX_VALUE} for no limit
+	 * @see #getDeadline()
+	 */
+	public ProposalCollector(IInvocationContext context, long deadline) {
+		this(context, new TimeBudget(deadline));
+	}
+
+	/**
+	 * @param context
+	 *            the invocation context of the request
+	 * @param budget
+	 *            the time budget of the request
+	 */
+	public ProposalCollector(IInvocationContext context, TimeBudget budget) {
+		this.context = context;
+		this.budget = budget;
+	}
+
+	/**
+	 * @return the deadline of the proposals of a request starting now, given
+	 *         the time budget of the preferences, or {@link Long#MAX_VALUE} for
+	 *         no limit
+	 */
+	public static long getDeadline() {
+		long timeBudget = getPreferredTimeBudget();
+		return timeBudget > 0 ? System.currentTimeMillis() + timeBudget : Long.MAX_VALUE;
+	}
+
+	/**
+	 * Adds a sub-processor to run.
+	 *
+	 * @param name
+	 *            the name of the sub-processor, its metrics are recorded
+	 *            under
+	 */
+	public void add(String name, SubProcessor processor) {
+		names.add(name);
+		processors.add(processor);
+	}
+
+	/**
+	 * Runs the sub-processors and waits for their proposals.
+	 *
+	 * @return the proposals of the sub-processors done in time, in the order
+	 *         the sub-processors were added
+	 * @throws OperationCanceledException
+	 *             if the monitor is cancelled while waiting
+	 */
+	public List<CUCorrectionProposal> collect(IProgressMonitor monitor) {
+		List<CUCorrectionProposal> proposals = new ArrayList<>();
+		if (budget.getDeadline() == Long.MAX_VALUE) {
+			// nothing to interrupt, the sub-processors share the AST of the context
+			for (int i = 0; i < processors.size(); i++) {
+				if (monitor != null && monitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				proposals.addAll(run(names.get(i), processors.get(i), context));
+			}
+			return proposals;
+		}
+		if (processors.isEmpty()) {
+			return proposals;
+		}
+		int count = processors.size();
+		AtomicReferenceArray<List<CUCorrectionProposal>> results = new AtomicReferenceArray<>(count);
+		AtomicInteger next = new AtomicInteger();
+		// cancelled once the request is cancelled or the deadline is passed
+		IProgressMonitor taskMonitor = new NullProgressMonitor();
+		int workers = Math.min(count, getThreadCount());
+		List<Future<?>> futures = new ArrayList<>(workers);
+		for (int w = 0; w < workers; w++) {
+			futures.add(getExecutor().submit(() -> {
+				IInvocationContext workerContext = null;
+				boolean parsed = false;
+				int i;
+				while (!taskMonitor.isCanceled() && (i = next.getAndIncrement()) < count) {
+					if (!parsed) {
+						try {
+							workerContext = createContext(context, taskMonitor);
+						} catch (OperationCanceledException e) {
+							return;
+						}
+						parsed = true;
+					}
+					results.set(i, run(names.get(i), processors.get(i), workerContext));
+				}
+			}));
+		}
+		try {
+			await(futures, budget.getDeadline(), monitor);
+		} finally {
+			// the sub-processors already running complete on their own AST, their proposals are ignored
+			taskMonitor.setCanceled(true);
+			for (Future<?> future : futures) {
+				future.cancel(false);
+			}
+		}
+		for (int i = 0; i < count; i++) {
+			List<CUCorrectionProposal> result = results.get(i);
+			if (result == null) {
+				budget.exceeded = true;
+				ServerMetrics metrics = JavaLanguageServerPlugin.getServerMetrics();
+				if (metrics != null) {
+					metrics.getProcessorMetrics(names.get(i)).late();
+				}
+			} else {
+				proposals.addAll(result);
+			}
+		}
+		return proposals;
+	}
+
+	/**
+	 * Waits for the given workers, until the deadline is passed.
+	 *
+	 * @throws OperationCanceledException
+	 *             if the monitor is cancelled while waiting
+	 */
+	private static void await(List<Future<?>> futures, long deadline, IProgressMonitor monitor) {
+		for (Future<?> future : futures) {
+			while (true) {
+				if (monitor != null && monitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				long remaining = deadline - System.currentTimeMillis();
+				if (remaining <= 0) {
+					return;
+				}
+				try {
+					future.get(Math.min(remaining, POLL_INTERVAL), TimeUnit.MILLISECONDS);
+					break;
+				} catch (TimeoutException e) {
+					// check the monitor and the budget again
+				} catch (ExecutionException e) {
+					// the results of the worker are missing, and counted as late
+					break;
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new OperationCanceledException();
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return a copy of the given invocation context, with its own AST
+	 * @throws OperationCanceledException
+	 *             if the monitor is cancelled while parsing
+	 */
+	private static IInvocationContext createContext(IInvocationContext context, IProgressMonitor monitor) {
+		if (context == null) {
+			return null;
+		}
+		InnovationContext copy = new InnovationContext(context.getCompilationUnit(), context.getSelectionOffset(), context.getSelectionLength());
+		copy.setASTRoot(ASTResolving.createQuickFixAST(context.getCompilationUnit(), monitor));
+		if (monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+		return copy;
+	}
+
+	private static List<CUCorrectionProposal> run(String name, SubProcessor processor, IInvocationContext context) {
+		List<CUCorrectionProposal> proposals = new ArrayList<>();
+		ServerMetrics metrics = JavaLanguageServerPlugin.getServerMetrics();
+		long start = System.nanoTime();
+		try {
+			processor.process(context, proposals);
+		} catch (CoreException | RuntimeException e) {
+			JavaLanguageServerPlugin.logException("Problem computing the proposals of " + name, e);
+			if (metrics != null) {
+				metrics.getProcessorMetrics(name).failed();
+			}
+			proposals.clear();
+		} finally {
+			if (metrics != null) {
+				metrics.getProcessorMetrics(name).record(System.nanoTime() - start);
+			}
+		}
+		return proposals;
+	}
+
+	private static long getPreferredTimeBudget() {
+		PreferenceManager preferenceManager = JavaLanguageServerPlugin.getPreferencesManager();
+		if (preferenceManager == null || preferenceManager.getPreferences() == null) {
+			return 0;
+		}
+		return preferenceManager.getPreferences().getCodeActionTimeBudget();
+	}
+
+	private static int getThreadCount() {
+		return Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+	}
+
+	private static synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			AtomicInteger count = new AtomicInteger();
+			int threads = getThreadCount();
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+				Thread thread = new Thread(runnable, "Code Action Processor " + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			pool.allowCoreThreadTimeOut(true);
+			executor = pool;
+		}
+		return executor;
+	}
+}
@@ -20,15 +20,21 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.corrections;
 
-import java.util.ArrayList;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.compiler.IProblem;
+import org.eclipse.jdt.ls.core.internal.corrections.ProposalCollector.TimeBudget;
 import org.eclipse.jdt.ls.core.internal.corrections.proposals.CUCorrectionProposal;
 import org.eclipse.jdt.ls.core.internal.corrections.proposals.GetterSetterCorrectionSubProcessor;
 import org.eclipse.jdt.ls.core.internal.corrections.proposals.IProposalRelevance;
@@ -44,6 +50,8 @@ import org.eclipse.jdt.ls.core.internal.text.correction.ModifierCorrectionSubPro
  */
 public class QuickFixProcessor {
 
+	private static Map<Integer, String> problemNames;
+
 	private static int moveBack(int offset, int start, String ignoreCharacters, ICompilationUnit cu) {
 		try {
 			IBuffer buf = cu.getBuffer();
@@ -61,22 +69,59 @@ public class QuickFixProcessor {
 
 	public CUCorrectionProposal[] getCorrections(IInvocationContext context, IProblemLocation[] locations)
 			throws CoreException {
+		return getCorrections(context, locations, new TimeBudget(ProposalCollector.getDeadline()), null);
+	}
+
+	/**
+	 * Computes the corrections of the given problems, the problems being
+	 * processed concurrently when the budget has a deadline.
+	 *
+	 * @param budget
+	 *            the time budget of the corrections, the corrections still
+	 *            being computed once its deadline is passed being dropped
+	 * @throws org.eclipse.core.runtime.OperationCanceledException
+	 *             if the monitor is cancelled
+	 */
+	public CUCorrectionProposal[] getCorrections(IInvocationContext context, IProblemLocation[] locations, TimeBudget budget, IProgressMonitor monitor)
+			throws CoreException {
 		if (locations == null || locations.length == 0) {
 			return new CUCorrectionProposal[0];
 		}
 
 		HashSet<Integer> handledProblems = new HashSet<>(locations.length);
-		ArrayList<CUCorrectionProposal> resultingCollections = new ArrayList<>();
+		ProposalCollector collector = new ProposalCollector(context, budget);
 		for (int i = 0; i < locations.length; i++) {
 			IProblemLocation curr = locations[i];
 			Integer id = Integer.valueOf(curr.getProblemId());
-			if (handledProblems.add(id)) {
-				process(context, curr, resultingCollections);
+			if (id.intValue() != 0 && handledProblems.add(id)) {
+				collector.add("QuickFixProcessor/" + getProblemName(curr.getProblemId()), (taskContext, proposals) -> process(taskContext, curr, proposals));
 			}
 		}
+		List<CUCorrectionProposal> resultingCollections = collector.collect(monitor);
 		return resultingCollections.toArray(new CUCorrectionProposal[resultingCollections.size()]);
 	}
 
+	/**
+	 * @return the name of the {@link IProblem} constant of the given problem
+	 *         id
+	 */
+	private static synchronized String getProblemName(int id) {
+		if (problemNames == null) {
+			problemNames = new HashMap<>();
+			for (Field field : IProblem.class.getFields()) {
+				if (field.getType() == int.class && Modifier.isStatic(field.getModifiers())) {
+					try {
+						problemNames.putIfAbsent(field.getInt(null), field.getName());
+					} catch (IllegalAccessException e) {
+						// skip
+					}
+				}
+			}
+		}
+		String name = problemNames.get(id);
+		return name == null ? String.valueOf(id) : name;
+	}
+
 	private void process(IInvocationContext context, IProblemLocation problem,
 			Collection<CUCorrectionProposal> proposals) throws CoreException {
 		int id = problem.getProblemId();
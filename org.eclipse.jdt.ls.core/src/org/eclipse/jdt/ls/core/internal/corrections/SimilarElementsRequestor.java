@@ -13,6 +13,7 @@
 package org.eclipse.jdt.ls.core.internal.corrections;
 
 import java.util.HashSet;
+import java.util.List;
 
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.jdt.core.CompletionProposal;
@@ -20,17 +21,25 @@ import org.eclipse.jdt.core.CompletionRequestor;
 import org.eclipse.jdt.core.Flags;
 import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.Signature;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.Javadoc;
 import org.eclipse.jdt.core.dom.Name;
 import org.eclipse.jdt.core.dom.QualifiedName;
 import org.eclipse.jdt.internal.corext.dom.ASTNodes;
+import org.eclipse.jdt.internal.corext.dom.ScopeAnalyzer;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.managers.WorkspaceSymbolIndex;
 
 public class SimilarElementsRequestor extends CompletionRequestor {
 
@@ -97,6 +106,14 @@ public class SimilarElementsRequestor extends CompletionRequestor {
 			}
 
 			SimilarElementsRequestor requestor = new SimilarElementsRequestor(identifier, kind, nArguments, returnType, !isTestSource(cu));
+			WorkspaceSymbolIndex index = JavaLanguageServerPlugin.getWorkspaceSymbolIndex();
+			if (index != null && preparedCU == null && !name.isQualifiedName() && name.getRoot() instanceof CompilationUnit) {
+				// qualified names and names in javadoc are completed in their context below
+				SimilarElement[] elements = requestor.process(cu, name, index);
+				if (elements != null) {
+					return elements;
+				}
+			}
 			requestor.setIgnored(CompletionProposal.ANONYMOUS_CLASS_DECLARATION, true);
 			requestor.setIgnored(CompletionProposal.ANONYMOUS_CLASS_CONSTRUCTOR_INVOCATION, true);
 			requestor.setIgnored(CompletionProposal.KEYWORD, true);
@@ -185,6 +202,38 @@ public class SimilarElementsRequestor extends CompletionRequestor {
 		}
 	}
 
+	/**
+	 * Looks the similar types up in the scope of the name and in the index of
+	 * the workspace types, rather than completing the name.
+	 *
+	 * @return the similar elements, or <code>null</code> if the index isn't
+	 *         built yet
+	 */
+	private SimilarElement[] process(ICompilationUnit cu, Name name, WorkspaceSymbolIndex index) throws JavaModelException {
+		List<WorkspaceSymbolIndex.Entry> similarTypes= index.findSimilarTypes(fName, cu.getJavaProject(), null);
+		if (similarTypes == null) {
+			return null;
+		}
+		try {
+			// type variables, member and local types
+			ScopeAnalyzer analyzer= new ScopeAnalyzer((CompilationUnit) name.getRoot());
+			IBinding[] bindings= analyzer.getDeclarationsInScope(name.getStartPosition(), ScopeAnalyzer.TYPES | ScopeAnalyzer.CHECK_VISIBILITY);
+			for (IBinding binding : bindings) {
+				if (binding instanceof ITypeBinding) {
+					addType((ITypeBinding) binding);
+				}
+			}
+			String packageName= cu.getParent().getElementName();
+			for (WorkspaceSymbolIndex.Entry entry : similarTypes) {
+				addType(entry, packageName);
+			}
+			processKeywords();
+			return fResult.toArray(new SimilarElement[fResult.size()]);
+		} finally {
+			fResult.clear();
+		}
+	}
+
 	private boolean isKind(int kind) {
 		return (fKind & kind) != 0;
 	}
@@ -240,6 +289,59 @@ public class SimilarElementsRequestor extends CompletionRequestor {
 	}
 
 
+	private void addType(ITypeBinding binding) {
+		if (binding.isRecovered() || binding.isPrimitive() || binding.isArray() || binding.isAnonymous()) {
+			return;
+		}
+		int kind;
+		if (binding.isTypeVariable()) {
+			kind= VARIABLES;
+		} else if (binding.isAnnotation()) {
+			kind= ANNOTATIONS;
+		} else if (binding.isInterface()) {
+			kind= INTERFACES;
+		} else if (binding.isEnum()) {
+			kind= ENUMS;
+		} else {
+			kind= CLASSES;
+		}
+		if (isKind(kind) && NameMatcher.isSimilarName(fName, binding.getName())) {
+			String fullName= binding.isTypeVariable() || binding.isLocal() ? binding.getName() : binding.getErasure().getQualifiedName();
+			addResult(new SimilarElement(kind, fullName, 0));
+		}
+	}
+
+	private void addType(WorkspaceSymbolIndex.Entry entry, String packageName) {
+		int kind= getKind(entry.getModifiers(), Signature.createTypeSignature(entry.getSimpleName(), true).toCharArray());
+		if (!isKind(kind)) {
+			return;
+		}
+		IJavaElement element= JavaCore.create(entry.getHandleIdentifier());
+		if (element == null) {
+			return;
+		}
+		if (!Flags.isPublic(entry.getModifiers()) && !packageName.equals(element.getAncestor(IJavaElement.PACKAGE_FRAGMENT).getElementName())) {
+			return;
+		}
+		if (fExcludeTestCode && isTestCode(element)) {
+			return;
+		}
+		addResult(new SimilarElement(kind, entry.getFullyQualifiedName(), 0));
+	}
+
+	private static boolean isTestCode(IJavaElement element) {
+		IPackageFragmentRoot root= (IPackageFragmentRoot) element.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+		if (root == null) {
+			return false;
+		}
+		try {
+			IClasspathEntry classpathEntry= root.getResolvedClasspathEntry();
+			return classpathEntry != null && classpathEntry.isTest();
+		} catch (JavaModelException e) {
+			return false;
+		}
+	}
+
 	@Override
 	public void accept(CompletionProposal proposal) {
 		if (proposal.getKind() == CompletionProposal.TYPE_REF) {
@@ -28,19 +28,14 @@ import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
-import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaModelMarker;
 import org.eclipse.jdt.core.JavaCore;
-import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.ls.core.internal.BuildWorkspaceStatus;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
-import org.eclipse.jdt.ls.core.internal.ResourceUtils;
 import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager;
-import org.eclipse.jface.text.IDocument;
 import org.eclipse.lsp4j.Diagnostic;
-import org.eclipse.lsp4j.PublishDiagnosticsParams;
 
 /**
  * @author xuzho
@@ -93,6 +88,7 @@ public class BuildWorkspaceHandler {
 	}
 
 	private void publishDiagnostics(List<IMarker> markers) {
+		DiagnosticsPublisher publisher = DiagnosticsPublisher.getPublisher(connection);
 		Map<IResource, List<IMarker>> map = markers.stream().collect(Collectors.groupingBy(IMarker::getResource));
 		for (Map.Entry<IResource, List<IMarker>> entry : map.entrySet()) {
 			IResource resource = entry.getKey();
@@ -104,25 +100,14 @@ public class BuildWorkspaceHandler {
 			if (file == null) {
 				continue;
 			}
-			IDocument document = null;
-			String uri = JDTUtils.getFileURI(resource);
-			if (JavaCore.isJavaLikeFileName(file.getName())) {
-				ICompilationUnit cu = JDTUtils.resolveCompilationUnit(uri);
-				try {
-					document = JsonRpcHelpers.toDocument(cu.getBuffer());
-				} catch (JavaModelException e) {
-					logException("Failed to publish diagnostics.", e);
+			if (JavaCore.isJavaLikeFileName(file.getName()) || projectsManager.isBuildFile(file)) {
+				List<Diagnostic> diagnostics = WorkspaceDiagnosticsHandler.toDiagnostics(file, entry.getValue().toArray(new IMarker[0]));
+				if (diagnostics != null) {
+					publisher.schedule(JDTUtils.getFileURI(resource), diagnostics);
 				}
 			}
-			else if (projectsManager.isBuildFile(file)) {
-				document = JsonRpcHelpers.toDocument(file);
-			}
-
-			if (document != null) {
-				List<Diagnostic> diagnostics = WorkspaceDiagnosticsHandler.toDiagnosticsArray(document, entry.getValue().toArray(new IMarker[0]));
-				connection.publishDiagnostics(new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), diagnostics));
-			}
 		}
+		publisher.flush();
 	}
 
 	private static String convertMarker(IMarker marker) {
@@ -30,8 +30,11 @@ import org.eclipse.jdt.ls.core.internal.corrections.DiagnosticsHelper;
 import org.eclipse.jdt.ls.core.internal.corrections.IProblemLocation;
 import org.eclipse.jdt.ls.core.internal.corrections.InnovationContext;
 import org.eclipse.jdt.ls.core.internal.corrections.ProblemLocation;
+import org.eclipse.jdt.ls.core.internal.corrections.ProposalCollector;
+import org.eclipse.jdt.ls.core.internal.corrections.ProposalCollector.TimeBudget;
 import org.eclipse.jdt.ls.core.internal.corrections.QuickFixProcessor;
 import org.eclipse.jdt.ls.core.internal.corrections.proposals.CUCorrectionProposal;
+import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.jdt.ls.core.internal.text.correction.QuickAssistProcessor;
 import org.eclipse.lsp4j.CodeActionParams;
 import org.eclipse.lsp4j.Command;
@@ -49,10 +52,27 @@ public class CodeActionHandler {
 	 */
 	public static final String COMMAND_ID_APPLY_EDIT = "java.apply.workspaceEdit";
 
+	/**
+	 * The command of the code actions whose edit is computed on demand: the
+	 * argument of the command is the id of the code action, to pass to
+	 * {@link #resolveCodeAction(String, IProgressMonitor)}.
+	 */
+	public static final String COMMAND_ID_RESOLVE_EDIT = "java.resolve.workspaceEdit";
+
 	private QuickFixProcessor quickFixProcessor = new QuickFixProcessor();
 
 	private QuickAssistProcessor quickAssistProcessor = new QuickAssistProcessor();
 
+	private final boolean resolveEdits;
+
+	public CodeActionHandler() {
+		this(null);
+	}
+
+	public CodeActionHandler(PreferenceManager preferenceManager) {
+		this.resolveEdits = preferenceManager != null && preferenceManager.getClientPreferences() != null && preferenceManager.getClientPreferences().isResolveCodeActionSupported();
+	}
+
 	/**
 	 * @param params
 	 * @return
@@ -64,34 +84,99 @@ public class CodeActionHandler {
 		}
 		int start = DiagnosticsHelper.getStartOffset(unit, params.getRange());
 		int end = DiagnosticsHelper.getEndOffset(unit, params.getRange());
+		List<Diagnostic> diagnostics = params.getContext().getDiagnostics();
+		long stamp = JDTUtils.getContentStamp(unit);
+		String key = resolveEdits ? CodeActionProposals.getKey(unit, stamp, start, end - start, diagnostics) : null;
+		Long id = CodeActionProposals.getId(key);
+		List<CUCorrectionProposal> proposals = id == null ? null : CodeActionProposals.get(id);
+		if (proposals == null) {
+			// a single time budget for the quick fixes and the quick assists
+			TimeBudget budget = new TimeBudget(ProposalCollector.getDeadline());
+			proposals = getProposals(unit, start, end, diagnostics, budget, monitor);
+			if (key != null) {
+				if (budget.isExceeded()) {
+					// the proposals are incomplete, they're computed again on the next request
+					key = null;
+				} else {
+					id = CodeActionProposals.store(key, unit, stamp, proposals);
+				}
+			}
+		}
+
+		List<Command> $ = new ArrayList<>(proposals.size());
+		for (int i = 0; i < proposals.size(); i++) {
+			CUCorrectionProposal proposal = proposals.get(i);
+			try {
+				if (key == null) {
+					$.add(this.getCommandFromProposal(proposal));
+				} else {
+					$.add(new Command(proposal.getName(), COMMAND_ID_RESOLVE_EDIT, Arrays.asList(id + ":" + i)));
+				}
+			} catch (CoreException e) {
+				JavaLanguageServerPlugin.logException("Problem resolving code actions", e);
+			}
+		}
+		return $;
+	}
+
+	/**
+	 * Computes the edit of a code action returned by
+	 * {@link #getCodeActionCommands(CodeActionParams, IProgressMonitor)}.
+	 *
+	 * @param codeActionId
+	 *            the argument of the {@link #COMMAND_ID_RESOLVE_EDIT} command
+	 *            of the code action
+	 * @return the edit of the code action, or <code>null</code> if the code
+	 *         action expired, the code actions of the document having to be
+	 *         requested again
+	 */
+	public WorkspaceEdit resolveCodeAction(String codeActionId, IProgressMonitor monitor) {
+		int separator = codeActionId == null ? -1 : codeActionId.indexOf(':');
+		if (separator < 0) {
+			return null;
+		}
+		List<CUCorrectionProposal> proposals;
+		int index;
+		try {
+			proposals = CodeActionProposals.get(Long.valueOf(codeActionId.substring(0, separator)));
+			index = Integer.parseInt(codeActionId.substring(separator + 1));
+		} catch (NumberFormatException e) {
+			return null;
+		}
+		if (proposals == null || index < 0 || index >= proposals.size()) {
+			return null;
+		}
+		CUCorrectionProposal proposal = proposals.get(index);
+		try {
+			return convertChangeToWorkspaceEdit(proposal.getCompilationUnit(), proposal.getChange());
+		} catch (CoreException e) {
+			JavaLanguageServerPlugin.logException("Problem resolving code action " + proposal.getName(), e);
+			return null;
+		}
+	}
+
+	private List<CUCorrectionProposal> getProposals(ICompilationUnit unit, int start, int end, List<Diagnostic> diagnostics, TimeBudget budget, IProgressMonitor monitor) {
 		InnovationContext context = new InnovationContext(unit, start, end - start);
 		context.setASTRoot(getASTRoot(unit));
-		IProblemLocation[] locations = this.getProblemLocations(unit, params.getContext().getDiagnostics());
+		IProblemLocation[] locations = this.getProblemLocations(unit, diagnostics);
 
-		List<Command> $ = new ArrayList<>();
+		List<CUCorrectionProposal> proposals = new ArrayList<>();
 		try {
-			CUCorrectionProposal[] corrections = this.quickFixProcessor.getCorrections(context, locations);
+			CUCorrectionProposal[] corrections = this.quickFixProcessor.getCorrections(context, locations, budget, monitor);
 			Arrays.sort(corrections, new CUCorrectionProposalComparator());
-			for (CUCorrectionProposal proposal : corrections) {
-				Command command = this.getCommandFromProposal(proposal);
-				$.add(command);
-			}
+			proposals.addAll(Arrays.asList(corrections));
 		} catch (CoreException e) {
 			JavaLanguageServerPlugin.logException("Problem resolving code actions", e);
 		}
 
 		try {
-			CUCorrectionProposal[] corrections = this.quickAssistProcessor.getAssists(context, locations);
+			CUCorrectionProposal[] corrections = this.quickAssistProcessor.getAssists(context, locations, budget, monitor);
 			Arrays.sort(corrections, new CUCorrectionProposalComparator());
-			for (CUCorrectionProposal proposal : corrections) {
-				Command command = this.getCommandFromProposal(proposal);
-				$.add(command);
-			}
+			proposals.addAll(Arrays.asList(corrections));
 		} catch (CoreException e) {
 			JavaLanguageServerPlugin.logException("Problem resolving code actions", e);
 		}
-
-		return $;
+		return proposals;
 	}
 
 	private Command getCommandFromProposal(CUCorrectionProposal proposal) throws CoreException {
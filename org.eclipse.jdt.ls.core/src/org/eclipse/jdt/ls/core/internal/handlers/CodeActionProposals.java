@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.corrections.proposals.CUCorrectionProposal;
+
+/**
+ * Short-lived cache of the proposals computed by code action requests, so
+ * that the edit of the proposal picked by the user can be computed without
+ * running the processors again.
+ *
+ * The proposals are cached per document, content of the document and range,
+ * and expire after a short delay or as soon as the document changes.
+ */
+public final class CodeActionProposals {
+
+	private CodeActionProposals() {
+		//Don't instantiate
+	}
+
+	private static final int MAX_SIZE = 16;
+	private static final long EXPIRATION = 60000;
+
+	private static final LinkedHashMap<Long, Entry> PROPOSALS = new LinkedHashMap<>(16, 0.75f, true);
+	private static final Map<String, Entry> KEYS = new HashMap<>();
+	private static long nextId;
+	private static long hitCount;
+	private static long missCount;
+
+	/**
+	 * @param stamp
+	 *            the stamp of the content of the document, see
+	 *            {@link JDTUtils#getContentStamp(org.eclipse.jdt.core.ITypeRoot)}
+	 * @return the key of the proposals of the given range, or <code>null</code>
+	 *         if the content of the document can't be identified
+	 */
+	public static String getKey(ICompilationUnit unit, long stamp, int offset, int length, List<?> diagnostics) {
+		if (stamp == IResource.NULL_STAMP) {
+			return null;
+		}
+		return unit.getHandleIdentifier() + '#' + stamp + '#' + offset + ':' + length + '#' + diagnostics.hashCode();
+	}
+
+	/**
+	 * @return the id of the proposals cached for the given key, or
+	 *         <code>null</code> if there are none
+	 */
+	public static Long getId(String key) {
+		synchronized (PROPOSALS) {
+			expire();
+			Entry entry = key == null ? null : KEYS.get(key);
+			return entry == null ? null : entry.id;
+		}
+	}
+
+	/**
+	 * @return the proposals with the given id, or <code>null</code> if they
+	 *         expired
+	 */
+	public static List<CUCorrectionProposal> get(Long id) {
+		synchronized (PROPOSALS) {
+			expire();
+			Entry entry = PROPOSALS.get(id);
+			if (entry == null || JDTUtils.getContentStamp(entry.unit) != entry.stamp) {
+				missCount++;
+				return null;
+			}
+			hitCount++;
+			return entry.proposals;
+		}
+	}
+
+	/**
+	 * Caches the given proposals.
+	 *
+	 * @return the id of the proposals
+	 */
+	public static long store(String key, ICompilationUnit unit, long stamp, List<CUCorrectionProposal> proposals) {
+		synchronized (PROPOSALS) {
+			Entry entry = new Entry(nextId++, key, unit, stamp, Collections.unmodifiableList(proposals));
+			PROPOSALS.put(entry.id, entry);
+			Entry previous = KEYS.put(key, entry);
+			if (previous != null) {
+				PROPOSALS.remove(previous.id);
+			}
+			Iterator<Entry> iterator = PROPOSALS.values().iterator();
+			while (PROPOSALS.size() > MAX_SIZE && iterator.hasNext()) {
+				remove(iterator.next());
+				iterator.remove();
+			}
+			return entry.id;
+		}
+	}
+
+	public static void clear() {
+		synchronized (PROPOSALS) {
+			PROPOSALS.clear();
+			KEYS.clear();
+		}
+	}
+
+	public static int size() {
+		synchronized (PROPOSALS) {
+			return PROPOSALS.size();
+		}
+	}
+
+	public static long getHitCount() {
+		synchronized (PROPOSALS) {
+			return hitCount;
+		}
+	}
+
+	/**
+	 * @return the number of requested proposals that had expired
+	 */
+	public static long getMissCount() {
+		synchronized (PROPOSALS) {
+			return missCount;
+		}
+	}
+
+	private static void expire() {
+		long now = System.currentTimeMillis();
+		Iterator<Entry> iterator = PROPOSALS.values().iterator();
+		while (iterator.hasNext()) {
+			Entry entry = iterator.next();
+			if (now - entry.created > EXPIRATION) {
+				remove(entry);
+				iterator.remove();
+			}
+		}
+	}
+
+	private static void remove(Entry entry) {
+		if (KEYS.get(entry.key) == entry) {
+			KEYS.remove(entry.key);
+		}
+	}
+
+	private static class Entry {
+		private final long id;
+		private final String key;
+		private final ICompilationUnit unit;
+		private final long stamp;
+		private final List<CUCorrectionProposal> proposals;
+		private final long created;
+
+		private Entry(long id, String key, ICompilationUnit unit, long stamp, List<CUCorrectionProposal> proposals) {
+			this.id = id;
+			this.key = key;
+			this.unit = unit;
+			this.stamp = stamp;
+			this.proposals = proposals;
+			this.created = System.currentTimeMillis();
+		}
+	}
+}
@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.ls.core.internal.JavaElementDeltaVisitor;
+import org.eclipse.lsp4j.Location;
+
+/**
+ * Caches the locations computed to resolve the code lenses, per Java element.
+ *
+ * An entry is invalidated when a compilation unit it was computed from
+ * changes, or when a changed compilation unit contains the name of its
+ * element, since that unit may now reference it. Implementation entries are
+ * also invalidated by any change to the type hierarchy. The last
+ * invalidations are recorded, so that the locations computed concurrently
+ * are not cached if an invalidation since affects them. The size of the cache
+ * is bounded by the total number of cached locations, the least recently used
+ * entries being evicted first.
+ */
+public class CodeLensCache implements IElementChangedListener {
+
+	private static final int MAX_WEIGHT = 20000;
+	private static final int MAX_INVALIDATIONS = 256;
+
+	private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final Deque<Invalidation> invalidations = new ArrayDeque<>();
+	private final JavaElementDeltaVisitor deltaVisitor = new JavaElementDeltaVisitor() {
+		@Override
+		protected void structureChanged(IJavaElementDelta delta) {
+			clear();
+		}
+
+		@Override
+		protected void unitChanged(ICompilationUnit unit, IJavaElementDelta delta) {
+			invalidate(new Invalidation(unit.getHandleIdentifier(), getIdentifiers(unit, delta), affectsHierarchy(delta)));
+		}
+	};
+	private int weight;
+	private long invalidationCount;
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+
+	/**
+	 * Returns the cached locations for the given element.
+	 *
+	 * @param kind
+	 *            the kind of code lens
+	 * @param element
+	 *            the element of the code lens
+	 * @return the cached locations, or <code>null</code> if they aren't
+	 *         cached
+	 */
+	public synchronized List<Location> get(String kind, IJavaElement element) {
+		CacheEntry entry = entries.get(getKey(kind, element));
+		if (entry == null) {
+			missCount++;
+			return null;
+		}
+		hitCount++;
+		return entry.locations;
+	}
+
+	/**
+	 * @return whether locations are cached for the given element, without
+	 *         affecting the statistics nor the eviction order
+	 */
+	public synchronized boolean contains(String kind, IJavaElement element) {
+		return entries.containsKey(getKey(kind, element));
+	}
+
+	/**
+	 * @return the number of invalidations so far, to pass to
+	 *         {@link #put(String, IJavaElement, List, Set, long)} when the
+	 *         computation of locations starts
+	 */
+	public synchronized long getInvalidationCount() {
+		return invalidationCount;
+	}
+
+	/**
+	 * Caches the locations computed for the given element, unless an
+	 * invalidation since <code>invalidationCount</code>, when the computation
+	 * started, affects them.
+	 *
+	 * @param units
+	 *            the handle identifiers of the compilation units the locations
+	 *            were computed from
+	 */
+	public synchronized void put(String kind, IJavaElement element, List<Location> locations, Set<String> units, long invalidationCount) {
+		CacheEntry entry = new CacheEntry(kind, element.getElementName(), Collections.unmodifiableList(locations), units);
+		if (isInvalidatedSince(entry, invalidationCount)) {
+			return;
+		}
+		CacheEntry previous = entries.put(getKey(kind, element), entry);
+		if (previous != null) {
+			weight -= previous.getWeight();
+		}
+		weight += entry.getWeight();
+		Iterator<CacheEntry> iterator = entries.values().iterator();
+		while (weight > MAX_WEIGHT && iterator.hasNext()) {
+			weight -= iterator.next().getWeight();
+			iterator.remove();
+			evictionCount++;
+		}
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		weight = 0;
+		record(Invalidation.ALL);
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	@Override
+	public synchronized void elementChanged(ElementChangedEvent event) {
+		deltaVisitor.visit(event.getDelta());
+	}
+
+	private void invalidate(Invalidation invalidation) {
+		Iterator<CacheEntry> iterator = entries.values().iterator();
+		while (iterator.hasNext()) {
+			CacheEntry entry = iterator.next();
+			if (invalidation.affects(entry)) {
+				weight -= entry.getWeight();
+				iterator.remove();
+			}
+		}
+		record(invalidation);
+	}
+
+	private void record(Invalidation invalidation) {
+		invalidations.addLast(invalidation);
+		if (invalidations.size() > MAX_INVALIDATIONS) {
+			invalidations.removeFirst();
+		}
+		invalidationCount++;
+	}
+
+	private boolean isInvalidatedSince(CacheEntry entry, long invalidationCount) {
+		long count = this.invalidationCount - invalidationCount;
+		if (count > invalidations.size()) {
+			// the invalidations since are no longer recorded
+			return true;
+		}
+		Iterator<Invalidation> iterator = invalidations.descendingIterator();
+		for (long i = 0; i < count; i++) {
+			if (iterator.next().affects(entry)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the identifiers found in the source of the unit, or
+	 *         <code>null</code> if it can't be read
+	 */
+	private static Set<String> getIdentifiers(ICompilationUnit unit, IJavaElementDelta delta) {
+		if (delta.getKind() == IJavaElementDelta.REMOVED || !unit.exists()) {
+			// a removed unit doesn't reference anything anymore
+			return Collections.emptySet();
+		}
+		String source;
+		try {
+			source = unit.getSource();
+		} catch (JavaModelException e) {
+			return null;
+		}
+		if (source == null) {
+			return null;
+		}
+		Set<String> identifiers = new HashSet<>();
+		collectIdentifiers(source, identifiers);
+		return identifiers;
+	}
+
+	static void collectIdentifiers(String text, Collection<String> identifiers) {
+		int length = text.length();
+		int i = 0;
+		while (i < length) {
+			if (Character.isJavaIdentifierStart(text.charAt(i))) {
+				int start = i++;
+				while (i < length && Character.isJavaIdentifierPart(text.charAt(i))) {
+					i++;
+				}
+				identifiers.add(text.substring(start, i));
+			} else {
+				i++;
+			}
+		}
+	}
+
+	private static boolean affectsHierarchy(IJavaElementDelta delta) {
+		if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & IJavaElementDelta.F_FINE_GRAINED) == 0) {
+			return true;
+		}
+		return affectsTypes(delta);
+	}
+
+	private static boolean affectsTypes(IJavaElementDelta delta) {
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			if (child.getElement().getElementType() == IJavaElement.TYPE) {
+				if (child.getKind() != IJavaElementDelta.CHANGED || (child.getFlags() & (IJavaElementDelta.F_SUPER_TYPES | IJavaElementDelta.F_MODIFIERS)) != 0 || affectsTypes(child)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static String getKey(String kind, IJavaElement element) {
+		return kind + ':' + element.getHandleIdentifier();
+	}
+
+	private static class CacheEntry {
+		private final String kind;
+		private final String name;
+		private final List<Location> locations;
+		private final Set<String> units;
+
+		private CacheEntry(String kind, String name, List<Location> locations, Set<String> units) {
+			this.kind = kind;
+			this.name = name;
+			this.locations = locations;
+			this.units = units;
+		}
+
+		private int getWeight() {
+			return 1 + locations.size();
+		}
+	}
+
+	private static class Invalidation {
+		private static final Invalidation ALL = new Invalidation(null, null, true);
+
+		private final String unit;
+		private final Set<String> identifiers;
+		private final boolean hierarchyChanged;
+
+		/**
+		 * @param unit
+		 *            the handle identifier of the changed compilation unit
+		 * @param identifiers
+		 *            the identifiers found in the unit, or <code>null</code>
+		 *            to invalidate all the entries
+		 * @param hierarchyChanged
+		 *            whether the change affects the type hierarchy
+		 */
+		private Invalidation(String unit, Set<String> identifiers, boolean hierarchyChanged) {
+			this.unit = unit;
+			this.identifiers = identifiers;
+			this.hierarchyChanged = hierarchyChanged;
+		}
+
+		private boolean affects(CacheEntry entry) {
+			return identifiers == null || entry.units.contains(unit) || identifiers.contains(entry.name) || (hierarchyChanged && CodeLensHandler.IMPLEMENTATION_TYPE.equals(entry.kind));
+		}
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "CodeLensCache [size=" + entries.size() + ", hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount + "]";
+	}
+}
@@ -13,7 +13,13 @@ package org.eclipse.jdt.ls.core.internal.handlers;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import com.google.gson.JsonArray;
 
@@ -25,6 +31,7 @@ import org.eclipse.jdt.core.IClassFile;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.ISourceReference;
 import org.eclipse.jdt.core.IType;
@@ -33,11 +40,13 @@ import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.search.IJavaSearchConstants;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.MethodReferenceMatch;
 import org.eclipse.jdt.core.search.SearchEngine;
 import org.eclipse.jdt.core.search.SearchMatch;
 import org.eclipse.jdt.core.search.SearchParticipant;
 import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.core.search.SearchRequestor;
+import org.eclipse.jdt.core.search.TypeReferenceMatch;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JSONUtility;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
@@ -53,8 +62,25 @@ public class CodeLensHandler {
 
 	private static final String JAVA_SHOW_REFERENCES_COMMAND = "java.show.references";
 	private static final String JAVA_SHOW_IMPLEMENTATIONS_COMMAND = "java.show.implementations";
-	private static final String IMPLEMENTATION_TYPE = "implementations";
-	private static final String REFERENCES_TYPE = "references";
+	static final String IMPLEMENTATION_TYPE = "implementations";
+	static final String REFERENCES_TYPE = "references";
+
+	/**
+	 * The maximum number of elements whose references are searched at once.
+	 */
+	private static final int MAX_BATCH_SIZE = 64;
+
+	/**
+	 * Serializes the resolution of the code lenses of a document, so that the
+	 * lenses resolved concurrently benefit from a single batched search.
+	 */
+	private static final Object[] LOCKS = new Object[16];
+
+	static {
+		for (int i = 0; i < LOCKS.length; i++) {
+			LOCKS[i] = new Object();
+		}
+	}
 
 	private final PreferenceManager preferenceManager;
 
@@ -90,7 +116,7 @@ public class CodeLensHandler {
 				IJavaElement element = JDTUtils.findElementAtSelection(typeRoot, position.getLine(), position.getCharacter(), this.preferenceManager, monitor);
 				if (REFERENCES_TYPE.equals(type)) {
 					try {
-						locations = findReferences(element, monitor);
+						locations = findReferences(typeRoot, element, monitor);
 					} catch (CoreException e) {
 						JavaLanguageServerPlugin.logException(e.getMessage(), e);
 					}
@@ -119,26 +145,206 @@ public class CodeLensHandler {
 	}
 
 	private List<Location> findImplementations(IType type, IProgressMonitor monitor) throws JavaModelException {
+		CodeLensCache cache = JavaLanguageServerPlugin.getCodeLensCache();
+		if (cache != null) {
+			List<Location> cached = cache.get(IMPLEMENTATION_TYPE, type);
+			if (cached != null) {
+				return cached;
+			}
+		}
+		long invalidationCount = cache == null ? 0 : cache.getInvalidationCount();
 		IType[] results = type.newTypeHierarchy(monitor).getAllSubtypes(type);
-		final List<Location> result = new ArrayList<>();
+		final References references = new References();
+		addUnit(references, type);
 		for (IType t : results) {
 			ICompilationUnit compilationUnit = (ICompilationUnit) t.getAncestor(IJavaElement.COMPILATION_UNIT);
 			if (compilationUnit == null) {
 				continue;
 			}
 			Location location = JDTUtils.toLocation(t);
-			result.add(location);
+			references.locations.add(location);
+			references.units.add(compilationUnit.getHandleIdentifier());
+		}
+		if (cache != null) {
+			cache.put(IMPLEMENTATION_TYPE, type, references.locations, references.units, invalidationCount);
 		}
-		return result;
+		return references.locations;
 	}
 
-	private List<Location> findReferences(IJavaElement element, IProgressMonitor monitor)
-			throws JavaModelException, CoreException {
+	private List<Location> findReferences(ITypeRoot typeRoot, IJavaElement element, IProgressMonitor monitor) throws JavaModelException, CoreException {
 		if (element == null) {
 			return Collections.emptyList();
 		}
+		CodeLensCache cache = JavaLanguageServerPlugin.getCodeLensCache();
+		if (cache == null) {
+			return searchReferences(element, monitor).locations;
+		}
+		synchronized (LOCKS[(typeRoot.getHandleIdentifier().hashCode() & Integer.MAX_VALUE) % LOCKS.length]) {
+			List<Location> cached = cache.get(REFERENCES_TYPE, element);
+			if (cached != null) {
+				return cached;
+			}
+			long invalidationCount = cache.getInvalidationCount();
+			long start = System.currentTimeMillis();
+			List<IJavaElement> batch = getReferencesBatch(typeRoot, element, cache);
+			Map<IJavaElement, References> results = searchReferences(batch, monitor);
+			for (Map.Entry<IJavaElement, References> result : results.entrySet()) {
+				cache.put(REFERENCES_TYPE, result.getKey(), result.getValue().locations, result.getValue().units, invalidationCount);
+			}
+			JavaLanguageServerPlugin.logInfo("Resolved references of " + batch.size() + " element(s) in " + (System.currentTimeMillis() - start) + "ms, " + cache);
+			return results.get(element).locations;
+		}
+	}
+
+	/**
+	 * Returns the element of the code lens being resolved, followed by the
+	 * not yet resolved elements of the same document whose references can be
+	 * searched in the same pass, the nearest first.
+	 */
+	private List<IJavaElement> getReferencesBatch(ITypeRoot typeRoot, IJavaElement element, CodeLensCache cache) throws JavaModelException {
+		if (!isBatchable(element)) {
+			return Collections.singletonList(element);
+		}
+		List<IJavaElement> members = new ArrayList<>();
+		collectMembers(typeRoot.getChildren(), members);
+		// references are attributed by name, so only elements with a unique name are batched
+		Map<String, Integer> nameCounts = new HashMap<>();
+		for (IJavaElement member : members) {
+			nameCounts.merge(getBatchName(member), 1, Integer::sum);
+		}
+		if (nameCounts.getOrDefault(getBatchName(element), 0) > 1) {
+			return Collections.singletonList(element);
+		}
+		List<IJavaElement> candidates = new ArrayList<>();
+		for (IJavaElement member : members) {
+			if (isBatchable(member) && !member.equals(element) && nameCounts.get(getBatchName(member)) == 1 && !cache.contains(REFERENCES_TYPE, member)) {
+				candidates.add(member);
+			}
+		}
+		int offset = getOffset(element);
+		candidates.sort(Comparator.comparingInt(member -> Math.abs(getOffset(member) - offset)));
+		List<IJavaElement> batch = new ArrayList<>(Math.min(candidates.size() + 1, MAX_BATCH_SIZE));
+		batch.add(element);
+		batch.addAll(candidates.subList(0, Math.min(candidates.size(), MAX_BATCH_SIZE - 1)));
+		return batch;
+	}
+
+	private void collectMembers(IJavaElement[] elements, List<IJavaElement> members) throws JavaModelException {
+		for (IJavaElement element : elements) {
+			if (element.getElementType() == IJavaElement.TYPE) {
+				members.add(element);
+				collectMembers(((IType) element).getChildren(), members);
+			} else if (element.getElementType() == IJavaElement.METHOD && !JDTUtils.isHiddenGeneratedElement(element)) {
+				members.add(element);
+			}
+		}
+	}
+
+	private static boolean isBatchable(IJavaElement element) {
+		try {
+			// constructors can be invoked without their name, e.g. super()
+			return element instanceof IType || (element instanceof IMethod && !((IMethod) element).isConstructor());
+		} catch (JavaModelException e) {
+			return false;
+		}
+	}
+
+	private static String getBatchName(IJavaElement element) {
+		return element.getElementType() + ":" + element.getElementName();
+	}
+
+	private static int getOffset(IJavaElement element) {
+		try {
+			ISourceRange range = ((ISourceReference) element).getSourceRange();
+			return range == null ? 0 : range.getOffset();
+		} catch (JavaModelException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Searches the references of all the given elements in one pass. The
+	 * matches are attributed to the elements by the name they contain; the
+	 * references of an element getting an ambiguous match are searched again,
+	 * on their own.
+	 */
+	private Map<IJavaElement, References> searchReferences(List<IJavaElement> elements, IProgressMonitor monitor) throws CoreException {
+		Map<IJavaElement, References> results = new LinkedHashMap<>();
+		if (elements.size() == 1) {
+			results.put(elements.get(0), searchReferences(elements.get(0), monitor));
+			return results;
+		}
+		Map<String, IJavaElement> types = new HashMap<>();
+		Map<String, IJavaElement> methods = new HashMap<>();
+		SearchPattern pattern = null;
+		for (IJavaElement element : elements) {
+			References references = new References();
+			addUnit(references, element);
+			results.put(element, references);
+			SearchPattern elementPattern = SearchPattern.createPattern(element, IJavaSearchConstants.REFERENCES);
+			if (elementPattern == null) {
+				continue;
+			}
+			pattern = pattern == null ? elementPattern : SearchPattern.createOrPattern(pattern, elementPattern);
+			(element instanceof IType ? types : methods).put(element.getElementName(), element);
+		}
+		if (pattern == null) {
+			return results;
+		}
+		Set<IJavaElement> ambiguous = new HashSet<>();
+		Map<ICompilationUnit, String> sources = new HashMap<>();
+		SearchEngine engine = new SearchEngine();
+		engine.search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() }, createSearchScope(), new SearchRequestor() {
+
+			@Override
+			public void acceptSearchMatch(SearchMatch match) throws CoreException {
+				Object o = match.getElement();
+				if (o instanceof IJavaElement) {
+					IJavaElement element = (IJavaElement) o;
+					ICompilationUnit compilationUnit = (ICompilationUnit) element.getAncestor(IJavaElement.COMPILATION_UNIT);
+					if (compilationUnit == null) {
+						return;
+					}
+					Map<String, IJavaElement> candidates = match instanceof TypeReferenceMatch ? types : match instanceof MethodReferenceMatch ? methods : null;
+					Set<IJavaElement> targets = new HashSet<>();
+					if (candidates != null) {
+						String source = sources.computeIfAbsent(compilationUnit, (unit) -> getSource(unit));
+						if (source != null && match.getOffset() >= 0 && match.getOffset() + match.getLength() <= source.length()) {
+							List<String> identifiers = new ArrayList<>();
+							CodeLensCache.collectIdentifiers(source.substring(match.getOffset(), match.getOffset() + match.getLength()), identifiers);
+							for (String identifier : identifiers) {
+								IJavaElement candidate = candidates.get(identifier);
+								if (candidate != null) {
+									targets.add(candidate);
+								}
+							}
+						}
+					}
+					if (targets.size() == 1) {
+						References references = results.get(targets.iterator().next());
+						references.locations.add(JDTUtils.toLocation(compilationUnit, match.getOffset(), match.getLength()));
+						references.units.add(compilationUnit.getHandleIdentifier());
+					} else if (targets.isEmpty()) {
+						ambiguous.addAll(candidates == null ? results.keySet() : candidates.values());
+					} else {
+						ambiguous.addAll(targets);
+					}
+				}
+			}
+		}, monitor);
+		for (IJavaElement element : ambiguous) {
+			results.put(element, searchReferences(element, monitor));
+		}
+		return results;
+	}
+
+	private References searchReferences(IJavaElement element, IProgressMonitor monitor) throws CoreException {
+		final References references = new References();
+		addUnit(references, element);
 		SearchPattern pattern = SearchPattern.createPattern(element, IJavaSearchConstants.REFERENCES);
-		final List<Location> result = new ArrayList<>();
+		if (pattern == null) {
+			return references;
+		}
 		SearchEngine engine = new SearchEngine();
 		engine.search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() },
 				createSearchScope(), new SearchRequestor() {
@@ -154,12 +360,37 @@ public class CodeLensHandler {
 						return;
 					}
 					Location location = JDTUtils.toLocation(compilationUnit, match.getOffset(), match.getLength());
-					result.add(location);
+					references.locations.add(location);
+					references.units.add(compilationUnit.getHandleIdentifier());
 				}
 			}
 		}, monitor);
 
-		return result;
+		return references;
+	}
+
+	private static String getSource(ICompilationUnit unit) {
+		try {
+			return unit.getSource();
+		} catch (JavaModelException e) {
+			return null;
+		}
+	}
+
+	private static void addUnit(References references, IJavaElement element) {
+		ICompilationUnit unit = (ICompilationUnit) element.getAncestor(IJavaElement.COMPILATION_UNIT);
+		if (unit != null) {
+			references.units.add(unit.getHandleIdentifier());
+		}
+	}
+
+	/**
+	 * The locations found for an element, and the compilation units they were
+	 * computed from.
+	 */
+	private static class References {
+		private final List<Location> locations = new ArrayList<>();
+		private final Set<String> units = new HashSet<>();
 	}
 
 	public List<CodeLens> getCodeLensSymbols(String uri, IProgressMonitor monitor) {
@@ -231,6 +462,10 @@ public class CodeLensHandler {
 	}
 
 	private IJavaSearchScope createSearchScope() throws JavaModelException {
+		SearchScopeCache searchScopeCache = JavaLanguageServerPlugin.getSearchScopeCache();
+		if (searchScopeCache != null) {
+			return searchScopeCache.getWorkspaceScope(false);
+		}
 		IJavaProject[] projects = JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()).getJavaProjects();
 		return SearchEngine.createJavaSearchScope(projects, IJavaSearchScope.SOURCES);
 	}
@@ -12,7 +12,9 @@ package org.eclipse.jdt.ls.core.internal.handlers;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
@@ -21,10 +23,12 @@ import org.eclipse.jdt.core.CompletionProposal;
 import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.internal.corext.template.java.SignatureUtil;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.contentassist.CompletionProposalRequestor;
 import org.eclipse.jdt.ls.core.internal.contentassist.SnippetCompletionProposal;
+import org.eclipse.jdt.ls.core.internal.javadoc.JavadocCache;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.lsp4j.CompletionItem;
 import org.eclipse.lsp4j.CompletionList;
@@ -33,14 +37,21 @@ import org.eclipse.lsp4j.jsonrpc.messages.Either;
 
 public class CompletionHandler{
 
+	private static final int PREWARMED_PROPOSALS = 20;
+	private static final int PREWARMED_TYPES = 5;
+
 	Either<List<CompletionItem>, CompletionList> completion(CompletionParams position,
 			IProgressMonitor monitor) {
 		List<CompletionItem> completionItems = null;
+		boolean isIncomplete = false;
+		long start = System.currentTimeMillis();
 		try {
 			ICompilationUnit unit = JDTUtils.resolveCompilationUnit(position.getTextDocument().getUri());
-			completionItems = this.computeContentAssist(unit,
+			CompletionList list = this.computeContentAssist(unit,
 					position.getPosition().getLine(),
 					position.getPosition().getCharacter(), monitor);
+			completionItems = list.getItems();
+			isIncomplete = list.isIncomplete();
             completionItems.addAll(SnippetCompletionProposal.getSnippets(unit));
 		} catch (OperationCanceledException ignorable) {
 			// No need to pollute logs when query is cancelled
@@ -50,25 +61,37 @@ public class CompletionHandler{
 			monitor.setCanceled(true);
 		}
 		CompletionList $ = new CompletionList();
+		$.setIsIncomplete(isIncomplete);
 		if (monitor.isCanceled()) {
 			$.setIsIncomplete(true);
 			completionItems = null;
 			JavaLanguageServerPlugin.logInfo("Completion request cancelled");
 		} else {
-			JavaLanguageServerPlugin.logInfo("Completion request completed");
+			long elapsed = System.currentTimeMillis() - start;
+			CompletionSessions.recordLatency(elapsed);
+			JavaLanguageServerPlugin.logInfo("Completion request completed in " + elapsed + "ms");
 		}
 		$.setItems(completionItems == null ? Collections.emptyList() : completionItems);
 		return Either.forRight($);
 	}
 
-	private List<CompletionItem> computeContentAssist(ICompilationUnit unit, int line, int column, IProgressMonitor monitor) throws JavaModelException {
-		CompletionResponses.clear();
+	private CompletionList computeContentAssist(ICompilationUnit unit, int line, int column, IProgressMonitor monitor) throws JavaModelException {
 		if (unit == null) {
-			return Collections.emptyList();
+			return new CompletionList(new ArrayList<>());
 		}
 		List<CompletionItem> proposals = new ArrayList<>();
+		int maxResults = getMaxResults();
 
 		final int offset = JsonRpcHelpers.toOffset(unit.getBuffer(), line, column);
+		IBuffer buffer = unit.getBuffer();
+		String contents = buffer == null ? null : buffer.getContents();
+		if (offset > -1 && contents != null) {
+			// the user keeps typing the completed identifier, filter the previous results
+			CompletionList list = CompletionSessions.complete(unit, contents, offset, maxResults);
+			if (list != null) {
+				return list;
+			}
+		}
 		CompletionProposalRequestor collector = new CompletionProposalRequestor(unit, offset);
 		// Allow completions for unresolved types - since 3.3
 		collector.setAllowsRequiredProposals(CompletionProposal.FIELD_REF, CompletionProposal.TYPE_REF, true);
@@ -87,9 +110,9 @@ public class CompletionHandler{
 		collector.setAllowsRequiredProposals(CompletionProposal.TYPE_REF, CompletionProposal.TYPE_REF, true);
 
 		collector.setFavoriteReferences(getFavoriteStaticMembers());
+		collector.setMaxResults(maxResults);
 
 		if (offset >-1 && !monitor.isCanceled()) {
-			IBuffer buffer = unit.getBuffer();
 			if (buffer != null && buffer.getLength() >= offset) {
 				IProgressMonitor subMonitor = new ProgressMonitorWrapper(monitor) {
 					private long timeLimit;
@@ -109,12 +132,46 @@ public class CompletionHandler{
 				try {
 					unit.codeComplete(offset, collector, subMonitor);
 					proposals.addAll(collector.getCompletionItems());
+					if (!monitor.isCanceled() && contents != null) {
+						CompletionSessions.store(unit, contents, collector, proposals);
+						prewarmJavadoc(unit, collector.getResponse().getProposals());
+					}
 				} catch (OperationCanceledException e) {
 					monitor.setCanceled(true);
 				}
 			}
 		}
-		return proposals;
+		return new CompletionList(collector.isIncomplete(), proposals);
+	}
+
+	/**
+	 * Renders the documentation of the types of the most relevant proposals in
+	 * the background, ahead of the resolve requests.
+	 */
+	private void prewarmJavadoc(ICompilationUnit unit, List<CompletionProposal> proposals) {
+		JavadocCache cache = JavaLanguageServerPlugin.getJavadocCache();
+		PreferenceManager preferenceManager = JavaLanguageServerPlugin.getPreferencesManager();
+		if (cache == null || preferenceManager == null || preferenceManager.getClientPreferences() == null) {
+			return;
+		}
+		Set<String> typeNames = new LinkedHashSet<>();
+		for (int index : CompletionProposalRequestor.getWindow(proposals, PREWARMED_PROPOSALS)) {
+			CompletionProposal proposal = proposals.get(index);
+			char[] signature = proposal.getKind() == CompletionProposal.TYPE_REF ? proposal.getSignature() : proposal.getDeclarationSignature();
+			if (signature != null && typeNames.size() < PREWARMED_TYPES) {
+				typeNames.add(SignatureUtil.stripSignatureToFQN(String.valueOf(signature)));
+			}
+		}
+		boolean markdown = preferenceManager.getClientPreferences().isSupportsCompletionDocumentationMarkdown();
+		cache.prewarm(unit.getJavaProject(), typeNames, markdown ? JavadocCache.MARKDOWN : JavadocCache.PLAIN_TEXT);
+	}
+
+	private int getMaxResults() {
+		PreferenceManager preferenceManager = JavaLanguageServerPlugin.getPreferencesManager();
+		if (preferenceManager != null) {
+			return preferenceManager.getPreferences().getCompletionMaxResults();
+		}
+		return 0;
 	}
 
 	private String[] getFavoriteStaticMembers() {
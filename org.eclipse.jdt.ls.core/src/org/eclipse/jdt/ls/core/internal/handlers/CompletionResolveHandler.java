@@ -15,6 +15,7 @@ import static org.eclipse.jdt.internal.corext.template.java.SignatureUtil.getLow
 import static org.eclipse.jdt.internal.corext.template.java.SignatureUtil.stripSignatureToFQN;
 
 import java.io.Reader;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -30,8 +31,10 @@ import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JSONUtility;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.contentassist.CompletionProposalDescriptionProvider;
 import org.eclipse.jdt.ls.core.internal.contentassist.CompletionProposalReplacementProvider;
 import org.eclipse.jdt.ls.core.internal.contentassist.CompletionProposalRequestor;
+import org.eclipse.jdt.ls.core.internal.javadoc.JavadocCache;
 import org.eclipse.jdt.ls.core.internal.javadoc.JavadocContentAccess;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.lsp4j.CompletionItem;
@@ -72,16 +75,28 @@ public class CompletionResolveHandler {
 		Map<String, String> data = JSONUtility.toModel(param.getData(),Map.class);
 		// clean resolve data
 		param.setData(null);
-		if (!CompletionProposalRequestor.SUPPORTED_KINDS.contains(param.getKind()) || data == null || !data.containsKey(DATA_FIELD_URI) || !data.containsKey(DATA_FIELD_REQUEST_ID) || !data.containsKey(DATA_FIELD_PROPOSAL_ID)) {
+		if (!CompletionProposalRequestor.SUPPORTED_KINDS.contains(param.getKind()) || data == null || !data.containsKey(DATA_FIELD_REQUEST_ID) || !data.containsKey(DATA_FIELD_PROPOSAL_ID)) {
 			return param;
 		}
 		int proposalId = Integer.parseInt(data.get(DATA_FIELD_PROPOSAL_ID));
 		long requestId = Long.parseLong(data.get(DATA_FIELD_REQUEST_ID));
 		CompletionResponse completionResponse = CompletionResponses.get(requestId);
 		if (completionResponse == null || completionResponse.getProposals().size() <= proposalId) {
-			throw new IllegalStateException("Invalid completion proposal");
+			// the response was evicted, the item is left as it was completed
+			JavaLanguageServerPlugin.logInfo("Unable to resolve completion item, completion response " + requestId + " is no longer available");
+			return param;
 		}
 		String uri = data.get(DATA_FIELD_URI);
+		if (uri == null) {
+			// compact data, only holding the ids of the proposal
+			uri = completionResponse.getUri();
+			CompletionItem description = new CompletionItem();
+			description.setData(new HashMap<String, String>());
+			new CompletionProposalDescriptionProvider(completionResponse.getContext()).updateDescription(completionResponse.getProposals().get(proposalId), description);
+			@SuppressWarnings("unchecked")
+			Map<String, String> descriptionData = (Map<String, String>) description.getData();
+			data.putAll(descriptionData);
+		}
 		ICompilationUnit unit = JDTUtils.resolveCompilationUnit(uri);
 		if (unit == null) {
 			throw new IllegalStateException(NLS.bind("Unable to match Compilation Unit from {0} ", uri));
@@ -90,7 +105,7 @@ public class CompletionResolveHandler {
 				completionResponse.getContext(),
 				completionResponse.getOffset(),
 				this.manager.getClientPreferences());
-		proposalProvider.updateReplacement(completionResponse.getProposals().get(proposalId), param, '\0');
+		completionResponse.runWithProposal(proposalId, proposal -> proposalProvider.updateReplacement(proposal, param, '\0'));
 		if (monitor.isCanceled()) {
 			param.setData(null);
 			return param;
@@ -133,8 +148,14 @@ public class CompletionResolveHandler {
 					try {
 						final IMember curMember = member;
 						javadoc = new SimpleTimeLimiter().callWithTimeout(() -> {
+							boolean markdown = manager.getClientPreferences().isSupportsCompletionDocumentationMarkdown();
+							JavadocCache cache = JavaLanguageServerPlugin.getJavadocCache();
+							if (cache != null) {
+								// the documentation is still cached when it takes too long
+								return cache.getJavadoc(curMember, markdown ? JavadocCache.MARKDOWN : JavadocCache.PLAIN_TEXT);
+							}
 							Reader reader;
-							if (manager.getClientPreferences().isSupportsCompletionDocumentationMarkdown()) {
+							if (markdown) {
 								reader = JavadocContentAccess.getMarkdownContentReader(curMember);
 							} else {
 								reader = JavadocContentAccess.getPlainTextContentReader(curMember);
@@ -143,7 +164,6 @@ public class CompletionResolveHandler {
 						}, 500, TimeUnit.MILLISECONDS, true);
 					} catch (UncheckedTimeoutException tooSlow) {
 						//Ignore error for now as it's spamming clients on content assist.
-						//TODO cache javadoc resolution results?
 						//JavaLanguageServerPlugin.logError("Unable to get documentation under 500ms");
 						monitor.setCanceled(true);
 					} catch (Exception e) {
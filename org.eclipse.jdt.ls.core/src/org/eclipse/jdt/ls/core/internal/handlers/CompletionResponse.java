@@ -12,6 +12,7 @@ package org.eclipse.jdt.ls.core.internal.handlers;
 
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import org.eclipse.jdt.core.CompletionContext;
 import org.eclipse.jdt.core.CompletionProposal;
@@ -26,8 +27,11 @@ public class CompletionResponse {
 	private static AtomicLong idSeed = new AtomicLong(0);
 	private Long id;
 	private int offset;
+	private String uri;
 	private CompletionContext context;
 	private List<CompletionProposal> proposals;
+	private int shiftOffset;
+	private int shift;
 
 	public CompletionResponse() {
 		id = idSeed.getAndIncrement();
@@ -76,4 +80,55 @@ public class CompletionResponse {
 	public void setOffset(int offset) {
 		this.offset = offset;
 	}
+	/**
+	 * @return the uri of the completed compilation unit
+	 */
+	public String getUri() {
+		return uri;
+	}
+	/**
+	 * @param uri the uri to set
+	 */
+	public void setUri(String uri) {
+		this.uri = uri;
+	}
+	/**
+	 * Records that the proposals, shared with the response they were computed
+	 * for, apply to a content where <code>shift</code> characters were
+	 * inserted at <code>offset</code>.
+	 */
+	public void setShift(int offset, int shift) {
+		this.shiftOffset = offset;
+		this.shift = shift;
+	}
+	/**
+	 * Runs the given action with a proposal of this response, the ranges of
+	 * the proposal being shifted by the shift of this response meanwhile.
+	 * Since the proposals may be shared with other responses, the proposal is
+	 * locked and its ranges are restored afterwards.
+	 *
+	 * @param index the index of the proposal
+	 * @param action the action to run
+	 */
+	public void runWithProposal(int index, Consumer<CompletionProposal> action) {
+		CompletionProposal proposal = proposals.get(index);
+		synchronized (proposal) {
+			int replaceStart = proposal.getReplaceStart();
+			int replaceEnd = proposal.getReplaceEnd();
+			int tokenStart = proposal.getTokenStart();
+			int tokenEnd = proposal.getTokenEnd();
+			try {
+				proposal.setReplaceRange(shift(replaceStart), shift(replaceEnd));
+				proposal.setTokenRange(shift(tokenStart), shift(tokenEnd));
+				action.accept(proposal);
+			} finally {
+				proposal.setReplaceRange(replaceStart, replaceEnd);
+				proposal.setTokenRange(tokenStart, tokenEnd);
+			}
+		}
+	}
+
+	private int shift(int position) {
+		return shift != 0 && position >= shiftOffset ? position + shift : position;
+	}
 }
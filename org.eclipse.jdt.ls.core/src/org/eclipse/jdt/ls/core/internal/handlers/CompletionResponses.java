@@ -10,12 +10,23 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.handlers;
 
+import java.lang.ref.SoftReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Cache of {@link CompletionResponse}s.
  *
+ * The most recent responses of each document are kept, so that the items of
+ * a completion can still be resolved after a newer completion was requested.
+ * The number of proposals held by the cache is bounded, the least recently
+ * used responses only being softly referenced past that bound, until they're
+ * garbage collected.
+ *
  * @author Fred Bricon
  */
 public final class CompletionResponses {
@@ -24,25 +35,151 @@ public final class CompletionResponses {
 		//Don't instantiate
 	}
 
-	private static final Map<Long, CompletionResponse> COMPLETIONS = new ConcurrentHashMap<>();
+	private static final int MAX_RESPONSES_PER_DOCUMENT = 4;
+	private static final int MAX_RESPONSES = 256;
+	private static final int MAX_WEIGHT = 20000;
+
+	private static final LinkedHashMap<Long, Entry> COMPLETIONS = new LinkedHashMap<>(16, 0.75f, true);
+	private static final Map<String, Deque<Entry>> DOCUMENTS = new HashMap<>();
+	private static int weight;
+	private static long hitCount;
+	private static long missCount;
+	private static long evictionCount;
 
+	/**
+	 * @return the response with the given id, or <code>null</code> if it was
+	 *         evicted
+	 */
 	public static CompletionResponse get(Long id) {
-		return COMPLETIONS.get(id);
+		synchronized (COMPLETIONS) {
+			Entry entry = COMPLETIONS.get(id);
+			CompletionResponse response = entry == null ? null : entry.get();
+			if (response == null) {
+				missCount++;
+			} else {
+				hitCount++;
+			}
+			return response;
+		}
 	}
 
 	public static void store(CompletionResponse response) {
-		if (response != null) {
-			COMPLETIONS.put(response.getId(), response);
+		if (response == null) {
+			return;
+		}
+		synchronized (COMPLETIONS) {
+			Entry entry = new Entry(response);
+			remove(COMPLETIONS.put(response.getId(), entry));
+			weight += entry.weight;
+			Deque<Entry> entries = DOCUMENTS.computeIfAbsent(entry.uri, uri -> new ArrayDeque<>());
+			entries.addLast(entry);
+			if (entries.size() > MAX_RESPONSES_PER_DOCUMENT) {
+				evict(entries.getFirst());
+			}
+			Iterator<Entry> iterator = COMPLETIONS.values().iterator();
+			while (iterator.hasNext()) {
+				Entry eldest = iterator.next();
+				if (eldest == entry) {
+					break;
+				}
+				if (eldest.get() == null || COMPLETIONS.size() > MAX_RESPONSES) {
+					iterator.remove();
+					remove(eldest);
+				} else if (weight > MAX_WEIGHT && eldest.isRetained()) {
+					evict(eldest);
+				}
+			}
 		}
 	}
 
 	public static void delete(CompletionResponse response) {
 		if (response != null) {
-			COMPLETIONS.remove(response.getId());
+			synchronized (COMPLETIONS) {
+				remove(COMPLETIONS.remove(response.getId()));
+			}
 		}
 	}
 
 	public static void clear() {
-		COMPLETIONS.clear();
+		synchronized (COMPLETIONS) {
+			COMPLETIONS.clear();
+			DOCUMENTS.clear();
+			weight = 0;
+		}
+	}
+
+	public static int size() {
+		synchronized (COMPLETIONS) {
+			return COMPLETIONS.size();
+		}
+	}
+
+	public static long getHitCount() {
+		synchronized (COMPLETIONS) {
+			return hitCount;
+		}
+	}
+
+	/**
+	 * @return the number of requested responses that were already evicted
+	 */
+	public static long getMissCount() {
+		synchronized (COMPLETIONS) {
+			return missCount;
+		}
+	}
+
+	public static long getEvictionCount() {
+		synchronized (COMPLETIONS) {
+			return evictionCount;
+		}
+	}
+
+	private static void remove(Entry entry) {
+		if (entry != null && entry.isRetained()) {
+			release(entry);
+		}
+	}
+
+	/**
+	 * Only keeps a soft reference to the response of the entry.
+	 */
+	private static void evict(Entry entry) {
+		release(entry);
+		evictionCount++;
+	}
+
+	private static void release(Entry entry) {
+		Deque<Entry> entries = DOCUMENTS.get(entry.uri);
+		if (entries != null) {
+			entries.remove(entry);
+			if (entries.isEmpty()) {
+				DOCUMENTS.remove(entry.uri);
+			}
+		}
+		weight -= entry.weight;
+		entry.response = null;
+	}
+
+	private static class Entry {
+		private final String uri;
+		private final int weight;
+		private final SoftReference<CompletionResponse> reference;
+		private CompletionResponse response;
+
+		private Entry(CompletionResponse response) {
+			this.uri = String.valueOf(response.getUri());
+			this.weight = 1 + (response.getProposals() == null ? 0 : response.getProposals().size());
+			this.reference = new SoftReference<>(response);
+			this.response = response;
+		}
+
+		private CompletionResponse get() {
+			return response == null ? reference.get() : response;
+		}
+
+		private boolean isRetained() {
+			return response != null;
+		}
 	}
 }
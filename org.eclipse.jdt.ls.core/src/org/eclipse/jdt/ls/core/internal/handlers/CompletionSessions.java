@@ -0,0 +1,350 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.core.CompletionContext;
+import org.eclipse.jdt.core.CompletionProposal;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.Signature;
+import org.eclipse.jdt.core.compiler.CharOperation;
+import org.eclipse.jdt.ls.core.internal.contentassist.CompletionProposalRequestor;
+import org.eclipse.jdt.ls.core.internal.contentassist.SortTextHelper;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionList;
+
+/**
+ * Keeps the last completion results computed for each compilation unit, so
+ * that the completions requested while the user keeps typing the same
+ * identifier are computed by filtering the previous results, instead of
+ * running a new code completion.
+ *
+ * A session is only reused when the only change made to the unit since the
+ * previous request is the insertion of identifier characters at the
+ * completion offset. The completion items are only computed for the
+ * proposals returned to the client. The proposals are shared by the
+ * responses of a session, and are never modified: each response records the
+ * shift of their ranges, applied when its items are resolved.
+ */
+public final class CompletionSessions {
+
+	private CompletionSessions() {
+		//Don't instantiate
+	}
+
+	private static final int MAX_SESSIONS = 4;
+	private static final int LATENCY_SAMPLES = 1024;
+
+	// mirrors the relevance given by the completion engine to the case matching proposals
+	private static final int R_EXACT_NAME = 4;
+	private static final int R_CASE = 10;
+	private static final int R_CAMEL_CASE = 5;
+
+	private static final Map<String, CompletionSession> SESSIONS = new LinkedHashMap<String, CompletionSession>(MAX_SESSIONS, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CompletionSession> eldest) {
+			return size() > MAX_SESSIONS;
+		}
+	};
+
+	private static final AtomicLong HITS = new AtomicLong();
+	private static final AtomicLong MISSES = new AtomicLong();
+	private static final long[] LATENCIES = new long[LATENCY_SAMPLES];
+	private static int latencyCount;
+
+	/**
+	 * Returns the completion items at the given offset, computed from the
+	 * session of the unit, if the unit was only changed by typing the rest of
+	 * the completed identifier.
+	 *
+	 * @param maxResults
+	 *            the maximum number of completion items, <code>0</code> for no
+	 *            limit
+	 * @return the completion items, or <code>null</code> if a code completion
+	 *         is required
+	 */
+	public static CompletionList complete(ICompilationUnit unit, String contents, int offset, int maxResults) {
+		CompletionSession session;
+		synchronized (SESSIONS) {
+			session = SESSIONS.get(unit.getHandleIdentifier());
+		}
+		CompletionList list = session == null ? null : session.complete(contents, offset, maxResults);
+		if (list == null) {
+			MISSES.incrementAndGet();
+		} else {
+			HITS.incrementAndGet();
+		}
+		return list;
+	}
+
+	/**
+	 * Starts a new session with the results of a code completion.
+	 *
+	 * @param items
+	 *            the completion items already computed for the proposals of
+	 *            the requestor
+	 */
+	public static void store(ICompilationUnit unit, String contents, CompletionProposalRequestor requestor, List<CompletionItem> items) {
+		String key = unit.getHandleIdentifier();
+		CompletionSession session = CompletionSession.create(contents, requestor, items);
+		synchronized (SESSIONS) {
+			if (session == null) {
+				SESSIONS.remove(key);
+			} else {
+				SESSIONS.put(key, session);
+			}
+		}
+	}
+
+	public static void clear() {
+		synchronized (SESSIONS) {
+			SESSIONS.clear();
+		}
+	}
+
+	/**
+	 * Records the time spent to answer a completion request.
+	 */
+	public static void recordLatency(long millis) {
+		synchronized (LATENCIES) {
+			LATENCIES[latencyCount++ % LATENCY_SAMPLES] = millis;
+		}
+	}
+
+	/**
+	 * @param percentile
+	 *            the percentile, between 0 and 100
+	 * @return the latency of the given percentile, in milliseconds, of the
+	 *         last recorded completion requests
+	 */
+	public static long getLatencyPercentile(double percentile) {
+		long[] samples;
+		synchronized (LATENCIES) {
+			samples = Arrays.copyOf(LATENCIES, Math.min(latencyCount, LATENCY_SAMPLES));
+		}
+		if (samples.length == 0) {
+			return 0;
+		}
+		Arrays.sort(samples);
+		int index = (int) Math.ceil(percentile / 100 * samples.length) - 1;
+		return samples[Math.max(0, Math.min(index, samples.length - 1))];
+	}
+
+	public static long getHitCount() {
+		return HITS.get();
+	}
+
+	public static long getMissCount() {
+		return MISSES.get();
+	}
+
+	public static double getHitRatio() {
+		long hits = HITS.get();
+		long total = hits + MISSES.get();
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	private static class CompletionSession {
+		private final CompletionProposalRequestor requestor;
+		private final CompletionContext context;
+		private final List<CompletionProposal> proposals;
+		private final CompletionItem[] items;
+		private final String[] names;
+		private final int tokenStart;
+		private final int originalOffset;
+		private final String originalPrefix;
+
+		// the state of the unit at the last request answered by this session
+		private String contents;
+		private int offset;
+
+		private CompletionSession(String contents, CompletionProposalRequestor requestor, List<CompletionItem> items, int tokenStart) {
+			CompletionResponse response = requestor.getResponse();
+			this.requestor = requestor;
+			this.contents = contents;
+			this.offset = response.getOffset();
+			this.context = response.getContext();
+			this.proposals = new ArrayList<>(response.getProposals());
+			this.items = new CompletionItem[proposals.size()];
+			this.names = new String[proposals.size()];
+			this.tokenStart = tokenStart;
+			this.originalOffset = offset;
+			this.originalPrefix = contents.substring(tokenStart, offset);
+			for (int i = 0; i < proposals.size(); i++) {
+				names[i] = getProposalName(proposals.get(i));
+			}
+			for (CompletionItem item : items) {
+				this.items[getProposalId(item)] = item;
+			}
+		}
+
+		private static CompletionSession create(String contents, CompletionProposalRequestor requestor, List<CompletionItem> items) {
+			CompletionResponse response = requestor.getResponse();
+			CompletionContext context = response.getContext();
+			int offset = response.getOffset();
+			if (context == null || context.isInJavadoc() || context.getTokenKind() != CompletionContext.TOKEN_KIND_NAME || response.getProposals() == null) {
+				return null;
+			}
+			int tokenStart = context.getTokenStart();
+			// an empty prefix may not propose all the types
+			if (tokenStart < 0 || tokenStart >= offset || offset > contents.length() || !isIdentifierPart(contents, tokenStart, offset)) {
+				return null;
+			}
+			return new CompletionSession(contents, requestor, items, tokenStart);
+		}
+
+		private synchronized CompletionList complete(String newContents, int newOffset, int maxResults) {
+			int delta = newOffset - offset;
+			if (delta < 0 || newContents.length() != contents.length() + delta || !newContents.regionMatches(0, contents, 0, offset)
+					|| !newContents.regionMatches(newOffset, contents, offset, contents.length() - offset) || !isIdentifierPart(newContents, offset, newOffset)) {
+				return null;
+			}
+			String prefix = newContents.substring(tokenStart, newOffset);
+			List<CompletionProposal> filteredProposals = new ArrayList<>();
+			List<Integer> filteredIndexes = new ArrayList<>();
+			List<Integer> filteredRelevances = new ArrayList<>();
+			for (int i = 0; i < proposals.size(); i++) {
+				String name = names[i];
+				if (!matches(prefix, name)) {
+					continue;
+				}
+				CompletionProposal proposal = proposals.get(i);
+				int relevance = proposal.getRelevance() - getCaseRelevance(originalPrefix, name) + getCaseRelevance(prefix, name);
+				filteredProposals.add(proposal);
+				filteredIndexes.add(i);
+				filteredRelevances.add(SortTextHelper.computeRelevance(proposal, relevance));
+			}
+			CompletionResponse response = new CompletionResponse();
+			response.setOffset(newOffset);
+			response.setContext(context);
+			response.setUri(requestor.getResponse().getUri());
+			response.setProposals(filteredProposals);
+			response.setShift(originalOffset, newOffset - originalOffset);
+			CompletionResponses.store(response);
+			int[] relevances = filteredRelevances.stream().mapToInt(Integer::intValue).toArray();
+			int[] window = CompletionProposalRequestor.getWindow(relevances, maxResults);
+			List<CompletionItem> filteredItems = new ArrayList<>(window.length);
+			for (int index : window) {
+				int i = filteredIndexes.get(index);
+				String sortText = SortTextHelper.convertRelevance(relevances[index]);
+				if (items[i] == null) {
+					items[i] = requestor.toCompletionItem(filteredProposals.get(index), response.getId(), index);
+					items[i].setSortText(sortText);
+					filteredItems.add(items[i]);
+				} else {
+					filteredItems.add(copy(items[i], response.getId(), index, sortText));
+				}
+			}
+			contents = newContents;
+			offset = newOffset;
+			return new CompletionList(window.length < filteredProposals.size(), filteredItems);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static int getProposalId(CompletionItem item) {
+		return Integer.parseInt(((Map<String, String>) item.getData()).get(CompletionResolveHandler.DATA_FIELD_PROPOSAL_ID));
+	}
+
+	/**
+	 * @return the name the completion engine matches against the completion
+	 *         prefix
+	 */
+	private static String getProposalName(CompletionProposal proposal) {
+		char[] name;
+		switch (proposal.getKind()) {
+			case CompletionProposal.TYPE_REF:
+				name = proposal.getSignature() == null ? null : Signature.getSignatureSimpleName(proposal.getSignature());
+				break;
+			case CompletionProposal.CONSTRUCTOR_INVOCATION:
+			case CompletionProposal.ANONYMOUS_CLASS_CONSTRUCTOR_INVOCATION:
+			case CompletionProposal.ANONYMOUS_CLASS_DECLARATION:
+				name = proposal.getDeclarationSignature() == null ? null : Signature.getSignatureSimpleName(proposal.getDeclarationSignature());
+				break;
+			default:
+				name = proposal.getName() != null ? proposal.getName() : proposal.getCompletion();
+				break;
+		}
+		if (name == null) {
+			return "";
+		}
+		int end = 0;
+		while (end < name.length && Character.isJavaIdentifierPart(name[end])) {
+			end++;
+		}
+		return new String(name, 0, end);
+	}
+
+	private static boolean isIdentifierPart(String contents, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (!Character.isJavaIdentifierPart(contents.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean matches(String prefix, String name) {
+		char[] token = prefix.toCharArray();
+		char[] proposalName = name.toCharArray();
+		return CharOperation.prefixEquals(token, proposalName, false)
+				|| (JavaCore.ENABLED.equals(JavaCore.getOption(JavaCore.CODEASSIST_CAMEL_CASE_MATCH)) && CharOperation.camelCaseMatch(token, proposalName))
+				|| (JavaCore.ENABLED.equals(JavaCore.getOption(JavaCore.CODEASSIST_SUBSTRING_MATCH)) && CharOperation.substringMatch(token, proposalName));
+	}
+
+	private static int getCaseRelevance(String prefix, String name) {
+		if (name.equals(prefix)) {
+			return R_CASE + R_EXACT_NAME;
+		}
+		if (name.equalsIgnoreCase(prefix)) {
+			return R_EXACT_NAME;
+		}
+		if (name.startsWith(prefix)) {
+			return R_CASE;
+		}
+		if (CharOperation.camelCaseMatch(prefix.toCharArray(), name.toCharArray())) {
+			return R_CAMEL_CASE;
+		}
+		return 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static CompletionItem copy(CompletionItem item, long requestId, int proposalId, String sortText) {
+		CompletionItem copy = new CompletionItem(item.getLabel());
+		copy.setKind(item.getKind());
+		copy.setDetail(item.getDetail());
+		copy.setDocumentation(item.getDocumentation());
+		copy.setFilterText(item.getFilterText());
+		copy.setInsertText(item.getInsertText());
+		copy.setInsertTextFormat(item.getInsertTextFormat());
+		copy.setTextEdit(item.getTextEdit());
+		copy.setAdditionalTextEdits(item.getAdditionalTextEdits());
+		copy.setCommand(item.getCommand());
+		copy.setSortText(sortText);
+		if (item.getData() instanceof Map) {
+			Map<String, String> data = new HashMap<>((Map<String, String>) item.getData());
+			data.put(CompletionResolveHandler.DATA_FIELD_REQUEST_ID, String.valueOf(requestId));
+			data.put(CompletionResolveHandler.DATA_FIELD_PROPOSAL_ID, String.valueOf(proposalId));
+			copy.setData(data);
+		}
+		return copy;
+	}
+}
@@ -25,11 +25,9 @@ import org.eclipse.jdt.internal.compiler.problem.DefaultProblem;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
-import org.eclipse.jdt.ls.core.internal.ResourceUtils;
 import org.eclipse.lsp4j.Diagnostic;
 import org.eclipse.lsp4j.DiagnosticSeverity;
 import org.eclipse.lsp4j.Position;
-import org.eclipse.lsp4j.PublishDiagnosticsParams;
 import org.eclipse.lsp4j.Range;
 
 public class DiagnosticsHandler implements IProblemRequestor {
@@ -40,9 +38,20 @@ public class DiagnosticsHandler implements IProblemRequestor {
 	private final JavaClientConnection connection;
 	private boolean reportAllErrors = true;
 	private boolean isDefaultProject;
+	private boolean deferPublishing;
 
 	public DiagnosticsHandler(JavaClientConnection conn, ICompilationUnit cu) {
+		this(conn, cu, false);
+	}
+
+	/**
+	 * @param deferPublishing
+	 *            if <code>true</code>, the reported problems are only sent to
+	 *            the client when {@link #publishDiagnostics()} is called
+	 */
+	public DiagnosticsHandler(JavaClientConnection conn, ICompilationUnit cu, boolean deferPublishing) {
 		problems = new ArrayList<>();
+		this.deferPublishing = deferPublishing;
 		this.cu = cu;
 		this.uri = JDTUtils.toURI(cu);
 		this.connection = conn;
@@ -116,8 +125,16 @@ public class DiagnosticsHandler implements IProblemRequestor {
 	@Override
 	public void endReporting() {
 		JavaLanguageServerPlugin.logInfo(problems.size() + " problems reported for " + this.uri.substring(this.uri.lastIndexOf('/')));
-		PublishDiagnosticsParams $ = new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), toDiagnosticsArray(this.cu, problems));
-		this.connection.publishDiagnostics($);
+		if (!deferPublishing) {
+			publishDiagnostics();
+		}
+	}
+
+	/**
+	 * Sends the problems reported during the last reconcile to the client.
+	 */
+	public void publishDiagnostics() {
+		DiagnosticsPublisher.getPublisher(connection).publish(uri, toDiagnosticsArray(this.cu, problems));
 	}
 
 	@Override
@@ -176,8 +193,7 @@ public class DiagnosticsHandler implements IProblemRequestor {
 	public void clearDiagnostics() {
 		JavaLanguageServerPlugin.logInfo("Clearing problems for " + this.uri.substring(this.uri.lastIndexOf('/')));
 		problems.clear();
-		PublishDiagnosticsParams $ = new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), Collections.emptyList());
-		this.connection.publishDiagnostics($);
+		DiagnosticsPublisher.getPublisher(connection).publish(uri, Collections.emptyList());
 	}
 
 	/**
@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.ls.core.internal.IConstants;
+import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
+import org.eclipse.jdt.ls.core.internal.ResourceUtils;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+
+/**
+ * Sends the diagnostics to a client, all the handlers producing diagnostics
+ * going through the publisher of their connection.
+ *
+ * The diagnostics computed from the markers are scheduled: they're sent
+ * after a short interval, only the latest diagnostics of a file being sent,
+ * and only when they differ from the diagnostics the client already has.
+ * The diagnostics of a reconcile are sent right away.
+ *
+ * The diagnostics are sent to the client outside the lock of the publisher,
+ * so that scheduling diagnostics never waits for the client. The sends are
+ * serialized, so the client receives the diagnostics of a file in order.
+ */
+public class DiagnosticsPublisher {
+
+	private static final long FLUSH_INTERVAL = 100;
+
+	// a publisher references its connection, the publishers are removed once their connection shuts down
+	private static final Map<JavaClientConnection, DiagnosticsPublisher> publishers = new HashMap<>();
+
+	private final JavaClientConnection connection;
+	private final Map<String, Long> published = new HashMap<>();
+	private final Map<String, List<Diagnostic>> pending = new LinkedHashMap<>();
+	private final Object sendLock = new Object();
+	private final Job flushJob;
+	private long publishedCount;
+	private long suppressedCount;
+
+	DiagnosticsPublisher(JavaClientConnection connection) {
+		this.connection = connection;
+		this.flushJob = new Job("Publish diagnostics") {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				flush();
+				return Status.OK_STATUS;
+			}
+
+			@Override
+			public boolean belongsTo(Object family) {
+				return IConstants.DIAGNOSTICS_FAMILY.equals(family) || IConstants.JOBS_FAMILY.equals(family);
+			}
+		};
+		this.flushJob.setSystem(true);
+	}
+
+	/**
+	 * @return the publisher sending the diagnostics to the given client
+	 */
+	public static DiagnosticsPublisher getPublisher(JavaClientConnection connection) {
+		synchronized (publishers) {
+			return publishers.computeIfAbsent(connection, DiagnosticsPublisher::new);
+		}
+	}
+
+	/**
+	 * Sends the scheduled diagnostics of the given client, and releases its
+	 * publisher.
+	 */
+	public static void removePublisher(JavaClientConnection connection) {
+		DiagnosticsPublisher publisher;
+		synchronized (publishers) {
+			publisher = publishers.remove(connection);
+		}
+		if (publisher != null) {
+			publisher.flushJob.cancel();
+			publisher.flush();
+		}
+	}
+
+	/**
+	 * Sends the diagnostics of a file right away.
+	 *
+	 * @param uri
+	 *            the uri of the file
+	 * @param diagnostics
+	 *            all the diagnostics of the file
+	 */
+	public void publish(String uri, List<Diagnostic> diagnostics) {
+		String clientUri = ResourceUtils.toClientUri(uri);
+		synchronized (sendLock) {
+			PublishDiagnosticsParams params;
+			synchronized (this) {
+				pending.remove(clientUri);
+				params = prepare(clientUri, diagnostics);
+			}
+			connection.publishDiagnostics(params);
+		}
+	}
+
+	/**
+	 * Schedules the diagnostics of a file, replacing the diagnostics scheduled
+	 * for the file and not sent yet. The diagnostics are only sent when they
+	 * differ from the last diagnostics sent for the file.
+	 *
+	 * @param uri
+	 *            the uri of the file
+	 * @param diagnostics
+	 *            all the diagnostics of the file
+	 */
+	public synchronized void schedule(String uri, List<Diagnostic> diagnostics) {
+		pending.put(ResourceUtils.toClientUri(uri), diagnostics);
+		// a running job may have flushed already, it's scheduled again once done
+		int state = flushJob.getState();
+		if (state == Job.NONE || state == Job.RUNNING) {
+			flushJob.schedule(FLUSH_INTERVAL);
+		}
+	}
+
+	/**
+	 * Sends the scheduled diagnostics now.
+	 */
+	public void flush() {
+		synchronized (sendLock) {
+			List<PublishDiagnosticsParams> toSend = new ArrayList<>();
+			synchronized (this) {
+				for (Map.Entry<String, List<Diagnostic>> entry : pending.entrySet()) {
+					Long hash = published.get(entry.getKey());
+					List<Diagnostic> diagnostics = entry.getValue();
+					if (hash == null ? diagnostics.isEmpty() : hash == hash(diagnostics)) {
+						suppressedCount++;
+					} else {
+						toSend.add(prepare(entry.getKey(), diagnostics));
+					}
+				}
+				pending.clear();
+			}
+			for (PublishDiagnosticsParams params : toSend) {
+				connection.publishDiagnostics(params);
+			}
+		}
+	}
+
+	/**
+	 * Records the diagnostics of a file as published, and returns a copy of
+	 * them to send.
+	 */
+	private PublishDiagnosticsParams prepare(String clientUri, List<Diagnostic> diagnostics) {
+		if (diagnostics.isEmpty()) {
+			published.remove(clientUri);
+		} else {
+			published.put(clientUri, hash(diagnostics));
+		}
+		publishedCount++;
+		return new PublishDiagnosticsParams(clientUri, new ArrayList<>(diagnostics));
+	}
+
+	private static long hash(List<Diagnostic> diagnostics) {
+		long hash = diagnostics.size();
+		for (Diagnostic diagnostic : diagnostics) {
+			hash = hash * 1000003 + diagnostic.hashCode();
+			hash ^= hash >>> 29;
+		}
+		return hash;
+	}
+
+	public synchronized long getPublishedCount() {
+		return publishedCount;
+	}
+
+	public synchronized long getSuppressedCount() {
+		return suppressedCount;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "DiagnosticsPublisher [files=" + published.size() + ", pending=" + pending.size() + ", published=" + publishedCount + ", suppressed=" + suppressedCount + "]";
+	}
+}
@@ -10,15 +10,20 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.handlers;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.resources.WorkspaceJob;
@@ -27,8 +32,11 @@ import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobGroup;
 import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
@@ -59,11 +67,6 @@ import org.eclipse.lsp4j.DidOpenTextDocumentParams;
 import org.eclipse.lsp4j.DidSaveTextDocumentParams;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
-import org.eclipse.text.edits.DeleteEdit;
-import org.eclipse.text.edits.InsertEdit;
-import org.eclipse.text.edits.MalformedTreeException;
-import org.eclipse.text.edits.ReplaceEdit;
-import org.eclipse.text.edits.TextEdit;
 
 public class DocumentLifeCycleHandler {
 
@@ -74,7 +77,9 @@ public class DocumentLifeCycleHandler {
 
 	private CoreASTProvider sharedASTProvider;
 	private WorkspaceJob validationTimer;
+	private Job parallelValidationTimer;
 	private Set<ICompilationUnit> toReconcile = new HashSet<>();
+	private ValidationDependencyTracker dependencyTracker = new ValidationDependencyTracker();
 
 	public DocumentLifeCycleHandler(JavaClientConnection connection, PreferenceManager preferenceManager, ProjectsManager projectsManager, boolean delayValidation) {
 		this.connection = connection;
@@ -97,6 +102,25 @@ public class DocumentLifeCycleHandler {
 				}
 			};
 			this.validationTimer.setRule(ResourcesPlugin.getWorkspace().getRoot());
+			// the parallel validation acquires the rules itself: the workspace root to reconcile the changes, then a rule per project to validate the open units
+			this.parallelValidationTimer = new Job("Validate documents") {
+				@Override
+				protected IStatus run(IProgressMonitor monitor) {
+					try {
+						return performParallelValidation(getValidationParallelism(), monitor);
+					} catch (CoreException e) {
+						return e.getStatus();
+					}
+				}
+
+				/* (non-Javadoc)
+				 * @see org.eclipse.core.runtime.jobs.Job#belongsTo(java.lang.Object)
+				 */
+				@Override
+				public boolean belongsTo(Object family) {
+					return DOCUMENT_LIFE_CYCLE_JOBS.equals(family);
+				}
+			};
 		}
 	}
 
@@ -110,68 +134,251 @@ public class DocumentLifeCycleHandler {
 			sharedASTProvider.setActiveJavaElement(cu);
 		}
 		if (validationTimer != null) {
-			validationTimer.cancel();
-			validationTimer.schedule(delay);
+			Job timer = getValidationParallelism() > 1 ? parallelValidationTimer : validationTimer;
+			timer.cancel();
+			timer.schedule(delay);
 		} else {
 			performValidation(new NullProgressMonitor());
 		}
 	}
 
-	private IStatus performValidation(IProgressMonitor monitor) throws JavaModelException {
-		long start = System.currentTimeMillis();
+	private int getValidationParallelism() {
+		Preferences preferences = preferenceManager == null ? null : preferenceManager.getPreferences();
+		return preferences == null ? 1 : preferences.getValidationParallelism();
+	}
 
+	private List<ICompilationUnit> getUnitsToReconcile() {
 		List<ICompilationUnit> cusToReconcile = new ArrayList<>();
 		synchronized (toReconcile) {
 			cusToReconcile.addAll(toReconcile);
 			toReconcile.clear();
 		}
-		if (cusToReconcile.isEmpty()) {
-			return Status.OK_STATUS;
-		}
+		return cusToReconcile;
+	}
+
+	/**
+	 * Reconciles the units with content changes, and computes the open units
+	 * to validate.
+	 */
+	private Set<ICompilationUnit> reconcileChangedUnits(List<ICompilationUnit> cusToReconcile, SubMonitor progress) throws JavaModelException {
 		// first reconcile all units with content changes
-		SubMonitor progress = SubMonitor.convert(monitor, cusToReconcile.size() + 1);
 		for (ICompilationUnit cu : cusToReconcile) {
 			cu.reconcile(ICompilationUnit.NO_AST, true, null, progress.newChild(1));
 		}
 		this.sharedASTProvider.disposeAST();
-		List<ICompilationUnit> toValidate = Arrays.asList(JavaCore.getWorkingCopies(null));
+		// only validate the open units depending on the API of the changed units
+		return dependencyTracker.computeUnitsToValidate(cusToReconcile, Arrays.asList(JavaCore.getWorkingCopies(null)));
+	}
+
+	private IStatus performValidation(IProgressMonitor monitor) throws JavaModelException {
+		long start = System.currentTimeMillis();
+
+		List<ICompilationUnit> cusToReconcile = getUnitsToReconcile();
+		if (cusToReconcile.isEmpty()) {
+			return Status.OK_STATUS;
+		}
+		SubMonitor progress = SubMonitor.convert(monitor, cusToReconcile.size() + 1);
+		int workingCopies = JavaCore.getWorkingCopies(null).length;
+		Set<ICompilationUnit> toValidate = reconcileChangedUnits(cusToReconcile, progress);
 		List<CompilationUnit> astRoots = new ArrayList<>();
 		for (ICompilationUnit rootToValidate : toValidate) {
 			CompilationUnit astRoot = this.sharedASTProvider.getAST(rootToValidate, CoreASTProvider.WAIT_YES, monitor);
-			astRoots.add(astRoot);
+			if (astRoot != null) {
+				dependencyTracker.updateReferences(rootToValidate, astRoot);
+				astRoots.add(astRoot);
+			}
 		}
 		for (CompilationUnit astRoot : astRoots) {
 			// report errors, even if there are no problems in the file: The client need to know that they got fixed.
 			ICompilationUnit unit = (ICompilationUnit) astRoot.getTypeRoot();
-			final DiagnosticsHandler handler = new DiagnosticsHandler(connection, unit);
-			WorkingCopyOwner wcOwner = new WorkingCopyOwner() {
+			validate(unit, new DiagnosticsHandler(connection, unit), progress.newChild(1));
+		}
+		long elapsed = recordReconcile(start);
+		JavaLanguageServerPlugin.logInfo("Reconciled " + cusToReconcile.size() + ", validated: " + toValidate.size() + ", skipped: " + (workingCopies - toValidate.size()) + ". Took " + elapsed + " ms");
+		return Status.OK_STATUS;
+	}
 
-				/* (non-Javadoc)
-				 * @see org.eclipse.jdt.core.WorkingCopyOwner#createBuffer(org.eclipse.jdt.core.ICompilationUnit)
-				 */
-				@Override
-				public IBuffer createBuffer(ICompilationUnit workingCopy) {
-					ICompilationUnit original = workingCopy.getPrimary();
-					IResource resource = original.getResource();
-					if (resource instanceof IFile) {
-						return new DocumentAdapter(workingCopy, (IFile) resource);
-					}
-					return DocumentAdapter.Null;
+	/**
+	 * Validates the open units concurrently, each under the scheduling rule of
+	 * its project. The diagnostics are published once all the units are
+	 * validated, in the same order as the sequential validation.
+	 */
+	private IStatus performParallelValidation(int parallelism, IProgressMonitor monitor) throws CoreException {
+		long start = System.currentTimeMillis();
+
+		List<ICompilationUnit> cusToReconcile = getUnitsToReconcile();
+		if (cusToReconcile.isEmpty()) {
+			return Status.OK_STATUS;
+		}
+		int workingCopies = JavaCore.getWorkingCopies(null).length;
+		List<ICompilationUnit> toValidate = new ArrayList<>();
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		ResourcesPlugin.getWorkspace().run((IWorkspaceRunnable) m -> {
+			toValidate.addAll(reconcileChangedUnits(cusToReconcile, SubMonitor.convert(m, cusToReconcile.size())));
+		}, root, IWorkspace.AVOID_UPDATE, monitor);
+
+		JobGroup jobGroup = new JobGroup("Validate documents", parallelism, toValidate.size()) {
+			// the failure to validate a unit must not prevent the validation of the others
+			@Override
+			protected boolean shouldCancel(IStatus lastCompletedJobResult, int numberOfFailedJobs, int numberOfCancelledJobs) {
+				return false;
+			}
+		};
+		List<ValidationJob> jobs = new ArrayList<>(toValidate.size());
+		for (ICompilationUnit unit : toValidate) {
+			ValidationJob job = new ValidationJob(unit);
+			IResource resource = unit.getResource();
+			job.setRule(resource == null ? root : resource.getProject());
+			job.setJobGroup(jobGroup);
+			jobs.add(job);
+			job.schedule();
+		}
+		boolean interrupted = false;
+		try {
+			jobGroup.join(0, monitor);
+		} catch (InterruptedException | OperationCanceledException e) {
+			interrupted = e instanceof InterruptedException;
+			jobGroup.cancel();
+			// the results are only read once the jobs running are done
+			while (true) {
+				try {
+					jobGroup.join(0, null);
+					break;
+				} catch (InterruptedException e1) {
+					interrupted = true;
 				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		long cpuTime = 0;
+		List<ICompilationUnit> notValidated = new ArrayList<>();
+		for (ValidationJob job : jobs) {
+			if (job.handler != null) {
+				job.handler.publishDiagnostics();
+			} else {
+				notValidated.add(job.unit);
+			}
+			cpuTime += job.cpuTime;
+		}
+		if (!notValidated.isEmpty()) {
+			// the validation was cancelled by a more recent change, validate the remaining units along with it
+			synchronized (toReconcile) {
+				toReconcile.addAll(notValidated);
+			}
+		}
+		long elapsed = recordReconcile(start);
+		JavaLanguageServerPlugin.logInfo("Reconciled " + cusToReconcile.size() + ", validated: " + (toValidate.size() - notValidated.size()) + ", skipped: " + (workingCopies - toValidate.size()) + " using " + parallelism + " threads. Took " + elapsed + " ms, CPU time " + TimeUnit.NANOSECONDS.toMillis(cpuTime) + " ms");
+		return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+	}
 
-				/* (non-Javadoc)
-				 * @see org.eclipse.jdt.core.WorkingCopyOwner#getProblemRequestor(org.eclipse.jdt.core.ICompilationUnit)
-				 */
-				@Override
-				public IProblemRequestor getProblemRequestor(ICompilationUnit workingCopy) {
-					return handler;
+	/**
+	 * Records the duration of a reconcile in the server metrics.
+	 *
+	 * @return the duration of the reconcile, in milliseconds
+	 */
+	private static long recordReconcile(long start) {
+		long elapsed = System.currentTimeMillis() - start;
+		ServerMetrics metrics = JavaLanguageServerPlugin.getServerMetrics();
+		if (metrics != null) {
+			metrics.recordJob(ServerMetrics.RECONCILE, TimeUnit.MILLISECONDS.toNanos(elapsed));
+		}
+		return elapsed;
+	}
+
+	private void validate(ICompilationUnit unit, DiagnosticsHandler handler, IProgressMonitor monitor) throws JavaModelException {
+		WorkingCopyOwner wcOwner = new WorkingCopyOwner() {
+
+			/* (non-Javadoc)
+			 * @see org.eclipse.jdt.core.WorkingCopyOwner#createBuffer(org.eclipse.jdt.core.ICompilationUnit)
+			 */
+			@Override
+			public IBuffer createBuffer(ICompilationUnit workingCopy) {
+				ICompilationUnit original = workingCopy.getPrimary();
+				IResource resource = original.getResource();
+				if (resource instanceof IFile) {
+					return new DocumentAdapter(workingCopy, (IFile) resource);
 				}
+				return DocumentAdapter.Null;
+			}
 
-			};
-			unit.reconcile(ICompilationUnit.NO_AST, true, wcOwner, progress.newChild(1));
+			/* (non-Javadoc)
+			 * @see org.eclipse.jdt.core.WorkingCopyOwner#getProblemRequestor(org.eclipse.jdt.core.ICompilationUnit)
+			 */
+			@Override
+			public IProblemRequestor getProblemRequestor(ICompilationUnit workingCopy) {
+				return handler;
+			}
+
+		};
+		unit.reconcile(ICompilationUnit.NO_AST, true, wcOwner, monitor);
+	}
+
+	/**
+	 * Validates a single open unit, as part of the parallel validation.
+	 */
+	private class ValidationJob extends Job {
+		private final ICompilationUnit unit;
+		private volatile DiagnosticsHandler handler;
+		private volatile long cpuTime;
+
+		ValidationJob(ICompilationUnit unit) {
+			super("Validate " + unit.getElementName());
+			this.unit = unit;
+			setSystem(true);
 		}
-		JavaLanguageServerPlugin.logInfo("Reconciled " + toReconcile.size() + ", validated: " + toValidate.size() + ". Took " + (System.currentTimeMillis() - start) + " ms");
-		return Status.OK_STATUS;
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+			boolean measureCpuTime = threadBean.isCurrentThreadCpuTimeSupported();
+			long cpuStart = measureCpuTime ? threadBean.getCurrentThreadCpuTime() : 0;
+			try {
+				CompilationUnit astRoot = sharedASTProvider.getAST(unit, CoreASTProvider.WAIT_YES, monitor);
+				if (astRoot == null || monitor.isCanceled()) {
+					return Status.CANCEL_STATUS;
+				}
+				dependencyTracker.updateReferences(unit, astRoot);
+				DiagnosticsHandler diagnosticsHandler = new DiagnosticsHandler(connection, unit, true);
+				validate(unit, diagnosticsHandler, monitor);
+				handler = diagnosticsHandler;
+				return Status.OK_STATUS;
+			} catch (JavaModelException e) {
+				JavaLanguageServerPlugin.logException("Error while validating " + unit.getElementName(), e);
+				return e.getStatus();
+			} catch (OperationCanceledException e) {
+				return Status.CANCEL_STATUS;
+			} finally {
+				if (measureCpuTime) {
+					cpuTime = threadBean.getCurrentThreadCpuTime() - cpuStart;
+				}
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see org.eclipse.core.runtime.jobs.Job#belongsTo(java.lang.Object)
+		 */
+		@Override
+		public boolean belongsTo(Object family) {
+			return DOCUMENT_LIFE_CYCLE_JOBS.equals(family);
+		}
+	}
+
+	/**
+	 * @return the number of open units validated because they were changed or
+	 *         depend on a changed unit
+	 */
+	public long getValidatedUnitsCount() {
+		return dependencyTracker.getValidatedCount();
+	}
+
+	/**
+	 * @return the number of open units whose validation was skipped because
+	 *         they don't depend on any changed unit
+	 */
+	public long getSkippedUnitsCount() {
+		return dependencyTracker.getSkippedCount();
 	}
 
 	public void didClose(DidCloseTextDocumentParams params) {
@@ -277,7 +484,7 @@ public class DocumentLifeCycleHandler {
 			unit.becomeWorkingCopy(new NullProgressMonitor());
 			IBuffer buffer = unit.getBuffer();
 			String newContent = params.getTextDocument().getText();
-			if (buffer != null && !buffer.getContents().equals(newContent)) {
+			if (buffer != null && (buffer.getLength() != newContent.length() || !buffer.getContents().equals(newContent))) {
 				buffer.setContents(newContent);
 			}
 			triggerValidation(unit);
@@ -299,36 +506,33 @@ public class DocumentLifeCycleHandler {
 			if (unit.equals(sharedASTProvider.getActiveJavaElement())) {
 				sharedASTProvider.disposeAST();
 			}
+			// resolve the document once, and apply the changes to it directly, without creating a text edit per change
+			IBuffer buffer = unit.getBuffer();
+			IDocument document = JsonRpcHelpers.toDocument(buffer);
 			List<TextDocumentContentChangeEvent> contentChanges = params.getContentChanges();
 			for (TextDocumentContentChangeEvent changeEvent : contentChanges) {
 
 				Range range = changeEvent.getRange();
-				int length;
-
-				if (range != null) {
-					length = changeEvent.getRangeLength().intValue();
-				} else {
+				String text = changeEvent.getText();
+				if (range == null) {
 					// range is optional and if not given, the whole file content is replaced
-					length = unit.getSource().length();
-					range = JDTUtils.toRange(unit, 0, length);
+					if (document.getLength() != text.length() || !text.equals(document.get())) {
+						document.set(text);
+					}
+					continue;
 				}
 
-				int startOffset = JsonRpcHelpers.toOffset(unit.getBuffer(), range.getStart().getLine(), range.getStart().getCharacter());
-
-				TextEdit edit = null;
-				String text = changeEvent.getText();
-				if (length == 0) {
-					edit = new InsertEdit(startOffset, text);
-				} else if (text.isEmpty()) {
-					edit = new DeleteEdit(startOffset, length);
+				int startOffset = document.getLineOffset(range.getStart().getLine()) + range.getStart().getCharacter();
+				int length;
+				if (changeEvent.getRangeLength() != null) {
+					length = changeEvent.getRangeLength().intValue();
 				} else {
-					edit = new ReplaceEdit(startOffset, length, text);
+					length = document.getLineOffset(range.getEnd().getLine()) + range.getEnd().getCharacter() - startOffset;
 				}
-				IDocument document = JsonRpcHelpers.toDocument(unit.getBuffer());
-				edit.apply(document, TextEdit.NONE);
+				document.replace(startOffset, length, text);
 			}
 			triggerValidation(unit);
-		} catch (JavaModelException | MalformedTreeException | BadLocationException e) {
+		} catch (JavaModelException | BadLocationException e) {
 			JavaLanguageServerPlugin.logException("Error while handling document change", e);
 		}
 	}
@@ -346,6 +550,7 @@ public class DocumentLifeCycleHandler {
 			if (unit.equals(sharedASTProvider.getActiveJavaElement())) {
 				sharedASTProvider.disposeAST();
 			}
+			dependencyTracker.remove(unit);
 			unit.discardWorkingCopy();
 		} catch (CoreException e) {
 			JavaLanguageServerPlugin.logException("Error while handling document close", e);
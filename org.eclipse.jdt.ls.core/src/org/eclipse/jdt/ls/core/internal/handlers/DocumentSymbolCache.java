@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.JavaElementDeltaVisitor;
+import org.eclipse.lsp4j.SymbolInformation;
+
+/**
+ * Caches the outline of the most recently used documents, per document and
+ * content of the document, along with the labels of their members.
+ *
+ * The outline of a compilation unit is invalidated by any change to the
+ * unit, but the labels of its members are kept, only the labels of the
+ * members a fine-grained delta reports as changed being discarded. An
+ * outline is then recomputed by labelling the changed members only. An
+ * outline is only cached if the document didn't change while it was
+ * computed.
+ */
+public class DocumentSymbolCache implements IElementChangedListener {
+
+	private static final int MAX_SIZE = 32;
+
+	private static final int LABEL_FLAGS = IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_MODIFIERS | IJavaElementDelta.F_SUPER_TYPES | IJavaElementDelta.F_ANNOTATIONS;
+
+	private final Map<String, Outline> outlines = new LinkedHashMap<String, Outline>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Outline> eldest) {
+			return size() > MAX_SIZE;
+		}
+	};
+	private final JavaElementDeltaVisitor deltaVisitor = new JavaElementDeltaVisitor() {
+		@Override
+		protected void structureChanged(IJavaElementDelta delta) {
+			clear();
+		}
+
+		@Override
+		protected void unitChanged(ICompilationUnit unit, IJavaElementDelta delta) {
+			invalidate(unit, delta);
+		}
+	};
+	private long hitCount;
+	private long missCount;
+
+	/**
+	 * @return the cached outline of the given document, or <code>null</code>
+	 *         if it isn't cached or was computed from another content
+	 */
+	public synchronized SymbolInformation[] getSymbols(ITypeRoot unit, long stamp) {
+		Outline outline = outlines.get(unit.getHandleIdentifier());
+		if (outline == null || outline.symbols == null || outline.stamp != stamp || stamp == IResource.NULL_STAMP) {
+			missCount++;
+			return null;
+		}
+		hitCount++;
+		return outline.symbols;
+	}
+
+	/**
+	 * @return the labels of the members of the given document still valid,
+	 *         per handle identifier of the member
+	 */
+	public synchronized Map<String, String> getLabels(ITypeRoot unit) {
+		Outline outline = outlines.get(unit.getHandleIdentifier());
+		return outline == null ? Collections.emptyMap() : new HashMap<>(outline.labels);
+	}
+
+	/**
+	 * Caches the outline computed for the given document, unless the document
+	 * changed since <code>stamp</code>, when the computation started.
+	 *
+	 * @param labels
+	 *            the labels of the members of the document, per handle
+	 *            identifier of the member
+	 */
+	public void put(ITypeRoot unit, long stamp, SymbolInformation[] symbols, Map<String, String> labels) {
+		if (stamp == IResource.NULL_STAMP || JDTUtils.getContentStamp(unit) != stamp) {
+			// the labels may be out of date
+			return;
+		}
+		synchronized (this) {
+			outlines.put(unit.getHandleIdentifier(), new Outline(stamp, symbols, labels));
+		}
+	}
+
+	public synchronized void clear() {
+		outlines.clear();
+	}
+
+	public synchronized int size() {
+		return outlines.size();
+	}
+
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	@Override
+	public synchronized void elementChanged(ElementChangedEvent event) {
+		if (!outlines.isEmpty()) {
+			deltaVisitor.visit(event.getDelta());
+		}
+	}
+
+	private void invalidate(ICompilationUnit unit, IJavaElementDelta delta) {
+		String handle = unit.getHandleIdentifier();
+		Outline outline = outlines.get(handle);
+		if (outline == null) {
+			return;
+		}
+		if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & IJavaElementDelta.F_FINE_GRAINED) == 0) {
+			outlines.remove(handle);
+			return;
+		}
+		// the positions of the members may have moved, but their labels are kept
+		outline.symbols = null;
+		invalidateLabels(outline, delta);
+	}
+
+	private static void invalidateLabels(Outline outline, IJavaElementDelta delta) {
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			if (child.getKind() != IJavaElementDelta.CHANGED || (child.getFlags() & LABEL_FLAGS) != 0) {
+				outline.labels.remove(child.getElement().getHandleIdentifier());
+			}
+			invalidateLabels(outline, child);
+		}
+	}
+
+	private static class Outline {
+		private final long stamp;
+		private SymbolInformation[] symbols;
+		private final Map<String, String> labels;
+
+		private Outline(long stamp, SymbolInformation[] symbols, Map<String, String> labels) {
+			this.stamp = stamp;
+			this.symbols = symbols;
+			this.labels = labels;
+		}
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "DocumentSymbolCache [size=" + outlines.size() + ", hits=" + hitCount + ", misses=" + missCount + "]";
+	}
+}
@@ -13,23 +13,33 @@ package org.eclipse.jdt.ls.core.internal.handlers;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.Set;
 
+import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.IParent;
+import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.ITypeRoot;
 import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.SourceRange;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.ResourceUtils;
 import org.eclipse.jdt.ls.core.internal.hover.JavaElementLabels;
+import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.lsp4j.DocumentSymbolParams;
 import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.SymbolInformation;
 import org.eclipse.lsp4j.SymbolKind;
 
@@ -46,54 +56,124 @@ public class DocumentSymbolHandler {
 	}
 
 	private SymbolInformation[] getOutline(ITypeRoot unit, IProgressMonitor monitor) {
+		DocumentSymbolCache cache = JavaLanguageServerPlugin.getDocumentSymbolCache();
+		long stamp = JDTUtils.getContentStamp(unit);
+		if (cache != null) {
+			SymbolInformation[] symbols = cache.getSymbols(unit, stamp);
+			if (symbols != null) {
+				return symbols;
+			}
+		}
 		try {
-			IJavaElement[] elements = unit.getChildren();
-			ArrayList<SymbolInformation> symbols = new ArrayList<>(elements.length);
-			collectChildren(unit, elements, symbols, monitor);
-			return symbols.toArray(new SymbolInformation[symbols.size()]);
+			Map<String, String> labels = cache == null ? Collections.emptyMap() : cache.getLabels(unit);
+			Outline outline = new Outline(unit, labels);
+			collectChildren(unit.getChildren(), outline, monitor);
+			if (monitor.isCanceled()) {
+				return new SymbolInformation[0];
+			}
+			SymbolInformation[] symbols = outline.symbols.toArray(new SymbolInformation[outline.symbols.size()]);
+			if (cache != null && stamp != IResource.NULL_STAMP) {
+				cache.put(unit, stamp, symbols, outline.labels);
+			}
+			return symbols;
 		} catch (JavaModelException e) {
 			JavaLanguageServerPlugin.logException("Problem getting outline for" +  unit.getElementName(), e);
 		}
 		return new SymbolInformation[0];
 	}
 
-	private void collectChildren(ITypeRoot unit, IJavaElement[] elements, ArrayList<SymbolInformation> symbols,
-			IProgressMonitor monitor)
-			throws JavaModelException {
-		for(IJavaElement element : elements ){
+	private void collectChildren(IJavaElement[] elements, Outline outline, IProgressMonitor monitor) throws JavaModelException {
+		for (IJavaElement element : elements) {
 			if (monitor.isCanceled()) {
 				return;
 			}
-			if(element instanceof IParent){
-				collectChildren(unit, filter(((IParent) element).getChildren()), symbols, monitor);
+			if (isInitializer(element) || isSyntheticElement(element)) {
+				continue;
+			}
+			if (element instanceof IParent) {
+				collectChildren(((IParent) element).getChildren(), outline, monitor);
 			}
 			int type = element.getElementType();
 			if (type != IJavaElement.TYPE && type != IJavaElement.FIELD && type != IJavaElement.METHOD) {
 				continue;
 			}
-
-			Location location = JDTUtils.toLocation(element);
+			Location location = outline.toLocation(element);
 			if (location != null) {
 				SymbolInformation si = new SymbolInformation();
-				String name = JavaElementLabels.getElementLabel(element, JavaElementLabels.ALL_DEFAULT);
-				si.setName(name == null ? element.getElementName() : name);
+				si.setName(outline.getLabel(element));
 				si.setKind(mapKind(element));
 				if (element.getParent() != null) {
 					si.setContainerName(element.getParent().getElementName());
 				}
-				location.setUri(ResourceUtils.toClientUri(location.getUri()));
 				si.setLocation(location);
-				if (!symbols.contains(si)) {
-					symbols.add(si);
+				if (outline.found.add(si)) {
+					outline.symbols.add(si);
 				}
 			}
 		}
 	}
 
-	private IJavaElement[] filter(IJavaElement[] elements) {
-		return Stream.of(elements)
-				.filter(e -> (!isInitializer(e) && !isSyntheticElement(e)))
-				.toArray(IJavaElement[]::new);
+	/**
+	 * The outline of a document being computed.
+	 */
+	private static class Outline {
+		private final String uri;
+		private final String contents;
+		private final LineIndex lines;
+		private final Map<String, String> cachedLabels;
+		private final Map<String, String> labels = new HashMap<>();
+		private final List<SymbolInformation> symbols = new ArrayList<>();
+		private final Set<SymbolInformation> found = new HashSet<>();
+
+		private Outline(ITypeRoot unit, Map<String, String> cachedLabels) throws JavaModelException {
+			String unitUri = JDTUtils.toUri(unit);
+			this.uri = unitUri == null ? null : ResourceUtils.toClientUri(unitUri);
+			IBuffer buffer = uri == null ? null : unit.getBuffer();
+			this.contents = buffer == null ? null : buffer.getContents();
+			this.lines = contents == null ? null : LineIndex.of(contents);
+			this.cachedLabels = cachedLabels;
+		}
+
+		private String getLabel(IJavaElement element) {
+			String handle = element.getHandleIdentifier();
+			String label = cachedLabels.get(handle);
+			if (label == null) {
+				label = JavaElementLabels.getElementLabel(element, JavaElementLabels.ALL_DEFAULT);
+				if (label == null) {
+					label = element.getElementName();
+				}
+			}
+			labels.put(handle, label);
+			return label;
+		}
+
+		private Location toLocation(IJavaElement element) throws JavaModelException {
+			if (uri == null) {
+				return null;
+			}
+			ISourceRange nameRange = JDTUtils.getNameRange(element);
+			if (!SourceRange.isAvailable(nameRange)) {
+				return null;
+			}
+			int offset = nameRange.getOffset();
+			int length = nameRange.getLength();
+			Range range = JDTUtils.newRange();
+			if (lines != null && (offset > 0 || length > 0)) {
+				setPosition(range.getStart(), offset);
+				setPosition(range.getEnd(), offset + length);
+			}
+			return new Location(uri, range);
+		}
+
+		private void setPosition(Position position, int offset) {
+			try {
+				int line = lines.getLineOfOffset(offset);
+				position.setLine(line);
+				position.setCharacter(offset - lines.getLineOffset(line));
+			} catch (BadLocationException e) {
+				JavaLanguageServerPlugin.logException(e.getMessage(), e);
+			}
+		}
 	}
 
 	private boolean isInitializer(IJavaElement element) {
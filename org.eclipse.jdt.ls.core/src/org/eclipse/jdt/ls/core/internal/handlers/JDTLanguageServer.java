@@ -26,6 +26,7 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import org.apache.commons.lang3.StringUtils;
@@ -51,7 +52,10 @@ import org.eclipse.jdt.ls.core.internal.JavaClientConnection.JavaLanguageClient;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.JobHelpers;
 import org.eclipse.jdt.ls.core.internal.LanguageServerWorkingCopyOwner;
+import org.eclipse.jdt.ls.core.internal.ReferencesParams;
+import org.eclipse.jdt.ls.core.internal.ReferencesPartialResult;
 import org.eclipse.jdt.ls.core.internal.ServiceStatus;
+import org.eclipse.jdt.ls.core.internal.handlers.RequestScheduler.Lane;
 import org.eclipse.jdt.ls.core.internal.lsp.JavaProtocolExtensions;
 import org.eclipse.jdt.ls.core.internal.managers.ContentProviderManager;
 import org.eclipse.jdt.ls.core.internal.managers.FormatterManager;
@@ -124,11 +128,14 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	private LanguageServerWorkingCopyOwner workingCopyOwner;
 	private PreferenceManager preferenceManager;
 	private DocumentLifeCycleHandler documentLifeCycleHandler;
+	private WorkspaceEventsHandler workspaceEventsHandler;
 
 	private Set<String> registeredCapabilities = new HashSet<>(3);
 
 	private ProgressReporterManager progressReporterManager;
 
+	private final RequestScheduler scheduler;
+
 	public LanguageServerWorkingCopyOwner getWorkingCopyOwner() {
 		return workingCopyOwner;
 	}
@@ -136,6 +143,8 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public JDTLanguageServer(ProjectsManager projects, PreferenceManager preferenceManager) {
 		this.pm = projects;
 		this.preferenceManager = preferenceManager;
+		ServerMetrics metrics = JavaLanguageServerPlugin.getServerMetrics();
+		this.scheduler = new RequestScheduler(metrics == null ? new ServerMetrics() : metrics);
 	}
 
 	public void connectClient(JavaLanguageClient client) {
@@ -146,6 +155,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		pm.setConnection(client);
 		WorkingCopyOwner.setPrimaryBufferProvider(this.workingCopyOwner);
 		this.documentLifeCycleHandler = new DocumentLifeCycleHandler(this.client, preferenceManager, pm, true);
+		this.workspaceEventsHandler = new WorkspaceEventsHandler(pm, this.client, true);
 	}
 
 	//For testing purposes
@@ -245,6 +255,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		return computeAsync((monitor) -> {
 			try {
 				InitHandler.removeWorkspaceDiagnosticsHandler();
+				DiagnosticsPublisher.removePublisher(client);
 				ResourcesPlugin.getWorkspace().save(true, monitor);
 			} catch (CoreException e) {
 				logException(e.getMessage(), e);
@@ -294,7 +305,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends SymbolInformation>> symbol(WorkspaceSymbolParams params) {
 		logInfo(">> workspace/symbol");
 		WorkspaceSymbolHandler handler = new WorkspaceSymbolHandler(preferenceManager);
-		return computeAsync((monitor) -> {
+		return computeAsync("workspace/symbol", Lane.BACKGROUND, params, null, (monitor) -> {
 			return handler.search(params.getQuery(), monitor);
 		});
 	}
@@ -393,7 +404,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	@Override
 	public void didChangeWatchedFiles(DidChangeWatchedFilesParams params) {
 		logInfo(">> workspace/didChangeWatchedFiles ");
-		WorkspaceEventsHandler handler = new WorkspaceEventsHandler(pm, client);
+		WorkspaceEventsHandler handler = workspaceEventsHandler == null ? new WorkspaceEventsHandler(pm, client) : workspaceEventsHandler;
 		handler.didChangeWatchedFiles(params);
 	}
 
@@ -417,7 +428,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		logInfo(">> document/completion");
 		CompletionHandler handler = new CompletionHandler();
 		final IProgressMonitor[] monitors = new IProgressMonitor[1];
-		CompletableFuture<Either<List<CompletionItem>, CompletionList>> result = computeAsync((monitor) -> {
+		CompletableFuture<Either<List<CompletionItem>, CompletionList>> result = computeAsync("textDocument/completion", Lane.INTERACTIVE, (monitor) -> {
 			monitors[0] = monitor;
 			if (Boolean.getBoolean(JAVA_LSP_JOIN_ON_COMPLETION)) {
 				waitForLifecycleJobs(monitor);
@@ -439,7 +450,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		logInfo(">> document/resolveCompletionItem");
 		CompletionResolveHandler handler = new CompletionResolveHandler(preferenceManager);
 		final IProgressMonitor[] monitors = new IProgressMonitor[1];
-		CompletableFuture<CompletionItem> result = computeAsync((monitor) -> {
+		CompletableFuture<CompletionItem> result = computeAsync("completionItem/resolve", Lane.INTERACTIVE, (monitor) -> {
 			monitors[0] = monitor;
 			if ((Boolean.getBoolean(JAVA_LSP_JOIN_ON_COMPLETION))) {
 				waitForLifecycleJobs(monitor);
@@ -460,7 +471,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<Hover> hover(TextDocumentPositionParams position) {
 		logInfo(">> document/hover");
 		HoverHandler handler = new HoverHandler(this.preferenceManager);
-		return computeAsync((monitor) -> handler.hover(position, monitor));
+		return computeAsync("textDocument/hover", Lane.INTERACTIVE, position, position.getTextDocument().getUri(), (monitor) -> handler.hover(position, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -470,7 +481,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<SignatureHelp> signatureHelp(TextDocumentPositionParams position) {
 		logInfo(">> document/signatureHelp");
 		SignatureHelpHandler handler = new SignatureHelpHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.signatureHelp(position, monitor));
+		return computeAsync("textDocument/signatureHelp", Lane.INTERACTIVE, position, position.getTextDocument().getUri(), (monitor) -> handler.signatureHelp(position, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -480,7 +491,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends Location>> definition(TextDocumentPositionParams position) {
 		logInfo(">> document/definition");
 		NavigateToDefinitionHandler handler = new NavigateToDefinitionHandler(this.preferenceManager);
-		return computeAsync((monitor) -> {
+		return computeAsync("textDocument/definition", Lane.INTERACTIVE, position, null, (monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return handler.definition(position, monitor);
 		});
@@ -493,7 +504,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends Location>> references(ReferenceParams params) {
 		logInfo(">> document/references");
 		ReferencesHandler handler = new ReferencesHandler(this.preferenceManager);
-		return computeAsync((monitor) -> handler.findReferences(params, monitor));
+		return computeAsync("textDocument/references", Lane.BACKGROUND, params, null, (monitor) -> handler.findReferences(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -503,7 +514,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends DocumentHighlight>> documentHighlight(TextDocumentPositionParams position) {
 		logInfo(">> document/documentHighlight");
 		DocumentHighlightHandler handler = new DocumentHighlightHandler();
-		return computeAsync((monitor) -> handler.documentHighlight(position, monitor));
+		return computeAsync("textDocument/documentHighlight", Lane.INTERACTIVE, position, position.getTextDocument().getUri(), (monitor) -> handler.documentHighlight(position, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -513,7 +524,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends SymbolInformation>> documentSymbol(DocumentSymbolParams params) {
 		logInfo(">> document/documentSymbol");
 		DocumentSymbolHandler handler = new DocumentSymbolHandler();
-		return computeAsync((monitor) -> handler.documentSymbol(params, monitor));
+		return computeAsync("textDocument/documentSymbol", Lane.BACKGROUND, params, params.getTextDocument().getUri(), (monitor) -> handler.documentSymbol(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -522,8 +533,8 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	@Override
 	public CompletableFuture<List<? extends Command>> codeAction(CodeActionParams params) {
 		logInfo(">> document/codeAction");
-		CodeActionHandler handler = new CodeActionHandler();
-		return computeAsync((monitor) -> {
+		CodeActionHandler handler = new CodeActionHandler(this.preferenceManager);
+		return computeAsync("textDocument/codeAction", Lane.INTERACTIVE, (monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return handler.getCodeActionCommands(params, monitor);
 		});
@@ -536,7 +547,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends CodeLens>> codeLens(CodeLensParams params) {
 		logInfo(">> document/codeLens");
 		CodeLensHandler handler = new CodeLensHandler(preferenceManager);
-		return computeAsync((monitor) -> {
+		return computeAsync("textDocument/codeLens", Lane.BACKGROUND, params, params.getTextDocument().getUri(), (monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return handler.getCodeLensSymbols(params.getTextDocument().getUri(), monitor);
 		});
@@ -549,7 +560,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<CodeLens> resolveCodeLens(CodeLens unresolved) {
 		logInfo(">> codeLens/resolve");
 		CodeLensHandler handler = new CodeLensHandler(preferenceManager);
-		return computeAsync((monitor) -> {
+		return computeAsync("codeLens/resolve", Lane.BACKGROUND, unresolved, null, (monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return handler.resolve(unresolved, monitor);
 		});
@@ -562,7 +573,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends TextEdit>> formatting(DocumentFormattingParams params) {
 		logInfo(">> document/formatting");
 		FormatterHandler handler = new FormatterHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.formatting(params, monitor));
+		return computeAsync("textDocument/formatting", Lane.INTERACTIVE, (monitor) -> handler.formatting(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -572,7 +583,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends TextEdit>> rangeFormatting(DocumentRangeFormattingParams params) {
 		logInfo(">> document/rangeFormatting");
 		FormatterHandler handler = new FormatterHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.rangeFormatting(params, monitor));
+		return computeAsync("textDocument/rangeFormatting", Lane.INTERACTIVE, (monitor) -> handler.rangeFormatting(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -582,7 +593,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<? extends TextEdit>> onTypeFormatting(DocumentOnTypeFormattingParams params) {
 		logInfo(">> document/onTypeFormatting");
 		FormatterHandler handler = new FormatterHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.onTypeFormatting(params, monitor));
+		return computeAsync("textDocument/onTypeFormatting", Lane.INTERACTIVE, (monitor) -> handler.onTypeFormatting(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -592,7 +603,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<WorkspaceEdit> rename(RenameParams params) {
 		logInfo(">> document/rename");
 		RenameHandler handler = new RenameHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.rename(params, monitor));
+		return computeAsync("textDocument/rename", Lane.INTERACTIVE, (monitor) -> handler.rename(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -610,6 +621,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	@Override
 	public void didChange(DidChangeTextDocumentParams params) {
 		logInfo(">> document/didChange");
+		scheduler.documentChanged(params.getTextDocument().getUri());
 		documentLifeCycleHandler.didChange(params);
 	}
 
@@ -619,6 +631,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	@Override
 	public void didClose(DidCloseTextDocumentParams params) {
 		logInfo(">> document/didClose");
+		scheduler.documentClosed(params.getTextDocument().getUri());
 		documentLifeCycleHandler.didClose(params);
 	}
 
@@ -629,7 +642,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 	public CompletableFuture<List<TextEdit>> willSaveWaitUntil(WillSaveTextDocumentParams params) {
 		logInfo(">> document/willSaveWailUntil");
 		SaveActionHandler handler = new SaveActionHandler(preferenceManager);
-		return computeAsync((monitor) -> handler.willSaveWaitUntil(params, monitor));
+		return computeAsync("textDocument/willSaveWaitUntil", Lane.INTERACTIVE, (monitor) -> handler.willSaveWaitUntil(params, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -649,7 +662,7 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		logInfo(">> java/classFileContents");
 		ContentProviderManager handler = JavaLanguageServerPlugin.getContentProviderManager();
 		URI uri = JDTUtils.toURI(param.getUri());
-		return computeAsync((monitor) -> handler.getContent(uri, monitor));
+		return computeAsync("java/classFileContents", Lane.INTERACTIVE, param, null, (monitor) -> handler.getContent(uri, monitor));
 	}
 
 	/* (non-Javadoc)
@@ -672,6 +685,39 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		return computeAsync((monitor) -> handler.buildWorkspace(forceReBuild, monitor));
 	}
 
+	/* (non-Javadoc)
+	 * @see org.eclipse.jdt.ls.core.internal.JavaProtocolExtensions#serverMetrics()
+	 */
+	@Override
+	public CompletableFuture<ServerMetrics.Report> serverMetrics() {
+		logInfo(">> java/serverMetrics");
+		return CompletableFuture.completedFuture(scheduler.getMetrics().getReport());
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.jdt.ls.core.internal.JavaProtocolExtensions#findReferences(org.eclipse.jdt.ls.core.internal.ReferencesParams)
+	 */
+	@Override
+	public CompletableFuture<List<Location>> findReferences(ReferencesParams params) {
+		logInfo(">> java/findReferences");
+		ReferencesHandler handler = new ReferencesHandler(this.preferenceManager);
+		String token = params.getPartialResultToken();
+		Consumer<List<Location>> partialResults = token == null ? null : (locations) -> client.sendReferencesPartialResult(new ReferencesPartialResult(token, locations));
+		// a streamed request sends its locations under its own token, so it is never shared
+		Object key = partialResults == null ? params : null;
+		return computeAsync("java/findReferences", Lane.BACKGROUND, key, null, (monitor) -> handler.findReferences(params, partialResults, monitor));
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.jdt.ls.core.internal.JavaProtocolExtensions#resolveCodeAction(java.lang.String)
+	 */
+	@Override
+	public CompletableFuture<WorkspaceEdit> resolveCodeAction(String codeActionId) {
+		logInfo(">> java/resolveCodeAction");
+		CodeActionHandler handler = new CodeActionHandler(this.preferenceManager);
+		return computeAsync("java/resolveCodeAction", Lane.INTERACTIVE, (monitor) -> handler.resolveCodeAction(codeActionId, monitor));
+	}
+
 	/* (non-Javadoc)
 	 * @see org.eclipse.lsp4j.services.WorkspaceService#didChangeWorkspaceFolders(DidChangeWorkspaceFoldersParams)
 	 */
@@ -716,6 +762,18 @@ public class JDTLanguageServer implements LanguageServer, TextDocumentService, W
 		return CompletableFutures.computeAsync(cc -> code.apply(toMonitor(cc)));
 	}
 
+	private <R> CompletableFuture<R> computeAsync(String method, Lane lane, Function<IProgressMonitor, R> code) {
+		return scheduler.schedule(method, lane, code);
+	}
+
+	/**
+	 * Runs a request that can share the computation of an identical request,
+	 * and that is dropped if its document changes before it runs.
+	 */
+	private <R> CompletableFuture<R> computeAsync(String method, Lane lane, Object params, String uri, Function<IProgressMonitor, R> code) {
+		return scheduler.schedule(method, lane, params, uri, code);
+	}
+
 	private IProgressMonitor toMonitor(CancelChecker checker) {
 		return new CancellableProgressMonitor(checker);
 	}
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jface.text.BadLocationException;
+
+/**
+ * The offsets of the lines of a text, to convert offsets to positions without
+ * creating a document.
+ *
+ * The indexes of the most recently used files are cached until the files
+ * change.
+ */
+public final class LineIndex {
+
+	private static final int MAX_CACHED_FILES = 256;
+
+	private static final Map<IPath, LineIndex> cache = new LinkedHashMap<IPath, LineIndex>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<IPath, LineIndex> eldest) {
+			return size() > MAX_CACHED_FILES;
+		}
+	};
+
+	private final int[] lineOffsets;
+	private final int lineCount;
+	private final int length;
+	private long modificationStamp;
+
+	private LineIndex(int[] lineOffsets, int lineCount, int length) {
+		this.lineOffsets = lineOffsets;
+		this.lineCount = lineCount;
+		this.length = length;
+	}
+
+	/**
+	 * @return the index of the lines of the given text
+	 */
+	public static LineIndex of(CharSequence text) {
+		int[] offsets = new int[16];
+		int count = 1;
+		int length = text.length();
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			if (c == '\r' && i + 1 < length && text.charAt(i + 1) == '\n') {
+				i++;
+			} else if (c != '\r' && c != '\n') {
+				continue;
+			}
+			if (count == offsets.length) {
+				offsets = Arrays.copyOf(offsets, count * 2);
+			}
+			offsets[count++] = i + 1;
+		}
+		return new LineIndex(offsets, count, length);
+	}
+
+	/**
+	 * Returns the index of the lines of the given file, as stored on disk.
+	 *
+	 * @param file
+	 *            the file
+	 * @return the index of the lines of the file, or <code>null</code> if it
+	 *         can't be read
+	 */
+	public static LineIndex of(IFile file) {
+		if (file == null || !file.isAccessible()) {
+			return null;
+		}
+		IPath path = file.getFullPath();
+		long modificationStamp = file.getModificationStamp();
+		synchronized (cache) {
+			LineIndex index = cache.get(path);
+			if (index != null && index.modificationStamp == modificationStamp) {
+				return index;
+			}
+		}
+		StringBuilder content = new StringBuilder();
+		try (InputStream in = file.getContents(true); Reader reader = new InputStreamReader(in, file.getCharset())) {
+			char[] buffer = new char[8192];
+			int read;
+			while ((read = reader.read(buffer)) != -1) {
+				content.append(buffer, 0, read);
+			}
+		} catch (CoreException | IOException e) {
+			return null;
+		}
+		LineIndex index = of(content);
+		index.modificationStamp = modificationStamp;
+		synchronized (cache) {
+			cache.put(path, index);
+		}
+		return index;
+	}
+
+	public int getNumberOfLines() {
+		return lineCount;
+	}
+
+	/**
+	 * @param line
+	 *            the 0-based line
+	 * @return the offset of the first character of the line
+	 * @throws BadLocationException
+	 *             if the line doesn't exist
+	 */
+	public int getLineOffset(int line) throws BadLocationException {
+		if (line < 0 || line >= lineCount) {
+			throw new BadLocationException("Line " + line + " out of range");
+		}
+		return lineOffsets[line];
+	}
+
+	/**
+	 * @param offset
+	 *            the offset in the text
+	 * @return the 0-based line containing the offset
+	 * @throws BadLocationException
+	 *             if the offset is outside of the text
+	 */
+	public int getLineOfOffset(int offset) throws BadLocationException {
+		if (offset < 0 || offset > length) {
+			throw new BadLocationException("Offset " + offset + " out of range");
+		}
+		int line = Arrays.binarySearch(lineOffsets, 0, lineCount, offset);
+		return line >= 0 ? line : -line - 2;
+	}
+}
@@ -11,15 +11,20 @@
 package org.eclipse.jdt.ls.core.internal.handlers;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.IClassFile;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.ITypeRoot;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.search.IJavaSearchConstants;
@@ -37,36 +42,82 @@ import org.eclipse.lsp4j.ReferenceParams;
 
 public final class ReferencesHandler {
 
+	/**
+	 * The number of locations sent to the client in each partial result
+	 */
+	private static final int BATCH_SIZE = 50;
+
 	private final PreferenceManager preferenceManager;
 
 	public ReferencesHandler(PreferenceManager preferenceManager) {
 		this.preferenceManager = preferenceManager;
 	}
 
-	private IJavaSearchScope createSearchScope() throws JavaModelException {
-		IJavaProject[] projects = JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()).getJavaProjects();
-		int scope = IJavaSearchScope.SOURCES;
-		if (preferenceManager.isClientSupportsClassFileContent()) {
-			scope |= IJavaSearchScope.APPLICATION_LIBRARIES;
+	/**
+	 * @return the scopes to search, in order: the open documents, the project
+	 *         of the current document, and the rest of the workspace
+	 */
+	private List<IJavaSearchScope> createSearchScopes(IJavaProject currentProject, boolean includeClassFiles) throws JavaModelException {
+		List<IJavaSearchScope> scopes = new ArrayList<>();
+		ICompilationUnit[] workingCopies = JavaCore.getWorkingCopies(null);
+		if (workingCopies.length > 0) {
+			scopes.add(SearchEngine.createJavaSearchScope(workingCopies, IJavaSearchScope.SOURCES));
+		}
+		SearchScopeCache searchScopeCache = JavaLanguageServerPlugin.getSearchScopeCache();
+		if (searchScopeCache == null) {
+			IJavaProject[] projects = JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()).getJavaProjects();
+			int scope = IJavaSearchScope.SOURCES;
+			if (includeClassFiles) {
+				scope |= IJavaSearchScope.APPLICATION_LIBRARIES;
+			}
+			scopes.add(SearchEngine.createJavaSearchScope(projects, scope));
+		} else if (currentProject != null && currentProject.exists()) {
+			scopes.add(searchScopeCache.getProjectScope(currentProject, includeClassFiles));
+			scopes.add(searchScopeCache.getWorkspaceScope(currentProject, includeClassFiles));
+		} else {
+			scopes.add(searchScopeCache.getWorkspaceScope(includeClassFiles));
 		}
-		return SearchEngine.createJavaSearchScope(projects, scope);
+		return scopes;
 	}
 
 	public List<Location> findReferences(ReferenceParams param, IProgressMonitor monitor) {
+		return findReferences(param, null, monitor);
+	}
+
+	/**
+	 * Finds the references to the element at the given position. The open
+	 * documents are searched first, then the project of the document, then
+	 * the rest of the workspace. The search stops once the maximum number of
+	 * results is reached, see {@link org.eclipse.jdt.ls.core.internal.preferences.Preferences#getReferencesMaxResults()}.
+	 *
+	 * @param param
+	 *            the position of the element
+	 * @param partialResults
+	 *            receives the locations in batches, as soon as they're found,
+	 *            or <code>null</code> to return all the locations at once
+	 * @param monitor
+	 *            the progress monitor
+	 * @return the locations not passed to <code>partialResults</code>
+	 */
+	public List<Location> findReferences(ReferenceParams param, Consumer<List<Location>> partialResults, IProgressMonitor monitor) {
 
 		final List<Location> locations = new ArrayList<>();
 		try {
-			IJavaElement elementToSearch = JDTUtils.findElementAtSelection(JDTUtils.resolveTypeRoot(param.getTextDocument().getUri()), param.getPosition().getLine(), param.getPosition().getCharacter(), this.preferenceManager, monitor);
+			ITypeRoot typeRoot = JDTUtils.resolveTypeRoot(param.getTextDocument().getUri());
+			IJavaElement elementToSearch = JDTUtils.findElementAtSelection(typeRoot, param.getPosition().getLine(), param.getPosition().getCharacter(), this.preferenceManager, monitor);
 
 			if (elementToSearch == null) {
 				return locations;
 			}
 
 			boolean includeClassFiles = preferenceManager.isClientSupportsClassFileContent();
+			int maxResults = preferenceManager.getPreferences().getReferencesMaxResults();
 			SearchEngine engine = new SearchEngine();
 			SearchPattern pattern = SearchPattern.createPattern(elementToSearch, IJavaSearchConstants.REFERENCES);
+			Set<String> found = new HashSet<>();
+			boolean[] limitReached = new boolean[1];
 
-			engine.search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() }, createSearchScope(), new SearchRequestor() {
+			SearchRequestor requestor = new SearchRequestor() {
 
 				@Override
 				public void acceptSearchMatch(SearchMatch match) throws CoreException {
@@ -74,21 +125,52 @@ public final class ReferencesHandler {
 					if (o instanceof IJavaElement) {
 						IJavaElement element = (IJavaElement) o;
 						ICompilationUnit compilationUnit = (ICompilationUnit) element.getAncestor(IJavaElement.COMPILATION_UNIT);
-						Location location = null;
+						IJavaElement container = null;
 						if (compilationUnit != null) {
-							location = JDTUtils.toLocation(compilationUnit, match.getOffset(), match.getLength());
+							container = compilationUnit;
 						} else if (includeClassFiles) {
 							IClassFile cf = (IClassFile) element.getAncestor(IJavaElement.CLASS_FILE);
 							if (cf != null && cf.getSourceRange() != null) {
-								location = JDTUtils.toLocation(cf, match.getOffset(), match.getLength());
+								container = cf;
 							}
 						}
+						// the scopes overlap, a match may be found more than once
+						if (container == null || !found.add(container.getHandleIdentifier() + '#' + match.getOffset())) {
+							return;
+						}
+						Location location;
+						if (compilationUnit != null) {
+							location = JDTUtils.toLocation(compilationUnit, match.getOffset(), match.getLength());
+						} else {
+							location = JDTUtils.toLocation((IClassFile) container, match.getOffset(), match.getLength());
+						}
 						if (location != null) {
 							locations.add(location);
+							if (partialResults != null && locations.size() >= BATCH_SIZE) {
+								sendPartialResults(locations, partialResults);
+							}
+							if (maxResults > 0 && found.size() >= maxResults) {
+								limitReached[0] = true;
+								throw new OperationCanceledException();
+							}
 						}
 					}
 				}
-			}, monitor);
+			};
+
+			IJavaProject currentProject = typeRoot == null ? null : typeRoot.getJavaProject();
+			try {
+				for (IJavaSearchScope scope : createSearchScopes(currentProject, includeClassFiles)) {
+					engine.search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() }, scope, requestor, monitor);
+					if (partialResults != null && !locations.isEmpty()) {
+						sendPartialResults(locations, partialResults);
+					}
+				}
+			} catch (OperationCanceledException e) {
+				if (!limitReached[0]) {
+					throw e;
+				}
+			}
 
 		} catch (CoreException e) {
 			JavaLanguageServerPlugin.logException("Find references failure ", e);
@@ -96,4 +178,9 @@ public final class ReferencesHandler {
 		return locations;
 	}
 
-}
\ No newline at end of file
+	private static void sendPartialResults(List<Location> locations, Consumer<List<Location>> partialResults) {
+		partialResults.accept(new ArrayList<>(locations));
+		locations.clear();
+	}
+
+}
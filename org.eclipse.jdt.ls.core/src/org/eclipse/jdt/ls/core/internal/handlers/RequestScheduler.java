@@ -0,0 +1,278 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.ls.core.internal.CancellableProgressMonitor;
+import org.eclipse.jdt.ls.core.internal.handlers.ServerMetrics.MethodMetrics;
+
+/**
+ * Runs the requests of the language server.
+ *
+ * Interactive requests, such as completion or hover, and background requests,
+ * such as code lenses or references, run in separate thread pools, so that
+ * interactive requests never wait behind background ones. Identical requests
+ * in flight are computed once. The requests bound to the position of a
+ * document are dropped when the document changed before they could start.
+ */
+public class RequestScheduler {
+
+	public enum Lane {
+		INTERACTIVE, BACKGROUND
+	}
+
+	private static final int BACKGROUND_THREADS = 2;
+
+	private final ExecutorService interactiveExecutor;
+	private final ExecutorService backgroundExecutor;
+	private final Map<String, Request<?>> inFlight = new ConcurrentHashMap<>();
+	private final Map<String, AtomicInteger> versions = new ConcurrentHashMap<>();
+	private final ServerMetrics metrics;
+
+	public RequestScheduler() {
+		this(new ServerMetrics());
+	}
+
+	/**
+	 * @param metrics
+	 *            the metrics the requests are recorded in
+	 */
+	public RequestScheduler(ServerMetrics metrics) {
+		this.metrics = metrics;
+		int interactiveThreads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+		interactiveExecutor = createExecutor("Interactive Request", interactiveThreads, Thread.NORM_PRIORITY);
+		backgroundExecutor = createExecutor("Background Request", BACKGROUND_THREADS, Thread.NORM_PRIORITY - 1);
+	}
+
+	private static ExecutorService createExecutor(String name, int threads, int priority) {
+		AtomicInteger count = new AtomicInteger();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+			Thread thread = new Thread(runnable, name + " " + count.incrementAndGet());
+			thread.setDaemon(true);
+			thread.setPriority(priority);
+			return thread;
+		});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * Runs a request.
+	 *
+	 * @param method
+	 *            the LSP method of the request
+	 * @param lane
+	 *            the lane of the request
+	 * @param code
+	 *            the computation of the request
+	 * @return the future result of the request, cancelling it cancels the
+	 *         computation
+	 */
+	public <R> CompletableFuture<R> schedule(String method, Lane lane, Function<IProgressMonitor, R> code) {
+		return schedule(method, lane, null, null, code);
+	}
+
+	/**
+	 * Runs a request, sharing the computation of an identical request in
+	 * flight.
+	 *
+	 * @param method
+	 *            the LSP method of the request
+	 * @param lane
+	 *            the lane of the request
+	 * @param params
+	 *            the parameters of the request, identical requests have equal
+	 *            parameters, or <code>null</code> if the request must not be
+	 *            shared
+	 * @param uri
+	 *            the uri of the document the request depends on the content
+	 *            of, or <code>null</code> if the request must run even if the
+	 *            document changes
+	 * @param code
+	 *            the computation of the request
+	 * @return the future result of the request, cancelling it only cancels the
+	 *         computation if no identical request is waiting for it
+	 */
+	public <R> CompletableFuture<R> schedule(String method, Lane lane, Object params, String uri, Function<IProgressMonitor, R> code) {
+		String key = params == null ? null : method + ':' + params;
+		AtomicInteger documentVersion = uri == null ? null : getVersion(uri);
+		int version = documentVersion == null ? 0 : documentVersion.get();
+		CompletableFuture<R> result = new CompletableFuture<>();
+		while (true) {
+			Request<R> request = new Request<>(method, key, documentVersion, version, code);
+			if (key != null) {
+				@SuppressWarnings("unchecked")
+				Request<R> existing = (Request<R>) inFlight.putIfAbsent(key, request);
+				if (existing != null) {
+					if (existing.documentVersion == documentVersion && existing.version == version && existing.addWaiter(result)) {
+						metrics.getMethodMetrics(method).coalesced();
+						return result;
+					}
+					// the request in flight is for another content of the document, or completing
+					inFlight.remove(key, existing);
+					continue;
+				}
+			}
+			request.addWaiter(result);
+			(lane == Lane.INTERACTIVE ? interactiveExecutor : backgroundExecutor).execute(request);
+			return result;
+		}
+	}
+
+	/**
+	 * Drops the requests on the given document that are waiting to run.
+	 *
+	 * @param uri
+	 *            the uri of the changed document
+	 */
+	public void documentChanged(String uri) {
+		if (uri != null) {
+			getVersion(uri).incrementAndGet();
+		}
+	}
+
+	/**
+	 * Drops the requests on the given document that are waiting to run, and
+	 * forgets the document.
+	 *
+	 * @param uri
+	 *            the uri of the closed document
+	 */
+	public void documentClosed(String uri) {
+		if (uri != null) {
+			AtomicInteger version = versions.remove(uri);
+			if (version != null) {
+				version.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * @return the metrics the requests are recorded in
+	 */
+	public ServerMetrics getMetrics() {
+		return metrics;
+	}
+
+	private AtomicInteger getVersion(String uri) {
+		return versions.computeIfAbsent(uri, u -> new AtomicInteger());
+	}
+
+	//For testing purposes
+	int getDocumentCount() {
+		return versions.size();
+	}
+
+	private class Request<R> implements Runnable {
+		private final String method;
+		private final String key;
+		private final AtomicInteger documentVersion;
+		private final int version;
+		private final Function<IProgressMonitor, R> code;
+		private final long scheduled = System.nanoTime();
+		private final List<CompletableFuture<R>> waiters = new ArrayList<>();
+		private boolean completing;
+
+		private Request(String method, String key, AtomicInteger documentVersion, int version, Function<IProgressMonitor, R> code) {
+			this.method = method;
+			this.key = key;
+			this.documentVersion = documentVersion;
+			this.version = version;
+			this.code = code;
+		}
+
+		private synchronized boolean addWaiter(CompletableFuture<R> waiter) {
+			if (completing) {
+				return false;
+			}
+			waiters.add(waiter);
+			return true;
+		}
+
+		/**
+		 * @return whether all the waiters were cancelled
+		 */
+		private synchronized boolean isCanceled() {
+			for (CompletableFuture<R> waiter : waiters) {
+				if (!waiter.isCancelled()) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public void run() {
+			long started = System.nanoTime();
+			long allocated = ServerMetrics.getAllocatedBytes();
+			MethodMetrics methodMetrics = metrics.getMethodMetrics(method);
+			R result = null;
+			Throwable error = null;
+			try {
+				if (documentVersion != null && documentVersion.get() != version) {
+					methodMetrics.dropped();
+					error = new CancellationException("The document changed");
+				} else if (isCanceled()) {
+					methodMetrics.cancelled();
+					error = new CancellationException();
+				} else {
+					result = code.apply(new CancellableProgressMonitor(() -> {
+						if (isCanceled()) {
+							throw new CancellationException();
+						}
+					}));
+				}
+			} catch (CancellationException e) {
+				methodMetrics.cancelled();
+				error = e;
+			} catch (Throwable e) {
+				methodMetrics.failed();
+				error = e;
+			} finally {
+				methodMetrics.record(started - scheduled, System.nanoTime() - started, allocated < 0 ? -1 : ServerMetrics.getAllocatedBytes() - allocated);
+			}
+			complete(result, error);
+		}
+
+		private void complete(R result, Throwable error) {
+			if (key != null) {
+				inFlight.remove(key, this);
+			}
+			List<CompletableFuture<R>> toComplete;
+			synchronized (this) {
+				completing = true;
+				toComplete = new ArrayList<>(waiters);
+			}
+			for (CompletableFuture<R> waiter : toComplete) {
+				if (error instanceof CancellationException) {
+					waiter.cancel(false);
+				} else if (error != null) {
+					waiter.completeExceptionally(error);
+				} else {
+					waiter.complete(result);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchEngine;
+
+/**
+ * Caches the search scopes spanning the Java projects of the workspace.
+ *
+ * The scopes are discarded whenever a Java project is added, removed, opened
+ * or closed, or when the classpath of a project changes.
+ */
+public class SearchScopeCache implements IElementChangedListener {
+
+	private final Map<String, IJavaSearchScope> scopes = new HashMap<>();
+	private long hitCount;
+	private long missCount;
+
+	/**
+	 * Returns the scope of all the Java projects of the workspace.
+	 *
+	 * @param includeClassFiles
+	 *            whether the libraries of the projects are part of the scope
+	 */
+	public IJavaSearchScope getWorkspaceScope(boolean includeClassFiles) throws JavaModelException {
+		return getWorkspaceScope(null, includeClassFiles);
+	}
+
+	/**
+	 * Returns the scope of all the Java projects of the workspace but the
+	 * given one.
+	 *
+	 * @param excluded
+	 *            the project left out of the scope, or <code>null</code>
+	 * @param includeClassFiles
+	 *            whether the libraries of the projects are part of the scope
+	 */
+	public synchronized IJavaSearchScope getWorkspaceScope(IJavaProject excluded, boolean includeClassFiles) throws JavaModelException {
+		String key = "workspace:" + (excluded == null ? "" : excluded.getElementName()) + ':' + includeClassFiles;
+		IJavaSearchScope scope = get(key);
+		if (scope == null) {
+			List<IJavaProject> projects = new ArrayList<>();
+			for (IJavaProject project : JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()).getJavaProjects()) {
+				if (!project.equals(excluded)) {
+					projects.add(project);
+				}
+			}
+			scope = createScope(projects.toArray(new IJavaElement[projects.size()]), includeClassFiles);
+			scopes.put(key, scope);
+		}
+		return scope;
+	}
+
+	/**
+	 * Returns the scope of the given Java project.
+	 *
+	 * @param includeClassFiles
+	 *            whether the libraries of the project are part of the scope
+	 */
+	public synchronized IJavaSearchScope getProjectScope(IJavaProject project, boolean includeClassFiles) {
+		String key = "project:" + project.getElementName() + ':' + includeClassFiles;
+		IJavaSearchScope scope = get(key);
+		if (scope == null) {
+			scope = createScope(new IJavaElement[] { project }, includeClassFiles);
+			scopes.put(key, scope);
+		}
+		return scope;
+	}
+
+	private IJavaSearchScope get(String key) {
+		IJavaSearchScope scope = scopes.get(key);
+		if (scope == null) {
+			missCount++;
+		} else {
+			hitCount++;
+		}
+		return scope;
+	}
+
+	private static IJavaSearchScope createScope(IJavaElement[] elements, boolean includeClassFiles) {
+		int includeMask = IJavaSearchScope.SOURCES;
+		if (includeClassFiles) {
+			includeMask |= IJavaSearchScope.APPLICATION_LIBRARIES;
+		}
+		return SearchEngine.createJavaSearchScope(elements, includeMask);
+	}
+
+	public synchronized void clear() {
+		scopes.clear();
+	}
+
+	public synchronized int size() {
+		return scopes.size();
+	}
+
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		if (affectsScopes(event.getDelta())) {
+			clear();
+		}
+	}
+
+	private static boolean affectsScopes(IJavaElementDelta delta) {
+		switch (delta.getElement().getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+				for (IJavaElementDelta child : delta.getAffectedChildren()) {
+					if (affectsScopes(child)) {
+						return true;
+					}
+				}
+				return false;
+			case IJavaElement.JAVA_PROJECT:
+				return delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags()
+						& (IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED | IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED)) != 0;
+			default:
+				return false;
+		}
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "SearchScopeCache [size=" + scopes.size() + ", hits=" + hitCount + ", misses=" + missCount + "]";
+	}
+}
@@ -0,0 +1,536 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.jdt.ls.core.internal.HoverCache;
+import org.eclipse.jdt.ls.core.internal.IConstants;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.javadoc.JavadocCache;
+import org.eclipse.jdt.ls.core.internal.managers.ClassFileContentCache;
+import org.eclipse.jdt.ls.core.internal.managers.ContentProviderManager;
+import org.eclipse.jdt.ls.core.internal.preferences.IPreferencesChangeListener;
+import org.eclipse.jdt.ls.core.internal.preferences.Preferences;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Metrics of the language server: the latency, allocations, cancellations and
+ * errors of the requests of each LSP method, the durations of the build,
+ * import, validation and reconcile jobs, the durations of the quick fix and
+ * quick assist processors, and the hit ratios of the caches.
+ *
+ * Recording a metric only updates a few atomic counters, so the metrics are
+ * always on. They can be periodically written to the <code>metrics.json</code>
+ * file of the workspace metadata, see
+ * {@link Preferences#JAVA_METRICS_DUMP_INTERVAL_KEY}.
+ */
+public class ServerMetrics extends JobChangeAdapter implements IPreferencesChangeListener {
+
+	public static final String BUILD = "build";
+	public static final String IMPORT = "import";
+	public static final String VALIDATION = "validation";
+	public static final String RECONCILE = "reconcile";
+
+	private static final String METRICS_FILE = "metrics.json";
+	private static final MethodHandle THREAD_ALLOCATED_BYTES = getThreadAllocatedBytesHandle();
+
+	private final Map<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+	private final Map<String, LatencyHistogram> jobs = new ConcurrentHashMap<>();
+	private final Map<String, ProcessorMetrics> processors = new ConcurrentHashMap<>();
+	private final Map<Job, Long> runningJobs = new ConcurrentHashMap<>();
+	private final long started = System.currentTimeMillis();
+	private final File stateLocation;
+	private DumpJob dumpJob;
+
+	public ServerMetrics() {
+		this(null);
+	}
+
+	/**
+	 * @param stateLocation
+	 *            the directory the metrics are dumped to, or <code>null</code>
+	 *            if the metrics are never dumped
+	 */
+	public ServerMetrics(File stateLocation) {
+		this.stateLocation = stateLocation;
+	}
+
+	/**
+	 * @return the metrics of the requests of the given LSP method
+	 */
+	public MethodMetrics getMethodMetrics(String method) {
+		return methods.computeIfAbsent(method, m -> new MethodMetrics());
+	}
+
+	/**
+	 * @return the metrics of the requests run so far, per LSP method
+	 */
+	public Map<String, MethodMetrics> getMethodMetrics() {
+		return Collections.unmodifiableMap(new TreeMap<>(methods));
+	}
+
+	/**
+	 * Records the duration of a job.
+	 *
+	 * @param category
+	 *            the kind of job, such as {@link #BUILD} or {@link #RECONCILE}
+	 * @param nanos
+	 *            the duration of the job, in nanoseconds
+	 */
+	public void recordJob(String category, long nanos) {
+		getJobHistogram(category).record(nanos);
+	}
+
+	/**
+	 * @return the durations of the jobs of the given kind
+	 */
+	public LatencyHistogram getJobHistogram(String category) {
+		return jobs.computeIfAbsent(category, c -> new LatencyHistogram());
+	}
+
+	/**
+	 * @return the metrics of the given quick fix or quick assist processor
+	 */
+	public ProcessorMetrics getProcessorMetrics(String processor) {
+		return processors.computeIfAbsent(processor, p -> new ProcessorMetrics());
+	}
+
+	/**
+	 * @return the number of bytes allocated so far by the current thread, or
+	 *         <code>-1</code> if the JVM doesn't measure allocations
+	 */
+	public static long getAllocatedBytes() {
+		if (THREAD_ALLOCATED_BYTES == null) {
+			return -1;
+		}
+		try {
+			return (long) THREAD_ALLOCATED_BYTES.invokeExact(Thread.currentThread().getId());
+		} catch (Throwable e) {
+			return -1;
+		}
+	}
+
+	private static MethodHandle getThreadAllocatedBytesHandle() {
+		try {
+			ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+			// com.sun.management isn't visible from the bundle class loader
+			Class<?> type = Class.forName("com.sun.management.ThreadMXBean", false, ClassLoader.getSystemClassLoader());
+			if (!type.isInstance(threadBean)) {
+				return null;
+			}
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			boolean supported = (boolean) lookup.findVirtual(type, "isThreadAllocatedMemorySupported", MethodType.methodType(boolean.class)).invoke(threadBean);
+			boolean enabled = supported && (boolean) lookup.findVirtual(type, "isThreadAllocatedMemoryEnabled", MethodType.methodType(boolean.class)).invoke(threadBean);
+			if (!enabled) {
+				return null;
+			}
+			return lookup.findVirtual(type, "getThreadAllocatedBytes", MethodType.methodType(long.class, long.class)).bindTo(threadBean);
+		} catch (Throwable e) {
+			return null;
+		}
+	}
+
+	@Override
+	public void running(IJobChangeEvent event) {
+		if (getCategory(event.getJob()) != null) {
+			runningJobs.put(event.getJob(), System.nanoTime());
+		}
+	}
+
+	@Override
+	public void done(IJobChangeEvent event) {
+		Long jobStarted = runningJobs.remove(event.getJob());
+		if (jobStarted != null) {
+			recordJob(getCategory(event.getJob()), System.nanoTime() - jobStarted);
+		}
+	}
+
+	private static String getCategory(Job job) {
+		if (job.belongsTo(ResourcesPlugin.FAMILY_AUTO_BUILD) || job.belongsTo(ResourcesPlugin.FAMILY_MANUAL_BUILD)) {
+			return BUILD;
+		}
+		if (job.belongsTo(InitHandler.JAVA_LS_INITIALIZATION_JOBS) || job.belongsTo(IConstants.UPDATE_PROJECT_FAMILY) || job.belongsTo(IConstants.UPDATE_WORKSPACE_FOLDERS_FAMILY)) {
+			return IMPORT;
+		}
+		if (job.belongsTo(DocumentLifeCycleHandler.DOCUMENT_LIFE_CYCLE_JOBS)) {
+			return VALIDATION;
+		}
+		return null;
+	}
+
+	/**
+	 * @return a snapshot of the metrics
+	 */
+	public Report getReport() {
+		Report report = new Report();
+		report.uptime = System.currentTimeMillis() - started;
+		methods.forEach((method, metrics) -> report.methods.put(method, new MethodReport(metrics)));
+		jobs.forEach((category, histogram) -> report.jobs.put(category, new LatencyReport(histogram)));
+		processors.forEach((processor, metrics) -> report.processors.put(processor, new ProcessorReport(metrics)));
+		CodeLensCache codeLensCache = JavaLanguageServerPlugin.getCodeLensCache();
+		if (codeLensCache != null) {
+			report.caches.put("codeLens", new CacheReport(codeLensCache.getHitCount(), codeLensCache.getMissCount()));
+		}
+		JavadocCache javadocCache = JavaLanguageServerPlugin.getJavadocCache();
+		if (javadocCache != null) {
+			report.caches.put("javadoc", new CacheReport(javadocCache.getHitCount(), javadocCache.getMissCount()));
+		}
+		HoverCache hoverCache = JavaLanguageServerPlugin.getHoverCache();
+		if (hoverCache != null) {
+			report.caches.put("hover", new CacheReport(hoverCache.getHitCount(), hoverCache.getMissCount()));
+		}
+		DocumentSymbolCache documentSymbolCache = JavaLanguageServerPlugin.getDocumentSymbolCache();
+		if (documentSymbolCache != null) {
+			report.caches.put("documentSymbols", new CacheReport(documentSymbolCache.getHitCount(), documentSymbolCache.getMissCount()));
+		}
+		SearchScopeCache searchScopeCache = JavaLanguageServerPlugin.getSearchScopeCache();
+		if (searchScopeCache != null) {
+			report.caches.put("searchScopes", new CacheReport(searchScopeCache.getHitCount(), searchScopeCache.getMissCount()));
+		}
+		ContentProviderManager contentProviderManager = JavaLanguageServerPlugin.getContentProviderManager();
+		if (contentProviderManager != null) {
+			ClassFileContentCache contentCache = contentProviderManager.getContentCache();
+			report.caches.put("classFileContents", new CacheReport(contentCache.getHitCount(), contentCache.getMissCount()));
+		}
+		report.caches.put("completionSessions", new CacheReport(CompletionSessions.getHitCount(), CompletionSessions.getMissCount()));
+		report.caches.put("completionResponses", new CacheReport(CompletionResponses.getHitCount(), CompletionResponses.getMissCount()));
+		report.caches.put("codeActionProposals", new CacheReport(CodeActionProposals.getHitCount(), CodeActionProposals.getMissCount()));
+		return report;
+	}
+
+	@Override
+	public void preferencesChange(Preferences oldPreferences, Preferences newPreferences) {
+		setDumpInterval(newPreferences.getMetricsDumpInterval());
+	}
+
+	/**
+	 * Writes the metrics to the <code>metrics.json</code> file of the
+	 * workspace metadata at the given interval.
+	 *
+	 * @param seconds
+	 *            the interval, <code>0</code> stops writing the metrics
+	 */
+	public synchronized void setDumpInterval(int seconds) {
+		if (dumpJob != null) {
+			if (dumpJob.interval == seconds) {
+				return;
+			}
+			dumpJob.cancel();
+			dumpJob = null;
+		}
+		if (seconds > 0 && stateLocation != null) {
+			dumpJob = new DumpJob(seconds);
+			dumpJob.schedule(TimeUnit.SECONDS.toMillis(seconds));
+		}
+	}
+
+	/**
+	 * Writes the metrics to the <code>metrics.json</code> file of the
+	 * workspace metadata.
+	 */
+	public void dump() throws IOException {
+		if (stateLocation == null) {
+			return;
+		}
+		Gson gson = new GsonBuilder().setPrettyPrinting().create();
+		File file = new File(stateLocation, METRICS_FILE);
+		File tmp = new File(stateLocation, METRICS_FILE + ".tmp");
+		Files.write(tmp.toPath(), gson.toJson(getReport()).getBytes(StandardCharsets.UTF_8));
+		Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private class DumpJob extends Job {
+		private final int interval;
+
+		private DumpJob(int interval) {
+			super("Dump Server Metrics");
+			this.interval = interval;
+			setSystem(true);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			try {
+				dump();
+			} catch (IOException e) {
+				JavaLanguageServerPlugin.logException("Failed to write the server metrics", e);
+			}
+			if (!monitor.isCanceled()) {
+				schedule(TimeUnit.SECONDS.toMillis(interval));
+			}
+			return Status.OK_STATUS;
+		}
+	}
+
+	/**
+	 * Metrics of the requests of an LSP method. The time spent waiting in the
+	 * queue is measured separately from the time spent running.
+	 */
+	public static class MethodMetrics {
+		private final LatencyHistogram queueTime = new LatencyHistogram();
+		private final LatencyHistogram executionTime = new LatencyHistogram();
+		private final AtomicLong allocatedBytes = new AtomicLong();
+		private final AtomicInteger coalesced = new AtomicInteger();
+		private final AtomicInteger dropped = new AtomicInteger();
+		private final AtomicInteger cancelled = new AtomicInteger();
+		private final AtomicInteger errors = new AtomicInteger();
+
+		/**
+		 * Records a request that ran.
+		 *
+		 * @param queueNanos
+		 *            the time the request waited before running
+		 * @param executionNanos
+		 *            the time the request ran
+		 * @param allocated
+		 *            the bytes allocated while running, or a negative value if
+		 *            unknown
+		 */
+		public void record(long queueNanos, long executionNanos, long allocated) {
+			queueTime.record(queueNanos);
+			executionTime.record(executionNanos);
+			if (allocated > 0) {
+				allocatedBytes.addAndGet(allocated);
+			}
+		}
+
+		public void coalesced() {
+			coalesced.incrementAndGet();
+		}
+
+		public void dropped() {
+			dropped.incrementAndGet();
+		}
+
+		public void cancelled() {
+			cancelled.incrementAndGet();
+		}
+
+		public void failed() {
+			errors.incrementAndGet();
+		}
+
+		/**
+		 * @return the number of requests run
+		 */
+		public long getCount() {
+			return executionTime.getCount();
+		}
+
+		/**
+		 * @return the number of requests that shared the computation of an
+		 *         identical request
+		 */
+		public int getCoalescedCount() {
+			return coalesced.get();
+		}
+
+		/**
+		 * @return the number of requests dropped because their document
+		 *         changed before they could run
+		 */
+		public int getDroppedCount() {
+			return dropped.get();
+		}
+
+		/**
+		 * @return the number of requests cancelled by the client
+		 */
+		public int getCancelledCount() {
+			return cancelled.get();
+		}
+
+		/**
+		 * @return the number of requests that failed
+		 */
+		public int getErrorCount() {
+			return errors.get();
+		}
+
+		/**
+		 * @return the bytes allocated by the requests run
+		 */
+		public long getAllocatedBytes() {
+			return allocatedBytes.get();
+		}
+
+		public LatencyHistogram getQueueTime() {
+			return queueTime;
+		}
+
+		public LatencyHistogram getExecutionTime() {
+			return executionTime;
+		}
+
+		@Override
+		public String toString() {
+			return "[count=" + getCount() + ", coalesced=" + coalesced + ", dropped=" + dropped + ", cancelled=" + cancelled + ", errors=" + errors + ", p50=" + executionTime.getPercentile(50) + "ms, p99="
+					+ executionTime.getPercentile(99) + "ms, maxQueueTime=" + queueTime.getMax() + "ms]";
+		}
+	}
+
+	/**
+	 * Metrics of a quick fix or quick assist processor.
+	 */
+	public static class ProcessorMetrics {
+		private final LatencyHistogram executionTime = new LatencyHistogram();
+		private final AtomicInteger late = new AtomicInteger();
+		private final AtomicInteger errors = new AtomicInteger();
+
+		/**
+		 * Records a run of the processor.
+		 *
+		 * @param executionNanos
+		 *            the time the processor ran
+		 */
+		public void record(long executionNanos) {
+			executionTime.record(executionNanos);
+		}
+
+		public void late() {
+			late.incrementAndGet();
+		}
+
+		public void failed() {
+			errors.incrementAndGet();
+		}
+
+		/**
+		 * @return the number of runs whose proposals were dropped because the
+		 *         processor exceeded its time budget
+		 */
+		public int getLateCount() {
+			return late.get();
+		}
+
+		/**
+		 * @return the number of runs that failed
+		 */
+		public int getErrorCount() {
+			return errors.get();
+		}
+
+		public LatencyHistogram getExecutionTime() {
+			return executionTime;
+		}
+	}
+
+	/**
+	 * Snapshot of the metrics, as returned by the
+	 * <code>java/serverMetrics</code> request.
+	 */
+	public static class Report {
+		/**
+		 * The time since the server started, in milliseconds.
+		 */
+		public long uptime;
+		public Map<String, MethodReport> methods = new TreeMap<>();
+		public Map<String, LatencyReport> jobs = new TreeMap<>();
+		public Map<String, ProcessorReport> processors = new TreeMap<>();
+		public Map<String, CacheReport> caches = new TreeMap<>();
+	}
+
+	public static class MethodReport {
+		public long count;
+		public int coalesced;
+		public int dropped;
+		public int cancelled;
+		public int errors;
+		/**
+		 * The mean bytes allocated by a request.
+		 */
+		public long allocatedBytes;
+		public LatencyReport queueTime;
+		public LatencyReport executionTime;
+
+		MethodReport(MethodMetrics metrics) {
+			count = metrics.getCount();
+			coalesced = metrics.getCoalescedCount();
+			dropped = metrics.getDroppedCount();
+			cancelled = metrics.getCancelledCount();
+			errors = metrics.getErrorCount();
+			allocatedBytes = count == 0 ? 0 : metrics.getAllocatedBytes() / count;
+			queueTime = new LatencyReport(metrics.getQueueTime());
+			executionTime = new LatencyReport(metrics.getExecutionTime());
+		}
+	}
+
+	public static class ProcessorReport {
+		public int late;
+		public int errors;
+		public LatencyReport executionTime;
+
+		ProcessorReport(ProcessorMetrics metrics) {
+			late = metrics.getLateCount();
+			errors = metrics.getErrorCount();
+			executionTime = new LatencyReport(metrics.getExecutionTime());
+		}
+	}
+
+	/**
+	 * Distribution of durations, in milliseconds.
+	 */
+	public static class LatencyReport {
+		public long count;
+		public double mean;
+		public double p50;
+		public double p90;
+		public double p99;
+		public double max;
+
+		LatencyReport(LatencyHistogram histogram) {
+			count = histogram.getCount();
+			mean = histogram.getMean();
+			p50 = histogram.getPercentile(50);
+			p90 = histogram.getPercentile(90);
+			p99 = histogram.getPercentile(99);
+			max = histogram.getMax();
+		}
+	}
+
+	public static class CacheReport {
+		public long hits;
+		public long misses;
+		public double hitRatio;
+
+		CacheReport(long hits, long misses) {
+			this.hits = hits;
+			this.misses = misses;
+			this.hitRatio = hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+		}
+	}
+}
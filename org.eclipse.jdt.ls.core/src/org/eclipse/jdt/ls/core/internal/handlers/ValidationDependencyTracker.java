@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.SimpleName;
+
+/**
+ * Keeps track of the dependencies between the open working copies, so that a
+ * change to one unit only triggers the validation of the open units that
+ * actually reference its API.
+ *
+ * For every validated unit, the tracker records the fully qualified names of
+ * the types it declares, a signature of its non-private API (its "shape") and
+ * the types its resolved references point to. Unresolved simple names are
+ * recorded as well, so a unit that references a type that does not exist yet
+ * gets revalidated when that type is declared.
+ */
+public class ValidationDependencyTracker {
+
+	private final Map<ICompilationUnit, UnitInfo> units = new ConcurrentHashMap<>();
+
+	private final AtomicLong validatedCount = new AtomicLong();
+	private final AtomicLong skippedCount = new AtomicLong();
+
+	/**
+	 * Computes the set of open working copies that must be validated after the
+	 * given units have been reconciled. The API shape of the changed units is
+	 * updated as a side effect.
+	 *
+	 * @param changedUnits
+	 *            the units whose content changed
+	 * @param workingCopies
+	 *            all the open working copies, in validation order
+	 * @return the working copies to validate, in the order of
+	 *         <code>workingCopies</code>
+	 */
+	public Set<ICompilationUnit> computeUnitsToValidate(Collection<ICompilationUnit> changedUnits, Collection<ICompilationUnit> workingCopies) {
+		units.keySet().retainAll(workingCopies);
+		Set<String> changedTypes = new HashSet<>();
+		Set<String> changedSimpleNames = new HashSet<>();
+		for (ICompilationUnit unit : changedUnits) {
+			UnitInfo info = units.computeIfAbsent(unit, (u) -> new UnitInfo());
+			Set<String> declaredTypes = new HashSet<>();
+			String shape = computeShape(unit, declaredTypes);
+			if (shape == null || !shape.equals(info.shape)) {
+				addTypeNames(info.declaredTypes, changedTypes, changedSimpleNames);
+				addTypeNames(declaredTypes, changedTypes, changedSimpleNames);
+			}
+			info.shape = shape;
+			info.declaredTypes = declaredTypes;
+		}
+		Set<ICompilationUnit> toValidate = new LinkedHashSet<>();
+		for (ICompilationUnit unit : workingCopies) {
+			UnitInfo info = units.get(unit);
+			if (changedUnits.contains(unit) || info == null || info.references == null || info.dependsOn(changedTypes, changedSimpleNames)) {
+				toValidate.add(unit);
+				validatedCount.incrementAndGet();
+			} else {
+				skippedCount.incrementAndGet();
+			}
+		}
+		return toValidate;
+	}
+
+	/**
+	 * Records the types referenced by the given unit, collected from its
+	 * resolved AST.
+	 */
+	public void updateReferences(ICompilationUnit unit, CompilationUnit astRoot) {
+		if (astRoot == null) {
+			return;
+		}
+		ReferenceCollector collector = new ReferenceCollector();
+		astRoot.accept(collector);
+		UnitInfo info = units.computeIfAbsent(unit, (u) -> new UnitInfo());
+		info.references = collector.references;
+		info.unresolvedNames = collector.unresolvedNames;
+	}
+
+	public void remove(ICompilationUnit unit) {
+		units.remove(unit);
+	}
+
+	/**
+	 * @return the number of units validated since the tracker was created
+	 */
+	public long getValidatedCount() {
+		return validatedCount.get();
+	}
+
+	/**
+	 * @return the number of open units whose validation was skipped, because
+	 *         they don't depend on any changed unit
+	 */
+	public long getSkippedCount() {
+		return skippedCount.get();
+	}
+
+	private static void addTypeNames(Set<String> typeNames, Set<String> qualifiedNames, Set<String> simpleNames) {
+		for (String typeName : typeNames) {
+			qualifiedNames.add(typeName);
+			simpleNames.add(getSimpleName(typeName));
+		}
+	}
+
+	private static String getSimpleName(String qualifiedName) {
+		int index = Math.max(qualifiedName.lastIndexOf('.'), qualifiedName.lastIndexOf('$'));
+		return index < 0 ? qualifiedName : qualifiedName.substring(index + 1);
+	}
+
+	/**
+	 * Computes a signature of the non-private API declared by the unit.
+	 *
+	 * @return the shape of the unit, or <code>null</code> if it can't be
+	 *         computed
+	 */
+	private static String computeShape(ICompilationUnit unit, Set<String> declaredTypes) {
+		StringBuilder shape = new StringBuilder();
+		try {
+			for (IType type : unit.getAllTypes()) {
+				if (type.isAnonymous() || type.isLocal()) {
+					continue;
+				}
+				String typeName = type.getFullyQualifiedName('.');
+				declaredTypes.add(typeName);
+				shape.append(typeName).append(':').append(type.getFlags()).append(':').append(type.getSuperclassTypeSignature());
+				appendAll(shape, type.getSuperInterfaceTypeSignatures());
+				appendAll(shape, type.getTypeParameterSignatures());
+				shape.append('{');
+				for (IField field : type.getFields()) {
+					if (!Flags.isPrivate(field.getFlags())) {
+						shape.append(field.getElementName()).append(':').append(field.getFlags()).append(':').append(field.getTypeSignature());
+						Object constant = field.getConstant();
+						if (constant != null) {
+							shape.append('=').append(constant);
+						}
+						shape.append(';');
+					}
+				}
+				for (IMethod method : type.getMethods()) {
+					if (!Flags.isPrivate(method.getFlags())) {
+						shape.append(method.getElementName()).append(':').append(method.getFlags()).append(':').append(method.getSignature());
+						appendAll(shape, method.getTypeParameterSignatures());
+						appendAll(shape, method.getExceptionTypes());
+						shape.append(';');
+					}
+				}
+				shape.append('}');
+			}
+		} catch (JavaModelException e) {
+			return null;
+		}
+		return shape.toString();
+	}
+
+	private static void appendAll(StringBuilder builder, String[] values) {
+		builder.append('[');
+		for (String value : values) {
+			builder.append(value).append(',');
+		}
+		builder.append(']');
+	}
+
+	private static class UnitInfo {
+		private String shape;
+		private Set<String> declaredTypes = Collections.emptySet();
+		private Set<String> references;
+		private Set<String> unresolvedNames = Collections.emptySet();
+
+		private boolean dependsOn(Set<String> changedTypes, Set<String> changedSimpleNames) {
+			if (changedTypes.isEmpty()) {
+				return false;
+			}
+			for (String type : changedTypes) {
+				if (references.contains(type)) {
+					return true;
+				}
+			}
+			for (String name : changedSimpleNames) {
+				if (unresolvedNames.contains(name)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private static class ReferenceCollector extends ASTVisitor {
+		private final Set<String> references = new HashSet<>();
+		private final Set<String> unresolvedNames = new HashSet<>();
+		private final Set<ITypeBinding> visitedTypes = new HashSet<>();
+
+		@Override
+		public boolean visit(SimpleName node) {
+			IBinding binding = node.resolveBinding();
+			if (binding == null) {
+				unresolvedNames.add(node.getIdentifier());
+			} else if (binding instanceof ITypeBinding) {
+				addType((ITypeBinding) binding);
+			} else if (binding instanceof IMethodBinding) {
+				addType(((IMethodBinding) binding).getDeclaringClass());
+			} else if (binding instanceof IVariableBinding) {
+				IVariableBinding variable = (IVariableBinding) binding;
+				addType(variable.getDeclaringClass());
+				addType(variable.getType());
+			}
+			return false;
+		}
+
+		private void addType(ITypeBinding type) {
+			if (type == null) {
+				return;
+			}
+			if (type.isArray()) {
+				type = type.getElementType();
+			}
+			type = type.getErasure();
+			if (type.isPrimitive() || !visitedTypes.add(type)) {
+				return;
+			}
+			if (type.isRecovered()) {
+				unresolvedNames.add(type.getName());
+				return;
+			}
+			references.add(type.getQualifiedName());
+			// changes to a super type may break its sub types, e.g. a new abstract method
+			addType(type.getSuperclass());
+			for (ITypeBinding superInterface : type.getInterfaces()) {
+				addType(superInterface);
+			}
+		}
+	}
+}
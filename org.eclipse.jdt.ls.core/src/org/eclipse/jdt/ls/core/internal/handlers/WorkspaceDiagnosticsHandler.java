@@ -10,7 +10,7 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.handlers;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -26,17 +26,16 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaModelMarker;
 import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
-import org.eclipse.jdt.ls.core.internal.ResourceUtils;
 import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.lsp4j.Diagnostic;
 import org.eclipse.lsp4j.DiagnosticSeverity;
 import org.eclipse.lsp4j.Position;
-import org.eclipse.lsp4j.PublishDiagnosticsParams;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.m2e.core.internal.IMavenConstants;
 
@@ -48,12 +47,12 @@ import org.eclipse.m2e.core.internal.IMavenConstants;
  */
 @SuppressWarnings("restriction")
 public final class WorkspaceDiagnosticsHandler implements IResourceChangeListener, IResourceDeltaVisitor {
-	private final JavaClientConnection connection;
 	private final ProjectsManager projectsManager;
+	private final DiagnosticsPublisher publisher;
 
 	public WorkspaceDiagnosticsHandler(JavaClientConnection connection, ProjectsManager projectsManager) {
-		this.connection = connection;
 		this.projectsManager = projectsManager;
+		this.publisher = DiagnosticsPublisher.getPublisher(connection);
 	}
 
 	@Override
@@ -95,29 +94,68 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 			return false;
 		}
 		IFile file = (IFile) resource;
-		String uri = JDTUtils.getFileURI(resource);
-		IDocument document = null;
 		IMarker[] markers = null;
 		// Check if it is a Java ...
 		if (JavaCore.isJavaLikeFileName(file.getName())) {
-			IMarker[] javaMarkers = resource.findMarkers(IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER, false, IResource.DEPTH_ONE);
-			IMarker[] taskMarkers = resource.findMarkers(IJavaModelMarker.TASK_MARKER, false, IResource.DEPTH_ONE);
-			markers = Arrays.copyOf(javaMarkers, javaMarkers.length + taskMarkers.length);
-			System.arraycopy(taskMarkers, 0, markers, javaMarkers.length, taskMarkers.length);
-			ICompilationUnit cu = (ICompilationUnit) JavaCore.create(file);
-			document = JsonRpcHelpers.toDocument(cu.getBuffer());
+			markers = findJavaMarkers(file);
 		} // or a build file
 		else if (projectsManager.isBuildFile(file)) {
 			//all errors on that build file should be relevant
 			markers = file.findMarkers(null, true, 1);
-			document = JsonRpcHelpers.toDocument(file);
 		}
-		if (document != null) {
-			this.connection.publishDiagnostics(new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), toDiagnosticsArray(document, markers)));
+		if (markers != null) {
+			List<Diagnostic> diagnostics = toDiagnostics(file, markers);
+			if (diagnostics != null) {
+				publisher.schedule(JDTUtils.getFileURI(resource), diagnostics);
+			}
 		}
 		return false;
 	}
 
+	/**
+	 * @return the Java problem and task markers of a Java file
+	 */
+	private static IMarker[] findJavaMarkers(IFile file) throws CoreException {
+		IMarker[] markers = file.findMarkers(null, false, IResource.DEPTH_ZERO);
+		List<IMarker> javaMarkers = new ArrayList<>(markers.length);
+		for (IMarker marker : markers) {
+			String type = marker.getType();
+			if (IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER.equals(type) || IJavaModelMarker.TASK_MARKER.equals(type)) {
+				javaMarkers.add(marker);
+			}
+		}
+		return javaMarkers.toArray(new IMarker[javaMarkers.size()]);
+	}
+
+	/**
+	 * Transforms the {@link IMarker}s of a file into a list of
+	 * {@link Diagnostic}s. The positions are computed from the open document
+	 * of a Java file, or from the content of the file on disk.
+	 *
+	 * @param file
+	 *            the file
+	 * @param markers
+	 *            the markers of the file
+	 * @return a list of {@link Diagnostic}s, or <code>null</code> if the file
+	 *         can't be read
+	 */
+	public static List<Diagnostic> toDiagnostics(IFile file, IMarker[] markers) {
+		if (JavaCore.isJavaLikeFileName(file.getName())) {
+			ICompilationUnit cu = JavaCore.createCompilationUnitFrom(file);
+			if (cu != null && cu.isWorkingCopy()) {
+				try {
+					IDocument document = JsonRpcHelpers.toDocument(cu.getBuffer());
+					return document == null ? null : toDiagnosticsArray(document::getLineOffset, markers);
+				} catch (JavaModelException e) {
+					JavaLanguageServerPlugin.logException("Failed to publish diagnostics.", e);
+					return null;
+				}
+			}
+		}
+		LineIndex lineIndex = LineIndex.of(file);
+		return lineIndex == null ? null : toDiagnosticsArray(lineIndex::getLineOffset, markers);
+	}
+
 	/**
 	 * Transforms {@link IMarker}s of a {@link IDocument} into a list of {@link Diagnostic}s.
 	 *
@@ -126,6 +164,10 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 	 * @return a list of {@link Diagnostic}s
 	 */
 	public static List<Diagnostic> toDiagnosticsArray(IDocument document, IMarker[] markers) {
+		return toDiagnosticsArray(document::getLineOffset, markers);
+	}
+
+	private static List<Diagnostic> toDiagnosticsArray(LineOffsets document, IMarker[] markers) {
 		List<Diagnostic> diagnostics = Stream.of(markers)
 				.map(m -> toDiagnostic(document, m))
 				.filter(d -> d != null)
@@ -133,7 +175,7 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 		return diagnostics;
 	}
 
-	private static Diagnostic toDiagnostic(IDocument document, IMarker marker) {
+	private static Diagnostic toDiagnostic(LineOffsets document, IMarker marker) {
 		if (marker == null || !marker.exists()) {
 			return null;
 		}
@@ -150,7 +192,7 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 	 * @param marker
 	 * @return
 	 */
-	private static Range convertRange(IDocument document, IMarker marker) {
+	private static Range convertRange(LineOffsets document, IMarker marker) {
 		int line = marker.getAttribute(IMarker.LINE_NUMBER, -1) - 1;
 		int cStart = 0;
 		int cEnd = 0;
@@ -192,4 +234,11 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 		}
 		return DiagnosticSeverity.Information;
 	}
+
+	/**
+	 * The offsets of the lines of a document.
+	 */
+	private interface LineOffsets {
+		int getLineOffset(int line) throws BadLocationException;
+	}
 }
\ No newline at end of file
@@ -10,38 +10,72 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.handlers;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.resources.WorkspaceJob;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.manipulation.CoreASTProvider;
+import org.eclipse.jdt.ls.core.internal.IConstants;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
-import org.eclipse.jdt.ls.core.internal.ResourceUtils;
 import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager;
 import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager.CHANGE_TYPE;
 import org.eclipse.lsp4j.DidChangeWatchedFilesParams;
 import org.eclipse.lsp4j.FileChangeType;
 import org.eclipse.lsp4j.FileEvent;
-import org.eclipse.lsp4j.PublishDiagnosticsParams;
 
+/**
+ * Handles the watched file changes. The changes received within a short
+ * delay are batched: the resources they touch are refreshed at once, in a
+ * single workspace operation.
+ */
 public class WorkspaceEventsHandler {
 
+	private static final long BATCH_DELAY = 200;
+
 	private final ProjectsManager pm ;
 	private final JavaClientConnection connection;
+	private final Map<String, CHANGE_TYPE> pendingChanges = new LinkedHashMap<>();
+	private WorkspaceJob eventsTimer;
 
 	public WorkspaceEventsHandler(ProjectsManager projects, JavaClientConnection connection ) {
+		this(projects, connection, false);
+	}
+
+	public WorkspaceEventsHandler(ProjectsManager projects, JavaClientConnection connection, boolean delayEvents) {
 		this.pm = projects;
 		this.connection = connection;
+		if (delayEvents) {
+			this.eventsTimer = new WorkspaceJob("Handle file changes") {
+				@Override
+				public IStatus runInWorkspace(IProgressMonitor monitor) throws CoreException {
+					handleChanges(monitor);
+					return Status.OK_STATUS;
+				}
+
+				@Override
+				public boolean belongsTo(Object family) {
+					return IConstants.FILE_EVENTS_FAMILY.equals(family) || IConstants.JOBS_FAMILY.equals(family);
+				}
+			};
+			this.eventsTimer.setRule(ResourcesPlugin.getWorkspace().getRoot());
+		}
 	}
 
 	private CHANGE_TYPE toChangeType(FileChangeType vtype){
@@ -58,45 +92,79 @@ public class WorkspaceEventsHandler {
 	}
 
 	void didChangeWatchedFiles(DidChangeWatchedFilesParams param){
-		List<FileEvent> changes = param.getChanges();
-		for (FileEvent fileEvent : changes) {
-			CHANGE_TYPE changeType = toChangeType(fileEvent.getType());
-			if(changeType==CHANGE_TYPE.DELETED){
-				cleanUpDiagnostics(fileEvent.getUri());
+		synchronized (pendingChanges) {
+			for (FileEvent fileEvent : param.getChanges()) {
+				addChange(fileEvent.getUri(), toChangeType(fileEvent.getType()));
 			}
-			ICompilationUnit unit = JDTUtils.resolveCompilationUnit(fileEvent.getUri());
-			if (unit != null && changeType == CHANGE_TYPE.CREATED && !unit.exists()) {
-				final ICompilationUnit[] units = new ICompilationUnit[1];
-				units[0] = unit;
-				try {
-					ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
-						@Override
-						public void run(IProgressMonitor monitor) throws CoreException {
-							units[0] = createCompilationUnit(units[0]);
-						}
-					}, new NullProgressMonitor());
-				} catch (CoreException e) {
-					JavaLanguageServerPlugin.logException(e.getMessage(), e);
-				}
-				unit = units[0];
+		}
+		if (eventsTimer != null) {
+			eventsTimer.schedule(BATCH_DELAY);
+		} else {
+			try {
+				ResourcesPlugin.getWorkspace().run((IWorkspaceRunnable) this::handleChanges, ResourcesPlugin.getWorkspace().getRoot(), 0, new NullProgressMonitor());
+			} catch (CoreException e) {
+				JavaLanguageServerPlugin.logException(e.getMessage(), e);
 			}
-			if (unit != null) {
-				if (unit.isWorkingCopy()) {
-					continue;
-				}
-				if (changeType == CHANGE_TYPE.DELETED || changeType == CHANGE_TYPE.CHANGED) {
-					if (unit.equals(CoreASTProvider.getInstance().getActiveJavaElement())) {
-						CoreASTProvider.getInstance().disposeAST();
-					}
-				}
+		}
+	}
+
+	/**
+	 * Merges a change with the pending change of the same file, if any.
+	 */
+	private void addChange(String uri, CHANGE_TYPE changeType) {
+		CHANGE_TYPE previous = pendingChanges.get(uri);
+		if (previous == CHANGE_TYPE.DELETED && changeType == CHANGE_TYPE.CREATED) {
+			changeType = CHANGE_TYPE.CHANGED;
+		} else if (previous == CHANGE_TYPE.CREATED && changeType == CHANGE_TYPE.CHANGED) {
+			changeType = CHANGE_TYPE.CREATED;
+		}
+		pendingChanges.put(uri, changeType);
+	}
+
+	private void handleChanges(IProgressMonitor monitor) {
+		Map<String, CHANGE_TYPE> changes;
+		synchronized (pendingChanges) {
+			if (pendingChanges.isEmpty()) {
+				return;
+			}
+			changes = new LinkedHashMap<>(pendingChanges);
+			pendingChanges.clear();
+		}
+		long start = System.currentTimeMillis();
+		List<ICompilationUnit> createdUnits = new ArrayList<>();
+		Iterator<Map.Entry<String, CHANGE_TYPE>> iterator = changes.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<String, CHANGE_TYPE> change = iterator.next();
+			CHANGE_TYPE changeType = change.getValue();
+			if (changeType == CHANGE_TYPE.DELETED) {
+				cleanUpDiagnostics(change.getKey());
+			}
+			ICompilationUnit unit = JDTUtils.resolveCompilationUnit(change.getKey());
+			if (unit == null) {
+				continue;
+			}
+			if (unit.isWorkingCopy()) {
+				iterator.remove();
+				continue;
 			}
-			pm.fileChanged(fileEvent.getUri(), changeType);
+			if (changeType == CHANGE_TYPE.CREATED && !unit.exists()) {
+				createdUnits.add(unit);
+			} else if (changeType != CHANGE_TYPE.CREATED && unit.equals(CoreASTProvider.getInstance().getActiveJavaElement())) {
+				CoreASTProvider.getInstance().disposeAST();
+			}
+		}
+		pm.filesChanged(changes, monitor);
+		for (ICompilationUnit unit : createdUnits) {
+			createCompilationUnit(unit);
 		}
+		JavaLanguageServerPlugin.logInfo("Handled " + changes.size() + " file change(s) in " + (System.currentTimeMillis() - start) + " ms");
 	}
 
 	private ICompilationUnit createCompilationUnit(ICompilationUnit unit) {
 		try {
-			unit.getResource().refreshLocal(IResource.DEPTH_ONE, new NullProgressMonitor());
+			if (!unit.getResource().exists()) {
+				unit.getResource().refreshLocal(IResource.DEPTH_ONE, new NullProgressMonitor());
+			}
 			if (unit.getResource().exists()) {
 				IJavaElement parent = unit.getParent();
 				if (parent instanceof IPackageFragment) {
@@ -111,7 +179,7 @@ public class WorkspaceEventsHandler {
 	}
 
 	private void cleanUpDiagnostics(String uri){
-		this.connection.publishDiagnostics(new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), Collections.emptyList()));
+		DiagnosticsPublisher.getPublisher(connection).publish(uri, Collections.emptyList());
 	}
 
 }
@@ -16,15 +16,10 @@ import java.util.List;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.Flags;
-import org.eclipse.jdt.core.JavaModelException;
-import org.eclipse.jdt.core.search.IJavaSearchConstants;
-import org.eclipse.jdt.core.search.IJavaSearchScope;
-import org.eclipse.jdt.core.search.SearchEngine;
-import org.eclipse.jdt.core.search.SearchPattern;
-import org.eclipse.jdt.core.search.TypeNameMatch;
-import org.eclipse.jdt.core.search.TypeNameMatchRequestor;
+import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.managers.WorkspaceSymbolIndex;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.SymbolInformation;
@@ -42,46 +37,42 @@ public class WorkspaceSymbolHandler{
 		if (query == null || query.trim().isEmpty()) {
 			return Collections.emptyList();
 		}
+		WorkspaceSymbolIndex index = JavaLanguageServerPlugin.getWorkspaceSymbolIndex();
+		if (index == null) {
+			return Collections.emptyList();
+		}
 
 		try {
-			ArrayList<SymbolInformation> symbols = new ArrayList<>();
-			new SearchEngine().searchAllTypeNames(null,SearchPattern.R_PATTERN_MATCH, query.toCharArray(), SearchPattern.R_CAMELCASE_MATCH, IJavaSearchConstants.TYPE, createSearchScope(),new TypeNameMatchRequestor() {
-
-				@Override
-				public void acceptTypeNameMatch(TypeNameMatch match) {
-					SymbolInformation symbolInformation = new SymbolInformation();
-					symbolInformation.setContainerName(match.getTypeContainerName());
-					symbolInformation.setName(match.getSimpleTypeName());
-					symbolInformation.setKind(mapKind(match));
-					Location location;
-					try {
-						if (match.getType().isBinary()) {
-							location = JDTUtils.toLocation(match.getType().getClassFile());
-						}  else {
-							location = JDTUtils.toLocation(match.getType());
-						}
-					} catch (Exception e) {
-						JavaLanguageServerPlugin.logException("Unable to determine location for " +  match.getSimpleTypeName(), e);
-						return;
-					}
-					symbolInformation.setLocation(location);
-					symbols.add(symbolInformation);
+			int maxResults = preferenceManager.getPreferences().getSymbolsMaxResults();
+			List<WorkspaceSymbolIndex.Entry> entries = index.search(query, maxResults, preferenceManager.isClientSupportsClassFileContent(), monitor);
+			ArrayList<SymbolInformation> symbols = new ArrayList<>(entries.size());
+			for (WorkspaceSymbolIndex.Entry entry : entries) {
+				if (monitor != null && monitor.isCanceled()) {
+					break;
 				}
-
-				private SymbolKind mapKind(TypeNameMatch match) {
-					int flags= match.getModifiers();
-					if (Flags.isInterface(flags)) {
-						return SymbolKind.Interface;
-					}
-					if (Flags.isAnnotation(flags)) {
-						return SymbolKind.Property;
-					}
-					if (Flags.isEnum(flags)) {
-						return SymbolKind.Enum;
+				// the index may be out of date, the type is only resolved for the returned matches
+				IType type = entry.getType();
+				if (type == null) {
+					continue;
+				}
+				SymbolInformation symbolInformation = new SymbolInformation();
+				symbolInformation.setContainerName(entry.getContainerName());
+				symbolInformation.setName(entry.getSimpleName());
+				symbolInformation.setKind(mapKind(entry.getModifiers()));
+				Location location;
+				try {
+					if (type.isBinary()) {
+						location = JDTUtils.toLocation(type.getClassFile());
+					} else {
+						location = JDTUtils.toLocation(type);
 					}
-					return SymbolKind.Class;
+				} catch (Exception e) {
+					JavaLanguageServerPlugin.logException("Unable to determine location for " + entry.getSimpleName(), e);
+					continue;
 				}
-			}, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+				symbolInformation.setLocation(location);
+				symbols.add(symbolInformation);
+			}
 			return symbols;
 		} catch (Exception e) {
 			JavaLanguageServerPlugin.logException("Problem getting search for" +  query, e);
@@ -89,8 +80,17 @@ public class WorkspaceSymbolHandler{
 		return Collections.emptyList();
 	}
 
-	private IJavaSearchScope createSearchScope() throws JavaModelException {
-		return JDTUtils.createSearchScope(null, preferenceManager);
+	private static SymbolKind mapKind(int flags) {
+		if (Flags.isInterface(flags)) {
+			return SymbolKind.Interface;
+		}
+		if (Flags.isAnnotation(flags)) {
+			return SymbolKind.Property;
+		}
+		if (Flags.isEnum(flags)) {
+			return SymbolKind.Enum;
+		}
+		return SymbolKind.Class;
 	}
 
-}
\ No newline at end of file
+}
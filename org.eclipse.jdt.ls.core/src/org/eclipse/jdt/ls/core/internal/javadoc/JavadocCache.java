@@ -0,0 +1,377 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.javadoc;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.ISourceRange;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeHierarchy;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.internal.corext.util.MethodOverrideTester;
+import org.eclipse.jdt.internal.corext.util.SuperTypeHierarchyCache;
+import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.JavaElementDeltaVisitor;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+
+import com.google.common.io.CharStreams;
+
+/**
+ * Caches the documentation rendered for the members, per output format.
+ *
+ * The documentation of a source member is stamped with the stamp of its
+ * compilation unit, and is also invalidated when the compilation unit of one
+ * of its super types changes if it is inherited from an overridden method. The documentation of a binary
+ * member is stamped with the timestamp of its package fragment root. The
+ * documentation is kept UTF-8 encoded, the size of the cache being bounded by
+ * the total number of bytes, the least recently used entries being evicted
+ * first.
+ */
+public class JavadocCache implements IElementChangedListener {
+
+	/**
+	 * Markdown, as rendered for hovers
+	 */
+	public static final String HOVER_MARKDOWN = "hover";
+
+	/**
+	 * Markdown, as rendered for completion items
+	 */
+	public static final String MARKDOWN = "markdown";
+
+	/**
+	 * Plain text, as rendered for completion items
+	 */
+	public static final String PLAIN_TEXT = "plaintext";
+
+	private static final int MAX_BYTES = 4 * 1024 * 1024;
+	private static final int MAX_PREWARMED_MEMBERS = 200;
+
+	private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final PrewarmJob prewarmJob = new PrewarmJob();
+	private final JavaElementDeltaVisitor deltaVisitor = new JavaElementDeltaVisitor(JavaElementDeltaVisitor.STRUCTURAL_FLAGS | IJavaElementDelta.F_SOURCEATTACHED | IJavaElementDelta.F_SOURCEDETACHED) {
+		@Override
+		protected void structureChanged(IJavaElementDelta delta) {
+			clear();
+		}
+
+		@Override
+		protected void unitChanged(ICompilationUnit unit, IJavaElementDelta delta) {
+			invalidate(unit.getHandleIdentifier());
+		}
+	};
+	private int bytes;
+	/**
+	 * The number of compilation unit changes, which may change the
+	 * documentation inherited from the overridden methods while it is
+	 * rendered.
+	 */
+	private long unitChanges;
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+
+	/**
+	 * Returns the documentation of the given member, rendering it if it isn't
+	 * cached.
+	 *
+	 * @param member
+	 *            the member to get the documentation of
+	 * @param format
+	 *            one of {@link #HOVER_MARKDOWN}, {@link #MARKDOWN} or
+	 *            {@link #PLAIN_TEXT}
+	 * @return the documentation, or <code>null</code> if the member has none
+	 * @throws JavaModelException
+	 *             if the documentation cannot be accessed
+	 */
+	public String getJavadoc(IMember member, String format) throws JavaModelException {
+		String key = format + ':' + member.getHandleIdentifier();
+		long timestamp = getTimestamp(member);
+		long unitChanges;
+		synchronized (this) {
+			CacheEntry entry = entries.get(key);
+			if (entry != null && entry.timestamp == timestamp && timestamp != IResource.NULL_STAMP) {
+				hitCount++;
+				return entry.getContent();
+			}
+			missCount++;
+			unitChanges = this.unitChanges;
+		}
+		Reader reader;
+		if (HOVER_MARKDOWN.equals(format)) {
+			reader = JavadocContentAccess2.getMarkdownContentReader(member);
+		} else if (MARKDOWN.equals(format)) {
+			reader = JavadocContentAccess.getMarkdownContentReader(member);
+		} else {
+			reader = JavadocContentAccess.getPlainTextContentReader(member);
+		}
+		String content;
+		try {
+			content = reader == null ? null : CharStreams.toString(reader);
+		} catch (IOException e) {
+			return null;
+		}
+		if (timestamp != IResource.NULL_STAMP) {
+			put(key, new CacheEntry(getUnit(member), getSuperUnits(member), timestamp, content), unitChanges);
+		}
+		return content;
+	}
+
+	/**
+	 * Renders the documentation of the given types and of their members in the
+	 * background, replacing the types of the previous call not rendered yet.
+	 *
+	 * @param typeNames
+	 *            the fully qualified names of the types
+	 */
+	public void prewarm(IJavaProject project, Collection<String> typeNames, String format) {
+		prewarmJob.cancel();
+		prewarmJob.setTypes(project, new ArrayList<>(typeNames), format);
+		prewarmJob.schedule();
+	}
+
+	private synchronized void put(String key, CacheEntry entry, long unitChanges) {
+		if (entry.superUnits != null && unitChanges != this.unitChanges) {
+			// the documentation of the overridden methods may be out of date
+			return;
+		}
+		CacheEntry previous = entries.put(key, entry);
+		if (previous != null) {
+			bytes -= previous.getWeight();
+		}
+		bytes += entry.getWeight();
+		Iterator<CacheEntry> iterator = entries.values().iterator();
+		while (bytes > MAX_BYTES && iterator.hasNext()) {
+			bytes -= iterator.next().getWeight();
+			iterator.remove();
+			evictionCount++;
+		}
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		bytes = 0;
+		unitChanges++;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	@Override
+	public synchronized void elementChanged(ElementChangedEvent event) {
+		deltaVisitor.visit(event.getDelta());
+	}
+
+	private void invalidate(String handle) {
+		Iterator<CacheEntry> iterator = entries.values().iterator();
+		while (iterator.hasNext()) {
+			CacheEntry entry = iterator.next();
+			if (handle.equals(entry.unit) || (entry.superUnits != null && entry.superUnits.contains(handle))) {
+				bytes -= entry.getWeight();
+				iterator.remove();
+			}
+		}
+		unitChanges++;
+	}
+
+	/**
+	 * @return the handle identifier of the compilation unit of a source member,
+	 *         <code>null</code> for a binary member
+	 */
+	private static String getUnit(IMember member) {
+		ICompilationUnit unit = member.getCompilationUnit();
+		return unit == null ? null : unit.getHandleIdentifier();
+	}
+
+	/**
+	 * @return the handle identifiers of the compilation units declaring the
+	 *         super types of a source method whose documentation may be copied
+	 *         from the methods it overrides, <code>null</code> if the
+	 *         documentation of the member isn't inherited
+	 */
+	private static Set<String> getSuperUnits(IMember member) throws JavaModelException {
+		if (member.getElementType() != IJavaElement.METHOD || member.getCompilationUnit() == null || member.getDeclaringType() == null) {
+			return null;
+		}
+		ISourceRange range = member.getJavadocRange();
+		if (range != null) {
+			String source = member.getCompilationUnit().getSource();
+			if (source != null && !source.substring(range.getOffset(), range.getOffset() + range.getLength()).contains("@inheritDoc")) {
+				return null;
+			}
+		}
+		IType type = member.getDeclaringType();
+		MethodOverrideTester tester = SuperTypeHierarchyCache.getMethodOverrideTester(type);
+		if (tester.findOverriddenMethod((IMethod) member, true) == null) {
+			return null;
+		}
+		// the documentation may come from any super type, and the hierarchy
+		// changes with the declarations of the super types
+		ITypeHierarchy hierarchy = tester.getTypeHierarchy();
+		Set<String> superUnits = new HashSet<>();
+		for (IType superType : hierarchy.getAllSupertypes(type)) {
+			String unit = getUnit(superType);
+			if (unit != null) {
+				superUnits.add(unit);
+			}
+		}
+		return superUnits;
+	}
+
+	/**
+	 * @return the stamp of the compilation unit of a source member, as
+	 *         returned by {@link JDTUtils#getContentStamp(org.eclipse.jdt.core.ITypeRoot)},
+	 *         or the timestamp of the package fragment root of a binary member
+	 */
+	private static long getTimestamp(IMember member) {
+		if (member.getCompilationUnit() != null) {
+			return JDTUtils.getContentStamp(member.getCompilationUnit());
+		}
+		IPackageFragmentRoot root = (IPackageFragmentRoot) member.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+		if (root == null) {
+			return 0;
+		}
+		IResource resource = root.getResource();
+		if (resource != null) {
+			return resource.getModificationStamp();
+		}
+		IPath path = root.getPath();
+		return path == null ? 0 : new File(path.toOSString()).lastModified();
+	}
+
+	private static class CacheEntry {
+		private final String unit;
+		/**
+		 * The compilation units of the super types the documentation is
+		 * inherited from, <code>null</code> if it isn't inherited
+		 */
+		private final Set<String> superUnits;
+		private final long timestamp;
+		private final byte[] content;
+
+		private CacheEntry(String unit, Set<String> superUnits, long timestamp, String content) {
+			this.unit = unit;
+			this.superUnits = superUnits;
+			this.timestamp = timestamp;
+			this.content = content == null ? null : content.getBytes(StandardCharsets.UTF_8);
+		}
+
+		private String getContent() {
+			return content == null ? null : new String(content, StandardCharsets.UTF_8);
+		}
+
+		private int getWeight() {
+			return 64 + (content == null ? 0 : content.length);
+		}
+	}
+
+	private class PrewarmJob extends Job {
+		private IJavaProject project;
+		private List<String> typeNames = Collections.emptyList();
+		private String format;
+
+		private PrewarmJob() {
+			super("Render documentation");
+			setSystem(true);
+			setPriority(Job.DECORATE);
+		}
+
+		private synchronized void setTypes(IJavaProject project, List<String> typeNames, String format) {
+			this.project = project;
+			this.typeNames = typeNames;
+			this.format = format;
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			IJavaProject project;
+			List<String> typeNames;
+			String format;
+			synchronized (this) {
+				project = this.project;
+				typeNames = this.typeNames;
+				format = this.format;
+			}
+			if (project == null) {
+				return Status.OK_STATUS;
+			}
+			int count = 0;
+			try {
+				for (String typeName : typeNames) {
+					IType type = project.findType(typeName);
+					if (type == null) {
+						continue;
+					}
+					List<IMember> members = new ArrayList<>();
+					members.add(type);
+					Collections.addAll(members, type.getFields());
+					Collections.addAll(members, type.getMethods());
+					for (IMember member : members) {
+						if (monitor.isCanceled()) {
+							return Status.CANCEL_STATUS;
+						}
+						if (count++ >= MAX_PREWARMED_MEMBERS) {
+							return Status.OK_STATUS;
+						}
+						getJavadoc(member, format);
+					}
+				}
+			} catch (JavaModelException e) {
+				JavaLanguageServerPlugin.logException("Unable to render documentation", e);
+			}
+			return Status.OK_STATUS;
+		}
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "JavadocCache [size=" + entries.size() + ", bytes=" + bytes + ", hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount + "]";
+	}
+}
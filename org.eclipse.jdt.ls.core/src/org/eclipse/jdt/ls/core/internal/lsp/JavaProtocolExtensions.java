@@ -10,10 +10,15 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.lsp;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.jdt.ls.core.internal.BuildWorkspaceStatus;
+import org.eclipse.jdt.ls.core.internal.ReferencesParams;
+import org.eclipse.jdt.ls.core.internal.handlers.ServerMetrics;
+import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.WorkspaceEdit;
 import org.eclipse.lsp4j.jsonrpc.services.JsonNotification;
 import org.eclipse.lsp4j.jsonrpc.services.JsonRequest;
 import org.eclipse.lsp4j.jsonrpc.services.JsonSegment;
@@ -39,4 +44,35 @@ public interface JavaProtocolExtensions {
 
 	@JsonRequest
 	CompletableFuture<BuildWorkspaceStatus> buildWorkspace(boolean forceReBuild);
+
+	/**
+	 * Request the metrics of the server: the latency of the requests of each
+	 * method, the durations of the jobs and the hit ratios of the caches
+	 */
+	@JsonRequest
+	CompletableFuture<ServerMetrics.Report> serverMetrics();
+
+	/**
+	 * Request the references to the symbol at a position. The locations are
+	 * sent in batches, as <code>language/referencesPartialResult</code>
+	 * notifications carrying the token of the request, the response holding
+	 * the locations not sent yet.
+	 */
+	@JsonRequest
+	CompletableFuture<List<Location>> findReferences(ReferencesParams params);
+
+	/**
+	 * Request the edit of a code action, when the client declares the
+	 * <code>resolveCodeActionSupport</code> extended capability: the code
+	 * actions are then returned without their edits, as
+	 * <code>java.resolve.workspaceEdit</code> commands whose argument is the
+	 * id of the code action
+	 *
+	 * @param codeActionId
+	 *            the id of the code action
+	 * @return the edit of the code action, or <code>null</code> if the code
+	 *         action expired
+	 */
+	@JsonRequest
+	CompletableFuture<WorkspaceEdit> resolveCodeAction(String codeActionId);
 }
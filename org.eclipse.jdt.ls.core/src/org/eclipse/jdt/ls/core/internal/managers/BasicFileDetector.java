@@ -24,7 +24,6 @@ import java.nio.file.PathMatcher;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -53,6 +52,7 @@ public class BasicFileDetector {
 	private int maxDepth = 5;
 	private boolean includeNested = true;
 	private Set<String> exclusions = new HashSet<>(1);
+	private List<PathMatcher> exclusionMatchers = new ArrayList<>(1);
 
 	/**
 	 * Constructs a new BasicFileDetector for the given root directory, searching for a fileName.
@@ -82,7 +82,11 @@ public class BasicFileDetector {
 	 */
 	public BasicFileDetector addExclusions(String...excludes) {
 		if (excludes != null) {
-			exclusions.addAll(Arrays.asList(excludes));
+			for (String exclude : excludes) {
+				if (exclusions.add(exclude)) {
+					exclusionMatchers.add(FileSystems.getDefault().getPathMatcher("glob:" + exclude));
+				}
+			}
 		}
 		return this;
 	}
@@ -158,8 +162,7 @@ public class BasicFileDetector {
 		if (dir.getFileName() == null) {
 			return true;
 		}
-		for (String pattern : exclusions) {
-			PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+		for (PathMatcher matcher : exclusionMatchers) {
 			if (matcher.matches(dir)) {
 				return true;
 			}
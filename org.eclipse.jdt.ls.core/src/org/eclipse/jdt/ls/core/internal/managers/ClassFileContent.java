@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import org.eclipse.jdt.ls.core.internal.handlers.LineIndex;
+import org.eclipse.jface.text.BadLocationException;
+
+/**
+ * Text content of a class file, as provided by a content provider, along with
+ * the index of its lines, computed once.
+ */
+public class ClassFileContent {
+
+	private final String text;
+	private LineIndex lineIndex;
+
+	public ClassFileContent(String text) {
+		this.text = text;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * @param line
+	 *            the 0-based line
+	 * @param column
+	 *            the 0-based column
+	 * @return the offset of the given position, or <code>-1</code> if the line
+	 *         is out of the content
+	 */
+	public int getOffset(int line, int column) {
+		try {
+			return getLineIndex().getLineOffset(line) + column;
+		} catch (BadLocationException e) {
+			return -1;
+		}
+	}
+
+	private synchronized LineIndex getLineIndex() {
+		if (lineIndex == null) {
+			lineIndex = LineIndex.of(text);
+		}
+		return lineIndex;
+	}
+}
@@ -0,0 +1,307 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.IClassFile;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+
+/**
+ * Caches the content of class files computed by the content providers, so
+ * that navigating through library types doesn't decompile or disassemble them
+ * again.
+ *
+ * The most recently used contents are kept in memory, up to a total size. All
+ * the contents are also written compressed to the workspace metadata, up to a
+ * total size, so that they survive a restart of the server. The contents are
+ * keyed by class file, timestamp of its library and content provider, so a
+ * library update never serves outdated contents.
+ */
+public class ClassFileContentCache {
+
+	private static final String DIRECTORY = "class-file-contents";
+	private static final String EXTENSION = ".gz";
+	private static final long MAX_MEMORY_CHARS = 8 * 1024 * 1024;
+	private static final long MAX_DISK_BYTES = 64 * 1024 * 1024;
+
+	private final Map<String, ClassFileContent> contents = new LinkedHashMap<>(16, 0.75f, true);
+	private final File directory;
+	private long memoryChars;
+	private long diskBytes = -1;
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+
+	/**
+	 * @param stateLocation
+	 *            the directory the contents are written to, or
+	 *            <code>null</code> to keep the contents in memory only
+	 */
+	public ClassFileContentCache(File stateLocation) {
+		this.directory = stateLocation == null ? null : new File(stateLocation, DIRECTORY);
+	}
+
+	/**
+	 * @return the key of the content of the given class file computed by the
+	 *         given content provider, or <code>null</code> if its library
+	 *         can't be identified
+	 */
+	public static String getKey(IClassFile classFile, String providerId) {
+		IPackageFragmentRoot root = (IPackageFragmentRoot) classFile.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+		if (root == null) {
+			return null;
+		}
+		long timestamp;
+		IResource resource = root.getResource();
+		if (resource != null) {
+			timestamp = resource.getModificationStamp();
+		} else {
+			IPath path = root.getPath();
+			timestamp = path == null ? 0 : new File(path.toOSString()).lastModified();
+		}
+		if (timestamp <= 0) {
+			return null;
+		}
+		IPath sourceAttachment;
+		try {
+			sourceAttachment = root.getSourceAttachmentPath();
+		} catch (JavaModelException e) {
+			return null;
+		}
+		return classFile.getHandleIdentifier() + '#' + timestamp + '#' + sourceAttachment + '#' + providerId;
+	}
+
+	/**
+	 * @return the key of the content of the given class file computed by the
+	 *         given content provider, or <code>null</code> if the uri isn't an
+	 *         existing file
+	 */
+	public static String getKey(URI uri, String providerId) {
+		if (uri == null || !"file".equals(uri.getScheme())) {
+			return null;
+		}
+		try {
+			long timestamp = new File(uri).lastModified();
+			return timestamp <= 0 ? null : uri + "#" + timestamp + '#' + providerId;
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return the content with the given key, or <code>null</code> if it isn't
+	 *         cached
+	 */
+	public ClassFileContent get(String key) {
+		synchronized (this) {
+			ClassFileContent content = contents.get(key);
+			if (content != null) {
+				hitCount++;
+				return content;
+			}
+		}
+		String text = read(key);
+		synchronized (this) {
+			if (text == null) {
+				missCount++;
+				return null;
+			}
+			hitCount++;
+			return putInMemory(key, text);
+		}
+	}
+
+	/**
+	 * Caches the given content.
+	 *
+	 * @return the cached content
+	 */
+	public ClassFileContent put(String key, String text) {
+		ClassFileContent content;
+		synchronized (this) {
+			content = putInMemory(key, text);
+		}
+		write(key, text);
+		return content;
+	}
+
+	public synchronized void clear() {
+		contents.clear();
+		memoryChars = 0;
+	}
+
+	public synchronized int size() {
+		return contents.size();
+	}
+
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	private ClassFileContent putInMemory(String key, String text) {
+		ClassFileContent content = new ClassFileContent(text);
+		ClassFileContent previous = contents.put(key, content);
+		if (previous != null) {
+			memoryChars -= previous.getText().length();
+		}
+		memoryChars += text.length();
+		Iterator<ClassFileContent> eldest = contents.values().iterator();
+		while (memoryChars > MAX_MEMORY_CHARS && contents.size() > 1) {
+			memoryChars -= eldest.next().getText().length();
+			eldest.remove();
+			evictionCount++;
+		}
+		return content;
+	}
+
+	private String read(String key) {
+		File file = getFile(key);
+		if (file == null || !file.isFile()) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new GZIPInputStream(new FileInputStream(file)))) {
+			if (!key.equals(in.readUTF())) {
+				return null;
+			}
+			String text = new String(readAll(in), StandardCharsets.UTF_8);
+			file.setLastModified(System.currentTimeMillis());
+			return text;
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Unable to read the cached content of " + key, e);
+			file.delete();
+			return null;
+		}
+	}
+
+	private void write(String key, String text) {
+		File file = getFile(key);
+		if (file == null) {
+			return;
+		}
+		File tmp = new File(directory, file.getName() + ".tmp" + Thread.currentThread().getId());
+		try {
+			Files.createDirectories(directory.toPath());
+			try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new FileOutputStream(tmp)))) {
+				out.writeUTF(key);
+				out.write(text.getBytes(StandardCharsets.UTF_8));
+			}
+			long length = tmp.length();
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			trimDisk(length);
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Unable to cache the content of " + key, e);
+			tmp.delete();
+		}
+	}
+
+	/**
+	 * Deletes the least recently used files once the files exceed the disk
+	 * budget.
+	 */
+	private synchronized void trimDisk(long written) {
+		if (diskBytes < 0) {
+			diskBytes = 0;
+			for (File file : listFiles()) {
+				diskBytes += file.length();
+			}
+		} else {
+			diskBytes += written;
+		}
+		if (diskBytes <= MAX_DISK_BYTES) {
+			return;
+		}
+		File[] files = listFiles();
+		Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+		diskBytes = 0;
+		for (File file : files) {
+			diskBytes += file.length();
+		}
+		for (File file : files) {
+			if (diskBytes <= MAX_DISK_BYTES * 3 / 4) {
+				break;
+			}
+			long length = file.length();
+			if (file.delete()) {
+				diskBytes -= length;
+			}
+		}
+	}
+
+	private File[] listFiles() {
+		File[] files = directory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+		return files == null ? new File[0] : files;
+	}
+
+	private File getFile(String key) {
+		if (directory == null) {
+			return null;
+		}
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+			StringBuilder name = new StringBuilder(digest.length * 2 + EXTENSION.length());
+			for (byte b : digest) {
+				name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return new File(directory, name.append(EXTENSION).toString());
+		} catch (NoSuchAlgorithmException e) {
+			return null;
+		}
+	}
+
+	private static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "ClassFileContentCache [size=" + contents.size() + ", chars=" + memoryChars + ", hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount + "]";
+	}
+}
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.managers;
 
+import java.io.File;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.List;
@@ -25,6 +26,7 @@ import org.eclipse.core.runtime.Platform;
 import org.eclipse.jdt.core.IClassFile;
 import org.eclipse.jdt.ls.core.internal.IContentProvider;
 import org.eclipse.jdt.ls.core.internal.IDecompiler;
+import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 
@@ -36,15 +38,33 @@ public class ContentProviderManager {
 	private static final String ID = "id";
 	private static final String PRIORITY = "priority";
 	private static final String URI_PATTERN = "uriPattern";
+	private static final String CACHEABLE = "cacheable";
 	private static final int DEFAULT_PRIORITY = 500;
 	private static final Pattern DEFAULT_URI_PATTERN = Pattern.compile("jdt://contents/.*\\.class.*");
 
 	private final PreferenceManager preferenceManager;
+	private final ClassFileContentCache cache;
 
 	private Set<ContentProviderDescriptor> descriptors;
 
 	public ContentProviderManager(PreferenceManager preferenceManager) {
+		this(preferenceManager, null);
+	}
+
+	/**
+	 * @param preferenceManager
+	 *            the preference manager
+	 * @param stateLocation
+	 *            the directory the contents of the class files are cached in,
+	 *            or <code>null</code> to cache them in memory only
+	 */
+	public ContentProviderManager(PreferenceManager preferenceManager, File stateLocation) {
 		this.preferenceManager = preferenceManager;
+		this.cache = new ClassFileContentCache(stateLocation);
+	}
+
+	public ClassFileContentCache getContentCache() {
+		return cache;
 	}
 
 	/**
@@ -60,7 +80,25 @@ public class ContentProviderManager {
 		if (classFile == null) {
 			return null;
 		}
-		return getContent(classFile, classFile.getHandleIdentifier(), IDecompiler.class, monitor);
+		ClassFileContent content = getContent(classFile, IDecompiler.class, monitor);
+		return content == null ? EMPTY_CONTENT : content.getText();
+	}
+
+	/**
+	 * Get text content for a class file if possible, along with the offsets
+	 * of its lines
+	 *
+	 * @param classFile
+	 *            the class file to get content from
+	 * @param monitor
+	 * @return the content if successful, or <code>null</code> if unsuccessful
+	 *         or canceled
+	 */
+	public ClassFileContent getSourceContent(IClassFile classFile, IProgressMonitor monitor) {
+		if (classFile == null) {
+			return null;
+		}
+		return getContent(classFile, IDecompiler.class, monitor);
 	}
 
 	/**
@@ -76,14 +114,16 @@ public class ContentProviderManager {
 		if (uri == null) {
 			return null;
 		}
-		return getContent(uri, uri.toString(), IContentProvider.class, monitor);
+		ClassFileContent content = getContent(uri, IContentProvider.class, monitor);
+		return content == null ? EMPTY_CONTENT : content.getText();
 	}
 
-	private String getContent(Object source, String cacheKey, Class<? extends IContentProvider> providerType, IProgressMonitor monitor) {
+	private ClassFileContent getContent(Object source, Class<? extends IContentProvider> providerType, IProgressMonitor monitor) {
 		URI uri = source instanceof URI ? (URI) source : null;
+		IClassFile classFile = source instanceof IClassFile ? (IClassFile) source : JDTUtils.resolveClassFile(uri);
 		List<ContentProviderDescriptor> matches = findMatchingProviders(uri);
 		if (monitor.isCanceled()) {
-			return EMPTY_CONTENT;
+			return null;
 		}
 
 		int previousPriority = -1;
@@ -93,9 +133,17 @@ public class ContentProviderManager {
 				JavaLanguageServerPlugin.logError("Unable to load " + providerType.getSimpleName() + " class for " + match.id);
 				continue;
 			}
+			String cacheKey = null;
+			if (match.cacheable) {
+				cacheKey = classFile != null ? ClassFileContentCache.getKey(classFile, match.id) : ClassFileContentCache.getKey(uri, match.id);
+				ClassFileContent cached = cacheKey == null ? null : cache.get(cacheKey);
+				if (cached != null) {
+					return cached;
+				}
+			}
 
 			if (monitor.isCanceled()) {
-				return EMPTY_CONTENT;
+				return null;
 			}
 
 			if (previousPriority == match.priority) {
@@ -110,9 +158,9 @@ public class ContentProviderManager {
 					content = ((IDecompiler) contentProvider).getSource((IClassFile) source, monitor);
 				}
 				if (monitor.isCanceled()) {
-					return EMPTY_CONTENT;
+					return null;
 				} else if (content != null) {
-					return content;
+					return cacheKey == null ? new ClassFileContent(content) : cache.put(cacheKey, content);
 				}
 			} catch (Exception e) {
 				JavaLanguageServerPlugin.logException("Error getting content via " + match.id, e);
@@ -121,7 +169,7 @@ public class ContentProviderManager {
 			previousPriority = match.priority;
 		}
 
-		return EMPTY_CONTENT;
+		return null;
 	}
 
 	private synchronized Set<ContentProviderDescriptor> getDescriptors(List<String> preferredProviderIds) {
@@ -169,6 +217,7 @@ public class ContentProviderManager {
 		private final int basePriority;
 		public int priority;
 		public final Pattern uriPattern;
+		public final boolean cacheable;
 
 		public ContentProviderDescriptor(IConfigurationElement element) {
 			configurationElement = element;
@@ -177,6 +226,7 @@ public class ContentProviderManager {
 			priority = basePriority;
 			String uriPatternString = configurationElement.getAttribute(URI_PATTERN);
 			uriPattern = uriPatternString != null ? Pattern.compile(uriPatternString) : DEFAULT_URI_PATTERN;
+			cacheable = !Boolean.FALSE.toString().equals(configurationElement.getAttribute(CACHEABLE));
 		}
 
 		private int parsePriority() {
@@ -10,21 +10,39 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.managers;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.StatusFactory;
 
@@ -34,24 +52,52 @@ import org.eclipse.jdt.ls.core.internal.StatusFactory;
  *         This class handles digests for build files. It serves to prevent
  *         unnecessary updating of maven/gradle, etc. info on workspace
  *         projects.
+ *
+ *         The digests are kept in a compact binary file: a snapshot of all the
+ *         digests, followed by the records appended for each changed digest.
+ *         The file is compacted back to a snapshot by {@link #compact()}, or
+ *         in the background once too many records were appended.
+ *         Changes made between {@link #beginBatch()} and {@link #endBatch()}
+ *         are written once, at the end of the batch.
  */
 public class DigestStore {
-	private Map<String, String> fileDigests;
+	private final Map<String, FileDigest> fileDigests = new ConcurrentHashMap<>();
 	private File stateFile;
+	private final Job compactJob;
+	private final List<Map.Entry<String, FileDigest>> pendingRecords = new ArrayList<>();
+	private int appendedRecords;
+	private int batchDepth;
 
-	private static final String SERIALIZATION_FILE_NAME = ".file-digests";
+	private static final String SERIALIZATION_FILE_NAME = ".file-digests.bin";
+	private static final String LEGACY_SERIALIZATION_FILE_NAME = ".file-digests";
+	private static final int MAGIC = 0x4A444753; // JDGS
+	private static final int VERSION = 1;
+	private static final int MAPPED_READ_THRESHOLD = 1024 * 1024;
+	private static final int READ_BUFFER_SIZE = 8192;
+	private static final int MAX_APPENDED_RECORDS = 256;
 
 	public DigestStore(File stateLocation) {
 		this.stateFile = new File(stateLocation, SERIALIZATION_FILE_NAME);
+		this.compactJob = new Job("Compact file digests") {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				compact();
+				return Status.OK_STATUS;
+			}
+		};
+		this.compactJob.setSystem(true);
 		if (stateFile.isFile()) {
-			fileDigests = deserializeFileDigests();
-		} else {
-			fileDigests = new HashMap<>();
+			deserializeFileDigests();
+		}
+		File legacyFile = new File(stateLocation, LEGACY_SERIALIZATION_FILE_NAME);
+		if (legacyFile.isFile()) {
+			migrateLegacyFileDigests(legacyFile);
 		}
 	}
 
 	/**
-	 * Updates the digest for the given path.
+	 * Updates the digest for the given path. The file is not read if its size
+	 * and modification time didn't change since its digest was computed.
 	 *
 	 * @param p
 	 *            Path to the file in questions
@@ -61,45 +107,237 @@ public class DigestStore {
 	 *             if a digest cannot be computed
 	 */
 	public boolean updateDigest(Path p) throws CoreException {
+		String key = p.toString();
 		try {
-			String digest = computeDigest(p);
-			synchronized (fileDigests) {
-				if (!digest.equals(fileDigests.get(p.toString()))) {
-					fileDigests.put(p.toString(), digest);
-					serializeFileDigests();
-					return true;
-				} else {
+			BasicFileAttributes attributes = Files.readAttributes(p, BasicFileAttributes.class);
+			long size = attributes.size();
+			long lastModified = attributes.lastModifiedTime().toMillis();
+			while (true) {
+				FileDigest previous = fileDigests.get(key);
+				if (previous != null && previous.size == size && previous.lastModified == lastModified) {
 					return false;
 				}
+				FileDigest digest = new FileDigest(size, lastModified, computeDigest(p, size));
+				// only the update replacing the digest it was compared with reports the change, the others compare again
+				boolean updated = previous == null ? fileDigests.putIfAbsent(key, digest) == null : fileDigests.replace(key, previous, digest);
+				if (updated) {
+					// also record unchanged digests with a new timestamp, so the file is not hashed again
+					addRecord(key, digest);
+					return previous == null || !Arrays.equals(previous.digest, digest.digest);
+				}
 			}
 		} catch (NoSuchAlgorithmException | IOException e) {
 			throw new CoreException(StatusFactory.newErrorStatus("Exception updating digest for " + p, e));
 		}
+	}
+
+	/**
+	 * Defers writing the updated digests until the matching
+	 * {@link #endBatch()}.
+	 */
+	public void beginBatch() {
+		synchronized (pendingRecords) {
+			batchDepth++;
+		}
+	}
+
+	/**
+	 * Writes the digests updated since the matching {@link #beginBatch()}.
+	 */
+	public void endBatch() {
+		synchronized (pendingRecords) {
+			if (batchDepth > 0) {
+				batchDepth--;
+			}
+			if (batchDepth == 0) {
+				flush();
+			}
+		}
+	}
+
+	/**
+	 * Rewrites the state file as a snapshot of the current digests, dropping
+	 * the records appended since the last snapshot.
+	 */
+	public void compact() {
+		synchronized (pendingRecords) {
+			if (appendedRecords == 0 && pendingRecords.isEmpty() && stateFile.isFile()) {
+				return;
+			}
+			writeSnapshot();
+		}
+	}
 
+	/**
+	 * @return whether the snapshot was written
+	 */
+	private boolean writeSnapshot() {
+		synchronized (pendingRecords) {
+			Map<String, FileDigest> snapshot = new HashMap<>(fileDigests);
+			File tmpFile = new File(stateFile.getParentFile(), stateFile.getName() + ".tmp");
+			try {
+				try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+					out.writeInt(MAGIC);
+					out.writeInt(VERSION);
+					for (Map.Entry<String, FileDigest> entry : snapshot.entrySet()) {
+						writeRecord(out, entry.getKey(), entry.getValue());
+					}
+				}
+				Files.move(tmpFile.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				pendingRecords.clear();
+				appendedRecords = 0;
+				return true;
+			} catch (IOException e) {
+				JavaLanguageServerPlugin.logException("Exception occured while serialization of file digests", e);
+				return false;
+			}
+		}
+	}
+
+	private void addRecord(String key, FileDigest digest) {
+		synchronized (pendingRecords) {
+			pendingRecords.add(new AbstractMap.SimpleImmutableEntry<>(key, digest));
+			if (batchDepth == 0) {
+				flush();
+			}
+		}
 	}
 
-	private void serializeFileDigests() {
-		try (ObjectOutputStream outStream = new ObjectOutputStream(new FileOutputStream(stateFile))) {
-			outStream.writeObject(fileDigests);
+	private void flush() {
+		if (pendingRecords.isEmpty()) {
+			return;
+		}
+		if (!stateFile.isFile()) {
+			compact();
+			return;
+		}
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(stateFile.toPath(), StandardOpenOption.APPEND)))) {
+			for (Map.Entry<String, FileDigest> record : pendingRecords) {
+				writeRecord(out, record.getKey(), record.getValue());
+			}
+			appendedRecords += pendingRecords.size();
+			pendingRecords.clear();
 		} catch (IOException e) {
 			JavaLanguageServerPlugin.logException("Exception occured while serialization of file digests", e);
 		}
+		if (appendedRecords > Math.max(MAX_APPENDED_RECORDS, fileDigests.size())) {
+			compactJob.schedule();
+		}
 	}
 
-	@SuppressWarnings("unchecked")
-	private Map<String, String> deserializeFileDigests() {
-		try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(stateFile))) {
-			return (Map<String, String>) ois.readObject();
+	private static void writeRecord(DataOutputStream out, String key, FileDigest digest) throws IOException {
+		out.writeUTF(key);
+		out.writeLong(digest.size);
+		out.writeLong(digest.lastModified);
+		out.writeByte(digest.digest.length);
+		out.write(digest.digest);
+	}
+
+	private void deserializeFileDigests() {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(stateFile)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				return;
+			}
+			int records = 0;
+			try {
+				while (true) {
+					String key = in.readUTF();
+					long size = in.readLong();
+					long lastModified = in.readLong();
+					byte[] digest = new byte[in.readUnsignedByte()];
+					in.readFully(digest);
+					// records appended later override the previous ones
+					fileDigests.put(key, new FileDigest(size, lastModified, digest));
+					records++;
+				}
+			} catch (EOFException e) {
+				// end of the log, a truncated last record is ignored
+			}
+			appendedRecords = records - fileDigests.size();
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Exception occured while deserialization of file digests", e);
+		}
+	}
+
+	/**
+	 * Reads the digests of the legacy serialized map once, then deletes it. The
+	 * size and modification time of the files are unknown, so the files are
+	 * hashed again on their next update, but are only reported as changed if
+	 * their content did change.
+	 */
+	private void migrateLegacyFileDigests(File legacyFile) {
+		try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(legacyFile))) {
+			Object object = in.readObject();
+			if (object instanceof Map) {
+				for (Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet()) {
+					byte[] digest = parseLegacyDigest(entry.getValue());
+					if (entry.getKey() instanceof String && digest != null) {
+						fileDigests.putIfAbsent((String) entry.getKey(), new FileDigest(-1, -1, digest));
+					}
+				}
+			}
 		} catch (IOException | ClassNotFoundException e) {
 			JavaLanguageServerPlugin.logException("Exception occured while deserialization of file digests", e);
-			return new HashMap<>();
+		}
+		if (writeSnapshot()) {
+			legacyFile.delete();
 		}
 	}
 
-	private String computeDigest(Path path) throws IOException, NoSuchAlgorithmException {
-		byte[] fileBytes = Files.readAllBytes(path);
-		byte[] digest = MessageDigest.getInstance("MD5").digest(fileBytes);
-		return Arrays.toString(digest);
+	/**
+	 * @return the bytes of a digest formatted by {@link Arrays#toString(byte[])},
+	 *         or <code>null</code> if it's malformed
+	 */
+	private static byte[] parseLegacyDigest(Object value) {
+		if (!(value instanceof String)) {
+			return null;
+		}
+		String text = (String) value;
+		if (text.length() < 2 || text.charAt(0) != '[' || text.charAt(text.length() - 1) != ']') {
+			return null;
+		}
+		String[] bytes = text.substring(1, text.length() - 1).split(",");
+		byte[] digest = new byte[bytes.length];
+		try {
+			for (int i = 0; i < bytes.length; i++) {
+				digest[i] = Byte.parseByte(bytes[i].trim());
+			}
+		} catch (NumberFormatException e) {
+			return null;
+		}
+		return digest;
+	}
+
+	private static byte[] computeDigest(Path path, long size) throws IOException, NoSuchAlgorithmException {
+		MessageDigest md = MessageDigest.getInstance("MD5");
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (size > MAPPED_READ_THRESHOLD) {
+				// hash large files in place, without copying them to the heap
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				md.update(buffer);
+			} else {
+				// mapped files stay locked on Windows until the buffer is garbage collected, so stream the usual build files
+				ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+				while (channel.read(buffer) > 0) {
+					buffer.flip();
+					md.update(buffer);
+					buffer.clear();
+				}
+			}
+		}
+		return md.digest();
+	}
+
+	private static class FileDigest {
+		private final long size;
+		private final long lastModified;
+		private final byte[] digest;
+
+		private FileDigest(long size, long lastModified, byte[] digest) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.digest = digest;
+		}
 	}
 
 }
@@ -36,9 +36,7 @@ public class EclipseProjectImporter extends AbstractProjectImporter {
 	@Override
 	public boolean applies(IProgressMonitor monitor) throws CoreException {
 		if (directories == null) {
-			BasicFileDetector eclipseDetector = new BasicFileDetector(rootFolder.toPath(), DESCRIPTION_FILE_NAME)
-					.addExclusions("**/bin");//default Eclipse build dir
-			directories = eclipseDetector.scan(monitor);
+			directories = getManifest(monitor).getDirectories(DESCRIPTION_FILE_NAME, true, "**/bin");//default Eclipse build dir
 		}
 		return !directories.isEmpty();
 	}
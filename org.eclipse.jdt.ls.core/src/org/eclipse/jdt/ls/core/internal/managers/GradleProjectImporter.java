@@ -47,7 +47,7 @@ public class GradleProjectImporter extends AbstractProjectImporter {
 
 	public static final String GRADLE_HOME = "GRADLE_HOME";
 
-	private static final String BUILD_GRADLE_DESCRIPTOR = "build.gradle";
+	public static final String BUILD_GRADLE_DESCRIPTOR = "build.gradle";
 
 	protected static final GradleDistribution DEFAULT_DISTRIBUTION = GradleDistribution.fromBuild();
 
@@ -68,10 +68,7 @@ public class GradleProjectImporter extends AbstractProjectImporter {
 			return false;
 		}
 		if (directories == null) {
-			BasicFileDetector gradleDetector = new BasicFileDetector(rootFolder.toPath(), BUILD_GRADLE_DESCRIPTOR)
-					.includeNested(false)
-					.addExclusions("**/build");//default gradle build dir
-			directories = gradleDetector.scan(monitor);
+			directories = getManifest(monitor).getDirectories(BUILD_GRADLE_DESCRIPTOR, false, "**/build");//default gradle build dir
 		}
 		return !directories.isEmpty();
 	}
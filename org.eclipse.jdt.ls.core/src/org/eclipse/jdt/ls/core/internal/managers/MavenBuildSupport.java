@@ -11,6 +11,10 @@
 package org.eclipse.jdt.ls.core.internal.managers;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
@@ -42,16 +46,36 @@ public class MavenBuildSupport implements IBuildSupport {
 
 	@Override
 	public void update(IProject project, boolean force, IProgressMonitor monitor) throws CoreException {
-		if (!applies(project)) {
-			return;
+		update(Collections.singleton(project), force, monitor);
+	}
+
+	/**
+	 * Updates the configuration of the given projects whose pom changed, in a
+	 * single Maven update: the Maven configuration acquires the workspace
+	 * rule, so the projects can't be updated concurrently, but their models
+	 * are resolved together, in the order of their dependencies.
+	 *
+	 * @return the number of projects passed to the Maven update
+	 */
+	public int update(Collection<IProject> projects, boolean force, IProgressMonitor monitor) throws CoreException {
+		List<IProject> toUpdate = new ArrayList<>();
+		for (IProject project : projects) {
+			if (!applies(project)) {
+				continue;
+			}
+			Path pomPath = project.getFile("pom.xml").getLocation().toFile().toPath();
+			if (digestStore.updateDigest(pomPath) || force) {
+				JavaLanguageServerPlugin.logInfo("Starting Maven update for " + project.getName());
+				toUpdate.add(project);
+			}
 		}
-		Path pomPath = project.getFile("pom.xml").getLocation().toFile().toPath();
-		if (digestStore.updateDigest(pomPath) || force) {
-			JavaLanguageServerPlugin.logInfo("Starting Maven update for " + project.getName());
-			//TODO collect dependent projects and update them as well? i.e in case a parent project was modified
-			MavenUpdateRequest request = new MavenUpdateRequest(project, MavenPlugin.getMavenConfiguration().isOffline(), true);
-			configurationManager.updateProjectConfiguration(request, monitor);
+		if (toUpdate.isEmpty()) {
+			return 0;
 		}
+		//TODO collect dependent projects and update them as well? i.e in case a parent project was modified
+		MavenUpdateRequest request = new MavenUpdateRequest(toUpdate.toArray(new IProject[toUpdate.size()]), MavenPlugin.getMavenConfiguration().isOffline(), true);
+		configurationManager.updateProjectConfiguration(request, monitor);
+		return toUpdate.size();
 	}
 
 	@Override
@@ -71,6 +71,9 @@ public class MavenProjectImporter extends AbstractProjectImporter {
 		if (preferencesManager != null && !preferencesManager.getPreferences().isImportMavenEnabled()) {
 			return false;
 		}
+		if (rootFolder != null && !getManifest(monitor).contains(POM_FILE)) {
+			return false;
+		}
 		Set<MavenProjectInfo> files = getMavenProjectInfo(monitor);
 		if (files != null) {
 			Iterator<MavenProjectInfo> iter = files.iterator();
@@ -117,6 +120,7 @@ public class MavenProjectImporter extends AbstractProjectImporter {
 
 	@Override
 	public void importToWorkspace(IProgressMonitor monitor) throws CoreException, OperationCanceledException {
+		long start = System.currentTimeMillis();
 		JavaLanguageServerPlugin.logInfo(IMPORTING_MAVEN_PROJECTS);
 		MavenConfigurationImpl configurationImpl = (MavenConfigurationImpl)MavenPlugin.getMavenConfiguration();
 		configurationImpl.setDownloadSources(true);
@@ -155,6 +159,7 @@ public class MavenProjectImporter extends AbstractProjectImporter {
 		subMonitor.setWorkRemaining(20);
 		updateProjects(projects, lastWorkspaceStateSaved, subMonitor.split(20));
 		subMonitor.done();
+		JavaLanguageServerPlugin.logInfo("Imported " + toImport.size() + " and refreshed " + projects.size() + " Maven project(s) in " + (System.currentTimeMillis() - start) + " ms");
 	}
 
 	private long getLastWorkspaceStateModified() {
@@ -186,13 +191,18 @@ public class MavenProjectImporter extends AbstractProjectImporter {
 		new WorkspaceJob("Update Maven project configuration") {
 			@Override
 			public IStatus runInWorkspace(IProgressMonitor monitor) throws CoreException {
+				long start = System.currentTimeMillis();
 				MavenBuildSupport mavenBuildSupport = new MavenBuildSupport();
-				for (IProject project : projects) {
-					if (monitor.isCanceled()) {
-						return Status.CANCEL_STATUS;
-					}
-					mavenBuildSupport.update(project, false, monitor);
+				int updated;
+				digestStore.beginBatch();
+				try {
+					updated = mavenBuildSupport.update(projects, false, monitor);
+				} catch (OperationCanceledException e) {
+					return Status.CANCEL_STATUS;
+				} finally {
+					digestStore.endBatch();
 				}
+				JavaLanguageServerPlugin.logInfo("Updated " + updated + " Maven project(s) in " + (System.currentTimeMillis() - start) + " ms");
 				return Status.OK_STATUS;
 			}
 		}.schedule();
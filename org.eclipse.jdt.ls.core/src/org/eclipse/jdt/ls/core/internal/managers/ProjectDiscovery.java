@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.managers.ProjectManifest.Directory;
+import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Discovers the build descriptors under a root folder, for all the project
+ * importers at once.
+ *
+ * The directories are walked once, in parallel, skipping the ".metadata"
+ * folders and the folders excluded by the
+ * {@link org.eclipse.jdt.ls.core.internal.preferences.Preferences#JAVA_IMPORT_EXCLUSIONS_KEY}
+ * preference. The resulting {@link ProjectManifest} is kept in the workspace
+ * metadata, and reused as long as none of the directories walked was modified,
+ * so that restarting the server doesn't walk the directories again.
+ */
+public class ProjectDiscovery {
+
+	public static final String CLASSPATH_FILE_NAME = ".classpath";
+	public static final List<String> DESCRIPTORS = Arrays.asList(MavenProjectImporter.POM_FILE, GradleProjectImporter.BUILD_GRADLE_DESCRIPTOR, IProjectDescription.DESCRIPTION_FILE_NAME, CLASSPATH_FILE_NAME);
+
+	private static final String METADATA_FOLDER = "**/.metadata";
+	private static final int MAX_DEPTH = 5;
+	private static final String SERIALIZATION_FILE_NAME = ".project-manifests.json";
+
+	private final File stateFile;
+	private Map<String, ProjectManifest> manifests;
+
+	/**
+	 * @param stateLocation
+	 *            the directory the manifests are kept in, or <code>null</code>
+	 *            to keep them in memory only
+	 */
+	public ProjectDiscovery(File stateLocation) {
+		this.stateFile = stateLocation == null ? null : new File(stateLocation, SERIALIZATION_FILE_NAME);
+	}
+
+	/**
+	 * @return the discovery of the plugin, or a discovery keeping the
+	 *         manifests in memory only if the plugin isn't started
+	 */
+	public static ProjectDiscovery getDefault() {
+		ProjectDiscovery discovery = JavaLanguageServerPlugin.getProjectDiscovery();
+		return discovery == null ? new ProjectDiscovery(null) : discovery;
+	}
+
+	/**
+	 * Returns the build descriptors found under the given root folder, walking
+	 * its directories unless they didn't change since the last walk.
+	 *
+	 * @param rootFolder
+	 *            the root folder
+	 * @param monitor
+	 *            the progress monitor
+	 * @return the build descriptors found
+	 * @throws OperationCanceledException
+	 *             if the walk was cancelled
+	 */
+	public synchronized ProjectManifest discover(File rootFolder, IProgressMonitor monitor) throws OperationCanceledException {
+		IProgressMonitor progress = monitor == null ? new NullProgressMonitor() : monitor;
+		Path root = rootFolder.toPath();
+		List<String> exclusions = getExclusions();
+		String key = root.toAbsolutePath().normalize().toString();
+		ProjectManifest manifest = getManifests().get(key);
+		if (manifest != null) {
+			manifest.setRoot(root);
+			if (exclusions.equals(manifest.getExclusions()) && manifest.isUpToDate()) {
+				return manifest;
+			}
+		}
+		long start = System.currentTimeMillis();
+		manifest = walk(root, exclusions, progress);
+		JavaLanguageServerPlugin.logInfo("Discovered the projects of " + rootFolder + " in " + (System.currentTimeMillis() - start) + " ms");
+		manifests.put(key, manifest);
+		save();
+		return manifest;
+	}
+
+	private static List<String> getExclusions() {
+		List<String> exclusions = new ArrayList<>();
+		exclusions.add(METADATA_FOLDER);
+		PreferenceManager preferenceManager = JavaLanguageServerPlugin.getPreferencesManager();
+		if (preferenceManager != null && preferenceManager.getPreferences().getJavaImportExclusions() != null) {
+			exclusions.addAll(preferenceManager.getPreferences().getJavaImportExclusions());
+		}
+		return exclusions;
+	}
+
+	private static ProjectManifest walk(Path root, List<String> exclusions, IProgressMonitor monitor) throws OperationCanceledException {
+		List<PathMatcher> matchers = new ArrayList<>(exclusions.size());
+		for (String exclusion : exclusions) {
+			matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + exclusion));
+		}
+		Map<String, Directory> directories = new ConcurrentHashMap<>();
+		if (root.getFileName() != null && !isExcluded(root, matchers)) {
+			ForkJoinPool.commonPool().invoke(new DirectoryWalk(root, root, 0, matchers, directories, monitor));
+		}
+		if (monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+		return new ProjectManifest(root, exclusions, directories);
+	}
+
+	private static boolean isExcluded(Path dir, List<PathMatcher> matchers) {
+		for (PathMatcher matcher : matchers) {
+			if (matcher.matches(dir)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private Map<String, ProjectManifest> getManifests() {
+		if (manifests == null) {
+			manifests = new HashMap<>();
+			if (stateFile != null && stateFile.isFile()) {
+				Type type = new TypeToken<Map<String, ProjectManifest>>() {
+				}.getType();
+				try (Reader reader = Files.newBufferedReader(stateFile.toPath(), StandardCharsets.UTF_8)) {
+					Map<String, ProjectManifest> saved = new Gson().fromJson(reader, type);
+					if (saved != null) {
+						manifests.putAll(saved);
+					}
+				} catch (IOException | JsonParseException e) {
+					JavaLanguageServerPlugin.logException("Unable to read the project manifests", e);
+				}
+			}
+		}
+		return manifests;
+	}
+
+	private void save() {
+		if (stateFile == null) {
+			return;
+		}
+		File tmp = new File(stateFile.getParentFile(), stateFile.getName() + ".tmp");
+		try {
+			try (Writer writer = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+				new Gson().toJson(manifests, writer);
+			}
+			Files.move(tmp.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Unable to save the project manifests", e);
+		}
+	}
+
+	private static class DirectoryWalk extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Path root;
+		private final Path dir;
+		private final int depth;
+		private final List<PathMatcher> matchers;
+		private final Map<String, Directory> directories;
+		private final IProgressMonitor monitor;
+
+		private DirectoryWalk(Path root, Path dir, int depth, List<PathMatcher> matchers, Map<String, Directory> directories, IProgressMonitor monitor) {
+			this.root = root;
+			this.dir = dir;
+			this.depth = depth;
+			this.matchers = matchers;
+			this.directories = directories;
+			this.monitor = monitor;
+		}
+
+		@Override
+		protected void compute() {
+			if (monitor.isCanceled()) {
+				return;
+			}
+			List<DirectoryWalk> walks = new ArrayList<>();
+			try {
+				Directory directory = new Directory(ProjectManifest.getLastModified(dir));
+				try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+					for (Path entry : entries) {
+						String name = entry.getFileName().toString();
+						if (DESCRIPTORS.contains(name)) {
+							if (Files.isRegularFile(entry)) {
+								directory.descriptors.add(name);
+							}
+						} else if (depth + 1 < MAX_DEPTH && Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS) && !isExcluded(entry, matchers)) {
+							walks.add(new DirectoryWalk(root, entry, depth + 1, matchers, directories, monitor));
+						}
+					}
+				}
+				directories.put(root.relativize(dir).toString(), directory);
+			} catch (IOException e) {
+				JavaLanguageServerPlugin.logException("Unable to list " + dir, e);
+				return;
+			}
+			invokeAll(walks);
+		}
+	}
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The build descriptors found under a root folder by {@link ProjectDiscovery}:
+ * for each directory walked, its modification time and the build descriptors
+ * it contains.
+ */
+public class ProjectManifest {
+
+	private transient Path root;
+	private List<String> exclusions;
+	private Map<String, Directory> directories;
+
+	ProjectManifest(Path root, List<String> exclusions, Map<String, Directory> directories) {
+		this.root = root;
+		this.exclusions = exclusions;
+		this.directories = new TreeMap<>(directories);
+	}
+
+	public Path getRoot() {
+		return root;
+	}
+
+	/**
+	 * Sets the root of a manifest read from the workspace metadata.
+	 */
+	void setRoot(Path root) {
+		this.root = root;
+		this.directories = new TreeMap<>(directories);
+	}
+
+	List<String> getExclusions() {
+		return exclusions;
+	}
+
+	/**
+	 * @return whether a directory contains the given build descriptor
+	 */
+	public boolean contains(String descriptor) {
+		return directories.values().stream().anyMatch(d -> d.descriptors.contains(descriptor));
+	}
+
+	/**
+	 * @return the directories containing the given build descriptor
+	 */
+	public List<Path> getDirectories(String descriptor) {
+		return getDirectories(descriptor, true);
+	}
+
+	/**
+	 * Returns the directories containing the given build descriptor.
+	 *
+	 * @param descriptor
+	 *            the name of the build descriptor
+	 * @param includeNested
+	 *            whether to return the directories under a directory returned
+	 * @param excludes
+	 *            the globs of the directories to exclude, along with all their
+	 *            sub-directories
+	 * @return the directories, parents first
+	 */
+	public List<Path> getDirectories(String descriptor, boolean includeNested, String... excludes) {
+		List<PathMatcher> matchers = new ArrayList<>(excludes.length);
+		for (String exclude : excludes) {
+			matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + exclude));
+		}
+		List<Path> result = new ArrayList<>();
+		Set<Path> found = new HashSet<>();
+		for (Map.Entry<String, Directory> entry : directories.entrySet()) {
+			if (!entry.getValue().descriptors.contains(descriptor)) {
+				continue;
+			}
+			Path dir = resolve(entry.getKey());
+			if (isExcluded(dir, matchers, found, includeNested)) {
+				continue;
+			}
+			found.add(dir);
+			result.add(dir);
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+	private boolean isExcluded(Path dir, List<PathMatcher> matchers, Set<Path> found, boolean includeNested) {
+		for (Path path = dir; path != null && path.startsWith(root); path = path.getParent()) {
+			if (path != dir && !includeNested && found.contains(path)) {
+				return true;
+			}
+			for (PathMatcher matcher : matchers) {
+				if (matcher.matches(path)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return whether no directory walked changed since the walk
+	 */
+	boolean isUpToDate() {
+		return directories.entrySet().parallelStream().allMatch(entry -> {
+			Path dir = resolve(entry.getKey());
+			try {
+				if (getLastModified(dir) != entry.getValue().lastModified) {
+					return false;
+				}
+			} catch (IOException e) {
+				return false;
+			}
+			for (String descriptor : entry.getValue().descriptors) {
+				if (!Files.isRegularFile(dir.resolve(descriptor))) {
+					return false;
+				}
+			}
+			return true;
+		});
+	}
+
+	private Path resolve(String relativePath) {
+		return relativePath.isEmpty() ? root : root.resolve(relativePath);
+	}
+
+	static long getLastModified(Path dir) throws IOException {
+		return Files.getLastModifiedTime(dir, LinkOption.NOFOLLOW_LINKS).to(TimeUnit.NANOSECONDS);
+	}
+
+	static class Directory {
+		long lastModified;
+		List<String> descriptors = new ArrayList<>(1);
+
+		Directory(long lastModified) {
+			this.lastModified = lastModified;
+		}
+	}
+}
@@ -21,7 +21,9 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -125,11 +127,22 @@ public class ProjectsManager implements ISaveParticipant {
 
 	private void importProjects(Collection<IPath> rootPaths, IProgressMonitor monitor) throws CoreException {
 		SubMonitor subMonitor = SubMonitor.convert(monitor, rootPaths.size() * 100);
-		for (IPath rootPath : rootPaths) {
-			File rootFolder = rootPath.toFile();
-			IProjectImporter importer = getImporter(rootFolder, subMonitor.split(30));
-			if (importer != null) {
-				importer.importToWorkspace(subMonitor.split(70));
+		// write the build file digests once, at the end of the import
+		DigestStore digestStore = JavaLanguageServerPlugin.getDigestStore();
+		if (digestStore != null) {
+			digestStore.beginBatch();
+		}
+		try {
+			for (IPath rootPath : rootPaths) {
+				File rootFolder = rootPath.toFile();
+				IProjectImporter importer = getImporter(rootFolder, subMonitor.split(30));
+				if (importer != null) {
+					importer.importToWorkspace(subMonitor.split(70));
+				}
+			}
+		} finally {
+			if (digestStore != null) {
+				digestStore.endBatch();
 			}
 		}
 	}
@@ -210,56 +223,107 @@ public class ProjectsManager implements ISaveParticipant {
 		if (uriString == null) {
 			return;
 		}
-		IResource resource = JDTUtils.findFile(uriString);
-		if (resource == null) {
-			return;
-		}
-		String formatterUrl = preferenceManager.getPreferences().getFormatterUrl();
-		if (formatterUrl != null) {
-			try {
-				URL url = getUrl(formatterUrl);
-				URI formatterUri = url.toURI();
-				URI uri = JDTUtils.toURI(uriString);
-				if (uri != null && uri.equals(formatterUri) && JavaLanguageServerPlugin.getInstance().getProtocol() != null) {
-					if (changeType == CHANGE_TYPE.DELETED || changeType == CHANGE_TYPE.CREATED) {
-						registerWatchers();
-					}
-					FormatterManager.configureFormatter(preferenceManager, this);
-				}
-			} catch (URISyntaxException e) {
-				// ignore
+		filesChanged(Collections.singletonMap(uriString, changeType), new NullProgressMonitor());
+	}
+
+	/**
+	 * Refreshes the resources of a batch of file changes, then handles the
+	 * changed build files and formatter settings once for the whole batch.
+	 *
+	 * @param changes
+	 *            the uris of the changed files, mapped to their change type
+	 * @param monitor
+	 *            the progress monitor
+	 */
+	public void filesChanged(Map<String, CHANGE_TYPE> changes, IProgressMonitor monitor) {
+		RefreshSet toRefresh = new RefreshSet();
+		Map<IProject, String> buildFiles = new LinkedHashMap<>();
+		boolean formatterChanged = false;
+		boolean formatterMoved = false;
+		URI formatterUri = getFormatterUri();
+		for (Map.Entry<String, CHANGE_TYPE> change : changes.entrySet()) {
+			String uriString = change.getKey();
+			CHANGE_TYPE changeType = change.getValue();
+			IResource resource = JDTUtils.findFile(uriString);
+			if (resource == null) {
+				continue;
+			}
+			if (formatterUri != null && formatterUri.equals(JDTUtils.toURI(uriString))) {
+				formatterChanged = true;
+				formatterMoved |= changeType == CHANGE_TYPE.DELETED || changeType == CHANGE_TYPE.CREATED;
 			}
-		}
-		try {
 			if (changeType == CHANGE_TYPE.DELETED) {
-				resource = resource.getParent();
+				toRefresh.add(resource.getParent(), IResource.DEPTH_INFINITE);
+				continue;
 			}
-			if (resource != null) {
-				resource.refreshLocal(IResource.DEPTH_INFINITE, new NullProgressMonitor());
+			IPath location = resource.getLocation();
+			if (location != null && location.toFile().isDirectory()) {
+				// a folder was created, refresh its whole content
+				toRefresh.add(getWorkspaceRoot().getFolder(resource.getFullPath()), IResource.DEPTH_INFINITE);
+			} else {
+				toRefresh.add(resource, IResource.DEPTH_ZERO);
 			}
-			if (isBuildFile(resource)) {
-				FeatureStatus status = preferenceManager.getPreferences().getUpdateBuildConfigurationStatus();
-				switch (status) {
-					case automatic:
-						// do not force the build, because it's not started by user and should be done only if build file has changed
-						updateProject(resource.getProject(), false);
-						break;
-					case disabled:
-						break;
-					default:
-						if (client != null) {
-							String cmd = "java.projectConfiguration.status";
-							TextDocumentIdentifier uri = new TextDocumentIdentifier(uriString);
-							ActionableNotification updateProjectConfigurationNotification = new ActionableNotification().withSeverity(MessageType.Info)
-									.withMessage("A build file was modified. Do you want to synchronize the Java classpath/configuration?").withCommands(asList(new Command("Never", cmd, asList(uri, FeatureStatus.disabled)),
-											new Command("Now", cmd, asList(uri, FeatureStatus.interactive)), new Command("Always", cmd, asList(uri, FeatureStatus.automatic))));
-							client.sendActionableNotification(updateProjectConfigurationNotification);
-						}
-				}
+			if (isBuildFile(resource) && !buildFiles.containsKey(resource.getProject())) {
+				buildFiles.put(resource.getProject(), uriString);
 			}
+		}
+		if (formatterChanged) {
+			if (formatterMoved) {
+				registerWatchers();
+			}
+			FormatterManager.configureFormatter(preferenceManager, this);
+		}
+		try {
+			toRefresh.refresh(monitor);
 		} catch (CoreException e) {
 			JavaLanguageServerPlugin.logException("Problem refreshing workspace", e);
 		}
+		if (!buildFiles.isEmpty()) {
+			buildFilesChanged(buildFiles);
+		}
+	}
+
+	private URI getFormatterUri() {
+		String formatterUrl = preferenceManager.getPreferences().getFormatterUrl();
+		if (formatterUrl == null || JavaLanguageServerPlugin.getInstance().getProtocol() == null) {
+			return null;
+		}
+		try {
+			URL url = getUrl(formatterUrl);
+			return url == null ? null : url.toURI();
+		} catch (URISyntaxException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Updates the projects whose build file changed, or asks whether to
+	 * update them, once per project.
+	 *
+	 * @param buildFiles
+	 *            the projects, mapped to the uri of their changed build file
+	 */
+	private void buildFilesChanged(Map<IProject, String> buildFiles) {
+		FeatureStatus status = preferenceManager.getPreferences().getUpdateBuildConfigurationStatus();
+		for (Map.Entry<IProject, String> entry : buildFiles.entrySet()) {
+			switch (status) {
+				case automatic:
+					// do not force the build, because it's not started by user and should be done only if build file has changed
+					updateProject(entry.getKey(), false);
+					break;
+				case disabled:
+					break;
+				default:
+					if (client != null) {
+						String cmd = "java.projectConfiguration.status";
+						TextDocumentIdentifier uri = new TextDocumentIdentifier(entry.getValue());
+						ActionableNotification updateProjectConfigurationNotification = new ActionableNotification().withSeverity(MessageType.Info)
+								.withMessage("A build file was modified. Do you want to synchronize the Java classpath/configuration?").withCommands(asList(new Command("Never", cmd, asList(uri, FeatureStatus.disabled)),
+										new Command("Now", cmd, asList(uri, FeatureStatus.interactive)), new Command("Always", cmd, asList(uri, FeatureStatus.automatic))));
+						client.sendActionableNotification(updateProjectConfigurationNotification);
+					}
+			}
+		}
 	}
 
 	public URL getUrl(String formatterUrl) {
@@ -285,9 +349,11 @@ public class ProjectsManager implements ISaveParticipant {
 
 	private IProjectImporter getImporter(File rootFolder, IProgressMonitor monitor) throws OperationCanceledException, CoreException {
 		Collection<IProjectImporter> importers = importers();
-		SubMonitor subMonitor = SubMonitor.convert(monitor, importers.size());
+		SubMonitor subMonitor = SubMonitor.convert(monitor, importers.size() + 1);
+		// all the importers share a single walk of the root folder
+		ProjectManifest manifest = ProjectDiscovery.getDefault().discover(rootFolder, subMonitor.split(1));
 		for (IProjectImporter importer : importers) {
-			importer.initialize(rootFolder);
+			importer.initialize(rootFolder, manifest);
 			if (importer.applies(subMonitor.split(1))) {
 				return importer;
 			}
@@ -481,6 +547,14 @@ public class ProjectsManager implements ISaveParticipant {
 	 */
 	@Override
 	public void saving(ISaveContext context) throws CoreException {
+		DigestStore digestStore = JavaLanguageServerPlugin.getDigestStore();
+		if (digestStore != null) {
+			digestStore.compact();
+		}
+		WorkspaceSymbolIndex symbolIndex = JavaLanguageServerPlugin.getWorkspaceSymbolIndex();
+		if (symbolIndex != null) {
+			symbolIndex.save();
+		}
 	}
 
 	public boolean setAutoBuilding(boolean enable) throws CoreException {
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+
+/**
+ * The resources to refresh for a batch of file changes, collapsed into a
+ * minimal set of non-overlapping resources: a resource isn't refreshed when
+ * the refresh of one of its ancestors covers it, and the files changed in the
+ * same folder are refreshed along with the folder.
+ */
+public class RefreshSet {
+
+	private final Map<IPath, IResource> resources = new HashMap<>();
+	private final Map<IPath, Integer> depths = new HashMap<>();
+
+	/**
+	 * Adds a resource to refresh, to the given depth.
+	 */
+	public void add(IResource resource, int depth) {
+		if (resource == null) {
+			return;
+		}
+		IPath path = resource.getFullPath();
+		Integer previous = depths.get(path);
+		if (previous == null || previous < depth) {
+			resources.put(path, resource);
+			depths.put(path, depth);
+		}
+	}
+
+	public boolean isEmpty() {
+		return resources.isEmpty();
+	}
+
+	/**
+	 * @return the resources to refresh, mapped to the depth of their refresh,
+	 *         ancestors first
+	 */
+	public Map<IResource, Integer> getResources() {
+		Map<IPath, Integer> collapsed = new HashMap<>(depths);
+		// the files changed in the same folder are refreshed with the folder
+		Map<IPath, List<IPath>> changedFiles = new HashMap<>();
+		for (Map.Entry<IPath, Integer> entry : depths.entrySet()) {
+			if (entry.getValue() == IResource.DEPTH_ZERO && entry.getKey().segmentCount() > 1) {
+				changedFiles.computeIfAbsent(entry.getKey().removeLastSegments(1), p -> new ArrayList<>()).add(entry.getKey());
+			}
+		}
+		Map<IPath, IResource> containers = new HashMap<>();
+		for (Map.Entry<IPath, List<IPath>> entry : changedFiles.entrySet()) {
+			if (entry.getValue().size() > 1) {
+				IContainer parent = resources.get(entry.getValue().get(0)).getParent();
+				containers.put(entry.getKey(), parent);
+				Integer depth = collapsed.get(entry.getKey());
+				collapsed.put(entry.getKey(), depth == null ? IResource.DEPTH_ONE : Math.max(depth, IResource.DEPTH_ONE));
+			}
+		}
+		List<IPath> paths = new ArrayList<>(collapsed.keySet());
+		Collections.sort(paths, (p1, p2) -> p1.segmentCount() != p2.segmentCount() ? p1.segmentCount() - p2.segmentCount() : p1.toString().compareTo(p2.toString()));
+		Map<IResource, Integer> result = new LinkedHashMap<>();
+		for (IPath path : paths) {
+			if (!isCovered(path, collapsed)) {
+				IResource resource = resources.containsKey(path) ? resources.get(path) : containers.get(path);
+				result.put(resource, collapsed.get(path));
+			}
+		}
+		return result;
+	}
+
+	private static boolean isCovered(IPath path, Map<IPath, Integer> depths) {
+		for (int i = 1; i < path.segmentCount(); i++) {
+			Integer depth = depths.get(path.removeLastSegments(i));
+			if (depth != null && (depth == IResource.DEPTH_INFINITE || (i == 1 && depth == IResource.DEPTH_ONE))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Refreshes the resources.
+	 */
+	public void refresh(IProgressMonitor monitor) throws CoreException {
+		Map<IResource, Integer> toRefresh = getResources();
+		SubMonitor progress = SubMonitor.convert(monitor, toRefresh.size());
+		for (Map.Entry<IResource, Integer> entry : toRefresh.entrySet()) {
+			entry.getKey().refreshLocal(entry.getValue(), progress.split(1));
+		}
+	}
+}
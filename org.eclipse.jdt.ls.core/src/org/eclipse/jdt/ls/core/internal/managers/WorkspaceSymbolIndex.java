@@ -0,0 +1,749 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IAccessRule;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.compiler.CharOperation;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.TypeNameMatch;
+import org.eclipse.jdt.core.search.TypeNameMatchRequestor;
+import org.eclipse.jdt.ls.core.internal.JavaElementDeltaVisitor;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.ProjectUtils;
+import org.eclipse.jdt.ls.core.internal.corrections.NameMatcher;
+
+/**
+ * An index of the types of the workspace, used to answer workspace symbol
+ * queries with ranked results, and to look up the types similar to an
+ * unresolved type name.
+ *
+ * The index is built from the search engine the first time it is queried, then
+ * kept up to date from the Java element deltas: changed compilation units are
+ * re-indexed on the next query, and the entries of the projects, package
+ * fragment roots and package fragments changing structurally (classpath,
+ * libraries, added or removed packages) are rebuilt on the next query. The
+ * index is persisted in the plugin state location so that it is not rebuilt
+ * on warm starts.
+ *
+ * The deltas are only recorded while holding the lock of the index, the
+ * rebuild and the re-indexing of the changed units and elements run outside of
+ * it, so that they never block the thread reporting the deltas. The queries
+ * score the entries in place while holding it.
+ */
+public class WorkspaceSymbolIndex implements IElementChangedListener {
+
+	private static final String SERIALIZATION_FILE_NAME = ".symbol-index";
+	private static final int MAGIC = 0x4A44534D; // JDSM
+	private static final int VERSION = 3;
+
+	private static final int EXACT_MATCH = 1000;
+	private static final int EXACT_MATCH_IGNORE_CASE = 900;
+	private static final int PREFIX_MATCH = 800;
+	private static final int PREFIX_MATCH_IGNORE_CASE = 700;
+	private static final int CAMELCASE_MATCH = 600;
+	private static final int PATTERN_MATCH = 500;
+	private static final int FUZZY_MATCH = 100;
+
+	private static final Comparator<ScoredEntry> RANKING = Comparator.<ScoredEntry> comparingInt(s -> -s.score)
+			.thenComparingInt(s -> s.entry.simpleName.length())
+			.thenComparingInt(s -> s.entry.containerName.length())
+			.thenComparing(s -> s.entry.simpleName)
+			.thenComparing(s -> s.entry.containerName);
+
+	/**
+	 * Entries grouped by their owner: the handle identifier of a compilation
+	 * unit, or of a package fragment root for binary types.
+	 */
+	private final Map<String, List<Entry>> entries = new HashMap<>();
+	/**
+	 * The same entries, grouped by the first letter of their simple name in
+	 * lower case.
+	 */
+	private final Map<Character, Set<Entry>> entriesByInitial = new HashMap<>();
+	private final Set<ICompilationUnit> staleUnits = new HashSet<>();
+	/**
+	 * The projects, package fragment roots and package fragments whose entries
+	 * are rebuilt on the next query.
+	 */
+	private final Set<IJavaElement> staleElements = new HashSet<>();
+	private final File stateFile;
+	/**
+	 * Serializes the updates of the index, without holding its lock.
+	 */
+	private final ReentrantLock updateLock = new ReentrantLock();
+	private final Job updateJob;
+	private final JavaElementDeltaVisitor deltaVisitor = new JavaElementDeltaVisitor() {
+		@Override
+		protected void structureChanged(IJavaElementDelta delta) {
+			staleElements.add(delta.getElement());
+		}
+
+		@Override
+		protected void unitChanged(ICompilationUnit unit, IJavaElementDelta delta) {
+			if (delta.getKind() == IJavaElementDelta.REMOVED) {
+				modified |= removeEntries(unit.getHandleIdentifier()) != null;
+				staleUnits.remove(unit);
+			} else {
+				staleUnits.add(unit);
+			}
+		}
+	};
+	private long similarTypesLookups;
+	private boolean dirty;
+	private boolean modified;
+
+	public WorkspaceSymbolIndex(File stateLocation) {
+		this.stateFile = new File(stateLocation, SERIALIZATION_FILE_NAME);
+		this.dirty = !stateFile.isFile() || !load();
+		this.updateJob = new Job("Index workspace symbols") {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				try {
+					update(monitor);
+					return Status.OK_STATUS;
+				} catch (JavaModelException e) {
+					return e.getStatus();
+				} catch (OperationCanceledException e) {
+					return Status.CANCEL_STATUS;
+				}
+			}
+		};
+		this.updateJob.setSystem(true);
+	}
+
+	/**
+	 * Returns the best matches for the given query, sorted by decreasing score.
+	 * Prefix and camel case matches are returned first; a fuzzy match is only
+	 * performed when the query has no such match. A query with <code>*</code>
+	 * or <code>?</code> wildcards is matched as a pattern, ignoring case.
+	 *
+	 * @param query
+	 *            the type name query
+	 * @param maxResults
+	 *            the maximum number of results
+	 * @param includeBinaries
+	 *            whether types from libraries are returned
+	 * @param monitor
+	 *            the progress monitor
+	 * @return the matching entries, never <code>null</code>
+	 */
+	public List<Entry> search(String query, int maxResults, boolean includeBinaries, IProgressMonitor monitor) throws JavaModelException {
+		update(monitor);
+		// the entries are scored in place, the prefix and camel case matches
+		// only among the entries starting with the same letter as the query
+		synchronized (this) {
+			if (query.indexOf('*') >= 0 || query.indexOf('?') >= 0) {
+				return search(entries.values(), query, maxResults, includeBinaries, MatchKind.PATTERN);
+			}
+			Collection<? extends Collection<Entry>> candidates = entries.values();
+			if (!query.isEmpty()) {
+				Set<Entry> initialEntries = entriesByInitial.get(Character.valueOf(Character.toLowerCase(query.charAt(0))));
+				candidates = Collections.singletonList(initialEntries == null ? Collections.<Entry> emptySet() : initialEntries);
+			}
+			List<Entry> results = search(candidates, query, maxResults, includeBinaries, MatchKind.PREFIX_OR_CAMELCASE);
+			if (results.isEmpty()) {
+				results = search(entries.values(), query, maxResults, includeBinaries, MatchKind.FUZZY);
+			}
+			return results;
+		}
+	}
+
+	/**
+	 * Returns the types on the classpath of the given project whose simple
+	 * name starts with the same letter as the given name, ignoring case, and
+	 * is similar to it as per {@link NameMatcher#isSimilarName(String, String)}.
+	 * These are the types code assist proposes at the first letter of the
+	 * name, without the cost of a code completion. The types the access rules
+	 * of the project forbid are left out.
+	 *
+	 * The lookup doesn't wait for the index to be built: if it isn't, the
+	 * index is built in the background and <code>null</code> is returned.
+	 *
+	 * @param name
+	 *            the simple type name
+	 * @param project
+	 *            the project the types must be visible from
+	 * @param monitor
+	 *            the progress monitor
+	 * @return the similar types, or <code>null</code> if the index isn't built
+	 */
+	public List<Entry> findSimilarTypes(String name, IJavaProject project, IProgressMonitor monitor) throws JavaModelException {
+		synchronized (this) {
+			if (dirty) {
+				updateJob.schedule();
+				return null;
+			}
+		}
+		// the changed units are re-indexed unless an update is running already
+		if (updateLock.tryLock()) {
+			try {
+				update(monitor);
+			} finally {
+				updateLock.unlock();
+			}
+		}
+		List<Entry> candidates = new ArrayList<>();
+		if (name.isEmpty()) {
+			return candidates;
+		}
+		synchronized (this) {
+			similarTypesLookups++;
+			Set<Entry> initialEntries = entriesByInitial.get(Character.valueOf(Character.toLowerCase(name.charAt(0))));
+			if (initialEntries != null) {
+				for (Entry entry : initialEntries) {
+					if (NameMatcher.isSimilarName(name, entry.simpleName)) {
+						candidates.add(entry);
+					}
+				}
+			}
+		}
+		if (candidates.isEmpty()) {
+			return candidates;
+		}
+		return filterAccessibleTypes(candidates, project, monitor);
+	}
+
+	/**
+	 * Keeps the types on the classpath of the project that its access rules
+	 * allow, as reported by a search of their names in the scope of the
+	 * project.
+	 */
+	private static List<Entry> filterAccessibleTypes(List<Entry> candidates, IJavaProject project, IProgressMonitor monitor) throws JavaModelException {
+		Set<String> names = new HashSet<>();
+		for (Entry entry : candidates) {
+			names.add(entry.simpleName);
+		}
+		char[][] typeNames = new char[names.size()][];
+		int i = 0;
+		for (String name : names) {
+			typeNames[i++] = name.toCharArray();
+		}
+		Set<String> accessibleTypes = new HashSet<>();
+		IJavaSearchScope scope = SearchEngine.createJavaSearchScope(new IJavaElement[] { project });
+		new SearchEngine().searchAllTypeNames(null, typeNames, scope, new TypeNameMatchRequestor() {
+			@Override
+			public void acceptTypeNameMatch(TypeNameMatch match) {
+				if (match.getAccessibility() != IAccessRule.K_NON_ACCESSIBLE) {
+					accessibleTypes.add(match.getType().getHandleIdentifier());
+				}
+			}
+		}, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+		List<Entry> results = new ArrayList<>(candidates.size());
+		for (Entry entry : candidates) {
+			if (accessibleTypes.contains(entry.handleIdentifier)) {
+				results.add(entry);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * @return the number of similar type lookups answered from the index
+	 */
+	public synchronized long getSimilarTypesLookupCount() {
+		return similarTypesLookups;
+	}
+
+	private enum MatchKind {
+		PREFIX_OR_CAMELCASE, FUZZY, PATTERN
+	}
+
+	private static List<Entry> search(Collection<? extends Collection<Entry>> candidates, String query, int maxResults, boolean includeBinaries, MatchKind matchKind) {
+		char[] pattern = query.toCharArray();
+		// keep the best results in a heap whose head is the worst of them
+		PriorityQueue<ScoredEntry> best = new PriorityQueue<>(RANKING.reversed());
+		for (Collection<Entry> group : candidates) {
+			for (Entry entry : group) {
+				score(entry, query, pattern, includeBinaries, matchKind, maxResults, best);
+			}
+		}
+		List<ScoredEntry> sorted = new ArrayList<>(best);
+		Collections.sort(sorted, RANKING);
+		List<Entry> results = new ArrayList<>(sorted.size());
+		for (ScoredEntry scored : sorted) {
+			results.add(scored.entry);
+		}
+		return results;
+	}
+
+	private static void score(Entry entry, String query, char[] pattern, boolean includeBinaries, MatchKind matchKind, int maxResults, PriorityQueue<ScoredEntry> best) {
+		if (entry.binary && !includeBinaries) {
+			return;
+		}
+		int score;
+		switch (matchKind) {
+			case FUZZY:
+				score = fuzzyScore(query, entry.simpleName);
+				break;
+			case PATTERN:
+				score = CharOperation.match(pattern, entry.simpleName.toCharArray(), false) ? PATTERN_MATCH : 0;
+				break;
+			default:
+				score = score(query, pattern, entry.simpleName);
+				break;
+		}
+		if (score <= 0) {
+			return;
+		}
+		ScoredEntry scored = new ScoredEntry(entry, score);
+		if (best.size() < maxResults) {
+			best.add(scored);
+		} else if (RANKING.compare(scored, best.peek()) < 0) {
+			best.poll();
+			best.add(scored);
+		}
+	}
+
+	static int score(String query, char[] pattern, String name) {
+		if (name.equals(query)) {
+			return EXACT_MATCH;
+		}
+		if (name.equalsIgnoreCase(query)) {
+			return EXACT_MATCH_IGNORE_CASE;
+		}
+		if (name.startsWith(query)) {
+			return PREFIX_MATCH;
+		}
+		if (name.regionMatches(true, 0, query, 0, query.length())) {
+			return PREFIX_MATCH_IGNORE_CASE;
+		}
+		if (SearchPattern.camelCaseMatch(pattern, name.toCharArray())) {
+			return CAMELCASE_MATCH;
+		}
+		return 0;
+	}
+
+	/**
+	 * Scores the name if all the characters of the query appear in it, in
+	 * order, ignoring case. Consecutive characters and characters matching the
+	 * start of a camel case part raise the score.
+	 */
+	static int fuzzyScore(String query, String name) {
+		int score = FUZZY_MATCH;
+		int nameIndex = 0;
+		int previousMatch = -2;
+		for (int i = 0; i < query.length(); i++) {
+			char c = Character.toLowerCase(query.charAt(i));
+			while (nameIndex < name.length() && Character.toLowerCase(name.charAt(nameIndex)) != c) {
+				nameIndex++;
+			}
+			if (nameIndex == name.length()) {
+				return 0;
+			}
+			if (nameIndex == previousMatch + 1) {
+				score += 5;
+			}
+			if (nameIndex == 0 || Character.isUpperCase(name.charAt(nameIndex))) {
+				score += 3;
+			}
+			previousMatch = nameIndex++;
+		}
+		// prefer the shortest names, but keep all the fuzzy matches
+		return Math.max(1, score - (name.length() - query.length()));
+	}
+
+	@Override
+	public synchronized void elementChanged(ElementChangedEvent event) {
+		deltaVisitor.visit(event.getDelta());
+	}
+
+	private void update(IProgressMonitor monitor) throws JavaModelException {
+		updateLock.lock();
+		try {
+			boolean rebuild;
+			List<IJavaElement> elements;
+			synchronized (this) {
+				rebuild = dirty;
+				// the full rebuild covers the stale elements, the structural
+				// changes reported meanwhile are recorded again
+				elements = rebuild ? Collections.emptyList() : new ArrayList<>(staleElements);
+				staleElements.clear();
+			}
+			if (rebuild) {
+				long start = System.currentTimeMillis();
+				Map<String, List<Entry>> newEntries = collectEntries(ProjectUtils.getJavaProjects(), monitor);
+				JavaLanguageServerPlugin.logInfo("Indexed workspace symbols in " + (System.currentTimeMillis() - start) + " ms");
+				synchronized (this) {
+					entries.clear();
+					entriesByInitial.clear();
+					newEntries.forEach(this::putEntries);
+					dirty = false;
+					modified = true;
+				}
+			} else if (!elements.isEmpty()) {
+				boolean updated = false;
+				try {
+					updateElements(elements, monitor);
+					updated = true;
+				} finally {
+					if (!updated) {
+						synchronized (this) {
+							staleElements.addAll(elements);
+						}
+					}
+				}
+			}
+			List<ICompilationUnit> units;
+			synchronized (this) {
+				if (staleUnits.isEmpty()) {
+					return;
+				}
+				units = new ArrayList<>(staleUnits);
+				staleUnits.clear();
+			}
+			Map<String, List<Entry>> unitsEntries = new HashMap<>();
+			for (ICompilationUnit unit : units) {
+				List<Entry> unitEntries = new ArrayList<>();
+				if (unit.exists()) {
+					for (IType type : unit.getAllTypes()) {
+						if (!type.isAnonymous() && !type.isLocal()) {
+							unitEntries.add(new Entry(type.getElementName(), getContainerName(type), type.getFlags(), type.getHandleIdentifier(), false));
+						}
+					}
+				}
+				unitsEntries.put(unit.getHandleIdentifier(), unitEntries);
+			}
+			synchronized (this) {
+				// the units changed again meanwhile are still stale, and re-indexed on the next query
+				unitsEntries.forEach((owner, ownerEntries) -> {
+					if (ownerEntries.isEmpty()) {
+						removeEntries(owner);
+					} else {
+						putEntries(owner, ownerEntries);
+					}
+				});
+				modified = true;
+			}
+		} finally {
+			updateLock.unlock();
+		}
+	}
+
+	private void putEntries(String owner, List<Entry> ownerEntries) {
+		removeEntries(owner);
+		entries.put(owner, ownerEntries);
+		for (Entry entry : ownerEntries) {
+			entriesByInitial.computeIfAbsent(entry.getInitial(), (k) -> new HashSet<>()).add(entry);
+		}
+	}
+
+	private List<Entry> removeEntries(String owner) {
+		List<Entry> ownerEntries = entries.remove(owner);
+		if (ownerEntries != null) {
+			for (Entry entry : ownerEntries) {
+				Set<Entry> initialEntries = entriesByInitial.get(entry.getInitial());
+				if (initialEntries != null) {
+					initialEntries.remove(entry);
+				}
+			}
+		}
+		return ownerEntries;
+	}
+
+	/**
+	 * Rebuilds the entries of the given projects, package fragment roots and
+	 * package fragments, removing those of the elements that don't exist
+	 * anymore.
+	 *
+	 * The types of a library on the classpath of several projects are indexed
+	 * once, under the package fragment root of one of them: the libraries
+	 * indexed under another element are left as they are, unless one of their
+	 * roots is rebuilt, and those indexed under one of the given elements only
+	 * are indexed again under a root of another project if they are still on
+	 * its classpath.
+	 */
+	private void updateElements(List<IJavaElement> elements, IProgressMonitor monitor) throws JavaModelException {
+		Set<IPath> rootPaths = new HashSet<>();
+		for (IJavaElement element : elements) {
+			if (element instanceof IPackageFragmentRoot) {
+				rootPaths.add(element.getPath());
+			}
+		}
+		Set<IPath> libraries = new HashSet<>();
+		Set<IPath> otherLibraries = new HashSet<>();
+		synchronized (this) {
+			for (Map.Entry<String, List<Entry>> ownerEntries : entries.entrySet()) {
+				IPath path = getLibraryPath(ownerEntries.getKey(), ownerEntries.getValue());
+				if (path != null) {
+					(isStale(ownerEntries.getKey(), path, elements, rootPaths) ? libraries : otherLibraries).add(path);
+				}
+			}
+		}
+		libraries.removeAll(otherLibraries);
+		List<IJavaElement> scope = new ArrayList<>();
+		for (IJavaElement element : elements) {
+			if (element.exists()) {
+				scope.add(element);
+				libraries.remove(element.getPath());
+			}
+		}
+		if (!libraries.isEmpty()) {
+			for (IJavaProject project : ProjectUtils.getJavaProjects()) {
+				for (IPackageFragmentRoot root : project.getPackageFragmentRoots()) {
+					if (libraries.remove(root.getPath())) {
+						scope.add(root);
+					}
+				}
+			}
+		}
+		Map<String, List<Entry>> newEntries = scope.isEmpty() ? Collections.emptyMap() : collectEntries(scope.toArray(new IJavaElement[scope.size()]), monitor);
+		synchronized (this) {
+			for (Map.Entry<String, List<Entry>> ownerEntries : new ArrayList<>(entries.entrySet())) {
+				if (isStale(ownerEntries.getKey(), getLibraryPath(ownerEntries.getKey(), ownerEntries.getValue()), elements, rootPaths)) {
+					removeEntries(ownerEntries.getKey());
+				}
+			}
+			newEntries.forEach((owner, ownerEntries) -> {
+				IPath path = getLibraryPath(owner, ownerEntries);
+				if (path == null || !otherLibraries.contains(path)) {
+					putEntries(owner, ownerEntries);
+				}
+			});
+			modified = true;
+		}
+	}
+
+	/**
+	 * @return whether the entries of the owner are rebuilt with the given
+	 *         elements: the owner is one of them or one of their descendants,
+	 *         or the library of one of the given package fragment roots
+	 */
+	private static boolean isStale(String owner, IPath libraryPath, List<IJavaElement> elements, Set<IPath> rootPaths) {
+		if (libraryPath != null && rootPaths.contains(libraryPath)) {
+			return true;
+		}
+		for (IJavaElement element : elements) {
+			String handle = element.getHandleIdentifier();
+			if (owner.startsWith(handle)) {
+				if (owner.length() == handle.length()) {
+					return true;
+				}
+				// the handle of a child continues with the delimiter of its type,
+				// not with the name of a sibling such as a sub-package
+				char delimiter = owner.charAt(handle.length());
+				if (delimiter == '/' || delimiter == '<' || delimiter == '{') {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the path of the library of the entries of a package fragment
+	 *         root, <code>null</code> for the entries of a compilation unit
+	 */
+	private static IPath getLibraryPath(String owner, List<Entry> ownerEntries) {
+		if (ownerEntries.isEmpty() || !ownerEntries.get(0).binary) {
+			return null;
+		}
+		IJavaElement root = JavaCore.create(owner);
+		return root instanceof IPackageFragmentRoot ? root.getPath() : null;
+	}
+
+	private static Map<String, List<Entry>> collectEntries(IJavaElement[] elements, IProgressMonitor monitor) throws JavaModelException {
+		Map<String, List<Entry>> newEntries = new HashMap<>();
+		IJavaSearchScope scope = SearchEngine.createJavaSearchScope(elements, IJavaSearchScope.SOURCES | IJavaSearchScope.APPLICATION_LIBRARIES | IJavaSearchScope.SYSTEM_LIBRARIES);
+		new SearchEngine().searchAllTypeNames(null, SearchPattern.R_PATTERN_MATCH, null, SearchPattern.R_PREFIX_MATCH, IJavaSearchConstants.TYPE, scope, new TypeNameMatchRequestor() {
+			@Override
+			public void acceptTypeNameMatch(TypeNameMatch match) {
+				IType type = match.getType();
+				boolean binary = type.isBinary();
+				IJavaElement owner = binary ? match.getPackageFragmentRoot() : type.getCompilationUnit();
+				if (owner == null) {
+					return;
+				}
+				Entry entry = new Entry(match.getSimpleTypeName(), match.getTypeContainerName(), match.getModifiers(), type.getHandleIdentifier(), binary);
+				newEntries.computeIfAbsent(owner.getHandleIdentifier(), (k) -> new ArrayList<>()).add(entry);
+			}
+		}, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+		return newEntries;
+	}
+
+	private static String getContainerName(IType type) {
+		IType declaringType = type.getDeclaringType();
+		if (declaringType != null) {
+			return declaringType.getFullyQualifiedName('.');
+		}
+		return type.getPackageFragment().getElementName();
+	}
+
+	/**
+	 * Saves the index in the plugin state location, if it changed since it was
+	 * last saved.
+	 */
+	public synchronized void save() {
+		if (!modified || dirty) {
+			return;
+		}
+		File tmpFile = new File(stateFile.getParentFile(), stateFile.getName() + ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(entries.size());
+				for (Map.Entry<String, List<Entry>> ownerEntries : entries.entrySet()) {
+					out.writeUTF(ownerEntries.getKey());
+					out.writeInt(ownerEntries.getValue().size());
+					for (Entry entry : ownerEntries.getValue()) {
+						out.writeUTF(entry.simpleName);
+						out.writeUTF(entry.containerName);
+						out.writeInt(entry.modifiers);
+						out.writeUTF(entry.handleIdentifier);
+						out.writeBoolean(entry.binary);
+					}
+				}
+			}
+			Files.move(tmpFile.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			modified = false;
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Exception occured while saving the workspace symbol index", e);
+		}
+	}
+
+	private boolean load() {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(stateFile)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				return false;
+			}
+			int owners = in.readInt();
+			for (int i = 0; i < owners; i++) {
+				String owner = in.readUTF();
+				int size = in.readInt();
+				List<Entry> ownerEntries = new ArrayList<>(size);
+				for (int j = 0; j < size; j++) {
+					ownerEntries.add(new Entry(in.readUTF(), in.readUTF(), in.readInt(), in.readUTF(), in.readBoolean()));
+				}
+				putEntries(owner, ownerEntries);
+			}
+			return true;
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Exception occured while loading the workspace symbol index", e);
+			entries.clear();
+			entriesByInitial.clear();
+			return false;
+		}
+	}
+
+	/**
+	 * An indexed type.
+	 */
+	public static class Entry {
+		private final String simpleName;
+		private final String containerName;
+		private final int modifiers;
+		private final String handleIdentifier;
+		private final boolean binary;
+
+		Entry(String simpleName, String containerName, int modifiers, String handleIdentifier, boolean binary) {
+			this.simpleName = simpleName;
+			this.containerName = containerName;
+			this.modifiers = modifiers;
+			this.handleIdentifier = handleIdentifier;
+			this.binary = binary;
+		}
+
+		private Character getInitial() {
+			return Character.valueOf(simpleName.isEmpty() ? 0 : Character.toLowerCase(simpleName.charAt(0)));
+		}
+
+		public String getSimpleName() {
+			return simpleName;
+		}
+
+		public String getContainerName() {
+			return containerName;
+		}
+
+		public int getModifiers() {
+			return modifiers;
+		}
+
+		public boolean isBinary() {
+			return binary;
+		}
+
+		/**
+		 * @return the fully qualified name of the type, with a dot separating
+		 *         member types from their declaring type
+		 */
+		public String getFullyQualifiedName() {
+			return containerName.isEmpty() ? simpleName : containerName + '.' + simpleName;
+		}
+
+		/**
+		 * @return the handle identifier of the type
+		 */
+		public String getHandleIdentifier() {
+			return handleIdentifier;
+		}
+
+		/**
+		 * @return the indexed type, or <code>null</code> if it doesn't exist
+		 *         anymore
+		 */
+		public IType getType() {
+			IJavaElement element = JavaCore.create(handleIdentifier);
+			return element instanceof IType && element.exists() ? (IType) element : null;
+		}
+	}
+
+	private static class ScoredEntry {
+		private final Entry entry;
+		private final int score;
+
+		private ScoredEntry(Entry entry, int score) {
+			this.entry = entry;
+			this.score = score;
+		}
+	}
+}
@@ -152,6 +152,14 @@ public class ClientPreferences {
 		return Boolean.parseBoolean(extendedClientCapabilities.getOrDefault("classFileContentsSupport", "false").toString());
 	}
 
+	/**
+	 * @return whether the client resolves the edits of the code actions with
+	 *         the <code>java/resolveCodeAction</code> request
+	 */
+	public boolean isResolveCodeActionSupported() {
+		return Boolean.parseBoolean(extendedClientCapabilities.getOrDefault("resolveCodeActionSupport", "false").toString());
+	}
+
 	public boolean isSupportsCompletionDocumentationMarkdown() {
 		//@formatter:off
 		return v3supported && capabilities.getTextDocument().getCompletion() != null
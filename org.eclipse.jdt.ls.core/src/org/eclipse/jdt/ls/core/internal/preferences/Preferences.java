@@ -11,6 +11,7 @@
 package org.eclipse.jdt.ls.core.internal.preferences;
 
 import static org.eclipse.jdt.ls.core.internal.handlers.MapFlattener.getBoolean;
+import static org.eclipse.jdt.ls.core.internal.handlers.MapFlattener.getInt;
 import static org.eclipse.jdt.ls.core.internal.handlers.MapFlattener.getList;
 import static org.eclipse.jdt.ls.core.internal.handlers.MapFlattener.getString;
 
@@ -105,6 +106,18 @@ public class Preferences {
 	 */
 	public static final String AUTOBUILD_ENABLED_KEY = "java.autobuild.enabled";
 
+	/**
+	 * Preference key for the maximum number of workspace symbols returned by a
+	 * query.
+	 */
+	public static final String SYMBOLS_MAX_RESULTS_KEY = "java.symbols.maxResults";
+
+	/**
+	 * Preference key for the maximum number of threads used to validate the
+	 * open documents. Documents are validated sequentially when set to 1.
+	 */
+	public static final String VALIDATION_PARALLELISM_KEY = "java.validation.parallelism";
+
 	/**
 	 * Preference key to exclude directories when importing projects.
 	 */
@@ -145,6 +158,37 @@ public class Preferences {
 	 */
 	public static final String JAVA_COMPLETION_OVERWRITE_KEY = "java.completion.overwrite";
 
+	/**
+	 * Preference key for the maximum number of completion items returned by a
+	 * completion request. When the limit is reached, the most relevant items
+	 * are returned and the list is marked as incomplete. <code>0</code>
+	 * disables the limit.
+	 */
+	public static final String JAVA_COMPLETION_MAX_RESULTS_KEY = "java.completion.maxResults";
+
+	/**
+	 * Preference key for the maximum number of locations found by a references
+	 * request. The search stops once the limit is reached, the locations of the
+	 * open documents and of the current project being found first.
+	 * <code>0</code> disables the limit.
+	 */
+	public static final String JAVA_REFERENCES_MAX_RESULTS_KEY = "java.references.maxResults";
+
+	/**
+	 * Preference key for the time budget, in milliseconds, of the quick fix
+	 * and quick assist processors computing the code actions. The proposals
+	 * of the processors still running past the budget are dropped.
+	 * <code>0</code> disables the budget.
+	 */
+	public static final String JAVA_CODE_ACTION_TIME_BUDGET_KEY = "java.codeAction.timeBudget";
+
+	/**
+	 * Preference key for the interval, in seconds, at which the server metrics
+	 * are written to the <code>metrics.json</code> file of the workspace
+	 * metadata. <code>0</code> disables the dump.
+	 */
+	public static final String JAVA_METRICS_DUMP_INTERVAL_KEY = "java.metrics.dumpInterval";
+
 	/**
 	 * A named preference that defines how member elements are ordered by code
 	 * actions.
@@ -229,6 +273,12 @@ public class Preferences {
 	private boolean renameEnabled;
 	private boolean executeCommandEnabled;
 	private boolean autobuildEnabled;
+	private int validationParallelism;
+	private int symbolsMaxResults;
+	private int completionMaxResults;
+	private int referencesMaxResults;
+	private int codeActionTimeBudget;
+	private int metricsDumpInterval;
 	private boolean completionOverwrite;
 	private boolean javaFormatComments;
 	private MemberSortOrder memberOrders;
@@ -322,6 +372,12 @@ public class Preferences {
 		renameEnabled = true;
 		executeCommandEnabled = true;
 		autobuildEnabled = true;
+		validationParallelism = 1;
+		symbolsMaxResults = 200;
+		completionMaxResults = 0;
+		referencesMaxResults = 0;
+		codeActionTimeBudget = 0;
+		metricsDumpInterval = 0;
 		completionOverwrite = true;
 		javaFormatComments = true;
 		memberOrders = new MemberSortOrder(null);
@@ -381,9 +437,27 @@ public class Preferences {
 		boolean autobuildEnable = getBoolean(configuration, AUTOBUILD_ENABLED_KEY, true);
 		prefs.setAutobuildEnabled(autobuildEnable);
 
+		int validationParallelism = getInt(configuration, VALIDATION_PARALLELISM_KEY, 1);
+		prefs.setValidationParallelism(validationParallelism);
+
+		int symbolsMaxResults = getInt(configuration, SYMBOLS_MAX_RESULTS_KEY, 200);
+		prefs.setSymbolsMaxResults(symbolsMaxResults);
+
 		boolean completionOverwrite = getBoolean(configuration, JAVA_COMPLETION_OVERWRITE_KEY, true);
 		prefs.setCompletionOverwrite(completionOverwrite);
 
+		int completionMaxResults = getInt(configuration, JAVA_COMPLETION_MAX_RESULTS_KEY, 0);
+		prefs.setCompletionMaxResults(completionMaxResults);
+
+		int referencesMaxResults = getInt(configuration, JAVA_REFERENCES_MAX_RESULTS_KEY, 0);
+		prefs.setReferencesMaxResults(referencesMaxResults);
+
+		int codeActionTimeBudget = getInt(configuration, JAVA_CODE_ACTION_TIME_BUDGET_KEY, 0);
+		prefs.setCodeActionTimeBudget(codeActionTimeBudget);
+
+		int metricsDumpInterval = getInt(configuration, JAVA_METRICS_DUMP_INTERVAL_KEY, 0);
+		prefs.setMetricsDumpInterval(metricsDumpInterval);
+
 		List<String> javaImportExclusions = getList(configuration, JAVA_IMPORT_EXCLUSIONS_KEY, JAVA_IMPORT_EXCLUSIONS_DEFAULT);
 		prefs.setJavaImportExclusions(javaImportExclusions);
 
@@ -500,6 +574,11 @@ public class Preferences {
 		return this;
 	}
 
+	public Preferences setValidationParallelism(int validationParallelism) {
+		this.validationParallelism = Math.max(1, validationParallelism);
+		return this;
+	}
+
 	public Preferences setCompletionOverwrite(boolean completionOverwrite) {
 		this.completionOverwrite = completionOverwrite;
 		return this;
@@ -612,6 +691,55 @@ public class Preferences {
 		return autobuildEnabled;
 	}
 
+	public int getValidationParallelism() {
+		return validationParallelism;
+	}
+
+	public Preferences setSymbolsMaxResults(int symbolsMaxResults) {
+		this.symbolsMaxResults = symbolsMaxResults > 0 ? symbolsMaxResults : 200;
+		return this;
+	}
+
+	public int getSymbolsMaxResults() {
+		return symbolsMaxResults;
+	}
+
+	public Preferences setCompletionMaxResults(int completionMaxResults) {
+		this.completionMaxResults = Math.max(0, completionMaxResults);
+		return this;
+	}
+
+	public int getCompletionMaxResults() {
+		return completionMaxResults;
+	}
+
+	public Preferences setReferencesMaxResults(int referencesMaxResults) {
+		this.referencesMaxResults = Math.max(0, referencesMaxResults);
+		return this;
+	}
+
+	public int getReferencesMaxResults() {
+		return referencesMaxResults;
+	}
+
+	public Preferences setCodeActionTimeBudget(int codeActionTimeBudget) {
+		this.codeActionTimeBudget = Math.max(0, codeActionTimeBudget);
+		return this;
+	}
+
+	public int getCodeActionTimeBudget() {
+		return codeActionTimeBudget;
+	}
+
+	public Preferences setMetricsDumpInterval(int metricsDumpInterval) {
+		this.metricsDumpInterval = Math.max(0, metricsDumpInterval);
+		return this;
+	}
+
+	public int getMetricsDumpInterval() {
+		return metricsDumpInterval;
+	}
+
 	public boolean isCompletionOverwrite() {
 		return completionOverwrite;
 	}
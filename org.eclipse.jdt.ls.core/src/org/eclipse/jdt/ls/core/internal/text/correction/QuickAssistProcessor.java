@@ -27,6 +27,7 @@ import java.util.Iterator;
 import java.util.List;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaModelMarker;
@@ -89,6 +90,8 @@ import org.eclipse.jdt.ls.core.internal.corext.refactoring.code.ExtractTempRefac
 import org.eclipse.jdt.ls.core.internal.corrections.CorrectionMessages;
 import org.eclipse.jdt.ls.core.internal.corrections.IInvocationContext;
 import org.eclipse.jdt.ls.core.internal.corrections.IProblemLocation;
+import org.eclipse.jdt.ls.core.internal.corrections.ProposalCollector;
+import org.eclipse.jdt.ls.core.internal.corrections.ProposalCollector.TimeBudget;
 import org.eclipse.jdt.ls.core.internal.corrections.proposals.ASTRewriteCorrectionProposal;
 import org.eclipse.jdt.ls.core.internal.corrections.proposals.CUCorrectionProposal;
 import org.eclipse.jdt.ls.core.internal.corrections.proposals.IProposalRelevance;
@@ -121,10 +124,24 @@ public class QuickAssistProcessor {
 	}
 
 	public CUCorrectionProposal[] getAssists(IInvocationContext context, IProblemLocation[] locations) throws CoreException {
+		return getAssists(context, locations, new TimeBudget(ProposalCollector.getDeadline()), null);
+	}
+
+	/**
+	 * Computes the assists available at the location of the context, the
+	 * assists being computed concurrently when the budget has a deadline.
+	 *
+	 * @param budget
+	 *            the time budget of the assists, the assists still being
+	 *            computed once its deadline is passed being dropped
+	 * @throws org.eclipse.core.runtime.OperationCanceledException
+	 *             if the monitor is cancelled
+	 */
+	public CUCorrectionProposal[] getAssists(IInvocationContext context, IProblemLocation[] locations, TimeBudget budget, IProgressMonitor monitor) throws CoreException {
 		ASTNode coveringNode = context.getCoveringNode();
 		if (coveringNode != null) {
 			ArrayList<ASTNode> coveredNodes = getFullyCoveredNodes(context, coveringNode);
-			ArrayList<CUCorrectionProposal> resultingCollections = new ArrayList<>();
+			ProposalCollector collector = new ProposalCollector(context, budget);
 			boolean noErrorsAtLocation = noErrorsAtLocation(locations);
 
 			// quick assists that show up also if there is an error/warning
@@ -151,8 +168,8 @@ public class QuickAssistProcessor {
 				//				getInvertEqualsProposal(context, coveringNode, resultingCollections);
 				//				getArrayInitializerToArrayCreation(context, coveringNode, resultingCollections);
 				//				getCreateInSuperClassProposals(context, coveringNode, resultingCollections);
-				getExtractVariableProposal(context, problemsAtLocation, resultingCollections);
-				getExtractMethodProposal(context, coveringNode, problemsAtLocation, resultingCollections);
+				collector.add("QuickAssistProcessor/ExtractVariable", (taskContext, proposals) -> getExtractVariableProposal(taskContext, problemsAtLocation, proposals));
+				collector.add("QuickAssistProcessor/ExtractMethod", (taskContext, proposals) -> getExtractMethodProposal(taskContext, taskContext.getCoveringNode(), problemsAtLocation, proposals));
 				//				getInlineLocalProposal(context, coveringNode, resultingCollections);
 				//				getConvertLocalToFieldProposal(context, coveringNode, resultingCollections);
 				//				getConvertAnonymousToNestedProposal(context, coveringNode, resultingCollections);
@@ -173,6 +190,7 @@ public class QuickAssistProcessor {
 				//				getConvertStringConcatenationProposals(context, resultingCollections);
 				//				getMissingCaseStatementProposals(context, coveringNode, resultingCollections);
 			}
+			List<CUCorrectionProposal> resultingCollections = collector.collect(monitor);
 			return resultingCollections.toArray(new CUCorrectionProposal[resultingCollections.size()]);
 		}
 		return new CUCorrectionProposal[0];
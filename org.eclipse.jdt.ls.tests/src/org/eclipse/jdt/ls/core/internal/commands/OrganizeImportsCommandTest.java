@@ -16,12 +16,15 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Hashtable;
 import java.util.List;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
@@ -347,6 +350,55 @@ public class OrganizeImportsCommandTest extends AbstractProjectsManagerBasedTest
 		assertEquals(buf.toString(), getOrganizeImportResult(cu2, rootEdit));
 	}
 
+	@Test
+	public void testOrganizeImportsInChunks() throws Exception {
+		IPackageFragment pack1 = fSourceFolder.createPackageFragment("test1", false, null);
+		List<ICompilationUnit> units = new ArrayList<>();
+		for (int i = 0; i <= BulkOrganizeImports.BATCH_SIZE; i++) {
+			StringBuilder buf = new StringBuilder();
+			buf.append("package test1;\n");
+			buf.append("\n");
+			buf.append("import java.util.ArrayList;\n");
+			buf.append("\n");
+			buf.append("public class E" + i + " {\n");
+			buf.append("}\n");
+			units.add(pack1.createCompilationUnit("E" + i + ".java", buf.toString(), false, null));
+		}
+
+		List<WorkspaceEdit> chunks = new ArrayList<>();
+		command.organizeImportsInCompilationUnits(units, chunks::add, new NullProgressMonitor());
+		assertEquals(2, chunks.size());
+		assertEquals(units.size(), chunks.get(0).getChanges().size() + chunks.get(1).getChanges().size());
+
+		StringBuilder buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("\n");
+		buf.append("public class E0 {\n");
+		buf.append("}\n");
+		WorkspaceEdit rootEdit = new WorkspaceEdit();
+		chunks.forEach(chunk -> rootEdit.getChanges().putAll(chunk.getChanges()));
+		assertEquals(buf.toString(), getOrganizeImportResult(units.get(0), rootEdit));
+	}
+
+	@Test(expected = OperationCanceledException.class)
+	public void testOrganizeImportsCancelled() throws Exception {
+		IPackageFragment pack1 = fSourceFolder.createPackageFragment("test1", false, null);
+		StringBuilder buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("\n");
+		buf.append("import java.util.ArrayList;\n");
+		buf.append("\n");
+		buf.append("public class E {\n");
+		buf.append("}\n");
+		ICompilationUnit cu = pack1.createCompilationUnit("E.java", buf.toString(), false, null);
+
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		monitor.setCanceled(true);
+		command.organizeImportsInCompilationUnits(Arrays.asList(cu), edit -> {
+			throw new AssertionError("No edit expected");
+		}, monitor);
+	}
+
 	private String getOrganizeImportResult(ICompilationUnit cu, WorkspaceEdit we) throws BadLocationException, CoreException {
 		List<TextEdit> change = we.getChanges().get(JDTUtils.toURI(cu));
 		Document doc = new Document();
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.correction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.ls.core.internal.IConstants;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.corrections.ProposalCollector;
+import org.eclipse.jdt.ls.core.internal.corrections.ProposalCollector.TimeBudget;
+import org.eclipse.jdt.ls.core.internal.corrections.proposals.CUCorrectionProposal;
+import org.eclipse.jdt.ls.core.internal.corrections.proposals.ReplaceCorrectionProposal;
+import org.eclipse.jdt.ls.core.internal.handlers.ServerMetrics.ProcessorMetrics;
+import org.junit.Test;
+
+public class ProposalCollectorTest {
+
+	private final ICompilationUnit unit = mock(ICompilationUnit.class);
+
+	@Test
+	public void testCollectInOrder() {
+		ProposalCollector collector = new ProposalCollector(null, Long.MAX_VALUE);
+		collector.add("ProposalCollectorTest/first", (context, proposals) -> {
+			sleep(50);
+			proposals.add(proposal("first"));
+		});
+		collector.add("ProposalCollectorTest/second", (context, proposals) -> proposals.add(proposal("second")));
+		List<CUCorrectionProposal> proposals = collector.collect(new NullProgressMonitor());
+		assertEquals(2, proposals.size());
+		assertEquals("first", proposals.get(0).getName());
+		assertEquals("second", proposals.get(1).getName());
+	}
+
+	@Test
+	public void testRunInCallerThreadWithoutDeadline() {
+		Thread caller = Thread.currentThread();
+		List<Thread> threads = new ArrayList<>();
+		ProposalCollector collector = new ProposalCollector(null, Long.MAX_VALUE);
+		collector.add("ProposalCollectorTest/first", (context, proposals) -> threads.add(Thread.currentThread()));
+		collector.add("ProposalCollectorTest/second", (context, proposals) -> threads.add(Thread.currentThread()));
+		collector.collect(new NullProgressMonitor());
+		assertEquals(Arrays.asList(caller, caller), threads);
+	}
+
+	@Test
+	public void testTimeBudget() throws Exception {
+		ProcessorMetrics metrics = JavaLanguageServerPlugin.getServerMetrics().getProcessorMetrics("ProposalCollectorTest/late");
+		int late = metrics.getLateCount();
+		CountDownLatch release = new CountDownLatch(1);
+		TimeBudget budget = new TimeBudget(System.currentTimeMillis() + 100);
+		ProposalCollector collector = new ProposalCollector(null, budget);
+		collector.add("ProposalCollectorTest/late", (context, proposals) -> {
+			await(release);
+			proposals.add(proposal("late"));
+		});
+		collector.add("ProposalCollectorTest/fast", (context, proposals) -> proposals.add(proposal("fast")));
+		List<CUCorrectionProposal> proposals = collector.collect(new NullProgressMonitor());
+		release.countDown();
+		assertEquals(1, proposals.size());
+		assertEquals("fast", proposals.get(0).getName());
+		assertEquals(late + 1, metrics.getLateCount());
+		assertTrue(budget.isExceeded());
+	}
+
+	@Test
+	public void testSkipLateProcessors() throws Exception {
+		AtomicInteger started = new AtomicInteger();
+		ProposalCollector collector = new ProposalCollector(null, System.currentTimeMillis() + 50);
+		for (int i = 0; i < 64; i++) {
+			collector.add("ProposalCollectorTest/slow", (context, proposals) -> {
+				started.incrementAndGet();
+				sleep(200);
+			});
+		}
+		assertEquals(0, collector.collect(new NullProgressMonitor()).size());
+		// the processors queued once the deadline is passed don't run
+		Thread.sleep(500);
+		assertTrue(started.get() < 64);
+	}
+
+	@Test
+	public void testFailingProcessor() {
+		ProposalCollector collector = new ProposalCollector(null, Long.MAX_VALUE);
+		collector.add("ProposalCollectorTest/failing", (context, proposals) -> {
+			proposals.add(proposal("partial"));
+			throw new CoreException(new Status(IStatus.ERROR, IConstants.PLUGIN_ID, "Expected failure"));
+		});
+		collector.add("ProposalCollectorTest/working", (context, proposals) -> proposals.add(proposal("working")));
+		List<CUCorrectionProposal> proposals = collector.collect(new NullProgressMonitor());
+		assertEquals(1, proposals.size());
+		assertEquals("working", proposals.get(0).getName());
+	}
+
+	@Test
+	public void testCancel() {
+		CountDownLatch release = new CountDownLatch(1);
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		ProposalCollector collector = new ProposalCollector(null, System.currentTimeMillis() + 10000);
+		collector.add("ProposalCollectorTest/cancelling", (context, proposals) -> {
+			monitor.setCanceled(true);
+			await(release);
+		});
+		collector.add("ProposalCollectorTest/other", (context, proposals) -> proposals.add(proposal("other")));
+		try {
+			collector.collect(monitor);
+			fail("Expected the collection to be cancelled");
+		} catch (OperationCanceledException e) {
+			// expected
+		} finally {
+			release.countDown();
+		}
+	}
+
+	private CUCorrectionProposal proposal(String name) {
+		return new ReplaceCorrectionProposal(name, unit, 0, 0, name, 0);
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -13,6 +13,9 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.correction;
 
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
 import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.List;
@@ -24,7 +27,9 @@ import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.JavaProjectHelper;
+import org.eclipse.jdt.ls.core.internal.managers.WorkspaceSymbolIndex;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -1404,4 +1409,79 @@ public class UnresolvedTypesQuickFixTest extends AbstractQuickFixTest {
 		assertCodeActionNotExists(cu1, "Import 'Tests' (pt)");
 	}
 
-}
\ No newline at end of file
+	@Test
+	public void testDontImportInaccessibleTypes() throws Exception {
+		IPackageFragment pack1 = fSourceFolder.createPackageFragment("pp", false, null);
+		StringBuilder buf = new StringBuilder();
+		buf.append("package pp;\n");
+		buf.append("public class C1 {\n");
+		buf.append("    Helper helper;\n");
+		buf.append("}\n");
+		ICompilationUnit cu = pack1.createCompilationUnit("C1.java", buf.toString(), false, null);
+
+		IPackageFragment pack2 = fSourceFolder.createPackageFragment("pa", false, null);
+		buf = new StringBuilder();
+		buf.append("package pa;\n");
+		buf.append("public class Helper {\n");
+		buf.append("}\n");
+		pack2.createCompilationUnit("Helper.java", buf.toString(), false, null);
+
+		IPackageFragment pack3 = fSourceFolder.createPackageFragment("pb", false, null);
+		buf = new StringBuilder();
+		buf.append("package pb;\n");
+		buf.append("class Helper {\n");
+		buf.append("}\n");
+		pack3.createCompilationUnit("Helper.java", buf.toString(), false, null);
+
+		buf = new StringBuilder();
+		buf.append("package pp;\n");
+		buf.append("\n");
+		buf.append("import pa.Helper;\n");
+		buf.append("\n");
+		buf.append("public class C1 {\n");
+		buf.append("    Helper helper;\n");
+		buf.append("}\n");
+		Expected e1 = new Expected("Import 'Helper' (pa)", buf.toString());
+
+		assertCodeActionExists(cu, e1);
+		assertCodeActionNotExists(cu, "Import 'Helper' (pb)");
+	}
+
+	@Test
+	public void testImportFromWorkspaceSymbolIndex() throws Exception {
+		IPackageFragment pack2 = fSourceFolder.createPackageFragment("pa", false, null);
+		StringBuilder buf = new StringBuilder();
+		buf.append("package pa;\n");
+		buf.append("public class Helper {\n");
+		buf.append("}\n");
+		pack2.createCompilationUnit("Helper.java", buf.toString(), false, null);
+
+		IPackageFragment pack1 = fSourceFolder.createPackageFragment("pp", false, null);
+		buf = new StringBuilder();
+		buf.append("package pp;\n");
+		buf.append("public class C1 {\n");
+		buf.append("    Helper helper;\n");
+		buf.append("}\n");
+		ICompilationUnit cu = pack1.createCompilationUnit("C1.java", buf.toString(), false, null);
+
+		// build the index, as the lookup doesn't wait for it
+		WorkspaceSymbolIndex index = JavaLanguageServerPlugin.getWorkspaceSymbolIndex();
+		assertNotNull(index);
+		index.search("Helper", 10, false, null);
+		long lookups = index.getSimilarTypesLookupCount();
+
+		buf = new StringBuilder();
+		buf.append("package pp;\n");
+		buf.append("\n");
+		buf.append("import pa.Helper;\n");
+		buf.append("\n");
+		buf.append("public class C1 {\n");
+		buf.append("    Helper helper;\n");
+		buf.append("}\n");
+		Expected e1 = new Expected("Import 'Helper' (pa)", buf.toString());
+
+		assertCodeActionExists(cu, e1);
+		assertTrue("The similar types were not looked up in the index", index.getSimilarTypesLookupCount() > lookups);
+	}
+
+}
@@ -10,6 +10,9 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.handlers;
 
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
 import java.net.URI;
 import java.util.Arrays;
 import java.util.Collections;
@@ -23,6 +26,8 @@ import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
 import org.eclipse.jdt.ls.core.internal.LanguageServerWorkingCopyOwner;
 import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
+import org.eclipse.jdt.ls.core.internal.preferences.ClientPreferences;
+import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.lsp4j.CodeActionContext;
 import org.eclipse.lsp4j.CodeActionParams;
 import org.eclipse.lsp4j.Command;
@@ -81,6 +86,43 @@ public class CodeActionHandlerTest extends AbstractCompilationUnitBasedTest {
 		Assert.assertEquals(CodeActionHandler.COMMAND_ID_APPLY_EDIT, c.getCommand());
 	}
 
+	@Test
+	public void testCodeAction_resolveEdit() throws Exception {
+		ICompilationUnit unit = getWorkingCopy(
+				"src/java/Foo.java",
+				"import java.sql.*; \n" +
+						"public class Foo {\n"+
+						"	void foo() {\n"+
+						"	}\n"+
+				"}\n");
+
+		CodeActionParams params = new CodeActionParams();
+		params.setTextDocument(new TextDocumentIdentifier(JDTUtils.toURI(unit)));
+		final Range range = getRange(unit, "java.sql");
+		params.setRange(range);
+		params.setContext(new CodeActionContext(Arrays.asList(getDiagnostic(Integer.toString(IProblem.UnusedImport), range))));
+		PreferenceManager preferenceManager = mock(PreferenceManager.class);
+		ClientPreferences clientPreferences = mock(ClientPreferences.class);
+		when(preferenceManager.getClientPreferences()).thenReturn(clientPreferences);
+		when(clientPreferences.isResolveCodeActionSupported()).thenReturn(true);
+		CodeActionHandler handler = new CodeActionHandler(preferenceManager);
+		List<Command> commands = handler.getCodeActionCommands(params, new NullProgressMonitor());
+		Assert.assertEquals(2, commands.size());
+		Command c = commands.get(0);
+		Assert.assertEquals(CodeActionHandler.COMMAND_ID_RESOLVE_EDIT, c.getCommand());
+		Assert.assertEquals(1, c.getArguments().size());
+		long hitCount = CodeActionProposals.getHitCount();
+		WorkspaceEdit edit = handler.resolveCodeAction((String) c.getArguments().get(0), new NullProgressMonitor());
+		Assert.assertEquals(hitCount + 1, CodeActionProposals.getHitCount());
+		Assert.assertNotNull(edit);
+		List<org.eclipse.lsp4j.TextEdit> edits = edit.getChanges().get(JDTUtils.toURI(unit));
+		Assert.assertEquals(1, edits.size());
+		Assert.assertEquals("", edits.get(0).getNewText());
+
+		unit.getBuffer().append("\n");
+		Assert.assertNull(handler.resolveCodeAction((String) c.getArguments().get(0), new NullProgressMonitor()));
+	}
+
 	@Test
 	public void testCodeAction_removeUnterminatedString() throws Exception{
 		ICompilationUnit unit = getWorkingCopy(
@@ -25,9 +25,14 @@ import java.net.URI;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.ls.core.internal.ClassFileUtil;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.ResourceUtils;
 import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
 import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
@@ -330,6 +335,45 @@ public class CodeLensHandlerTest extends AbstractProjectsManagerBasedTest {
 		assertRange(5, 25, 28, loc.getRange());
 	}
 
+	@Test
+	public void testResolveCodeLensesInOneSearch() {
+		String source = "src/java/Foo.java";
+		CodeLensCache cache = JavaLanguageServerPlugin.getCodeLensCache();
+		CodeLens result = handler.resolve(getParams(createCodeLensRequest(source, 5, 13, 16)), monitor);
+		assertEquals("1 reference", result.getCommand().getTitle());
+
+		//The references of Foo.foo() were searched along with the references of Foo
+		long hits = cache.getHitCount();
+		long misses = cache.getMissCount();
+		result = handler.resolve(getParams(createCodeLensRequest(source, 14, 13, 16)), monitor);
+		assertEquals("1 reference", result.getCommand().getTitle());
+		List<Location> locations = (List<Location>) result.getCommand().getArguments().get(2);
+		assertTrue(locations.get(0).getUri().endsWith("src/java/Bar.java"));
+		assertEquals(hits + 1, cache.getHitCount());
+		assertEquals(misses, cache.getMissCount());
+	}
+
+	@Test
+	public void testCacheLocationsComputedDuringUnrelatedChanges() throws Exception {
+		CodeLensCache cache = JavaLanguageServerPlugin.getCodeLensCache();
+		IJavaProject javaProject = JavaCore.create(project);
+		IType type = javaProject.findType("java.Foo");
+		Set<String> units = Collections.singleton(javaProject.findType("java.Bar").getCompilationUnit().getHandleIdentifier());
+
+		//A unit not referencing Foo doesn't invalidate the locations being computed
+		long invalidationCount = cache.getInvalidationCount();
+		type.getPackageFragment().createCompilationUnit("Unrelated.java", "package java;\npublic class Unrelated {}\n", true, monitor);
+		cache.put(CodeLensHandler.REFERENCES_TYPE, type, Collections.emptyList(), units, invalidationCount);
+		assertTrue(cache.contains(CodeLensHandler.REFERENCES_TYPE, type));
+
+		//A unit referencing Foo does
+		cache.clear();
+		invalidationCount = cache.getInvalidationCount();
+		type.getPackageFragment().createCompilationUnit("Related.java", "package java;\npublic class Related {\n\tFoo foo;\n}\n", true, monitor);
+		cache.put(CodeLensHandler.REFERENCES_TYPE, type, Collections.emptyList(), units, invalidationCount);
+		assertFalse(cache.contains(CodeLensHandler.REFERENCES_TYPE, type));
+	}
+
 	@Test
 	public void testResolveCodeLenseBoundaries() {
 		CodeLens result = handler.resolve(null, monitor);
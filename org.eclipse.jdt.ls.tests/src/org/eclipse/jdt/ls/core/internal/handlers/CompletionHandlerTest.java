@@ -47,6 +47,7 @@ import org.eclipse.jdt.ls.core.internal.TextEditUtil;
 import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
 import org.eclipse.jdt.ls.core.internal.preferences.ClientPreferences;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
+import org.eclipse.jdt.ls.core.internal.preferences.Preferences;
 import org.eclipse.lsp4j.CompletionItem;
 import org.eclipse.lsp4j.CompletionItemKind;
 import org.eclipse.lsp4j.CompletionList;
@@ -66,6 +67,8 @@ import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import com.google.gson.Gson;
+
 /**
  * @author Gorkem Ercan
  *
@@ -245,6 +248,78 @@ public class CompletionHandlerTest extends AbstractCompilationUnitBasedTest {
 		}
 	}
 
+	@Test
+	public void testCompletion_resolveAfterNewCompletion() throws Exception {
+		ICompilationUnit unit = getWorkingCopy(
+			"src/java/Foo.java",
+			"public class Foo {\n"+
+				"	void foo() {\n"+
+				"		Objec\n"+
+				"		Strin\n"+
+				"	}\n"+
+				"}\n");
+		int[] loc = findCompletionLocation(unit, "Objec");
+		CompletionList list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join().getRight();
+		CompletionItem item = list.getItems().stream().filter(i -> "Object".equals(i.getInsertText())).findFirst().get();
+
+		// a newer completion doesn't discard the previous one
+		loc = findCompletionLocation(unit, "Strin");
+		server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join();
+		CompletionItem resolvedItem = server.resolveCompletionItem(item).join();
+		assertTextEdit(2, 2, 7, "Object", resolvedItem.getTextEdit());
+
+		// an evicted response leaves the item as is
+		CompletionResponses.clear();
+		long misses = CompletionResponses.getMissCount();
+		item = list.getItems().stream().filter(i -> !"Object".equals(i.getInsertText())).findFirst().get();
+		String insertText = item.getInsertText();
+		resolvedItem = server.resolveCompletionItem(item).join();
+		assertEquals(misses + 1, CompletionResponses.getMissCount());
+		assertEquals(insertText, resolvedItem.getInsertText());
+		assertNull(resolvedItem.getTextEdit());
+	}
+
+	@Test
+	public void testCompletion_maxResults() throws Exception {
+		ICompilationUnit unit = getWorkingCopy(
+			"src/java/Foo.java",
+			"public class Foo {\n"+
+				"	void foo() {\n"+
+				"		Objec\n"+
+				"	}\n"+
+				"}\n");
+		int[] loc = findCompletionLocation(unit, "Objec");
+		CompletionList all = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join().getRight();
+		assertFalse(all.isIncomplete());
+		assertTrue(all.getItems().size() > 5);
+
+		CompletionSessions.clear();
+		Preferences preferences = JavaLanguageServerPlugin.getPreferencesManager().getPreferences();
+		try {
+			preferences.setCompletionMaxResults(5);
+			CompletionList list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join().getRight();
+			assertTrue(list.isIncomplete());
+			assertEquals(5, list.getItems().size());
+			assertTrue(list.getItems().stream().anyMatch(i -> "Object".equals(i.getInsertText())));
+			for (CompletionItem item : list.getItems()) {
+				@SuppressWarnings("unchecked")
+				Map<String, String> data = (Map<String, String>) item.getData();
+				assertNull(data.get(CompletionResolveHandler.DATA_FIELD_URI));
+				assertNotNull(data.get(CompletionResolveHandler.DATA_FIELD_REQUEST_ID));
+				assertNotNull(data.get(CompletionResolveHandler.DATA_FIELD_PROPOSAL_ID));
+			}
+			int allSize = new Gson().toJson(all).length();
+			int size = new Gson().toJson(list).length();
+			assertTrue("Unexpected response size: " + size + " (unbounded: " + allSize + ")", size < allSize);
+
+			CompletionItem item = list.getItems().stream().filter(i -> "Object".equals(i.getInsertText())).findFirst().get();
+			CompletionItem resolvedItem = server.resolveCompletionItem(item).join();
+			assertNotNull(resolvedItem.getTextEdit());
+		} finally {
+			preferences.setCompletionMaxResults(0);
+		}
+	}
+
 
 	@Test
 	public void testCompletion_constructor() throws Exception{
@@ -492,6 +567,46 @@ public class CompletionHandlerTest extends AbstractCompilationUnitBasedTest {
 		//Not checking the range end character
 	}
 
+	@Test
+	public void testCompletion_filterPreviousResults() throws JavaModelException{
+		ICompilationUnit unit = getWorkingCopy(
+				"src/java/Foo.java",
+				"public class Foo {\n"+
+						"private String myTestString;\n"+
+						"private String myOtherString;\n"+
+						"	void foo() {\n"+
+						"   this.my\n"+
+						"	}\n"+
+				"}\n");
+
+		int[] loc = findCompletionLocation(unit, "this.my");
+		CompletionList list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1]))).join().getRight();
+		assertTrue(list.getItems().stream().anyMatch(i -> "myOtherString".equals(i.getInsertText())));
+		CompletionItem previousItem = list.getItems().stream().filter(i -> "myTestString".equals(i.getInsertText())).findFirst().get();
+
+		// type the rest of the identifier
+		int offset = unit.getSource().indexOf("this.my") + "this.my".length();
+		unit.getBuffer().replace(offset, 0, "Te");
+		long hits = CompletionSessions.getHitCount();
+		list = server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1] + 2))).join().getRight();
+		assertEquals(hits + 1, CompletionSessions.getHitCount());
+		assertFalse(list.getItems().stream().anyMatch(i -> "myOtherString".equals(i.getInsertText())));
+		CompletionItem item = list.getItems().stream().filter(i -> "myTestString".equals(i.getInsertText())).findFirst().get();
+
+		CompletionItem resolvedItem = server.resolveCompletionItem(item).join();
+		assertTextEdit(4, 8, 12, "myTestString", resolvedItem.getTextEdit());
+
+		// the items of the previous response keep their ranges
+		resolvedItem = server.resolveCompletionItem(previousItem).join();
+		assertTextEdit(4, 8, 10, "myTestString", resolvedItem.getTextEdit());
+
+		// a change elsewhere in the unit requires a new code completion
+		unit.getBuffer().replace(0, 0, " ");
+		hits = CompletionSessions.getHitCount();
+		server.completion(JsonMessageHelper.getParams(createCompletionRequest(unit, loc[0], loc[1] + 2))).join();
+		assertEquals(hits, CompletionSessions.getHitCount());
+	}
+
 	@Test
 	public void testCompletion_import_type() throws JavaModelException{
 		ICompilationUnit unit = getWorkingCopy(
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.Range;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DiagnosticsPublisherTest {
+
+	private static final String URI = "file:///tmp/Foo.java";
+
+	@Mock
+	private JavaClientConnection connection;
+
+	private DiagnosticsPublisher publisher;
+
+	@Before
+	public void setUp() {
+		publisher = new DiagnosticsPublisher(connection);
+	}
+
+	@Test
+	public void testSuppressDuplicates() {
+		publisher.schedule(URI, diagnostics("error"));
+		publisher.flush();
+		publisher.schedule(URI, diagnostics("error"));
+		publisher.flush();
+		verify(connection, times(1)).publishDiagnostics(any());
+
+		publisher.schedule(URI, diagnostics("another error"));
+		publisher.flush();
+		verify(connection, times(2)).publishDiagnostics(any());
+		assertEquals(1, publisher.getSuppressedCount());
+	}
+
+	@Test
+	public void testSuppressEmptyDiagnostics() {
+		publisher.schedule(URI, Collections.emptyList());
+		publisher.flush();
+		verify(connection, never()).publishDiagnostics(any());
+
+		publisher.schedule(URI, diagnostics("error"));
+		publisher.flush();
+		publisher.schedule(URI, Collections.emptyList());
+		publisher.flush();
+		verify(connection, times(2)).publishDiagnostics(any());
+	}
+
+	@Test
+	public void testCoalesce() {
+		publisher.schedule(URI, diagnostics("error"));
+		publisher.schedule(URI, diagnostics("another error"));
+		publisher.flush();
+
+		ArgumentCaptor<PublishDiagnosticsParams> captor = ArgumentCaptor.forClass(PublishDiagnosticsParams.class);
+		verify(connection, times(1)).publishDiagnostics(captor.capture());
+		assertEquals("another error", captor.getValue().getDiagnostics().get(0).getMessage());
+	}
+
+	@Test
+	public void testPublishRightAway() {
+		publisher.schedule(URI, diagnostics("error"));
+		// the diagnostics of a reconcile replace the scheduled ones, and are always sent
+		publisher.publish(URI, diagnostics("reconciled error"));
+		publisher.publish(URI, diagnostics("reconciled error"));
+		publisher.flush();
+		verify(connection, times(2)).publishDiagnostics(any());
+
+		publisher.schedule(URI, diagnostics("reconciled error"));
+		publisher.flush();
+		verify(connection, times(2)).publishDiagnostics(any());
+	}
+
+	@Test
+	public void testRemovePublisher() {
+		DiagnosticsPublisher registered = DiagnosticsPublisher.getPublisher(connection);
+		assertSame(registered, DiagnosticsPublisher.getPublisher(connection));
+		registered.schedule(URI, diagnostics("error"));
+		// the scheduled diagnostics are sent before the publisher is released
+		DiagnosticsPublisher.removePublisher(connection);
+		verify(connection, times(1)).publishDiagnostics(any());
+		assertNotSame(registered, DiagnosticsPublisher.getPublisher(connection));
+		DiagnosticsPublisher.removePublisher(connection);
+	}
+
+	@Test
+	public void testScheduleWhileSending() throws Exception {
+		CountDownLatch sending = new CountDownLatch(1);
+		CountDownLatch sent = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			sending.countDown();
+			sent.await(10, TimeUnit.SECONDS);
+			return null;
+		}).when(connection).publishDiagnostics(any());
+		CompletableFuture<Void> publishing = CompletableFuture.runAsync(() -> publisher.publish(URI, diagnostics("error")));
+		try {
+			assertTrue(sending.await(10, TimeUnit.SECONDS));
+			// the client being slow doesn't block the producers of diagnostics
+			CompletableFuture.runAsync(() -> publisher.schedule("file:///tmp/Bar.java", diagnostics("another error"))).get(10, TimeUnit.SECONDS);
+		} finally {
+			sent.countDown();
+		}
+		publishing.get(10, TimeUnit.SECONDS);
+		publisher.flush();
+		verify(connection, times(2)).publishDiagnostics(any());
+	}
+
+	private static List<Diagnostic> diagnostics(String message) {
+		return Collections.singletonList(new Diagnostic(new Range(new Position(1, 2), new Position(1, 5)), message, DiagnosticSeverity.Error, "Java"));
+	}
+}
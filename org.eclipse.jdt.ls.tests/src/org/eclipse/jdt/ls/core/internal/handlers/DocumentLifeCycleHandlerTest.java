@@ -22,7 +22,9 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.io.FileUtils;
 import org.eclipse.core.resources.IFolder;
@@ -53,6 +55,7 @@ import org.eclipse.lsp4j.DidChangeTextDocumentParams;
 import org.eclipse.lsp4j.DidCloseTextDocumentParams;
 import org.eclipse.lsp4j.DidOpenTextDocumentParams;
 import org.eclipse.lsp4j.DidSaveTextDocumentParams;
+import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.PublishDiagnosticsParams;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
@@ -290,6 +293,43 @@ public class DocumentLifeCycleHandlerTest extends AbstractProjectsManagerBasedTe
 		assertNewASTsCreated(0);
 	}
 
+	@Test
+	public void testMultipleChangesInOneEvent() throws Exception {
+		IJavaProject javaProject = newEmptyProject();
+		IPackageFragmentRoot sourceFolder = javaProject.getPackageFragmentRoot(javaProject.getProject().getFolder("src"));
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+
+		StringBuilder buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class E123 {\n");
+		buf.append("}\n");
+		ICompilationUnit cu1 = pack1.createCompilationUnit("E123.java", buf.toString(), false, null);
+		openDocument(cu1, cu1.getSource(), 1);
+		assertNewProblemReported(new ExpectedProblemReport(cu1, 0));
+
+		DidChangeTextDocumentParams changeParms = new DidChangeTextDocumentParams();
+		VersionedTextDocumentIdentifier textDocument = new VersionedTextDocumentIdentifier();
+		textDocument.setUri(JDTUtils.toURI(cu1));
+		textDocument.setVersion(2);
+		changeParms.setTextDocument(textDocument);
+		List<TextDocumentContentChangeEvent> contentChanges = new ArrayList<>();
+		// insert a field, then rename the class, the second range is relative to the result of the first change
+		TextDocumentContentChangeEvent insertField = new TextDocumentContentChangeEvent(new Range(new Position(2, 0), new Position(2, 0)), 0, "  int x;\n");
+		contentChanges.add(insertField);
+		TextDocumentContentChangeEvent renameClass = new TextDocumentContentChangeEvent(new Range(new Position(1, 13), new Position(1, 17)), null, "E456");
+		contentChanges.add(renameClass);
+		changeParms.setContentChanges(contentChanges);
+		lifeCycleHandler.didChange(changeParms);
+
+		buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class E456 {\n");
+		buf.append("  int x;\n");
+		buf.append("}\n");
+		assertEquals(buf.toString(), cu1.getSource());
+		assertEquals(true, cu1.hasUnsavedChanges());
+	}
+
 	@Test
 	public void testFixInDependencyScenario() throws Exception {
 		IJavaProject javaProject = newEmptyProject();
@@ -384,6 +424,96 @@ public class DocumentLifeCycleHandlerTest extends AbstractProjectsManagerBasedTe
 		assertNewASTsCreated(0);
 	}
 
+	@Test
+	public void testSkipValidationOfIndependentUnits() throws Exception {
+		IJavaProject javaProject = newEmptyProject();
+		IPackageFragmentRoot sourceFolder = javaProject.getPackageFragmentRoot(javaProject.getProject().getFolder("src"));
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+
+		StringBuilder buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class F123 {\n");
+		buf.append("}\n");
+		ICompilationUnit cu1 = pack1.createCompilationUnit("F123.java", buf.toString(), false, null);
+
+		buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class F456 {\n");
+		buf.append("  { F123.foo(); }\n");
+		buf.append("}\n");
+		ICompilationUnit cu2 = pack1.createCompilationUnit("F456.java", buf.toString(), false, null);
+
+		buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class F789 {\n");
+		buf.append("}\n");
+		ICompilationUnit cu3 = pack1.createCompilationUnit("F789.java", buf.toString(), false, null);
+
+		openDocument(cu2, cu2.getSource(), 1);
+		openDocument(cu1, cu1.getSource(), 1);
+		openDocument(cu3, cu3.getSource(), 1);
+		getClientRequests("publishDiagnostics").clear();
+
+		long skipped = lifeCycleHandler.getSkippedUnitsCount();
+
+		// a change to the body of an unrelated unit doesn't affect the others
+		buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class F789 {\n");
+		buf.append("  { int i = 0; }\n");
+		buf.append("}\n");
+		changeDocumentFull(cu3, buf.toString(), 2);
+		assertNewProblemReported(new ExpectedProblemReport(cu3, 0));
+		assertEquals(skipped + 2, lifeCycleHandler.getSkippedUnitsCount());
+
+		// an API change is propagated to the referencing units only
+		buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class F123 {\n");
+		buf.append("  public static void foo() {}\n");
+		buf.append("}\n");
+		changeDocumentFull(cu1, buf.toString(), 2);
+		assertNewProblemReported(new ExpectedProblemReport(cu2, 0), new ExpectedProblemReport(cu1, 0));
+		assertEquals(skipped + 3, lifeCycleHandler.getSkippedUnitsCount());
+	}
+
+	@Test
+	public void testParallelValidation() throws Exception {
+		Preferences preferences = preferenceManager.getPreferences();
+		Mockito.when(preferences.getValidationParallelism()).thenReturn(3);
+		lifeCycleHandler = new DocumentLifeCycleHandler(javaClient, preferenceManager, projectsManager, true);
+		IJavaProject javaProject = newEmptyProject();
+		IPackageFragmentRoot sourceFolder = javaProject.getPackageFragmentRoot(javaProject.getProject().getFolder("src"));
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+
+		List<ICompilationUnit> units = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			StringBuilder buf = new StringBuilder();
+			buf.append("package test1;\n");
+			buf.append("public class F" + i + " {\n");
+			buf.append("  int i = \"\";\n");
+			buf.append("}\n");
+			units.add(pack1.createCompilationUnit("F" + i + ".java", buf.toString(), false, null));
+		}
+		getClientRequests("publishDiagnostics").clear();
+
+		for (ICompilationUnit unit : units) {
+			openDocument(unit, unit.getSource(), 1);
+		}
+		Job.getJobManager().join(DocumentLifeCycleHandler.DOCUMENT_LIFE_CYCLE_JOBS, new NullProgressMonitor());
+
+		Map<String, List<Diagnostic>> diagnostics = new HashMap<>();
+		for (Object params : getClientRequests("publishDiagnostics")) {
+			PublishDiagnosticsParams diag = (PublishDiagnosticsParams) params;
+			diagnostics.put(diag.getUri(), diag.getDiagnostics());
+		}
+		for (ICompilationUnit unit : units) {
+			List<Diagnostic> unitDiagnostics = diagnostics.get(JDTUtils.toURI(unit));
+			assertNotNull("No diagnostics published for " + unit.getElementName(), unitDiagnostics);
+			assertEquals(unit.getElementName(), 1, unitDiagnostics.size());
+		}
+	}
+
 	@Test
 	public void testDidOpenStandaloneFile() throws Exception {
 		IJavaProject javaProject = newDefaultProject();
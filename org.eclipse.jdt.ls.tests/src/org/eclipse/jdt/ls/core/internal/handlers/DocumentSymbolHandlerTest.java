@@ -10,19 +10,28 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.handlers;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.UnsupportedEncodingException;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.ls.core.internal.ClassFileUtil;
+import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
 import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
 import org.eclipse.lsp4j.DocumentSymbolParams;
@@ -94,6 +103,70 @@ public class DocumentSymbolHandlerTest extends AbstractProjectsManagerBasedTest
 
 	}
 
+	@Test
+	public void testLargeClass() throws Exception {
+		IJavaProject javaProject = newEmptyProject();
+		IPackageFragmentRoot sourceFolder = javaProject.getPackageFragmentRoot(javaProject.getProject().getFolder("src"));
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+		StringBuilder buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class E {\n");
+		for (int i = 0; i < 5000; i++) {
+			buf.append("    int field" + i + ";\n");
+			buf.append("    void method" + i + "(int p) {}\n");
+		}
+		buf.append("}\n");
+		ICompilationUnit cu = pack1.createCompilationUnit("E.java", buf.toString(), false, null);
+		DocumentSymbolParams params = new DocumentSymbolParams(new TextDocumentIdentifier(JDTUtils.toURI(cu)));
+
+		List<? extends SymbolInformation> symbols = handler.documentSymbol(params, monitor);
+		assertEquals(10001, symbols.size());
+		assertHasSymbol("method4999(int)", "E", SymbolKind.Method, symbols);
+		DocumentSymbolCache cache = JavaLanguageServerPlugin.getDocumentSymbolCache();
+		long hitCount = cache.getHitCount();
+		assertEquals(symbols, handler.documentSymbol(params, monitor));
+		assertEquals(hitCount + 1, cache.getHitCount());
+
+		cu.becomeWorkingCopy(monitor);
+		try {
+			String contents = cu.getBuffer().getContents();
+			cu.getBuffer().replace(contents.indexOf("method0("), "method0".length(), "renamed");
+			cu.reconcile(ICompilationUnit.NO_AST, false, null, monitor);
+			symbols = handler.documentSymbol(params, monitor);
+			assertEquals(10001, symbols.size());
+			assertHasSymbol("renamed(int)", "E", SymbolKind.Method, symbols);
+			assertFalse(symbols.stream().anyMatch(s -> "method0(int)".equals(s.getName())));
+			assertHasSymbol("field4999", "E", SymbolKind.Field, symbols);
+		} finally {
+			cu.discardWorkingCopy();
+		}
+	}
+
+	@Test
+	public void testCacheOutlineComputedDuringOtherChanges() throws Exception {
+		IJavaProject javaProject = newEmptyProject();
+		IPackageFragmentRoot sourceFolder = javaProject.getPackageFragmentRoot(javaProject.getProject().getFolder("src"));
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+		ICompilationUnit cu = pack1.createCompilationUnit("E.java", "package test1;\npublic class E {\n    void foo() {}\n}\n", false, null);
+		DocumentSymbolCache cache = JavaLanguageServerPlugin.getDocumentSymbolCache();
+		long stamp = JDTUtils.getContentStamp(cu);
+		SymbolInformation[] symbols = new SymbolInformation[0];
+
+		//Another unit changing doesn't prevent the outline from being cached
+		pack1.createCompilationUnit("F.java", "package test1;\npublic class F {}\n", false, null);
+		cache.put(cu, stamp, symbols, new HashMap<>());
+		assertSame(symbols, cache.getSymbols(cu, stamp));
+
+		//An outline of a working copy not reconciled yet isn't cached
+		cu.becomeWorkingCopy(monitor);
+		try {
+			cu.getBuffer().append("// comment\n");
+			assertEquals(IResource.NULL_STAMP, JDTUtils.getContentStamp(cu));
+		} finally {
+			cu.discardWorkingCopy();
+		}
+	}
+
 	private void assertHasSymbol(String expectedType, String expectedParent, SymbolKind expectedKind, Collection<? extends SymbolInformation> symbols) {
 		Optional<? extends SymbolInformation> symbol = symbols.stream()
 															 .filter(s -> expectedType.equals(s.getName()) && expectedParent.equals(s.getContainerName()))
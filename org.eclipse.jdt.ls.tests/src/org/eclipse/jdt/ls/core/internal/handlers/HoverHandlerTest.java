@@ -31,10 +31,12 @@ import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.ls.core.internal.ClassFileUtil;
 import org.eclipse.jdt.ls.core.internal.DependencyUtil;
+import org.eclipse.jdt.ls.core.internal.HoverCache;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.ResourceUtils;
 import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
+import org.eclipse.jdt.ls.core.internal.javadoc.JavadocCache;
 import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.jdt.ls.core.internal.preferences.Preferences;
@@ -252,6 +254,90 @@ public class HoverHandlerTest extends AbstractProjectsManagerBasedTest {
 		assertEquals("Unexpected hover ", "This method comes from Foo", result);
 	}
 
+	@Test
+	public void testHoverJavadocCache() throws Exception {
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+		StringBuilder buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class E {\n");
+		buf.append("   /** This is foo */\n");
+		buf.append("   public void foo() { }\n");
+		buf.append("}\n");
+		ICompilationUnit cu = pack1.createCompilationUnit("E.java", buf.toString(), false, null);
+		JavadocCache cache = JavaLanguageServerPlugin.getJavadocCache();
+
+		assertEquals("This is foo", getHover(cu, 3, 16).getContents().getLeft().get(1).getLeft());
+		long hits = cache.getHitCount();
+		JavaLanguageServerPlugin.getHoverCache().clear();
+		assertEquals("This is foo", getHover(cu, 3, 16).getContents().getLeft().get(1).getLeft());
+		assertEquals(hits + 1, cache.getHitCount());
+
+		// the cached documentation is invalidated by the changes of the unit
+		cu.getBuffer().setContents(buf.toString().replace("This is foo", "This is the new foo"));
+		cu.save(null, true);
+		assertEquals("This is the new foo", getHover(cu, 3, 16).getContents().getLeft().get(1).getLeft());
+	}
+
+	@Test
+	public void testHoverInheritedJavadocCache() throws Exception {
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+		StringBuilder buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class A {\n");
+		buf.append("   /** This is foo */\n");
+		buf.append("   public void foo() { }\n");
+		buf.append("}\n");
+		String source = buf.toString();
+		ICompilationUnit superUnit = pack1.createCompilationUnit("A.java", source, false, null);
+		buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class E extends A {\n");
+		buf.append("   public void foo() { }\n");
+		buf.append("}\n");
+		ICompilationUnit cu = pack1.createCompilationUnit("E.java", buf.toString(), false, null);
+		ICompilationUnit other = pack1.createCompilationUnit("F.java", "package test1;\npublic class F {}\n", false, null);
+		JavadocCache cache = JavaLanguageServerPlugin.getJavadocCache();
+
+		assertEquals("This is foo", getHover(cu, 2, 16).getContents().getLeft().get(1).getLeft());
+
+		// the inherited documentation is kept across the changes of the units outside of the hierarchy
+		other.getBuffer().setContents("package test1;\npublic class F { }\n");
+		other.save(null, true);
+		long hits = cache.getHitCount();
+		JavaLanguageServerPlugin.getHoverCache().clear();
+		assertEquals("This is foo", getHover(cu, 2, 16).getContents().getLeft().get(1).getLeft());
+		assertEquals(hits + 1, cache.getHitCount());
+
+		// and invalidated by the changes of the super types
+		superUnit.getBuffer().setContents(source.replace("This is foo", "This is the new foo"));
+		superUnit.save(null, true);
+		assertEquals("This is the new foo", getHover(cu, 2, 16).getContents().getLeft().get(1).getLeft());
+	}
+
+	@Test
+	public void testHoverMemoized() throws Exception {
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+		StringBuilder buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class E {\n");
+		buf.append("   /** This is foo */\n");
+		buf.append("   public void foo() { }\n");
+		buf.append("   public void bar() { foo(); }\n");
+		buf.append("}\n");
+		ICompilationUnit cu = pack1.createCompilationUnit("E.java", buf.toString(), false, null);
+		HoverCache cache = JavaLanguageServerPlugin.getHoverCache();
+
+		Hover hover = getHover(cu, 4, 24);
+		long hits = cache.getHitCount();
+		assertEquals(hover.getContents(), getHover(cu, 4, 24).getContents());
+		assertEquals(hits + 1, cache.getHitCount());
+
+		// the memoized hovers are discarded by the changes of the Java model
+		cu.getBuffer().setContents(buf.toString().replace("This is foo", "This is the new foo"));
+		cu.save(null, true);
+		assertEquals("This is the new foo", getHover(cu, 4, 24).getContents().getLeft().get(1).getLeft());
+	}
+
 	@Test
 	public void testHoverOverNullElement() throws Exception {
 		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
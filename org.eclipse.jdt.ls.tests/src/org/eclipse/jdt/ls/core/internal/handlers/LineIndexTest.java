@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import static org.junit.Assert.assertEquals;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.junit.Test;
+
+public class LineIndexTest {
+
+	@Test
+	public void testLineOffsets() throws Exception {
+		String text = "package foo;\r\n\npublic class Foo {\r}\n";
+		LineIndex index = LineIndex.of(text);
+		Document document = new Document(text);
+		assertEquals(document.getNumberOfLines(), index.getNumberOfLines());
+		for (int line = 0; line < document.getNumberOfLines(); line++) {
+			assertEquals(document.getLineOffset(line), index.getLineOffset(line));
+		}
+		for (int offset = 0; offset <= text.length(); offset++) {
+			assertEquals(document.getLineOfOffset(offset), index.getLineOfOffset(offset));
+		}
+	}
+
+	@Test(expected = BadLocationException.class)
+	public void testLineOutOfRange() throws Exception {
+		LineIndex.of("foo\nbar").getLineOffset(2);
+	}
+
+	@Test(expected = BadLocationException.class)
+	public void testOffsetOutOfRange() throws Exception {
+		LineIndex.of("foo\nbar").getLineOfOffset(8);
+	}
+}
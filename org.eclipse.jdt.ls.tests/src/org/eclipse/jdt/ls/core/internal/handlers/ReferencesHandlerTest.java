@@ -13,13 +13,22 @@ package org.eclipse.jdt.ls.core.internal.handlers;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.ls.core.internal.JavaClientConnection.JavaLanguageClient;
+import org.eclipse.jdt.ls.core.internal.ReferencesParams;
+import org.eclipse.jdt.ls.core.internal.ReferencesPartialResult;
 import org.eclipse.jdt.ls.core.internal.ResourceUtils;
 import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
 import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
@@ -32,6 +41,7 @@ import org.eclipse.lsp4j.ReferenceParams;
 import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 /**
  * ReferencesHandlerTest
@@ -79,4 +89,55 @@ public class ReferencesHandlerTest extends AbstractProjectsManagerBasedTest{
 		assertEquals(refereeUri, l.getUri());
 	}
 
+	@Test
+	public void testPartialResults() {
+		URI uri = project.getFile("src/java/Foo2.java").getRawLocationURI();
+		String fileURI = ResourceUtils.fixURI(uri);
+
+		ReferenceParams param = new ReferenceParams();
+		param.setPosition(new Position(5, 16));
+		param.setContext(new ReferenceContext(true));
+		param.setTextDocument(new TextDocumentIdentifier(fileURI));
+		List<Location> partialResults = new ArrayList<>();
+		List<Location> references = handler.findReferences(param, partialResults::addAll, monitor);
+		assertNotNull("findReferences should not return null", references);
+		assertTrue("all the references should be sent as partial results", references.isEmpty());
+		assertEquals(1, partialResults.size());
+		String refereeUri = ResourceUtils.fixURI(project.getFile("src/java/Foo3.java").getRawLocationURI());
+		assertEquals(refereeUri, partialResults.get(0).getUri());
+	}
+
+	@Test
+	public void testConcurrentPartialResults() throws Exception {
+		JavaLanguageClient client = mock(JavaLanguageClient.class);
+		JDTLanguageServer server = new JDTLanguageServer(projectsManager, preferenceManager);
+		server.connectClient(client);
+		try {
+			CompletableFuture<List<Location>> first = server.findReferences(createReferencesParams("first"));
+			CompletableFuture<List<Location>> second = server.findReferences(createReferencesParams("second"));
+			assertTrue("all the references should be sent as partial results", first.get().isEmpty());
+			assertTrue("all the references should be sent as partial results", second.get().isEmpty());
+			ArgumentCaptor<ReferencesPartialResult> captor = ArgumentCaptor.forClass(ReferencesPartialResult.class);
+			verify(client, atLeastOnce()).sendReferencesPartialResult(captor.capture());
+			Set<String> tokens = new HashSet<>();
+			for (ReferencesPartialResult result : captor.getAllValues()) {
+				tokens.add(result.getToken());
+			}
+			assertTrue("the first request should receive its references", tokens.contains("first"));
+			assertTrue("the second request should receive its references", tokens.contains("second"));
+		} finally {
+			server.disconnectClient();
+		}
+	}
+
+	private ReferencesParams createReferencesParams(String token) {
+		URI uri = project.getFile("src/java/Foo2.java").getRawLocationURI();
+		ReferencesParams param = new ReferencesParams();
+		param.setPosition(new Position(5, 16));
+		param.setContext(new ReferenceContext(true));
+		param.setTextDocument(new TextDocumentIdentifier(ResourceUtils.fixURI(uri)));
+		param.setPartialResultToken(token);
+		return param;
+	}
+
 }
@@ -336,6 +336,49 @@ public class RenameHandlerTest extends AbstractProjectsManagerBasedTest {
 
 	}
 
+	@Test
+	public void testRenameMultipleFilesInBatches() throws JavaModelException, BadLocationException {
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+
+		String[] codes1= {
+				"package test1;\n",
+				"public class A {\n",
+				"   public void fo|*o() {\n",
+				"   }\n",
+				"}\n"
+		};
+		StringBuilder builderA = new StringBuilder();
+		Position pos = mergeCode(builderA, codes1);
+		ICompilationUnit cuA = pack1.createCompilationUnit("A.java", builderA.toString(), false, null);
+
+		// more units than a single batch of the rename analysis
+		int count = 50;
+		List<ICompilationUnit> cus = new LinkedList<>();
+		for (int i = 0; i < count; i++) {
+			String code = "package test1;\n" +
+					"public class B" + i + " {\n" +
+					"   public void bar() {\n" +
+					"		new A().foo();\n" +
+					"   }\n" +
+					"}\n";
+			cus.add(pack1.createCompilationUnit("B" + i + ".java", code, false, null));
+		}
+
+		WorkspaceEdit edit = getRenameEdit(cuA, pos, "newname");
+		assertNotNull(edit);
+		assertEquals(count + 1, edit.getChanges().size());
+		int i = 0;
+		for (ICompilationUnit cu : cus) {
+			assertEquals("package test1;\n" +
+					"public class B" + i + " {\n" +
+					"   public void bar() {\n" +
+					"		new A().newname();\n" +
+					"   }\n" +
+					"}\n", TextEditUtil.apply(cu.getSource(), edit.getChanges().get(JDTUtils.toURI(cu))));
+			i++;
+		}
+	}
+
 	@Test
 	public void testRenameOverrideMethodSimple() throws JavaModelException, BadLocationException {
 		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
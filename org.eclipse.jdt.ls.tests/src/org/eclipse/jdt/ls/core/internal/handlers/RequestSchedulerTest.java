@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.ls.core.internal.handlers.RequestScheduler.Lane;
+import org.eclipse.jdt.ls.core.internal.handlers.ServerMetrics.MethodMetrics;
+import org.junit.Test;
+
+public class RequestSchedulerTest {
+
+	private static final String URI = "file:///Foo.java";
+
+	@Test
+	public void testCoalesceIdenticalRequests() throws Exception {
+		RequestScheduler scheduler = new RequestScheduler();
+		CountDownLatch latch = new CountDownLatch(1);
+		AtomicInteger runs = new AtomicInteger();
+		CompletableFuture<Integer> first = scheduler.schedule("textDocument/hover", Lane.INTERACTIVE, "params", URI, monitor -> {
+			await(latch);
+			return runs.incrementAndGet();
+		});
+		CompletableFuture<Integer> second = scheduler.schedule("textDocument/hover", Lane.INTERACTIVE, "params", URI, monitor -> runs.incrementAndGet());
+		// cancelling one of the requests doesn't cancel the shared computation
+		first.cancel(true);
+		latch.countDown();
+		assertEquals(1, second.get(10, TimeUnit.SECONDS).intValue());
+		assertEquals(1, runs.get());
+		assertEquals(1, scheduler.getMetrics().getMethodMetrics("textDocument/hover").getCoalescedCount());
+	}
+
+	@Test
+	public void testDropStaleRequests() throws Exception {
+		RequestScheduler scheduler = new RequestScheduler();
+		CountDownLatch latch = new CountDownLatch(1);
+		// keep the background lane busy
+		CompletableFuture<?> busy1 = scheduler.schedule("textDocument/references", Lane.BACKGROUND, monitor -> await(latch));
+		CompletableFuture<?> busy2 = scheduler.schedule("textDocument/references", Lane.BACKGROUND, monitor -> await(latch));
+		CompletableFuture<String> stale = scheduler.schedule("textDocument/codeLens", Lane.BACKGROUND, "params", URI, monitor -> "stale");
+		scheduler.documentChanged(URI);
+		CompletableFuture<String> current = scheduler.schedule("textDocument/codeLens", Lane.BACKGROUND, "params", URI, monitor -> "current");
+
+		// interactive requests don't wait for the background ones
+		assertEquals("hover", scheduler.schedule("textDocument/hover", Lane.INTERACTIVE, monitor -> "hover").get(10, TimeUnit.SECONDS));
+		assertFalse(stale.isDone());
+
+		latch.countDown();
+		busy1.get(10, TimeUnit.SECONDS);
+		busy2.get(10, TimeUnit.SECONDS);
+		assertEquals("current", current.get(10, TimeUnit.SECONDS));
+		try {
+			stale.get(10, TimeUnit.SECONDS);
+			fail("The stale request wasn't dropped");
+		} catch (CancellationException e) {
+			// expected
+		}
+		assertEquals(1, scheduler.getMetrics().getMethodMetrics("textDocument/codeLens").getDroppedCount());
+	}
+
+	@Test
+	public void testForgetClosedDocuments() throws Exception {
+		RequestScheduler scheduler = new RequestScheduler();
+		CountDownLatch latch = new CountDownLatch(1);
+		// keep the background lane busy
+		CompletableFuture<?> busy1 = scheduler.schedule("textDocument/references", Lane.BACKGROUND, monitor -> await(latch));
+		CompletableFuture<?> busy2 = scheduler.schedule("textDocument/references", Lane.BACKGROUND, monitor -> await(latch));
+		CompletableFuture<String> stale = scheduler.schedule("textDocument/codeLens", Lane.BACKGROUND, "params", URI, monitor -> "stale");
+		assertEquals(1, scheduler.getDocumentCount());
+		scheduler.documentClosed(URI);
+		assertEquals(0, scheduler.getDocumentCount());
+		// the document is reopened
+		CompletableFuture<String> current = scheduler.schedule("textDocument/codeLens", Lane.BACKGROUND, "params", URI, monitor -> "current");
+
+		latch.countDown();
+		busy1.get(10, TimeUnit.SECONDS);
+		busy2.get(10, TimeUnit.SECONDS);
+		assertEquals("current", current.get(10, TimeUnit.SECONDS));
+		try {
+			stale.get(10, TimeUnit.SECONDS);
+			fail("The request on the closed document wasn't dropped");
+		} catch (CancellationException e) {
+			// expected
+		}
+		assertEquals(1, scheduler.getMetrics().getMethodMetrics("textDocument/codeLens").getDroppedCount());
+	}
+
+	@Test
+	public void testRecordErrors() throws Exception {
+		RequestScheduler scheduler = new RequestScheduler();
+		CompletableFuture<String> failed = scheduler.schedule("textDocument/rename", Lane.INTERACTIVE, monitor -> {
+			throw new IllegalStateException();
+		});
+		try {
+			failed.get(10, TimeUnit.SECONDS);
+			fail("The request didn't fail");
+		} catch (ExecutionException e) {
+			// expected
+		}
+		MethodMetrics metrics = scheduler.getMetrics().getMethodMetrics("textDocument/rename");
+		assertEquals(1, metrics.getCount());
+		assertEquals(1, metrics.getErrorCount());
+		assertEquals(0, metrics.getCancelledCount());
+		assertEquals(1, scheduler.getMetrics().getReport().methods.get("textDocument/rename").executionTime.count);
+	}
+
+	private static boolean await(CountDownLatch latch) {
+		try {
+			return latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			return false;
+		}
+	}
+}
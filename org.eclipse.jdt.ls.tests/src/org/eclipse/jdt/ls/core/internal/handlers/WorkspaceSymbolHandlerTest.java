@@ -18,7 +18,12 @@ import static org.mockito.Mockito.when;
 
 import java.util.List;
 
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
 import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.Range;
@@ -130,4 +135,47 @@ public class WorkspaceSymbolHandlerTest extends AbstractProjectsManagerBasedTest
 		assertTrue("Did not find "+className, foundClass);
 	}
 
+	@Test
+	public void testRanking() {
+		List<SymbolInformation> results = handler.search("HashMap", monitor);
+		assertEquals("HashMap", results.get(0).getName());
+
+		// no prefix nor camel case match, so fuzzy matches are returned
+		results = handler.search("hshmap", monitor);
+		boolean foundClass = results.stream().filter(s -> "HashMap".equals(s.getName())).findFirst().isPresent();
+		assertTrue("Did not find HashMap", foundClass);
+	}
+
+	@Test
+	public void testWildcardSearch() {
+		List<SymbolInformation> results = handler.search("Hash*p", monitor);
+		assertTrue("Did not find HashMap", results.stream().anyMatch(s -> "HashMap".equals(s.getName())));
+		for (SymbolInformation symbol : results) {
+			assertTrue(symbol.getName(), symbol.getName().startsWith("Hash") && symbol.getName().endsWith("p"));
+		}
+
+		results = handler.search("h?shmap", monitor);
+		assertTrue("Did not find HashMap", results.stream().anyMatch(s -> "HashMap".equals(s.getName())));
+	}
+
+	@Test
+	public void testPackageChanges() throws Exception {
+		IJavaProject javaProject = JavaCore.create(WorkspaceHelper.getProject("hello"));
+		IPackageFragmentRoot root = javaProject.getPackageFragmentRoot(javaProject.getProject().getFolder("src"));
+		assertEquals(0, handler.search("Quux", monitor).size());
+
+		// the added package is indexed, along with the types indexed before
+		IPackageFragment pack = root.createPackageFragment("quux", false, monitor);
+		pack.createCompilationUnit("Quux.java", "package quux;\npublic class Quux {}\n", false, monitor);
+		List<SymbolInformation> results = handler.search("Quux", monitor);
+		assertEquals(1, results.size());
+		assertEquals("quux", results.get(0).getContainerName());
+		assertEquals(1, handler.search("IFoo", monitor).size());
+
+		// and the removed package is not anymore
+		pack.delete(true, monitor);
+		assertEquals(0, handler.search("Quux", monitor).size());
+		assertEquals(1, handler.search("IFoo", monitor).size());
+	}
+
 }
@@ -11,15 +11,19 @@
 package org.eclipse.jdt.ls.core.internal.managers;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
 import java.net.URI;
+import java.nio.file.Files;
 import java.util.Arrays;
 
+import org.apache.commons.io.FileUtils;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.jdt.core.IClassFile;
 import org.eclipse.jdt.ls.core.internal.ClassFileUtil;
@@ -243,6 +247,50 @@ public class ContentProviderManagerTest extends AbstractProjectsManagerBasedTest
 		assertEquals(FakeContentProvider.returnValue, provider.getContent(sourcelessURI, monitor));
 	}
 
+	@Test
+	public void testCaching() throws Exception {
+		when(preferences.getPreferredContentProviderIds()).thenReturn(Arrays.asList("disassemblerContentProvider"));
+		ClassFileContentCache cache = provider.getContentCache();
+
+		String result = provider.getContent(sourcelessURI, monitor);
+		assertTrue("disassembler header is missing from " + result, result.startsWith(DisassemblerContentProvider.DISASSEMBLED_HEADER));
+		assertEquals(0, cache.getHitCount());
+
+		// the decompiling and disassembling contents are shared
+		ClassFileContent content = provider.getSourceContent(sourcelessClassFile, monitor);
+		assertEquals(1, cache.getHitCount());
+		assertEquals(result, content.getText());
+		assertEquals(result.indexOf('\n') + 1, content.getOffset(1, 0));
+		assertEquals(-1, content.getOffset(Integer.MAX_VALUE, 0));
+	}
+
+	@Test
+	public void testNoCachedContentOfInvalidProvider() throws Exception {
+		when(preferences.getPreferredContentProviderIds()).thenReturn(Arrays.asList("placeholderContentProvider"));
+		// the placeholder isn't a content provider, its content must never be served
+		String key = ClassFileContentCache.getKey(sourceAvailableClassFile, "placeholderContentProvider");
+		assertNotNull(key);
+		provider.getContentCache().put(key, "invalid");
+
+		assertNotEquals("invalid", provider.getContent(sourceAvailableURI, monitor));
+		expectLoggedError("Unable to load IContentProvider class for placeholderContentProvider");
+	}
+
+	@Test
+	public void testDiskCaching() throws Exception {
+		when(preferences.getPreferredContentProviderIds()).thenReturn(Arrays.asList("disassemblerContentProvider"));
+		File stateLocation = Files.createTempDirectory("contents").toFile();
+		try {
+			String result = new ContentProviderManager(preferenceManager, stateLocation).getContent(sourcelessURI, monitor);
+
+			ContentProviderManager restarted = new ContentProviderManager(preferenceManager, stateLocation);
+			assertEquals(result, restarted.getContent(sourcelessURI, monitor));
+			assertEquals(1, restarted.getContentCache().getHitCount());
+		} finally {
+			FileUtils.deleteDirectory(stateLocation);
+		}
+	}
+
 	private void expectLoggedError(String expected) {
 		assertTrue("expected error " + expected, logListener.getErrors().stream().filter(e -> e.contains(expected)).findAny().isPresent());
 	}
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DigestStoreTest {
+
+	private File stateLocation;
+	private Path buildFile;
+
+	@Before
+	public void setUp() throws Exception {
+		stateLocation = Files.createTempDirectory("digests").toFile();
+		buildFile = new File(stateLocation, "pom.xml").toPath();
+		Files.write(buildFile, "<project/>".getBytes(StandardCharsets.UTF_8));
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		FileUtils.deleteDirectory(stateLocation);
+	}
+
+	@Test
+	public void testUpdateDigest() throws Exception {
+		DigestStore store = new DigestStore(stateLocation);
+		assertTrue(store.updateDigest(buildFile));
+		assertFalse(store.updateDigest(buildFile));
+
+		// same content, new timestamp
+		Files.setLastModifiedTime(buildFile, FileTime.fromMillis(Files.getLastModifiedTime(buildFile).toMillis() - 10000));
+		assertFalse(store.updateDigest(buildFile));
+
+		Files.write(buildFile, "<project></project>".getBytes(StandardCharsets.UTF_8));
+		assertTrue(store.updateDigest(buildFile));
+		assertFalse(store.updateDigest(buildFile));
+	}
+
+	@Test
+	public void testDigestsArePersisted() throws Exception {
+		DigestStore store = new DigestStore(stateLocation);
+		assertTrue(store.updateDigest(buildFile));
+		assertFalse(new DigestStore(stateLocation).updateDigest(buildFile));
+
+		Files.write(buildFile, "<project></project>".getBytes(StandardCharsets.UTF_8));
+		assertTrue(store.updateDigest(buildFile));
+		store.compact();
+		assertFalse(new DigestStore(stateLocation).updateDigest(buildFile));
+	}
+
+	@Test
+	public void testBatch() throws Exception {
+		DigestStore store = new DigestStore(stateLocation);
+		store.beginBatch();
+		assertTrue(store.updateDigest(buildFile));
+		// nothing is written until the end of the batch
+		assertFalse(new File(stateLocation, ".file-digests.bin").exists());
+		store.endBatch();
+		assertFalse(new DigestStore(stateLocation).updateDigest(buildFile));
+	}
+
+	@Test
+	public void testMigrateLegacyDigests() throws Exception {
+		HashMap<String, String> legacyDigests = new HashMap<>();
+		byte[] digest = MessageDigest.getInstance("MD5").digest(Files.readAllBytes(buildFile));
+		legacyDigests.put(buildFile.toString(), Arrays.toString(digest));
+		File legacyFile = new File(stateLocation, ".file-digests");
+		try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(legacyFile))) {
+			out.writeObject(legacyDigests);
+		}
+
+		DigestStore store = new DigestStore(stateLocation);
+		assertFalse(legacyFile.exists());
+		assertFalse(store.updateDigest(buildFile));
+		assertFalse(new DigestStore(stateLocation).updateDigest(buildFile));
+	}
+
+	@Test
+	public void testConcurrentUpdates() throws Exception {
+		DigestStore store = new DigestStore(stateLocation);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Callable<Boolean>> updates = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				updates.add(() -> store.updateDigest(buildFile));
+			}
+			int changed = 0;
+			for (Future<Boolean> future : executor.invokeAll(updates)) {
+				if (future.get()) {
+					changed++;
+				}
+			}
+			assertEquals(1, changed);
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -15,8 +15,10 @@ import static org.eclipse.jdt.ls.core.internal.ResourceUtils.getContent;
 import static org.eclipse.jdt.ls.core.internal.ResourceUtils.setContent;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 
 import java.net.URI;
+import java.util.Arrays;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -67,6 +69,30 @@ public class MavenBuildSupportTest extends AbstractMavenBasedTest {
 		assertNoErrors(project);
 	}
 
+	@Test
+	public void testUpdateProjects() throws Exception {
+		importProjects("maven/multi");
+		IProject project1 = WorkspaceHelper.getProject("project1");
+		IProject project2 = WorkspaceHelper.getProject("project2");
+		assertIsMavenProject(project1);
+		assertIsMavenProject(project2);
+		assertNotEquals("1.8", getJavaSourceLevel(project1));
+		assertNotEquals("1.8", getJavaSourceLevel(project2));
+
+		for (IProject project : Arrays.asList(project1, project2)) {
+			URI pomUri = project.getFile("pom.xml").getRawLocationURI();
+			String pom = getContent(pomUri);
+			setContent(pomUri, pom.replace("</version>", "</version><properties><maven.compiler.source>1.8</maven.compiler.source><maven.compiler.target>1.8</maven.compiler.target></properties>"));
+		}
+		assertEquals(2, new MavenBuildSupport().update(Arrays.asList(project1, project2), false, monitor));
+		waitForBackgroundJobs();
+		assertEquals("1.8", getJavaSourceLevel(project1));
+		assertEquals("1.8", getJavaSourceLevel(project2));
+
+		// the projects whose pom didn't change since are skipped
+		assertEquals(0, new MavenBuildSupport().update(Arrays.asList(project1, project2), false, monitor));
+	}
+
 	@Test
 	public void testCompileWithErrorProne() throws Exception {
 		testNonStandardCompilerId("compile-with-error-prone");
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProjectDiscoveryTest {
+
+	private File stateLocation;
+	private Path root;
+
+	@Before
+	public void setUp() throws IOException {
+		stateLocation = Files.createTempDirectory("state").toFile();
+		root = Files.createTempDirectory("projects");
+		touch("a/build.gradle");
+		touch("a/b/build.gradle");
+		touch("a/build/build.gradle");
+		touch(".metadata/pom.xml");
+		touch("c/.project");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		FileUtils.deleteDirectory(stateLocation);
+		FileUtils.deleteDirectory(root.toFile());
+	}
+
+	@Test
+	public void testDiscover() throws Exception {
+		ProjectManifest manifest = new ProjectDiscovery(stateLocation).discover(root.toFile(), null);
+		assertEquals(Arrays.asList(root.resolve("a")), manifest.getDirectories("build.gradle", false, "**/build"));
+		assertEquals(Arrays.asList(root.resolve("a"), root.resolve("a/b"), root.resolve("a/build")), manifest.getDirectories("build.gradle"));
+		assertEquals(Arrays.asList(root.resolve("c")), manifest.getDirectories(".project"));
+		// .metadata is ignored
+		assertFalse(manifest.contains("pom.xml"));
+	}
+
+	@Test
+	public void testReuseManifest() throws Exception {
+		ProjectDiscovery discovery = new ProjectDiscovery(stateLocation);
+		ProjectManifest manifest = discovery.discover(root.toFile(), null);
+		assertSame(manifest, discovery.discover(root.toFile(), null));
+
+		// a restarted server doesn't walk the directories again
+		ProjectManifest saved = new ProjectDiscovery(stateLocation).discover(root.toFile(), null);
+		assertEquals(manifest.getDirectories("build.gradle"), saved.getDirectories("build.gradle"));
+
+		touch("a/b/pom.xml");
+		ProjectManifest updated = discovery.discover(root.toFile(), null);
+		assertNotSame(manifest, updated);
+		assertTrue(updated.contains("pom.xml"));
+	}
+
+	private void touch(String path) throws IOException {
+		Path file = root.resolve(path);
+		Files.createDirectories(file.getParent());
+		Files.createFile(file);
+	}
+}
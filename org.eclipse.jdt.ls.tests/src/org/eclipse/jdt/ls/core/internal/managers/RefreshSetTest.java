@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.Path;
+import org.junit.Test;
+
+public class RefreshSetTest {
+
+	private IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+
+	@Test
+	public void testCollapse() {
+		RefreshSet refreshSet = new RefreshSet();
+		// deleted files refresh their parent
+		refreshSet.add(root.getFolder(new Path("/p/src/a")), IResource.DEPTH_INFINITE);
+		refreshSet.add(root.getFile(new Path("/p/src/a/b/Foo.java")), IResource.DEPTH_ZERO);
+		refreshSet.add(root.getFile(new Path("/p/src/c/Bar.java")), IResource.DEPTH_ZERO);
+		refreshSet.add(root.getFile(new Path("/p/src/c/Baz.java")), IResource.DEPTH_ZERO);
+		refreshSet.add(root.getFile(new Path("/p/src/d/Qux.java")), IResource.DEPTH_ZERO);
+		refreshSet.add(root.getFile(new Path("/p/src/d/Qux.java")), IResource.DEPTH_ZERO);
+
+		Map<IResource, Integer> expected = new LinkedHashMap<>();
+		expected.put(root.getFolder(new Path("/p/src/a")), IResource.DEPTH_INFINITE);
+		expected.put(root.getFolder(new Path("/p/src/c")), IResource.DEPTH_ONE);
+		expected.put(root.getFile(new Path("/p/src/d/Qux.java")), IResource.DEPTH_ZERO);
+		assertEquals(expected, refreshSet.getResources());
+	}
+
+	@Test
+	public void testDeeperRefreshWins() {
+		RefreshSet refreshSet = new RefreshSet();
+		refreshSet.add(root.getFolder(new Path("/p/src/a/b")), IResource.DEPTH_INFINITE);
+		refreshSet.add(root.getFolder(new Path("/p/src")), IResource.DEPTH_ONE);
+		refreshSet.add(root.getFolder(new Path("/p/src")), IResource.DEPTH_INFINITE);
+
+		Map<IResource, Integer> expected = new LinkedHashMap<>();
+		expected.put(root.getFolder(new Path("/p/src")), IResource.DEPTH_INFINITE);
+		assertEquals(expected, refreshSet.getResources());
+	}
+}